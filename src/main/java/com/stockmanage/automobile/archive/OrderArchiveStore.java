@@ -0,0 +1,102 @@
+package com.stockmanage.automobile.archive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders and their items into the archive tables, which are partitioned by
+ * month of the order date (see schema.sql). Partitions are created as the first
+ * order of their month is archived.
+ */
+@Component
+public class OrderArchiveStore {
+
+    private static final String ORDER_COLUMNS = "id, order_number, order_date, delivery_date, total_amount, " +
+            "status, payment_method, notes, customer_id, vehicle_id, created_at";
+    private static final String ITEM_COLUMNS = "id, order_id, vehicle_id, price, quantity, subtotal, " +
+            "additional_services, is_paid";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderArchiveStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Archives up to {@code limit} orders in one of the given statuses dated before
+     * {@code cutoff}, oldest first. Rows locked by other transactions are skipped, so
+     * several instances can archive at once without waiting on each other. The
+     * deleted rows are still served from the archive, so delta syncs do not report
+     * them as deleted.
+     *
+     * @return the number of orders archived
+     */
+    @Transactional
+    public int archiveBatch(Collection<String> statuses, LocalDateTime cutoff, int limit) {
+        List<Object> args = new ArrayList<>(statuses);
+        args.add(Timestamp.valueOf(cutoff));
+        args.add(limit);
+        List<Long> ids = new ArrayList<>();
+        Set<YearMonth> months = new TreeSet<>();
+        jdbcTemplate.query(
+                "SELECT id, order_date FROM orders WHERE status IN (" + placeholders(statuses.size()) + ") " +
+                "AND order_date < ? ORDER BY order_date LIMIT ? FOR UPDATE SKIP LOCKED",
+                rs -> {
+                    ids.add(rs.getLong("id"));
+                    months.add(YearMonth.from(rs.getTimestamp("order_date").toLocalDateTime()));
+                },
+                args.toArray());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        months.forEach(this::createPartitions);
+
+        String in = "(" + placeholders(ids.size()) + ")";
+        Object[] idArgs = ids.toArray();
+        jdbcTemplate.update("INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_at) " +
+                "SELECT " + ORDER_COLUMNS + ", CURRENT_TIMESTAMP FROM orders WHERE id IN " + in, idArgs);
+        jdbcTemplate.update("INSERT INTO order_items_archive (" + ITEM_COLUMNS + ", order_date) " +
+                "SELECT " + prefixed("i.", ITEM_COLUMNS) + ", o.order_date FROM order_items i " +
+                "JOIN orders o ON o.id = i.order_id WHERE i.order_id IN " + in, idArgs);
+        // Read by record_tombstone() in schema.sql; reset when the transaction ends
+        jdbcTemplate.queryForObject("SELECT set_config('app.archiving', 'on', true)", String.class);
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN " + in, idArgs);
+        jdbcTemplate.update("DELETE FROM orders WHERE id IN " + in, idArgs);
+        return ids.size();
+    }
+
+    private void createPartitions(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String suffix = String.format("_p%04d%02d", month.getYear(), month.getMonthValue());
+        for (String table : List.of("orders_archive", "order_items_archive")) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + suffix + " PARTITION OF " + table +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String prefixed(String prefix, String columns) {
+        return List.of(columns.split(", ")).stream()
+                .map(column -> prefix + column)
+                .collect(Collectors.joining(", "));
+    }
+}
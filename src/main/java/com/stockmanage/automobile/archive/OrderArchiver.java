@@ -0,0 +1,117 @@
+package com.stockmanage.automobile.archive;
+
+import com.stockmanage.automobile.model.Order;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that moves closed orders (delivered or cancelled) older than
+ * {@code order.archive.after-months} into the archive tables, keeping the live
+ * {@code orders} table down to recent and open orders.
+ *
+ * <p>Every archived order is older than {@link #cutoff()}, so readers only need to
+ * look in the archive for closed orders, or for date ranges that start before the
+ * cutoff. The cutoff is derived from configuration rather than from what has been
+ * archived, so every instance agrees on it; {@code after-months} must therefore
+ * never be raised once orders have been archived with a lower value.
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    public static final Set<Order.OrderStatus> CLOSED_STATUSES =
+            Set.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private final OrderArchiveStore archiveStore;
+    private final boolean enabled;
+    private final int afterMonths;
+    private final Duration interval;
+    private final int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OrderArchiver(OrderArchiveStore archiveStore,
+                         @Value("${order.archive.enabled:false}") boolean enabled,
+                         @Value("${order.archive.after-months:12}") int afterMonths,
+                         @Value("${order.archive.interval:1h}") Duration interval,
+                         @Value("${order.archive.batch-size:500}") int batchSize) {
+        this.archiveStore = archiveStore;
+        this.enabled = enabled;
+        this.afterMonths = afterMonths;
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Orders dated before this may have been archived; later ones are all in {@code orders}.
+     */
+    public LocalDateTime cutoff() {
+        return LocalDate.now().minusMonths(afterMonths).atStartOfDay();
+    }
+
+    public static boolean isClosed(Order.OrderStatus status) {
+        return CLOSED_STATUSES.contains(status);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archive, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Order archiver started: closed orders older than {} months, every {}", afterMonths, interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archives batch after batch until no eligible order is left.
+     *
+     * @return the number of orders archived
+     */
+    public int archive() {
+        List<String> statuses = CLOSED_STATUSES.stream().map(Enum::name).sorted().toList();
+        LocalDateTime cutoff = cutoff();
+        int total = 0;
+        try {
+            int archived;
+            do {
+                archived = archiveStore.archiveBatch(statuses, cutoff, batchSize);
+                total += archived;
+            } while (archived == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            logger.error("Order archiving failed after {} orders; will retry on the next run", total, e);
+        }
+        if (total > 0) {
+            logger.info("Archived {} orders dated before {}", total, cutoff);
+        }
+        return total;
+    }
+}
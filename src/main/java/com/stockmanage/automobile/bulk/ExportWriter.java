@@ -0,0 +1,143 @@
+package com.stockmanage.automobile.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes exported records to an output stream one at a time, as NDJSON (one JSON
+ * document per line) or CSV. Nothing is buffered beyond the underlying writer, so
+ * memory use does not depend on how many records are written.
+ */
+public abstract class ExportWriter<T> implements Flushable {
+
+    /**
+     * @param columns CSV header
+     * @param rows    CSV rows for one record, each with one value per column; a
+     *                record may span several rows (an order with its items)
+     */
+    public static <T> ExportWriter<T> open(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                                           List<String> columns, Function<T, List<List<Object>>> rows)
+            throws IOException {
+        return format == ExportFormat.CSV
+                ? new CsvWriter<>(out, columns, rows)
+                : new NdjsonWriter<>(out, objectMapper);
+    }
+
+    /**
+     * Writes every element of {@code source}, flushing the output and running
+     * {@code afterBatch} (typically clearing the persistence context) every
+     * {@code batchSize} records. Returns the number of records written.
+     */
+    public <E> long writeAll(Stream<E> source, Function<E, T> mapper, int batchSize, Runnable afterBatch)
+            throws IOException {
+        long count = 0;
+        Iterator<E> it = source.iterator();
+        while (it.hasNext()) {
+            write(mapper.apply(it.next()));
+            if (++count % batchSize == 0) {
+                flush();
+                afterBatch.run();
+            }
+        }
+        flush();
+        return count;
+    }
+
+    /**
+     * Writes one record. I/O failures are rethrown unchecked so that this can be
+     * used from a stream pipeline.
+     */
+    public abstract void write(T record);
+
+    private static class NdjsonWriter<T> extends ExportWriter<T> {
+
+        private final ObjectMapper objectMapper;
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Records are separated by newlines only, not the default space
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(T record) {
+            try {
+                objectMapper.writeValue(generator, record);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvWriter<T> extends ExportWriter<T> {
+
+        private final Writer writer;
+        private final Function<T, List<List<Object>>> rows;
+
+        CsvWriter(OutputStream out, List<String> columns, Function<T, List<List<Object>>> rows) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.rows = rows;
+            writeRow(List.copyOf(columns));
+        }
+
+        @Override
+        public void write(T record) {
+            try {
+                for (List<Object> row : rows.apply(record)) {
+                    writeRow(row);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeRow(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values.get(i);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+        }
+    }
+}
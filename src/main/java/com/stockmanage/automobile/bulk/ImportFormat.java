@@ -0,0 +1,34 @@
+package com.stockmanage.automobile.bulk;
+
+/**
+ * Upload formats accepted by the bulk vehicle import.
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Picks the format from an explicit {@code format} parameter if given, otherwise
+     * from the request content type.
+     *
+     * @throws IllegalArgumentException if neither names a supported format
+     */
+    public static ImportFormat resolve(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported import format: " + format);
+            }
+        }
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        if (type.contains("csv")) {
+            return CSV;
+        }
+        if (type.contains("ndjson") || type.contains("jsonl") || type.contains("json-stream")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + contentType
+                + " (expected text/csv or application/x-ndjson)");
+    }
+}
@@ -0,0 +1,224 @@
+package com.stockmanage.automobile.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads vehicles one at a time from a CSV or NDJSON upload, so that an import
+ * never holds more than the current record in memory. A record that cannot be
+ * parsed is returned with an error instead of aborting the whole upload.
+ */
+public abstract class VehicleRecordReader implements Closeable {
+
+    protected final BufferedReader reader;
+    protected final ObjectMapper objectMapper;
+    protected long line;
+
+    protected VehicleRecordReader(InputStream in, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.objectMapper = objectMapper;
+    }
+
+    public static VehicleRecordReader open(InputStream in, ImportFormat format, ObjectMapper objectMapper)
+            throws IOException {
+        return format == ImportFormat.CSV
+                ? new CsvReader(in, objectMapper)
+                : new NdjsonReader(in, objectMapper);
+    }
+
+    /**
+     * Returns the next record, or {@code null} at the end of the input.
+     */
+    public abstract VehicleRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    protected static String describe(Exception e) {
+        Throwable cause = e;
+        while (cause != null && !(cause instanceof JsonProcessingException)) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof InvalidFormatException invalid && !invalid.getPath().isEmpty()) {
+            return "Invalid value '" + invalid.getValue() + "' for "
+                    + invalid.getPath().get(invalid.getPath().size() - 1).getFieldName();
+        }
+        if (cause instanceof JsonProcessingException json) {
+            return json.getOriginalMessage();
+        }
+        return e.getMessage();
+    }
+
+    /**
+     * One parsed upload row; {@code line} is where it starts in the input.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VehicleRecord {
+        private final long line;
+        private final VehicleDTO vehicle;
+        private final String error;
+    }
+
+    private static class NdjsonReader extends VehicleRecordReader {
+
+        NdjsonReader(InputStream in, ObjectMapper objectMapper) {
+            super(in, objectMapper);
+        }
+
+        @Override
+        public VehicleRecord next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new VehicleRecord(line, objectMapper.readValue(text, VehicleDTO.class), null);
+                } catch (IOException e) {
+                    return new VehicleRecord(line, null, describe(e));
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming {@link VehicleDTO} properties, matched
+     * case-insensitively and ignoring underscores (so {@code vehicle_year} works).
+     * Quoted fields may contain commas, quotes ({@code ""}) and line breaks.
+     */
+    private static class CsvReader extends VehicleRecordReader {
+
+        private static final Map<String, String> COLUMNS = new HashMap<>();
+
+        static {
+            for (String property : List.of("id", "make", "model", "vehicleYear", "vin", "color", "price",
+                    "mileage", "fuelType", "transmissionType", "engineSize", "available",
+                    "acquisitionDate", "description", "imageUrl")) {
+                COLUMNS.put(normalize(property), property);
+            }
+            COLUMNS.put("year", "vehicleYear");
+        }
+
+        private final String[] header;
+
+        CsvReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+            super(in, objectMapper);
+            List<String> names = readFields();
+            if (names == null) {
+                throw new IllegalArgumentException("CSV upload is empty");
+            }
+            header = new String[names.size()];
+            for (int i = 0; i < names.size(); i++) {
+                String property = COLUMNS.get(normalize(names.get(i)));
+                if (property == null) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + names.get(i));
+                }
+                header[i] = property;
+            }
+        }
+
+        @Override
+        public VehicleRecord next() throws IOException {
+            List<String> fields;
+            long start;
+            do {
+                start = line + 1;
+                fields = readFields();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            if (fields.size() != header.length) {
+                return new VehicleRecord(start, null,
+                        "Expected " + header.length + " columns but found " + fields.size());
+            }
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                String value = fields.get(i).trim();
+                if (value.isEmpty() || header[i].equals("id")) {
+                    continue;
+                }
+                if (header[i].equals("fuelType") || header[i].equals("transmissionType")) {
+                    value = value.toUpperCase(Locale.ROOT);
+                }
+                values.put(header[i], value);
+            }
+            try {
+                return new VehicleRecord(start, objectMapper.convertValue(values, VehicleDTO.class), null);
+            } catch (IllegalArgumentException e) {
+                return new VehicleRecord(start, null, describe(e));
+            }
+        }
+
+        private List<String> readFields() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field starting before line " + (line + 1));
+                    }
+                    if (c == '"') {
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = peek;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+
+        private static String normalize(String name) {
+            return name.replace("\uFEFF", "").trim().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.stockmanage.automobile.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A size-bounded, thread-safe LRU map with optional time-to-live and
+ * hit/miss/eviction/expiration counters.
+ *
+ * <p>Every invalidation advances a generation number. Callers that load a value
+ * outside the lock take the generation first and store the result with
+ * {@link #putIfGeneration}, so a load that raced with a write is dropped instead
+ * of re-caching the old state.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private long generation;
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param ttl how long an entry stays fresh after it was written; {@code null}
+     *            or zero keeps entries until they are evicted or invalidated
+     */
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl == null || ttl.isNegative() ? 0 : ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or {@code null} when it is absent or has expired.
+     * Expired entries are dropped.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && isExpired(entry)) {
+            entries.remove(key);
+            expirations.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached entry even if it has expired, leaving the caller to decide
+     * whether a stale value is good enough. Returns {@code null} when absent.
+     */
+    public synchronized Lookup<V> lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        boolean expired = isExpired(entry);
+        if (expired) {
+            expirations.incrementAndGet();
+        }
+        return new Lookup<>(entry.value, expired);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Stores the value only if nothing was invalidated since {@code expected} was
+     * read from {@link #generation()}.
+     */
+    public synchronized boolean putIfGeneration(K key, V value, long expected) {
+        if (generation != expected) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry matching the predicate and returns how many were removed.
+     */
+    public synchronized int invalidateIf(BiPredicate<? super K, ? super V> test) {
+        return replaceIf(test, value -> null);
+    }
+
+    /**
+     * Replaces every entry matching the predicate with the result of the function,
+     * removing it when the function returns {@code null}. The write time of
+     * replaced entries is kept.
+     */
+    public synchronized int replaceIf(BiPredicate<? super K, ? super V> test, UnaryOperator<V> replacement) {
+        generation++;
+        int changed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (test.test(e.getKey(), e.getValue().value)) {
+                V next = replacement.apply(e.getValue().value);
+                if (next == null) {
+                    it.remove();
+                } else {
+                    e.setValue(new Entry<>(next, e.getValue().writtenAt));
+                }
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && System.nanoTime() - entry.writtenAt > ttlNanos;
+    }
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+
+    /**
+     * A cached value together with whether its time-to-live has passed.
+     */
+    public record Lookup<V>(V value, boolean expired) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.stockmanage.automobile.cache;
+
+import com.stockmanage.automobile.dto.CacheStatsDTO;
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache in front of the vehicle catalog queries.
+ *
+ * <p>Single vehicles are cached by id. List results are cached under a key
+ * describing the query, together with the filter the query applies and the ids
+ * it returned. When vehicles change, a list is invalidated if it contained one of
+ * them or if the new state of one of them now matches its filter, so unrelated
+ * lists stay cached.
+ *
+ * <p>In {@link ListMode#STALE_WHILE_REVALIDATE} mode invalidated or expired lists
+ * keep being served while a background thread reloads them.
+ */
+@Component
+public class VehicleCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleCatalogCache.class);
+
+    public enum ListMode {
+        STRICT,
+        STALE_WHILE_REVALIDATE
+    }
+
+    private final BoundedCache<Long, VehicleDTO> vehicles;
+    private final BoundedCache<String, CachedList> lists;
+    private final ListMode listMode;
+    private final ExecutorService refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public VehicleCatalogCache(@Value("${vehicle.cache.max-entries:10000}") int maxEntries,
+                               @Value("${vehicle.cache.list-max-entries:500}") int maxListEntries,
+                               @Value("${vehicle.cache.ttl:10m}") Duration ttl,
+                               @Value("${vehicle.cache.list-mode:STRICT}") ListMode listMode) {
+        this.vehicles = new BoundedCache<>(maxEntries, ttl);
+        this.lists = new BoundedCache<>(maxListEntries, ttl);
+        this.listMode = listMode;
+        this.refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "vehicle-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Builds a list cache key from a query name and its arguments.
+     */
+    public static String key(String query, Object... args) {
+        StringJoiner joiner = new StringJoiner("|", query + ":", "");
+        for (Object arg : args) {
+            joiner.add(String.valueOf(arg));
+        }
+        return joiner.toString();
+    }
+
+    public VehicleDTO getVehicle(Long id, Function<Long, VehicleDTO> loader) {
+        VehicleDTO cached = vehicles.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = vehicles.generation();
+        VehicleDTO loaded = loader.apply(id);
+        vehicles.putIfGeneration(id, loaded, generation);
+        return loaded;
+    }
+
+    public List<VehicleDTO> getList(String key, Predicate<VehicleDTO> filter, Supplier<List<VehicleDTO>> loader) {
+        return lookup(key, filter, () -> List.copyOf(loader.get()), Function.identity());
+    }
+
+    public CursorPage<VehicleDTO> getPage(String key, Predicate<VehicleDTO> filter,
+                                          Supplier<CursorPage<VehicleDTO>> loader) {
+        return lookup(key, filter, loader, CursorPage::getItems);
+    }
+
+    /**
+     * Applies committed vehicle changes: fresh states replace the cached vehicles,
+     * removed ids are dropped, and affected lists are invalidated or marked stale.
+     */
+    public void onVehiclesChanged(Collection<VehicleDTO> current, Collection<Long> removed) {
+        for (VehicleDTO vehicle : current) {
+            vehicles.invalidate(vehicle.getId());
+            vehicles.put(vehicle.getId(), vehicle);
+        }
+        for (Long id : removed) {
+            vehicles.invalidate(id);
+        }
+
+        Set<Long> changedIds = current.stream().map(VehicleDTO::getId).collect(Collectors.toSet());
+        changedIds.addAll(removed);
+        Predicate<CachedList> affected = list -> list.ids.stream().anyMatch(changedIds::contains)
+                || current.stream().anyMatch(list.filter);
+
+        if (listMode == ListMode.STALE_WHILE_REVALIDATE) {
+            lists.replaceIf((key, list) -> affected.test(list), CachedList::markStale);
+        } else {
+            lists.invalidateIf((key, list) -> affected.test(list));
+        }
+    }
+
+    public void invalidateAll() {
+        vehicles.invalidateAll();
+        lists.invalidateAll();
+    }
+
+    public ListMode getListMode() {
+        return listMode;
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        return List.of(CacheStatsDTO.of("vehicles", vehicles), CacheStatsDTO.of("vehicle-lists", lists));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(String key, Predicate<VehicleDTO> filter, Supplier<T> loader,
+                         Function<T, List<VehicleDTO>> itemsOf) {
+        BoundedCache.Lookup<CachedList> hit = lists.lookup(key);
+        if (hit != null) {
+            boolean stale = hit.expired() || hit.value().stale;
+            if (!stale) {
+                return (T) hit.value().value;
+            }
+            if (listMode == ListMode.STALE_WHILE_REVALIDATE) {
+                refreshAsync(key, filter, loader, itemsOf);
+                return (T) hit.value().value;
+            }
+        }
+        return load(key, filter, loader, itemsOf);
+    }
+
+    private <T> T load(String key, Predicate<VehicleDTO> filter, Supplier<T> loader,
+                       Function<T, List<VehicleDTO>> itemsOf) {
+        long generation = lists.generation();
+        T value = loader.get();
+        Set<Long> ids = itemsOf.apply(value).stream().map(VehicleDTO::getId).collect(Collectors.toSet());
+        lists.putIfGeneration(key, new CachedList(value, filter, ids, false), generation);
+        return value;
+    }
+
+    private <T> void refreshAsync(String key, Predicate<VehicleDTO> filter, Supplier<T> loader,
+                                  Function<T, List<VehicleDTO>> itemsOf) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, filter, loader, itemsOf);
+                } catch (Exception e) {
+                    logger.warn("Background refresh of vehicle list {} failed", key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private static final class CachedList {
+        private final Object value;
+        private final Predicate<VehicleDTO> filter;
+        private final Set<Long> ids;
+        private final boolean stale;
+
+        private CachedList(Object value, Predicate<VehicleDTO> filter, Set<Long> ids, boolean stale) {
+            this.value = value;
+            this.filter = filter;
+            this.ids = ids;
+            this.stale = stale;
+        }
+
+        private CachedList markStale() {
+            return new CachedList(value, filter, ids, true);
+        }
+    }
+}
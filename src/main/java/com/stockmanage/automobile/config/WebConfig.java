@@ -0,0 +1,47 @@
+package com.stockmanage.automobile.config;
+
+import com.stockmanage.automobile.sync.ChangeTracker;
+import com.stockmanage.automobile.sync.ETagInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+import static com.stockmanage.automobile.sync.ChangeTracker.MAINTENANCE;
+import static com.stockmanage.automobile.sync.ChangeTracker.ORDERS;
+import static com.stockmanage.automobile.sync.ChangeTracker.USERS;
+import static com.stockmanage.automobile.sync.ChangeTracker.VEHICLES;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ChangeTracker changeTracker;
+
+    @Autowired
+    public WebConfig(ChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Each API is tagged by the tables its responses are built from
+        addETags(registry, "/api/vehicles", List.of(VEHICLES));
+        addETags(registry, "/api/users", List.of(USERS));
+        addETags(registry, "/api/orders", List.of(ORDERS, USERS, VEHICLES));
+        addETags(registry, "/api/maintenance", List.of(MAINTENANCE, VEHICLES));
+    }
+
+    private void addETags(InterceptorRegistry registry, String basePath, List<String> tables) {
+        registry.addInterceptor(new ETagInterceptor(changeTracker, tables))
+                .addPathPatterns(basePath, basePath + "/**")
+                // Delta syncs carry their own cursor; exports are downloads; cache stats,
+                // facet counts and intake tickets live in memory and can change without a
+                // table write; due service moves with the date and its stream is an event feed;
+                // maintenance plans and their run progress are kept in untracked tables
+                .excludePathPatterns(basePath + "/changes", basePath + "/export", basePath + "/cache/**",
+                        basePath + "/facets/**", basePath + "/intake/**", basePath + "/due/**",
+                        basePath + "/plans/**", basePath + "/forecast/**");
+    }
+}
@@ -0,0 +1,26 @@
+package com.stockmanage.automobile.controller;
+
+import com.stockmanage.automobile.dto.SalesVelocityDTO;
+import com.stockmanage.automobile.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+    
+    private final AnalyticsService analyticsService;
+    
+    @Autowired
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+    
+    @GetMapping("/velocity")
+    public ResponseEntity<SalesVelocityDTO> getSalesVelocity(
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(analyticsService.getSalesVelocity(refresh));
+    }
+}
@@ -1,15 +1,24 @@
 package com.stockmanage.automobile.controller;
 
+import com.stockmanage.automobile.bulk.ExportFormat;
 import com.stockmanage.automobile.dto.MaintenanceDTO;
+import com.stockmanage.automobile.exception.InvalidCursorException;
 import com.stockmanage.automobile.model.Maintenance;
+import com.stockmanage.automobile.service.MaintenanceForecastService;
 import com.stockmanage.automobile.service.MaintenanceService;
+import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Collections;
@@ -25,23 +34,59 @@ public class MaintenanceController {
     private static final Logger logger = LoggerFactory.getLogger(MaintenanceController.class);
     
     private final MaintenanceService maintenanceService;
+    private final MaintenanceForecastService forecastService;
     
     @Autowired
-    public MaintenanceController(MaintenanceService maintenanceService) {
+    public MaintenanceController(MaintenanceService maintenanceService,
+                                 MaintenanceForecastService forecastService) {
         this.maintenanceService = maintenanceService;
+        this.forecastService = forecastService;
     }
     
     @GetMapping
-    public ResponseEntity<?> getAllMaintenance() {
+    public ResponseEntity<?> getAllMaintenance(@RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(maintenanceService.getAllMaintenance(after, limit));
+            }
             List<MaintenanceDTO> maintenance = maintenanceService.getAllMaintenance();
             return ResponseEntity.ok(maintenance);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching all maintenance records", e);
             return ResponseEntity.ok(Collections.emptyList()); // Return empty list instead of error
         }
     }
     
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMaintenance(@RequestParam(required = false) String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.resolve(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        
+        StreamingResponseBody body = out -> maintenanceService.exportMaintenance(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"maintenance." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<?> getMaintenanceChanges(@RequestParam(required = false) String since,
+                                                   @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(maintenanceService.getMaintenanceChanges(since, limit));
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getMaintenanceById(@PathVariable Long id) {
         try {
@@ -55,10 +100,17 @@ public class MaintenanceController {
     }
     
     @GetMapping("/vehicle/{vehicleId}")
-    public ResponseEntity<?> getMaintenanceByVehicleId(@PathVariable Long vehicleId) {
+    public ResponseEntity<?> getMaintenanceByVehicleId(@PathVariable Long vehicleId,
+                                                       @RequestParam(required = false) String after,
+                                                       @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(maintenanceService.getMaintenanceByVehicleId(vehicleId, after, limit));
+            }
             List<MaintenanceDTO> maintenance = maintenanceService.getMaintenanceByVehicleId(vehicleId);
             return ResponseEntity.ok(maintenance);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching maintenance records for vehicle: " + vehicleId, e);
             return ResponseEntity.ok(Collections.emptyList()); // Return empty list instead of error
@@ -66,10 +118,17 @@ public class MaintenanceController {
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<?> getMaintenanceByStatus(@PathVariable Maintenance.MaintenanceStatus status) {
+    public ResponseEntity<?> getMaintenanceByStatus(@PathVariable Maintenance.MaintenanceStatus status,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(maintenanceService.getMaintenanceByStatus(status, after, limit));
+            }
             List<MaintenanceDTO> maintenance = maintenanceService.getMaintenanceByStatus(status);
             return ResponseEntity.ok(maintenance);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching maintenance records with status: " + status, e);
             return ResponseEntity.ok(Collections.emptyList()); // Return empty list instead of error
@@ -79,10 +138,17 @@ public class MaintenanceController {
     @GetMapping("/date-range")
     public ResponseEntity<?> getMaintenanceByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(maintenanceService.getMaintenanceByDateRange(startDate, endDate, after, limit));
+            }
             List<MaintenanceDTO> maintenance = maintenanceService.getMaintenanceByDateRange(startDate, endDate);
             return ResponseEntity.ok(maintenance);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching maintenance records in date range", e);
             return ResponseEntity.ok(Collections.emptyList()); // Return empty list instead of error
@@ -92,16 +158,72 @@ public class MaintenanceController {
     @GetMapping("/upcoming")
     public ResponseEntity<?> getUpcomingMaintenance(
             @RequestParam(defaultValue = "#{T(java.time.LocalDate).now()}") 
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(maintenanceService.getUpcomingMaintenance(date, after, limit));
+            }
             List<MaintenanceDTO> maintenance = maintenanceService.getUpcomingMaintenance(date);
             return ResponseEntity.ok(maintenance);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching upcoming maintenance records", e);
             return ResponseEntity.ok(Collections.emptyList()); // Return empty list instead of error
         }
     }
     
+    @GetMapping("/summary")
+    public ResponseEntity<?> getMaintenanceSummaries(@RequestParam(required = false) String sort,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(maintenanceService.getMaintenanceSummaries(sort, after, limit));
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid summary request", "message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<?> rebuildMaintenanceSummaries() {
+        return ResponseEntity.ok(Map.of("vehicles", maintenanceService.rebuildMaintenanceSummaries()));
+    }
+    
+    @GetMapping("/due")
+    public ResponseEntity<?> getDueMaintenance(@RequestParam(defaultValue = "0") int days) {
+        try {
+            return ResponseEntity.ok(maintenanceService.getDueMaintenance(days));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid due-service request", "message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping(value = "/due/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDueMaintenance() {
+        return maintenanceService.subscribeToDueMaintenance();
+    }
+    
+    @GetMapping("/forecast")
+    public ResponseEntity<?> getMaintenanceForecast(@RequestParam(defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(forecastService.getMaintenanceForecast(refresh));
+    }
+    
+    @GetMapping("/forecast/vehicles/{vehicleId}")
+    public ResponseEntity<?> getVehicleForecast(@PathVariable Long vehicleId) {
+        try {
+            return ResponseEntity.ok(forecastService.getVehicleForecast(vehicleId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Vehicle not found", "message", e.getMessage()));
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<?> createMaintenance(@RequestBody MaintenanceDTO maintenanceDTO) {
         try {
@@ -162,4 +284,14 @@ public class MaintenanceController {
                     .body(response);
         }
     }
-} 
\ No newline at end of file
+    
+    // Pagination is opt-in: without 'after' or 'limit' the full listing is returned as before
+    private boolean isPaged(String after, Integer limit) {
+        return after != null || limit != null;
+    }
+    
+    private ResponseEntity<?> invalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid cursor", "message", e.getMessage()));
+    }
+}
\ No newline at end of file
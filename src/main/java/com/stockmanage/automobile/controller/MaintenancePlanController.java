@@ -0,0 +1,105 @@
+package com.stockmanage.automobile.controller;
+
+import com.stockmanage.automobile.dto.MaintenancePlanDTO;
+import com.stockmanage.automobile.dto.MaintenancePlanRunDTO;
+import com.stockmanage.automobile.service.MaintenancePlanService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/maintenance/plans")
+@CrossOrigin(origins = "*")
+public class MaintenancePlanController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MaintenancePlanController.class);
+    
+    private final MaintenancePlanService planService;
+    
+    @Autowired
+    public MaintenancePlanController(MaintenancePlanService planService) {
+        this.planService = planService;
+    }
+    
+    @GetMapping
+    public ResponseEntity<?> getAllPlans() {
+        return ResponseEntity.ok(planService.getAllPlans());
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getPlanById(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(planService.getPlanById(id));
+        } catch (EntityNotFoundException e) {
+            return notFound(e);
+        }
+    }
+    
+    @PostMapping
+    public ResponseEntity<?> createPlan(@RequestBody MaintenancePlanDTO planDTO) {
+        try {
+            return new ResponseEntity<>(planService.createPlan(planDTO), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid maintenance plan", "message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Starts scheduling the plan's records for the vehicles matching the filter and
+     * answers 202 with the run; its progress is read from {@code GET /runs/{runId}}.
+     */
+    @PostMapping("/{id}/runs")
+    public ResponseEntity<?> applyPlan(@PathVariable Long id, @RequestBody MaintenancePlanRunDTO runDTO) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(planService.applyPlan(id, runDTO));
+        } catch (EntityNotFoundException e) {
+            return notFound(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid maintenance plan run", "message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/runs")
+    public ResponseEntity<?> getRunsByPlanId(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(planService.getRunsByPlanId(id));
+        } catch (EntityNotFoundException e) {
+            return notFound(e);
+        }
+    }
+    
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<?> getRunById(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.ok(planService.getRunById(runId));
+        } catch (EntityNotFoundException e) {
+            return notFound(e);
+        }
+    }
+    
+    @PostMapping("/runs/{runId}/resume")
+    public ResponseEntity<?> resumeRun(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(planService.resumeRun(runId));
+        } catch (EntityNotFoundException e) {
+            return notFound(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Run cannot be resumed", "message", e.getMessage()));
+        }
+    }
+    
+    private ResponseEntity<?> notFound(EntityNotFoundException e) {
+        logger.debug("Maintenance plan lookup failed", e);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Not found", "message", e.getMessage()));
+    }
+}
@@ -1,16 +1,31 @@
 package com.stockmanage.automobile.controller;
 
+import com.stockmanage.automobile.bulk.ExportFormat;
 import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderIntakeDTO;
+import com.stockmanage.automobile.dto.OrderStatusUpdateDTO;
+import com.stockmanage.automobile.exception.IntakeQueueFullException;
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import com.stockmanage.automobile.exception.InvalidStatusTransitionException;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
 import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.reporting.RollupBucket;
+import com.stockmanage.automobile.service.OrderIntakeService;
 import com.stockmanage.automobile.service.OrderService;
+import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Collections;
@@ -25,17 +40,25 @@ public class OrderController {
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     
     private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
     
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderIntakeService orderIntakeService) {
         this.orderService = orderService;
+        this.orderIntakeService = orderIntakeService;
     }
     
     @GetMapping
-    public ResponseEntity<?> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(@RequestParam(required = false) String after,
+                                          @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(orderService.getAllOrders(after, limit));
+            }
             List<OrderDTO> orders = orderService.getAllOrders();
             return ResponseEntity.ok(orders);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching all orders", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -43,6 +66,53 @@ public class OrderController {
         }
     }
     
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(required = false) String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.resolve(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        
+        StreamingResponseBody body = out -> orderService.exportOrders(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<?> getOrderChanges(@RequestParam(required = false) String since,
+                                             @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderChanges(since, limit));
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
+        }
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<?> getOrderStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String bucket) {
+        try {
+            RollupBucket rollupBucket = RollupBucket.valueOf(bucket.toUpperCase());
+            return ResponseEntity.ok(orderService.getOrderStats(from, to, rollupBucket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid stats request", "message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildOrderStats() {
+        int rows = orderService.rebuildOrderRollups();
+        return ResponseEntity.ok(Map.of("rollupRows", rows));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
         try {
@@ -68,10 +138,17 @@ public class OrderController {
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getOrdersByUserId(@PathVariable Long userId) {
+    public ResponseEntity<?> getOrdersByUserId(@PathVariable Long userId,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(orderService.getOrdersByUserId(userId, after, limit));
+            }
             List<OrderDTO> orders = orderService.getOrdersByUserId(userId);
             return ResponseEntity.ok(orders);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching orders for user: " + userId, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -80,10 +157,17 @@ public class OrderController {
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<?> getOrdersByStatus(@PathVariable Order.OrderStatus status) {
+    public ResponseEntity<?> getOrdersByStatus(@PathVariable Order.OrderStatus status,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(orderService.getOrdersByStatus(status, after, limit));
+            }
             List<OrderDTO> orders = orderService.getOrdersByStatus(status);
             return ResponseEntity.ok(orders);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (Exception e) {
             logger.error("Error fetching orders with status: " + status, e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -94,10 +178,17 @@ public class OrderController {
     @GetMapping("/date-range")
     public ResponseEntity<?> getOrdersByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (isPaged(after, limit)) {
+                return ResponseEntity.ok(orderService.getOrdersByDateRange(startDate, endDate, after, limit));
+            }
             List<OrderDTO> orders = orderService.getOrdersByDateRange(startDate, endDate);
             return ResponseEntity.ok(orders);
+        } catch (InvalidCursorException e) {
+            return invalidCursor(e);
         } catch (DateTimeParseException e) {
             logger.error("Invalid date format for date range query", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -110,7 +201,8 @@ public class OrderController {
     }
     
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody OrderDTO orderDTO) {
+    public ResponseEntity<?> createOrder(@RequestBody OrderDTO orderDTO,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             logger.info("Received order creation request: " + orderDTO);
             
@@ -120,6 +212,14 @@ public class OrderController {
                         .body(Map.of("error", "Validation failed", "message", "userId is required"));
             }
             
+            // Queued before defaults are filled in, so that a retry matches the original request
+            if (orderIntakeService.isEnabled()) {
+                OrderIntakeDTO intake = orderIntakeService.submit(orderDTO, idempotencyKey);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/intake/" + intake.getId()))
+                        .body(intake);
+            }
+            
             if (orderDTO.getOrderDate() == null) {
                 // Set current date if not provided
                 orderDTO.setOrderDate(LocalDateTime.now());
@@ -134,6 +234,18 @@ public class OrderController {
             OrderDTO createdOrder = orderService.createOrder(orderDTO);
             return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
             
+        } catch (IntakeQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", "Too many orders", "message", e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Not found", "message", e.getMessage()));
+        } catch (VehicleUnavailableException e) {
+            logger.info("Order rejected: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Vehicle unavailable", "message", e.getMessage(),
+                            "vehicleId", e.getVehicleId()));
         } catch (IllegalArgumentException e) {
             logger.error("Validation error when creating order", e);
             return ResponseEntity.badRequest()
@@ -145,11 +257,24 @@ public class OrderController {
         }
     }
     
+    @GetMapping("/intake/{id}")
+    public ResponseEntity<?> getOrderIntake(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(orderIntakeService.getIntake(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Not found", "message", e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<?> updateOrder(@PathVariable Long id, @RequestBody OrderDTO orderDTO) {
         try {
             OrderDTO updatedOrder = orderService.updateOrder(id, orderDTO);
             return ResponseEntity.ok(updatedOrder);
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Invalid status transition", "message", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error updating order with id: " + id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -175,10 +300,36 @@ public class OrderController {
         try {
             OrderDTO updatedOrder = orderService.updateOrderStatus(id, status);
             return ResponseEntity.ok(updatedOrder);
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Invalid status transition", "message", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error updating status of order with id: " + id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Status update failed", "message", e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+    
+    @PatchMapping("/status")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody OrderStatusUpdateDTO request) {
+        try {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(request));
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Invalid status transition", "message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid status update", "message", e.getMessage()));
+        }
+    }
+    
+    // Pagination is opt-in: without 'after' or 'limit' the full listing is returned as before
+    private boolean isPaged(String after, Integer limit) {
+        return after != null || limit != null;
+    }
+    
+    private ResponseEntity<?> invalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid cursor", "message", e.getMessage()));
+    }
+}
\ No newline at end of file
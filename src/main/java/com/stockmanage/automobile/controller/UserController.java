@@ -8,7 +8,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
@@ -23,7 +22,11 @@ public class UserController {
     }
     
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(userService.getAllUsers(after, limit));
+        }
         return ResponseEntity.ok(userService.getAllUsers());
     }
     
@@ -59,7 +62,12 @@ public class UserController {
     }
     
     @GetMapping("/role/{role}")
-    public ResponseEntity<List<UserDTO>> getUsersByRole(@PathVariable User.Role role) {
+    public ResponseEntity<?> getUsersByRole(@PathVariable User.Role role,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(userService.getUsersByRole(role, after, limit));
+        }
         return ResponseEntity.ok(userService.getUsersByRole(role));
     }
     
@@ -72,4 +80,9 @@ public class UserController {
     public ResponseEntity<Boolean> checkEmailExists(@PathVariable String email) {
         return ResponseEntity.ok(userService.existsByEmail(email));
     }
+    
+    // Pagination is opt-in: without 'after' or 'limit' the full listing is returned as before
+    private boolean isPaged(String after, Integer limit) {
+        return after != null || limit != null;
+    }
 } 
\ No newline at end of file
@@ -1,14 +1,34 @@
 package com.stockmanage.automobile.controller;
 
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.bulk.ImportFormat;
+import com.stockmanage.automobile.dto.BulkImportResultDTO;
+import com.stockmanage.automobile.dto.CacheStatsDTO;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.FacetCheckDTO;
+import com.stockmanage.automobile.dto.TelemetryIngestResultDTO;
 import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleFacetsDTO;
+import com.stockmanage.automobile.dto.VehicleHoldDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
 import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.service.VehicleImportService;
 import com.stockmanage.automobile.service.VehicleService;
+import com.stockmanage.automobile.service.VehicleTelemetryService;
+import com.stockmanage.automobile.validation.VehicleValidator;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.HashMap;
@@ -20,17 +40,63 @@ import java.util.Map;
 public class VehicleController {
     
     private final VehicleService vehicleService;
+    private final VehicleImportService vehicleImportService;
+    private final VehicleTelemetryService vehicleTelemetryService;
     
     @Autowired
-    public VehicleController(VehicleService vehicleService) {
+    public VehicleController(VehicleService vehicleService, VehicleImportService vehicleImportService,
+                             VehicleTelemetryService vehicleTelemetryService) {
         this.vehicleService = vehicleService;
+        this.vehicleImportService = vehicleImportService;
+        this.vehicleTelemetryService = vehicleTelemetryService;
     }
     
     @GetMapping
-    public ResponseEntity<List<VehicleDTO>> getAllVehicles() {
+    public ResponseEntity<?> getAllVehicles(@RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.getAllVehicles(after, limit));
+        }
         return ResponseEntity.ok(vehicleService.getAllVehicles());
     }
     
+    @GetMapping("/query")
+    public ResponseEntity<?> queryVehicles(VehicleQueryDTO query,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(vehicleService.queryVehicles(query, after, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Invalid query");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVehicles(@RequestParam(required = false) String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.resolve(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        
+        StreamingResponseBody body = out -> vehicleService.exportVehicles(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"vehicles." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeSetDTO<VehicleDTO>> getVehicleChanges(@RequestParam(required = false) String since,
+                                                                      @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(vehicleService.getVehicleChanges(since, limit));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<VehicleDTO> getVehicleById(@PathVariable Long id) {
         return ResponseEntity.ok(vehicleService.getVehicleById(id));
@@ -40,35 +106,9 @@ public class VehicleController {
     public ResponseEntity<?> createVehicle(@RequestBody VehicleDTO vehicleDTO) {
         try {
             // Validate required fields
-            if (vehicleDTO.getMake() == null || vehicleDTO.getMake().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Make is required");
-            }
-            if (vehicleDTO.getModel() == null || vehicleDTO.getModel().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Model is required");
-            }
-            if (vehicleDTO.getVehicleYear() == null) {
-                return ResponseEntity.badRequest().body("Year is required");
-            }
-            if (vehicleDTO.getVin() == null || vehicleDTO.getVin().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("VIN is required");
-            }
-            if (vehicleDTO.getColor() == null || vehicleDTO.getColor().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Color is required");
-            }
-            if (vehicleDTO.getPrice() == null || vehicleDTO.getPrice().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Price is required");
-            }
-            if (vehicleDTO.getMileage() == null) {
-                return ResponseEntity.badRequest().body("Mileage is required");
-            }
-            if (vehicleDTO.getFuelType() == null) {
-                return ResponseEntity.badRequest().body("Fuel type is required");
-            }
-            if (vehicleDTO.getTransmissionType() == null) {
-                return ResponseEntity.badRequest().body("Transmission type is required");
-            }
-            if (vehicleDTO.getEngineSize() == null || vehicleDTO.getEngineSize().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Engine size is required");
+            String validationError = VehicleValidator.validate(vehicleDTO);
+            if (validationError != null) {
+                return ResponseEntity.badRequest().body(validationError);
             }
 
             VehicleDTO createdVehicle = vehicleService.createVehicle(vehicleDTO);
@@ -79,9 +119,50 @@ public class VehicleController {
         }
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<?> importVehicles(@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            @RequestParam(required = false) String format,
+                                            InputStream body) {
+        try {
+            ImportFormat importFormat = ImportFormat.resolve(format, contentType);
+            BulkImportResultDTO result = vehicleImportService.importVehicles(body, importFormat);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IOException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Invalid upload");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Takes NDJSON odometer readings ({@code vehicleId}, {@code odometer}, {@code timestamp})
+     * and answers 202 once they are buffered; mileage is written in the background.
+     */
+    @PostMapping("/telemetry")
+    public ResponseEntity<?> ingestTelemetry(InputStream body) {
+        try {
+            TelemetryIngestResultDTO result = vehicleTelemetryService.ingest(body);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+        } catch (IOException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Invalid upload");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @PutMapping("/{id}")
-    public ResponseEntity<VehicleDTO> updateVehicle(@PathVariable Long id, @RequestBody VehicleDTO vehicleDTO) {
-        return ResponseEntity.ok(vehicleService.updateVehicle(id, vehicleDTO));
+    public ResponseEntity<?> updateVehicle(@PathVariable Long id, @RequestBody VehicleDTO vehicleDTO) {
+        try {
+            return ResponseEntity.ok(vehicleService.updateVehicle(id, vehicleDTO));
+        } catch (OptimisticLockingFailureException e) {
+            // The vehicle was sold or edited while this update was being applied
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Conflict");
+            response.put("message", "Vehicle " + id + " was modified concurrently; reload it and retry");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
     }
     
     @DeleteMapping("/{id}")
@@ -107,49 +188,146 @@ public class VehicleController {
         }
     }
     
+    @PostMapping("/{id}/hold")
+    public ResponseEntity<?> holdVehicle(@PathVariable Long id, @RequestParam Long userId) {
+        try {
+            VehicleHoldDTO hold = vehicleService.holdVehicle(id, userId);
+            return ResponseEntity.ok(hold);
+        } catch (EntityNotFoundException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Not found");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (VehicleUnavailableException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Vehicle unavailable");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+    
+    @DeleteMapping("/{id}/hold")
+    public ResponseEntity<Void> releaseHold(@PathVariable Long id, @RequestParam Long userId) {
+        vehicleService.releaseHold(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/make/{make}")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByMake(@PathVariable String make) {
+    public ResponseEntity<?> getVehiclesByMake(@PathVariable String make,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByMake(make, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByMake(make));
     }
     
     @GetMapping("/model/{model}")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByModel(@PathVariable String model) {
+    public ResponseEntity<?> getVehiclesByModel(@PathVariable String model,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByModel(model, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByModel(model));
     }
     
     @GetMapping("/year/{year}")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByYear(@PathVariable Integer year) {
+    public ResponseEntity<?> getVehiclesByYear(@PathVariable Integer year,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByYear(year, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByYear(year));
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<VehicleDTO>> getAvailableVehicles() {
-        return ResponseEntity.ok(vehicleService.findVehiclesByAvailability(true));
+    public ResponseEntity<?> getAvailableVehicles(@RequestParam(defaultValue = "true") Boolean available,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByAvailability(available, after, limit));
+        }
+        return ResponseEntity.ok(vehicleService.findVehiclesByAvailability(available));
     }
     
     @GetMapping("/fuel-type/{fuelType}")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByFuelType(@PathVariable Vehicle.FuelType fuelType) {
+    public ResponseEntity<?> getVehiclesByFuelType(@PathVariable Vehicle.FuelType fuelType,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByFuelType(fuelType, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByFuelType(fuelType));
     }
     
     @GetMapping("/transmission-type/{transmissionType}")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByTransmissionType(@PathVariable Vehicle.TransmissionType transmissionType) {
+    public ResponseEntity<?> getVehiclesByTransmissionType(@PathVariable Vehicle.TransmissionType transmissionType,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByTransmissionType(transmissionType, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByTransmissionType(transmissionType));
     }
     
     @GetMapping("/price-range")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByPriceRange(
-            @RequestParam String minPrice, @RequestParam String maxPrice) {
+    public ResponseEntity<?> getVehiclesByPriceRange(
+            @RequestParam String minPrice, @RequestParam String maxPrice,
+            @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByPriceRange(minPrice, maxPrice, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByPriceRange(minPrice, maxPrice));
     }
     
     @GetMapping("/max-mileage/{maxMileage}")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByMaxMileage(@PathVariable Integer maxMileage) {
+    public ResponseEntity<?> getVehiclesByMaxMileage(@PathVariable Integer maxMileage,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) Integer limit) {
+        if (isPaged(after, limit)) {
+            return ResponseEntity.ok(vehicleService.findVehiclesByMaxMileage(maxMileage, after, limit));
+        }
         return ResponseEntity.ok(vehicleService.findVehiclesByMaxMileage(maxMileage));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<VehicleDTO>> searchVehicles(@RequestParam String searchTerm) {
-        return ResponseEntity.ok(vehicleService.searchVehicles(searchTerm));
+    public ResponseEntity<List<VehicleDTO>> searchVehicles(@RequestParam String searchTerm,
+                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(vehicleService.searchVehicles(searchTerm, limit));
+    }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<VehicleFacetsDTO> getFacets() {
+        return ResponseEntity.ok(vehicleService.getFacets());
+    }
+    
+    @PostMapping("/facets/rebuild")
+    public ResponseEntity<?> rebuildFacets() {
+        try {
+            vehicleService.rebuildFacets();
+            return ResponseEntity.ok(vehicleService.getFacets());
+        } catch (IllegalStateException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Rebuild in progress");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+    
+    @GetMapping("/facets/verify")
+    public ResponseEntity<FacetCheckDTO> verifyFacets() {
+        return ResponseEntity.ok(vehicleService.verifyFacets());
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(vehicleService.getCacheStats());
+    }
+    
+    // Pagination is opt-in: without 'after' or 'limit' the full listing is returned as before
+    private boolean isPaged(String after, Integer limit) {
+        return after != null || limit != null;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.cache.BoundedCache;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Point-in-time counters for one in-process cache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private String name;
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private double hitRate;
+
+    public static CacheStatsDTO of(String name, BoundedCache<?, ?> cache) {
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long lookups = hits + misses;
+        return new CacheStatsDTO(name, cache.size(), cache.getMaxSize(), hits, misses,
+                cache.getEvictions(), cache.getExpirations(), lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+}
@@ -0,0 +1,23 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes since a sync cursor: records created or updated ({@code upserts}) and
+ * ids of deleted records ({@code deletes}). Pass {@code cursor} back as
+ * {@code since} to get the next batch; while {@code hasMore} is true there are
+ * further changes waiting.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSetDTO<T> {
+    private List<T> upserts;
+    private List<Long> deletes;
+    private String cursor;
+    private boolean hasMore;
+}
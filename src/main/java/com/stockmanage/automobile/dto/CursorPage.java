@@ -0,0 +1,94 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing. Rows are always ordered by id, and
+ * {@code nextCursor} is an opaque token to pass back as {@code after} to fetch
+ * the following page; it is {@code null} on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private String nextCursor;
+    private int limit;
+
+    /**
+     * Runs a keyset query and maps the result into a page. The query is asked for
+     * one row more than the page size so that the presence of a next page is known
+     * without a count query.
+     */
+    public static <E, T> CursorPage<T> fetch(String after, Integer limit,
+                                             BiFunction<Long, Limit, List<E>> query,
+                                             Function<E, Long> idOf,
+                                             Function<E, T> mapper) {
+        int size = clampLimit(limit);
+        List<E> rows = query.apply(decodeCursor(after), Limit.of(size + 1));
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = encodeCursor(idOf.apply(rows.get(size - 1)));
+        }
+
+        List<T> items = rows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor, size);
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static String encodeCursor(Long id) {
+        return encodeKey(id.toString());
+    }
+
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodeKey(cursor));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Wraps an arbitrary sort key (for orders other than by id) into an opaque cursor.
+     */
+    public static String encodeKey(String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeKey(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
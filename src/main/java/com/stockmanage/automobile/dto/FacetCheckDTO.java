@@ -0,0 +1,30 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of comparing the in-memory facet counters with a count in the database.
+ * Writes committing while the check runs can cause transient mismatches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCheckDTO {
+    private boolean consistent;
+    private List<Mismatch> mismatches = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private String facet;
+        private String value;
+        private long indexed;
+        private long database;
+    }
+}
@@ -0,0 +1,57 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expected maintenance across the fleet from {@code asOf} until {@code until}: totals,
+ * per calendar month, and per make/model and maintenance type with the model fitted
+ * on that group's history. Groups are ordered by expected cost, highest first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceForecastDTO {
+    private LocalDate asOf;
+    private LocalDate until;
+    private LocalDateTime computedAt;
+    private long vehicles;
+    private long expectedServices;
+    private BigDecimal expectedCost;
+    private List<Month> months = new ArrayList<>();
+    private List<Group> groups = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Month {
+        // yyyy-MM
+        private String month;
+        private long expectedServices;
+        private BigDecimal expectedCost;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private String make;
+        private String model;
+        private String maintenanceType;
+        // Records the model was fitted on
+        private long historyCount;
+        private BigDecimal averageCost;
+        // Median days between consecutive services of one vehicle; null if no vehicle had two
+        private Integer medianIntervalDays;
+        private long vehicles;
+        private long expectedServices;
+        private BigDecimal expectedCost;
+    }
+}
@@ -0,0 +1,22 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenancePlanDTO {
+    private Long id;
+    private String name;
+    private String maintenanceType;
+    private Integer intervalDays;
+    private String serviceProvider;
+    private BigDecimal cost;
+    private String description;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.model.MaintenancePlanRun;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A plan run and its progress. When applying a plan only {@code vehicleFilter},
+ * {@code startDate} and {@code endDate} are read; an empty filter selects every vehicle.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenancePlanRunDTO {
+    private Long id;
+    private Long planId;
+    private VehicleQueryDTO vehicleFilter;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private MaintenancePlanRun.RunStatus status;
+    private Long totalVehicles;
+    private Long vehiclesProcessed;
+    private Long recordsCreated;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
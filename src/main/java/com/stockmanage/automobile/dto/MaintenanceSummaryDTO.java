@@ -0,0 +1,22 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Maintenance totals of one vehicle, over its records that are not cancelled.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceSummaryDTO {
+    private Long vehicleId;
+    private String vehicleDetails;
+    private long serviceCount;
+    private BigDecimal totalCost;
+    private LocalDate lastServiceDate;
+}
@@ -27,4 +27,15 @@ public class OrderDTO {
     private LocalDateTime deliveryDate;
     private LocalDateTime createdAt;
     private List<OrderItemDTO> orderItems;
+
+    /**
+     * Order header without items, for JPQL constructor expressions.
+     */
+    public OrderDTO(Long id, String orderNumber, Long userId, String customerName, Long vehicleId,
+                    String vehicleDetails, LocalDateTime orderDate, Order.OrderStatus status,
+                    BigDecimal totalAmount, String notes, String paymentMethod,
+                    LocalDateTime deliveryDate, LocalDateTime createdAt) {
+        this(id, orderNumber, userId, customerName, vehicleId, vehicleDetails, orderDate, status,
+                totalAmount, notes, paymentMethod, deliveryDate, createdAt, null);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order accepted for asynchronous placement. While {@code state} is
+ * {@code QUEUED} only the submission time is known; once {@code COMPLETED},
+ * {@code result} holds the created order or the reason it was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeDTO {
+    private String id;
+    private State state;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    private OrderResultDTO result;
+
+    public enum State {
+        QUEUED, COMPLETED
+    }
+}
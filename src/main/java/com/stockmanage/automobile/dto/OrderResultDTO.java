@@ -0,0 +1,19 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of placing one order of a batch: the HTTP status a direct
+ * {@code POST /api/orders} would have answered with, and either the created
+ * order or the reason it was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResultDTO {
+    private int status;
+    private OrderDTO order;
+    private String message;
+}
@@ -0,0 +1,39 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Order totals for one day or month, overall and broken down by status and by
+ * vehicle make. An order with vehicles of several makes counts once under each.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsDTO {
+    private LocalDate bucketStart;
+    private long orderCount;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private long units;
+    private Map<String, Totals> byStatus = new TreeMap<>();
+    private Map<String, Totals> byMake = new TreeMap<>();
+
+    public OrderStatsDTO(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+        private long orderCount;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long units;
+    }
+}
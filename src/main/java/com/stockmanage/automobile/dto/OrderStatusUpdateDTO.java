@@ -0,0 +1,25 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A bulk status change: the target status and either the ids of the orders to move,
+ * or a filter selecting every order in {@code fromStatus}, optionally only those
+ * ordered in [{@code orderDateFrom}, {@code orderDateTo}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateDTO {
+    private Order.OrderStatus status;
+    private List<Long> ids;
+    private Order.OrderStatus fromStatus;
+    private LocalDateTime orderDateFrom;
+    private LocalDateTime orderDateTo;
+}
@@ -0,0 +1,37 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk status change, one entry per order. {@code more} is set when a
+ * filter matched more orders than one request handles; repeating the request moves
+ * the next ones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateResultDTO {
+    private Order.OrderStatus status;
+    private int updated;
+    private boolean more;
+    private List<Outcome> results = new ArrayList<>();
+
+    public enum Result {
+        UPDATED, UNCHANGED, INVALID_TRANSITION, NOT_FOUND
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+        private Long id;
+        private Order.OrderStatus previousStatus;
+        private Result result;
+    }
+}
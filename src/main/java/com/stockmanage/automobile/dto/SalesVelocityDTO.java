@@ -0,0 +1,40 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How fast each make/model sells: days from acquisition to the order that sold a
+ * vehicle, and how long the vehicles still in stock have been waiting. Groups are
+ * ordered fastest-selling first; groups with nothing sold come last.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesVelocityDTO {
+    private LocalDate asOf;
+    private LocalDateTime computedAt;
+    private List<Group> groups = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private String make;
+        private String model;
+        private int soldCount;
+        private Double averageDaysToSell;
+        private Integer p50DaysToSell;
+        private Integer p90DaysToSell;
+        private int inStockCount;
+        private Integer p50DaysInStock;
+        private Integer p90DaysInStock;
+        private Integer maxDaysInStock;
+    }
+}
@@ -0,0 +1,34 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a telemetry upload. Accepted readings are buffered and written
+ * later; {@code refused} counts readings turned away because the buffer was full,
+ * which the client should send again. {@code errors} lists invalid lines up to a
+ * configured maximum; {@code invalid} always counts all of them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryIngestResultDTO {
+    private long received;
+    private long accepted;
+    private long invalid;
+    private long refused;
+    private boolean errorsTruncated;
+    private List<LineError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
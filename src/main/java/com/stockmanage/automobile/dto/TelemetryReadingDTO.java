@@ -0,0 +1,20 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One odometer reading of a vehicle. A reading without a timestamp is taken as
+ * made when it was received.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryReadingDTO {
+    private Long vehicleId;
+    private Integer odometer;
+    private Instant timestamp;
+}
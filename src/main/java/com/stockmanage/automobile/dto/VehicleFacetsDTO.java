@@ -0,0 +1,23 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Number of available vehicles per facet value. Price bands are labelled
+ * {@code lower-upper} (upper bound exclusive), with the top band as {@code lower+}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleFacetsDTO {
+    private long total;
+    private Map<String, Long> makes;
+    private Map<String, Long> fuelTypes;
+    private Map<String, Long> transmissionTypes;
+    private Map<String, Long> years;
+    private Map<String, Long> priceBands;
+}
@@ -0,0 +1,42 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expected maintenance of one vehicle from {@code asOf} until {@code until}, one entry
+ * per maintenance type in its history. Each type is projected from the vehicle's last
+ * service at its make/model's median interval; a type whose interval is unknown is
+ * listed without expected services.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleForecastDTO {
+    private Long vehicleId;
+    private String make;
+    private String model;
+    private LocalDate asOf;
+    private LocalDate until;
+    private long expectedServices;
+    private BigDecimal expectedCost;
+    private List<Service> services = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Service {
+        private String maintenanceType;
+        private LocalDate lastServiceDate;
+        private Integer intervalDays;
+        private LocalDate nextServiceDate;
+        private long expectedServices;
+        private BigDecimal expectedCost;
+    }
+}
@@ -0,0 +1,20 @@
+package com.stockmanage.automobile.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vehicle held for a customer's cart: until {@code expiresAt} only that customer
+ * can order it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleHoldDTO {
+    private Long vehicleId;
+    private Long userId;
+    private LocalDateTime expiresAt;
+}
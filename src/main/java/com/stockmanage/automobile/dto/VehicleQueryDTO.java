@@ -0,0 +1,31 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.model.Vehicle;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Criteria for the faceted vehicle query. Every field is optional and the
+ * supplied ones are combined with AND. {@code sort} is one of {@code id},
+ * {@code price}, {@code mileage} or {@code year}, prefixed with {@code -}
+ * for descending order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleQueryDTO {
+    private String make;
+    private String model;
+    private Integer minYear;
+    private Integer maxYear;
+    private Vehicle.FuelType fuelType;
+    private Vehicle.TransmissionType transmissionType;
+    private Boolean available;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer maxMileage;
+    private String sort;
+}
@@ -0,0 +1,35 @@
+package com.stockmanage.automobile.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever maintenance records are inserted, updated or deleted.
+ * Listeners receive it after the surrounding transaction commits and reload the
+ * affected records themselves. {@code vehicleIds} always names the vehicles whose
+ * records changed. Records inserted in bulk are not read back, so their
+ * {@code maintenanceIds} are empty: listeners reload those vehicles' records.
+ */
+@Getter
+@ToString
+public class MaintenanceChangedEvent {
+
+    private final Set<Long> maintenanceIds;
+    private final Set<Long> vehicleIds;
+
+    public MaintenanceChangedEvent(Collection<Long> maintenanceIds, Collection<Long> vehicleIds) {
+        this.maintenanceIds = Set.copyOf(maintenanceIds);
+        this.vehicleIds = Set.copyOf(vehicleIds);
+    }
+
+    public static MaintenanceChangedEvent of(Long maintenanceId, Long vehicleId) {
+        return new MaintenanceChangedEvent(Set.of(maintenanceId), Set.of(vehicleId));
+    }
+
+    public static MaintenanceChangedEvent forVehicles(Collection<Long> vehicleIds) {
+        return new MaintenanceChangedEvent(Set.of(), vehicleIds);
+    }
+}
@@ -0,0 +1,19 @@
+package com.stockmanage.automobile.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a maintenance plan run is created or resumed. The generator picks
+ * the run up once the surrounding transaction has committed.
+ */
+@Getter
+@ToString
+public class MaintenancePlanRunQueuedEvent {
+
+    private final Long runId;
+
+    public MaintenancePlanRunQueuedEvent(Long runId) {
+        this.runId = runId;
+    }
+}
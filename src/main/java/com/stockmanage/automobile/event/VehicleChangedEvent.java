@@ -0,0 +1,27 @@
+package com.stockmanage.automobile.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever vehicle rows are inserted, updated or deleted, including the
+ * availability flips done while processing orders. Listeners receive it after the
+ * surrounding transaction commits and reload the affected vehicles themselves.
+ */
+@Getter
+@ToString
+public class VehicleChangedEvent {
+
+    private final Set<Long> vehicleIds;
+
+    public VehicleChangedEvent(Collection<Long> vehicleIds) {
+        this.vehicleIds = Set.copyOf(vehicleIds);
+    }
+
+    public static VehicleChangedEvent of(Long vehicleId) {
+        return new VehicleChangedEvent(Set.of(vehicleId));
+    }
+}
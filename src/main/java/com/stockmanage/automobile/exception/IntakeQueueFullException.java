@@ -0,0 +1,25 @@
+package com.stockmanage.automobile.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the asynchronous order intake queue is full; the client should retry
+ * after the given number of seconds.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IntakeQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public IntakeQueueFullException(long retryAfterSeconds) {
+        super("Order intake queue is full; retry after " + retryAfterSeconds + " seconds");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
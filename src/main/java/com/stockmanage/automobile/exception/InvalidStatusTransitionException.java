@@ -0,0 +1,18 @@
+package com.stockmanage.automobile.exception;
+
+import com.stockmanage.automobile.model.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an order status change is not allowed by {@link Order.OrderStatus#canTransitionTo}.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidStatusTransitionException(Order.OrderStatus from, Order.OrderStatus to) {
+        super("An order cannot move from " + from + " to " + to);
+    }
+}
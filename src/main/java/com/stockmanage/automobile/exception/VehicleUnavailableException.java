@@ -0,0 +1,25 @@
+package com.stockmanage.automobile.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a vehicle cannot be ordered or held because it has been sold or is
+ * held for another customer's cart.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class VehicleUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long vehicleId;
+
+    public VehicleUnavailableException(Long vehicleId, String reason) {
+        super("Vehicle " + vehicleId + " is not available: " + reason);
+        this.vehicleId = vehicleId;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+}
@@ -0,0 +1,77 @@
+package com.stockmanage.automobile.maintenance;
+
+import com.stockmanage.automobile.dto.MaintenanceDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes maintenance records that have become due to connected clients as
+ * Server-Sent Events, one {@code due} event per record.
+ *
+ * <p>Events are written from a single background thread, so a slow client never
+ * holds up the request or timer that made a record due. A client whose connection
+ * fails is dropped; it is expected to reconnect and catch up with
+ * {@code GET /api/maintenance/due}.
+ */
+@Component
+public class MaintenanceDueNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceDueNotifier.class);
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final long timeoutMillis;
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "maintenance-due-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MaintenanceDueNotifier(@Value("${maintenance.due.sse-timeout:30m}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    public void due(List<MaintenanceDTO> records) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                try {
+                    for (MaintenanceDTO record : records) {
+                        emitter.send(SseEmitter.event().name("due").id(String.valueOf(record.getId())).data(record));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Dropping maintenance due subscriber", e);
+                    subscribers.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+}
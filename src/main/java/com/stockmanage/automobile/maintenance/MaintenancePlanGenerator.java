@@ -0,0 +1,261 @@
+package com.stockmanage.automobile.maintenance;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.event.MaintenanceChangedEvent;
+import com.stockmanage.automobile.event.MaintenancePlanRunQueuedEvent;
+import com.stockmanage.automobile.model.MaintenancePlan;
+import com.stockmanage.automobile.model.MaintenancePlanRun;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.reporting.MaintenanceSummaryStore;
+import com.stockmanage.automobile.repository.MaintenancePlanRunRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.repository.VehicleSpecifications;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background job that schedules the maintenance records of plan runs.
+ *
+ * <p>A run is processed in chunks of {@code maintenance.plans.chunk-size} vehicles,
+ * taken in id order from the vehicles matching its filter. Each chunk is one
+ * transaction: the run row is locked, the chunk's records are inserted with JDBC
+ * batches of {@code maintenance.plans.batch-size} rows, the vehicles' summaries are
+ * refreshed and the run's cursor and counters advance. A crash therefore loses at
+ * most the chunk in flight, which is rolled back and generated again when the run
+ * is resumed; runs left pending or running are resumed at startup.
+ */
+@Component
+public class MaintenancePlanGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenancePlanGenerator.class);
+
+    private static final String INSERT_SQL = "INSERT INTO maintenance (vehicle_id, maintenance_type, " +
+            "service_date, next_service_date, cost, service_provider, status, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'SCHEDULED', ?)";
+
+    // Length of maintenance_plan_runs.error
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MaintenancePlanRunRepository runRepository;
+    private final VehicleRepository vehicleRepository;
+    private final MaintenanceSummaryStore summaries;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int batchSize;
+    // Runs queued on or being processed by the worker
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "maintenance-plans");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public MaintenancePlanGenerator(MaintenancePlanRunRepository runRepository,
+                                    VehicleRepository vehicleRepository,
+                                    MaintenanceSummaryStore summaries,
+                                    JdbcTemplate jdbcTemplate,
+                                    EntityManager entityManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${maintenance.plans.chunk-size:1000}") int chunkSize,
+                                    @Value("${maintenance.plans.batch-size:1000}") int batchSize) {
+        this.runRepository = runRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.summaries = summaries;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Service dates of a run: every {@code intervalDays} from the start date through the end date.
+     */
+    public static List<LocalDate> serviceDates(LocalDate startDate, LocalDate endDate, int intervalDays) {
+        return startDate.datesUntil(endDate.plusDays(1), Period.ofDays(intervalDays)).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeRuns() {
+        try {
+            List<Long> runIds = runRepository.findIdsByStatusIn(
+                    List.of(MaintenancePlanRun.RunStatus.PENDING, MaintenancePlanRun.RunStatus.RUNNING));
+            if (!runIds.isEmpty()) {
+                logger.info("Resuming {} maintenance plan runs", runIds.size());
+                runIds.forEach(this::submit);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to resume maintenance plan runs", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRunQueued(MaintenancePlanRunQueuedEvent event) {
+        submit(event.getRunId());
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private void submit(Long runId) {
+        if (queued.add(runId)) {
+            worker.execute(() -> generate(runId));
+        }
+    }
+
+    /**
+     * Generates chunk after chunk until the run is finished. If the worker is stopped,
+     * the run stays running and is resumed at the next startup.
+     */
+    private void generate(Long runId) {
+        try {
+            long started = System.nanoTime();
+            boolean more;
+            do {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> generateChunk(runId)));
+            } while (more && !Thread.currentThread().isInterrupted());
+            if (!more) {
+                logger.info("Maintenance plan run {} finished in {} ms", runId,
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Maintenance plan run {} failed; resume it with POST /api/maintenance/plans/runs/{}/resume",
+                    runId, runId, e);
+            transactionTemplate.executeWithoutResult(status -> fail(runId, e));
+        } finally {
+            queued.remove(runId);
+        }
+    }
+
+    /**
+     * Schedules the records of the next chunk of vehicles.
+     *
+     * @return whether vehicles may be left, false once the run is finished
+     */
+    private boolean generateChunk(Long runId) {
+        MaintenancePlanRun run = runRepository.findByIdForUpdate(runId).orElse(null);
+        if (run == null || run.isFinished()) {
+            return false;
+        }
+        Specification<Vehicle> filter = VehicleSpecifications.matching(readFilter(run));
+        if (run.getStatus() == MaintenancePlanRun.RunStatus.PENDING) {
+            run.setStatus(MaintenancePlanRun.RunStatus.RUNNING);
+            run.setStartedAt(LocalDateTime.now());
+            run.setTotalVehicles(vehicleRepository.count(filter));
+        }
+
+        List<Long> vehicleIds = findVehicleIdsAfter(filter, run.getLastVehicleId());
+        if (vehicleIds.isEmpty()) {
+            complete(run);
+            return false;
+        }
+
+        MaintenancePlan plan = run.getPlan();
+        int intervalDays = plan.getIntervalDays();
+        List<LocalDate> dates = serviceDates(run.getStartDate(), run.getEndDate(), intervalDays);
+        List<PlannedService> services = new ArrayList<>(vehicleIds.size() * dates.size());
+        for (Long vehicleId : vehicleIds) {
+            for (LocalDate date : dates) {
+                services.add(new PlannedService(vehicleId, date));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, services, batchSize, (ps, service) -> {
+            ps.setLong(1, service.vehicleId());
+            ps.setString(2, plan.getMaintenanceType());
+            ps.setDate(3, Date.valueOf(service.date()));
+            ps.setDate(4, Date.valueOf(service.date().plusDays(intervalDays)));
+            ps.setBigDecimal(5, plan.getCost());
+            ps.setString(6, plan.getServiceProvider());
+            ps.setString(7, plan.getDescription());
+        });
+        summaries.refresh(vehicleIds);
+
+        run.setLastVehicleId(vehicleIds.get(vehicleIds.size() - 1));
+        run.setVehiclesProcessed(run.getVehiclesProcessed() + vehicleIds.size());
+        run.setRecordsCreated(run.getRecordsCreated() + services.size());
+        eventPublisher.publishEvent(MaintenanceChangedEvent.forVehicles(vehicleIds));
+        if (vehicleIds.size() < chunkSize) {
+            complete(run);
+            return false;
+        }
+        return true;
+    }
+
+    private void complete(MaintenancePlanRun run) {
+        run.setStatus(MaintenancePlanRun.RunStatus.COMPLETED);
+        run.setFinishedAt(LocalDateTime.now());
+    }
+
+    private void fail(Long runId, RuntimeException e) {
+        runRepository.findByIdForUpdate(runId).ifPresent(run -> {
+            run.setStatus(MaintenancePlanRun.RunStatus.FAILED);
+            String message = String.valueOf(e.getMessage());
+            run.setError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            run.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Ids of the next chunk of matching vehicles after {@code afterId}, without loading the vehicles.
+     */
+    private List<Long> findVehicleIdsAfter(Specification<Vehicle> filter, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Vehicle> root = query.from(Vehicle.class);
+        query.select(root.get("id"))
+                .where(filter.toPredicate(root, query, cb), cb.greaterThan(root.get("id"), afterId))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(chunkSize).getResultList();
+    }
+
+    private VehicleQueryDTO readFilter(MaintenancePlanRun run) {
+        try {
+            return objectMapper.readValue(run.getVehicleFilter(), VehicleQueryDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable vehicle filter of maintenance plan run " + run.getId(), e);
+        }
+    }
+
+    private record PlannedService(long vehicleId, LocalDate date) {
+    }
+}
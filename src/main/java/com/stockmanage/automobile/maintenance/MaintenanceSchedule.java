@@ -0,0 +1,236 @@
+package com.stockmanage.automobile.maintenance;
+
+import com.stockmanage.automobile.dto.MaintenanceDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory schedule of maintenance records by next service date.
+ *
+ * <p>Records are kept in a tree ordered by (next service date, id), so the records
+ * due by a date are a head of the tree: found in O(log n) and read in O(k). Records
+ * without a next service date are not scheduled. Each entry keeps its
+ * {@link MaintenanceDTO}, so lookups are answered from memory.
+ *
+ * <p>A record becomes due on its next service date. Records that become due, when
+ * the date turns or when they are saved with a date that has arrived, are handed to
+ * the {@link MaintenanceDueNotifier} once.
+ */
+@Component
+public class MaintenanceSchedule {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceSchedule.class);
+
+    private final MaintenanceDueNotifier notifier;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Key, MaintenanceDTO> byDate = new TreeMap<>();
+    private final Map<Long, MaintenanceDTO> byId = new HashMap<>();
+    private final Map<Long, Set<Long>> idsByVehicle = new HashMap<>();
+    // Records changed while the schedule was loading; their loaded rows may be older
+    private final Set<Long> touched = new HashSet<>();
+
+    // Last date whose due records have been announced
+    private LocalDate dueThrough = LocalDate.now();
+    private volatile boolean ready;
+    private ScheduledExecutorService timer;
+
+    @Autowired
+    public MaintenanceSchedule(MaintenanceDueNotifier notifier) {
+        this.notifier = notifier;
+    }
+
+    /**
+     * Whether the schedule has been loaded; until then callers should query the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Fills the schedule with the records read at startup and starts the timer that
+     * announces records as their date arrives. Records are not announced when loaded.
+     */
+    public void load(Collection<MaintenanceDTO> records) {
+        lock.writeLock().lock();
+        try {
+            for (MaintenanceDTO record : records) {
+                if (!touched.contains(record.getId())) {
+                    put(record);
+                }
+            }
+            touched.clear();
+            dueThrough = LocalDate.now();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Maintenance schedule loaded with {} records", byId.size());
+
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "maintenance-schedule");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNextDay();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies committed changes: {@code current} holds the new state of changed
+     * records, {@code removed} the ids of deleted ones.
+     */
+    public void apply(Collection<MaintenanceDTO> current, Collection<Long> removed) {
+        List<MaintenanceDTO> nowDue = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (MaintenanceDTO record : current) {
+                MaintenanceDTO previous = put(record);
+                if (isDue(record) && (previous == null || !isDue(previous))) {
+                    nowDue.add(record);
+                }
+            }
+            for (Long id : removed) {
+                remove(id);
+            }
+            if (!ready) {
+                current.forEach(record -> touched.add(record.getId()));
+                touched.addAll(removed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (ready && !nowDue.isEmpty()) {
+            notifier.due(nowDue);
+        }
+    }
+
+    /**
+     * Replaces the records of the given vehicles, whose details the entries carry.
+     */
+    public void applyVehicles(Collection<Long> vehicleIds, Collection<MaintenanceDTO> current) {
+        List<Long> removed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long vehicleId : vehicleIds) {
+                removed.addAll(idsByVehicle.getOrDefault(vehicleId, Set.of()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        current.forEach(record -> removed.remove(record.getId()));
+        apply(current, removed);
+    }
+
+    /**
+     * Records whose next service date is on or before {@code date}, earliest first.
+     */
+    public List<MaintenanceDTO> dueBy(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byDate.headMap(new Key(date, Long.MAX_VALUE), true).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Announces the records whose date has arrived since the last announcement.
+     */
+    void advance(LocalDate today) {
+        List<MaintenanceDTO> nowDue;
+        lock.writeLock().lock();
+        try {
+            if (!today.isAfter(dueThrough)) {
+                return;
+            }
+            nowDue = new ArrayList<>(byDate.subMap(new Key(dueThrough, Long.MAX_VALUE), false,
+                    new Key(today, Long.MAX_VALUE), true).values());
+            dueThrough = today;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!nowDue.isEmpty()) {
+            logger.info("{} maintenance records due on {}", nowDue.size(), today);
+            notifier.due(nowDue);
+        }
+    }
+
+    private void scheduleNextDay() {
+        LocalDateTime now = LocalDateTime.now();
+        long delay = Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).toMillis();
+        timer.schedule(() -> {
+            try {
+                advance(LocalDate.now());
+            } catch (RuntimeException e) {
+                logger.error("Failed to announce due maintenance", e);
+            } finally {
+                scheduleNextDay();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isDue(MaintenanceDTO record) {
+        return record.getNextServiceDate() != null && !record.getNextServiceDate().isAfter(dueThrough);
+    }
+
+    /**
+     * Replaces the entry of a record; records without a next service date are dropped.
+     * Returns the previous entry, if any.
+     */
+    private MaintenanceDTO put(MaintenanceDTO record) {
+        MaintenanceDTO previous = remove(record.getId());
+        if (record.getNextServiceDate() != null) {
+            byDate.put(new Key(record.getNextServiceDate(), record.getId()), record);
+            byId.put(record.getId(), record);
+            idsByVehicle.computeIfAbsent(record.getVehicleId(), key -> new HashSet<>()).add(record.getId());
+        }
+        return previous;
+    }
+
+    private MaintenanceDTO remove(Long id) {
+        MaintenanceDTO previous = byId.remove(id);
+        if (previous != null) {
+            byDate.remove(new Key(previous.getNextServiceDate(), id));
+            Set<Long> ids = idsByVehicle.get(previous.getVehicleId());
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByVehicle.remove(previous.getVehicleId());
+            }
+        }
+        return previous;
+    }
+
+    private record Key(LocalDate date, long id) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : Long.compare(id, other.id);
+        }
+    }
+}
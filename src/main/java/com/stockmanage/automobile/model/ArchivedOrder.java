@@ -0,0 +1,61 @@
+package com.stockmanage.automobile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A closed order moved out of {@code orders} by the archiver (see schema.sql for
+ * the partitioned table). Archived orders are read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "orders_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String orderNumber;
+    
+    @ManyToOne
+    @JoinColumn(name = "customer_id", nullable = false)
+    private User user;
+    
+    @ManyToOne
+    @JoinColumn(name = "vehicle_id")
+    private Vehicle vehicle;
+    
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+    
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+    
+    @Column
+    private String notes;
+    
+    @Column
+    private String paymentMethod;
+    
+    @Column
+    private LocalDateTime deliveryDate;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
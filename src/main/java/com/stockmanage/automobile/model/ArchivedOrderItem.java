@@ -0,0 +1,50 @@
+package com.stockmanage.automobile.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An item of an {@link ArchivedOrder}. It carries the order date, which is the
+ * partition key of the archive tables, so item lookups prune partitions too.
+ */
+@Entity
+@Immutable
+@Table(name = "order_items_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderItem {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+    
+    @ManyToOne
+    @JoinColumn(name = "vehicle_id", nullable = false)
+    private Vehicle vehicle;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(name = "price", nullable = false)
+    private BigDecimal unitPrice;
+    
+    @Column(nullable = false)
+    private BigDecimal subtotal;
+    
+    @Column
+    private String additionalServices;
+    
+    @Column(nullable = false)
+    private Boolean isPaid;
+}
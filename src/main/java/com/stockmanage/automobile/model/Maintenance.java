@@ -41,13 +41,19 @@ public class Maintenance {
     @Column
     private String serviceProvider;
     
-    @Transient
+    // Odometer reading when the vehicle was serviced; unknown for records still scheduled
+    @Column(name = "mileage_at_service")
     private Integer mileageAtService;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MaintenanceStatus status;
     
+    // Id of the last transaction that wrote the row, stamped by a database trigger
+    // (see schema.sql); never written by Hibernate
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
+    
     public enum MaintenanceStatus {
         SCHEDULED, IN_PROGRESS, COMPLETED, CANCELLED
     }
@@ -0,0 +1,48 @@
+package com.stockmanage.automobile.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A recurring service: what is done, how often and by whom. Applying a plan to a
+ * set of vehicles starts a {@link MaintenancePlanRun}, which schedules the
+ * maintenance records.
+ */
+@Entity
+@Table(name = "maintenance_plans")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenancePlan {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(nullable = false)
+    private String maintenanceType;
+    
+    @Column(nullable = false)
+    private Integer intervalDays;
+    
+    @Column
+    private String serviceProvider;
+    
+    // Estimated cost of each service, copied to the scheduled records
+    @Column(nullable = false)
+    private BigDecimal cost;
+    
+    @Column(length = 1000)
+    private String description;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,79 @@
+package com.stockmanage.automobile.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One application of a {@link MaintenancePlan} to the vehicles matching a filter,
+ * scheduling a service every {@code intervalDays} from {@code startDate} through
+ * {@code endDate}. Vehicles are processed in id order; {@code lastVehicleId} is the
+ * last one whose records have been committed, so an interrupted run carries on
+ * from there.
+ */
+@Entity
+@Table(name = "maintenance_plan_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenancePlanRun {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne
+    @JoinColumn(name = "plan_id", nullable = false)
+    private MaintenancePlan plan;
+    
+    // VehicleQueryDTO as JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String vehicleFilter;
+    
+    @Column(nullable = false)
+    private LocalDate startDate;
+    
+    @Column(nullable = false)
+    private LocalDate endDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunStatus status;
+    
+    // Vehicles matching the filter when the run started
+    @Column
+    private Long totalVehicles;
+    
+    @Column(nullable = false)
+    private Long vehiclesProcessed;
+    
+    @Column(nullable = false)
+    private Long recordsCreated;
+    
+    @Column(nullable = false)
+    private Long lastVehicleId;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime startedAt;
+    
+    @Column
+    private LocalDateTime finishedAt;
+    
+    public boolean isFinished() {
+        return status == RunStatus.COMPLETED || status == RunStatus.FAILED;
+    }
+    
+    public enum RunStatus {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
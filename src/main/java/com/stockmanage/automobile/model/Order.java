@@ -5,7 +5,7 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -39,7 +39,7 @@ public class Order {
         orphanRemoval = true,
         fetch = FetchType.LAZY
     )
-    private Set<OrderItem> orderItems = new HashSet<>();
+    private Set<OrderItem> orderItems = new LinkedHashSet<>();
     
     @Column(nullable = false)
     private LocalDateTime orderDate;
@@ -63,8 +63,26 @@ public class Order {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Id of the last transaction that wrote the row, stamped by a database trigger
+    // (see schema.sql); never written by Hibernate
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
+    
     public enum OrderStatus {
-        PENDING, PROCESSING, CONFIRMED, DELIVERED, CANCELLED
+        PENDING, PROCESSING, CONFIRMED, DELIVERED, CANCELLED;
+        
+        /**
+         * Whether an order may move from this status to {@code target}. Orders only move
+         * forward; DELIVERED and CANCELLED are final.
+         */
+        public boolean canTransitionTo(OrderStatus target) {
+            return switch (this) {
+                case PENDING -> target == PROCESSING || target == CONFIRMED || target == CANCELLED;
+                case PROCESSING -> target == CONFIRMED || target == CANCELLED;
+                case CONFIRMED -> target == DELIVERED || target == CANCELLED;
+                case DELIVERED, CANCELLED -> false;
+            };
+        }
     }
     
     // Helper method to add an order item
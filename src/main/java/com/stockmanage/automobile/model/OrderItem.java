@@ -15,8 +15,11 @@ import java.util.Objects;
 @AllArgsConstructor
 public class OrderItem {
     
+    // Ids are drawn from the sequence in blocks of 50 so that the items of an order
+    // are inserted in batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id_gen")
+    @SequenceGenerator(name = "order_items_id_gen", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -42,17 +45,20 @@ public class OrderItem {
     @Column(nullable = false)
     private Boolean isPaid = false;
     
-    // Custom equals and hashCode that don't use the order field
+    // Custom equals and hashCode that don't use the order field. Items without an id
+    // are only equal to themselves, so the new items of an order don't collapse into
+    // one in Order.orderItems; the hash ignores the id because it is assigned while
+    // the item is already in that set.
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         OrderItem orderItem = (OrderItem) o;
-        return Objects.equals(id, orderItem.id);
+        return id != null && Objects.equals(id, orderItem.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return getClass().hashCode();
     }
 } 
\ No newline at end of file
@@ -45,6 +45,11 @@ public class User {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private Set<Order> orders = new HashSet<>();
     
+    // Id of the last transaction that wrote the row, stamped by a database trigger
+    // (see schema.sql); never written by Hibernate
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
+    
     public enum Role {
         ADMIN, MANAGER, SALESPERSON, CUSTOMER
     }
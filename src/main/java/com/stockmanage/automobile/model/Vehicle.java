@@ -16,8 +16,10 @@ import java.util.Objects;
 @AllArgsConstructor
 public class Vehicle {
     
+    // Ids are drawn from the sequence in blocks of 50 so that inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_id_gen")
+    @SequenceGenerator(name = "vehicles_id_gen", sequenceName = "vehicles_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -64,6 +66,18 @@ public class Vehicle {
     @Column
     private String imageUrl;
     
+    // Bumped on every update, including the bulk claim and release made when the
+    // vehicle is ordered or its order cancelled (VehicleRepository.claimAll and
+    // releaseAll, after the row locks of lockAvailable and lockSold), so edits
+    // based on a stale read fail
+    @Version
+    private Long version;
+    
+    // Id of the last transaction that wrote the row, stamped by a database trigger
+    // (see schema.sql); never written by Hibernate
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
+    
     public enum FuelType {
         PETROL, DIESEL, ELECTRIC, HYBRID, LPG
     }
@@ -0,0 +1,12 @@
+package com.stockmanage.automobile.numbering;
+
+/**
+ * Hands out order numbers. Numbers must be unique across every instance of the
+ * application sharing a database; the default implementation is
+ * {@link SequenceOrderNumberAllocator}, and another bean of this type marked
+ * {@code @Primary} replaces it.
+ */
+public interface OrderNumberAllocator {
+
+    String next();
+}
@@ -0,0 +1,85 @@
+package com.stockmanage.automobile.numbering;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order numbers of the form {@code ORD-20240131-000123}: a prefix, the date the
+ * number was handed out and a sequence value.
+ *
+ * <p>Sequence values are reserved from the database sequence {@code order_number_seq}
+ * in blocks: the sequence is incremented by the block size (see schema.sql), so each
+ * {@code nextval} reserves the block that starts at the returned value. Within a
+ * block, numbers are handed out with a single atomic increment; only the thread
+ * that finds the block exhausted goes to the database for the next one. Numbers
+ * from one instance are increasing; instances interleave by block and never overlap.
+ */
+@Component
+public class SequenceOrderNumberAllocator implements OrderNumberAllocator {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefix;
+    private final int blockSize;
+
+    private volatile Block block = Block.EMPTY;
+
+    @Autowired
+    public SequenceOrderNumberAllocator(JdbcTemplate jdbcTemplate,
+                                        @Value("${order.number.prefix:ORD}") String prefix,
+                                        @Value("${order.number.block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("order.number.block-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String next() {
+        return String.format("%s-%s-%06d", prefix, LocalDate.now().format(DATE), nextValue());
+    }
+
+    private long nextValue() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return value;
+            }
+            refill(current);
+        }
+    }
+
+    /**
+     * Reserves a new block unless another thread already replaced the exhausted one.
+     */
+    private synchronized void refill(Block exhausted) {
+        if (block != exhausted) {
+            return;
+        }
+        Long start = jdbcTemplate.queryForObject("SELECT nextval('order_number_seq')", Long.class);
+        block = new Block(start, start + blockSize);
+    }
+
+    private static final class Block {
+
+        static final Block EMPTY = new Block(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
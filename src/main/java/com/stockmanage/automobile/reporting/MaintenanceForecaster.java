@@ -0,0 +1,353 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.dto.MaintenanceForecastDTO;
+import com.stockmanage.automobile.dto.VehicleForecastDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fits maintenance cost and interval models per make/model and projects every
+ * vehicle's services over a window, on a dedicated fork-join pool.
+ *
+ * <p>For each make/model and maintenance type the model is the average cost of the
+ * group's records and the median number of days between consecutive services of
+ * one vehicle. A vehicle is expected to need each type it has had one interval
+ * after its last service of that type, or at the start of the window if that is
+ * overdue, and every interval after that.
+ *
+ * <p>Groups are split in halves until a task covers few enough records. A group
+ * is fitted in one task, and its vehicles are then projected in halves the same way,
+ * so one very large make/model still spreads across the pool.
+ */
+@Component
+public class MaintenanceForecaster {
+
+    // A task covering fewer records than this does its work itself instead of splitting
+    private static final int SPLIT_THRESHOLD = 50_000;
+
+    // Interval samples larger than this are sorted with a parallel sort
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    public MaintenanceForecaster(@Value("${analytics.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Forecasts each group, given as the histories of its vehicles, for services from
+     * {@code asOf} until (excluding) {@code until}.
+     */
+    public List<GroupForecast> forecast(List<List<VehicleHistory>> groups, LocalDate asOf, LocalDate until) {
+        return pool.invoke(new GroupsTask(groups, new Window(asOf, until)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * The forecast of one make/model: its vehicles' forecasts, its per-type lines and
+     * its expected services and cost per month of the window.
+     */
+    public static final class GroupForecast {
+
+        private final String key;
+        private final List<MaintenanceForecastDTO.Group> lines;
+        private final Map<Long, VehicleForecastDTO> vehicles;
+        private final long[] monthServices;
+        private final long[] monthCostCents;
+
+        GroupForecast(String key, List<MaintenanceForecastDTO.Group> lines, Projection projection) {
+            this.key = key;
+            this.lines = lines;
+            this.vehicles = projection.vehicles;
+            this.monthServices = projection.monthServices;
+            this.monthCostCents = projection.monthCostCents;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public List<MaintenanceForecastDTO.Group> getLines() {
+            return lines;
+        }
+
+        public Map<Long, VehicleForecastDTO> getVehicles() {
+            return vehicles;
+        }
+
+        public long monthServices(int month) {
+            return monthServices[month];
+        }
+
+        public long monthCostCents(int month) {
+            return monthCostCents[month];
+        }
+    }
+
+    /**
+     * The forecast window; months are numbered from the month of {@code asOf}.
+     */
+    public record Window(LocalDate asOf, LocalDate until) {
+
+        public YearMonth firstMonth() {
+            return YearMonth.from(asOf);
+        }
+
+        public int monthCount() {
+            return (int) ChronoUnit.MONTHS.between(firstMonth(), YearMonth.from(until.minusDays(1))) + 1;
+        }
+
+        int monthOf(long epochDay) {
+            return (int) ChronoUnit.MONTHS.between(firstMonth(), YearMonth.from(LocalDate.ofEpochDay(epochDay)));
+        }
+    }
+
+    private static GroupForecast forecastGroup(List<VehicleHistory> histories, Window window) {
+        Map<String, TypeModel> models = fit(histories);
+        Projection projection = new ProjectTask(histories, models, window).compute();
+
+        VehicleHistory first = histories.get(0);
+        List<MaintenanceForecastDTO.Group> lines = new ArrayList<>(models.size());
+        for (TypeModel model : models.values()) {
+            long[] totals = projection.typeTotals.getOrDefault(model.type, new long[3]);
+            lines.add(new MaintenanceForecastDTO.Group(first.getMake(), first.getModel(), model.type, model.count,
+                    cents(model.averageCents), model.medianInterval, totals[0], totals[1], cents(totals[2])));
+        }
+        return new GroupForecast(first.groupKey(), lines, projection);
+    }
+
+    private static Map<String, TypeModel> fit(List<VehicleHistory> histories) {
+        Map<String, TypeModel> models = new TreeMap<>();
+        for (VehicleHistory history : histories) {
+            for (int i = 0; i < history.size(); i++) {
+                String type = history.typeAt(i);
+                TypeModel model = models.computeIfAbsent(type, TypeModel::new);
+                model.count++;
+                model.totalCents += history.costCentsAt(i);
+                // Records are ordered by type and date, so the previous one of the same type is the last service
+                if (i > 0 && type.equals(history.typeAt(i - 1)) && history.dayAt(i) > history.dayAt(i - 1)) {
+                    model.addInterval(history.dayAt(i) - history.dayAt(i - 1));
+                }
+            }
+        }
+        models.values().forEach(TypeModel::complete);
+        return models;
+    }
+
+    private static void project(VehicleHistory history, Map<String, TypeModel> models, Window window,
+                                Projection projection) {
+        long asOfDay = window.asOf().toEpochDay();
+        long untilDay = window.until().toEpochDay();
+        VehicleForecastDTO forecast = new VehicleForecastDTO(history.getVehicleId(), history.getMake(),
+                history.getModel(), window.asOf(), window.until(), 0, BigDecimal.ZERO, new ArrayList<>());
+        long vehicleCents = 0;
+
+        int i = 0;
+        while (i < history.size()) {
+            String type = history.typeAt(i);
+            while (i + 1 < history.size() && type.equals(history.typeAt(i + 1))) {
+                i++;
+            }
+            int lastDay = history.dayAt(i);
+            i++;
+
+            TypeModel model = models.get(type);
+            long services = 0;
+            LocalDate next = null;
+            if (model.medianInterval != null) {
+                long day = Math.max(lastDay + (long) model.medianInterval, asOfDay);
+                next = LocalDate.ofEpochDay(day);
+                for (; day < untilDay; day += model.medianInterval) {
+                    int month = window.monthOf(day);
+                    projection.monthServices[month]++;
+                    projection.monthCostCents[month] += model.averageCents;
+                    services++;
+                }
+            }
+            long typeCents = services * model.averageCents;
+            forecast.getServices().add(new VehicleForecastDTO.Service(type, LocalDate.ofEpochDay(lastDay),
+                    model.medianInterval, next, services, cents(typeCents)));
+            forecast.setExpectedServices(forecast.getExpectedServices() + services);
+            vehicleCents += typeCents;
+
+            long[] totals = projection.typeTotals.computeIfAbsent(type, key -> new long[3]);
+            totals[0]++;
+            totals[1] += services;
+            totals[2] += typeCents;
+        }
+        forecast.setExpectedCost(cents(vehicleCents));
+        projection.vehicles.put(history.getVehicleId(), forecast);
+    }
+
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long records(List<VehicleHistory> histories) {
+        long records = 0;
+        for (VehicleHistory history : histories) {
+            records += history.size();
+        }
+        return records;
+    }
+
+    /**
+     * The cost and interval model of one maintenance type within a make/model.
+     */
+    private static final class TypeModel {
+
+        private final String type;
+        private long count;
+        private long totalCents;
+        private int[] intervals = new int[8];
+        private int intervalCount;
+        private long averageCents;
+        private Integer medianInterval;
+
+        TypeModel(String type) {
+            this.type = type;
+        }
+
+        void addInterval(int days) {
+            if (intervalCount == intervals.length) {
+                intervals = Arrays.copyOf(intervals, intervalCount * 2);
+            }
+            intervals[intervalCount++] = days;
+        }
+
+        void complete() {
+            averageCents = Math.round((double) totalCents / count);
+            if (intervalCount > 0) {
+                int[] sorted = Arrays.copyOf(intervals, intervalCount);
+                if (sorted.length > PARALLEL_SORT_THRESHOLD) {
+                    Arrays.parallelSort(sorted);
+                } else {
+                    Arrays.sort(sorted);
+                }
+                medianInterval = sorted[(sorted.length - 1) / 2];
+            }
+            intervals = null;
+        }
+    }
+
+    /**
+     * Projections of some of a group's vehicles; partial results are merged pairwise.
+     */
+    private static final class Projection {
+
+        private final Map<Long, VehicleForecastDTO> vehicles = new HashMap<>();
+        private final long[] monthServices;
+        private final long[] monthCostCents;
+        // Per type: vehicles, services, cost in cents
+        private final Map<String, long[]> typeTotals = new HashMap<>();
+
+        Projection(int months) {
+            this.monthServices = new long[months];
+            this.monthCostCents = new long[months];
+        }
+
+        Projection merge(Projection other) {
+            vehicles.putAll(other.vehicles);
+            for (int month = 0; month < monthServices.length; month++) {
+                monthServices[month] += other.monthServices[month];
+                monthCostCents[month] += other.monthCostCents[month];
+            }
+            other.typeTotals.forEach((type, totals) -> {
+                long[] mine = typeTotals.computeIfAbsent(type, key -> new long[3]);
+                for (int i = 0; i < mine.length; i++) {
+                    mine[i] += totals[i];
+                }
+            });
+            return this;
+        }
+    }
+
+    private static final class GroupsTask extends RecursiveTask<List<GroupForecast>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<VehicleHistory>> groups;
+        private final Window window;
+
+        GroupsTask(List<List<VehicleHistory>> groups, Window window) {
+            this.groups = groups;
+            this.window = window;
+        }
+
+        @Override
+        protected List<GroupForecast> compute() {
+            if (groups.size() <= 1 || size() <= SPLIT_THRESHOLD) {
+                List<GroupForecast> forecasts = new ArrayList<>(groups.size());
+                for (List<VehicleHistory> group : groups) {
+                    forecasts.add(forecastGroup(group, window));
+                }
+                return forecasts;
+            }
+            int middle = groups.size() / 2;
+            GroupsTask left = new GroupsTask(groups.subList(0, middle), window);
+            GroupsTask right = new GroupsTask(groups.subList(middle, groups.size()), window);
+            left.fork();
+            List<GroupForecast> forecasts = new ArrayList<>(right.compute());
+            forecasts.addAll(left.join());
+            return forecasts;
+        }
+
+        private long size() {
+            long size = 0;
+            for (List<VehicleHistory> group : groups) {
+                size += records(group);
+            }
+            return size;
+        }
+    }
+
+    private static final class ProjectTask extends RecursiveTask<Projection> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<VehicleHistory> histories;
+        private final Map<String, TypeModel> models;
+        private final Window window;
+
+        ProjectTask(List<VehicleHistory> histories, Map<String, TypeModel> models, Window window) {
+            this.histories = histories;
+            this.models = models;
+            this.window = window;
+        }
+
+        @Override
+        protected Projection compute() {
+            if (histories.size() <= 1 || records(histories) <= SPLIT_THRESHOLD) {
+                Projection projection = new Projection(window.monthCount());
+                for (VehicleHistory history : histories) {
+                    project(history, models, window, projection);
+                }
+                return projection;
+            }
+            int middle = histories.size() / 2;
+            ProjectTask left = new ProjectTask(histories.subList(0, middle), models, window);
+            ProjectTask right = new ProjectTask(histories.subList(middle, histories.size()), models, window);
+            left.fork();
+            Projection projection = right.compute();
+            return projection.merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.stockmanage.automobile.reporting;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the maintenance history behind the cost forecast: every record that is not
+ * cancelled and whose service date has arrived, with its vehicle's make and model.
+ * Records scheduled for later are plans rather than history and are left out.
+ */
+@Component
+public class MaintenanceHistoryReader {
+
+    private static final String QUERY =
+            "SELECT m.vehicle_id, v.make, v.model, m.maintenance_type, m.service_date, m.cost " +
+            "FROM maintenance m JOIN vehicles v ON v.id = m.vehicle_id " +
+            "WHERE m.status <> 'CANCELLED' AND m.service_date <= ?";
+
+    // Rows fetched per round trip, so the result is streamed rather than held by the driver
+    private static final int FETCH_SIZE = 10000;
+
+    // Vehicles per statement when reading some vehicles
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MaintenanceHistoryReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The histories of all vehicles with any, by vehicle id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, VehicleHistory> readAll(LocalDate asOf) {
+        Map<Long, VehicleHistory> histories = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(QUERY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setDate(1, Date.valueOf(asOf));
+            return statement;
+        }, collector(histories));
+        return seal(histories);
+    }
+
+    /**
+     * The histories of the given vehicles; vehicles without any are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, VehicleHistory> readVehicles(Collection<Long> vehicleIds, LocalDate asOf) {
+        Map<Long, VehicleHistory> histories = new HashMap<>();
+        List<Long> ids = new ArrayList<>(vehicleIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(Date.valueOf(asOf));
+            args.addAll(chunk);
+            jdbcTemplate.query(QUERY + " AND m.vehicle_id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    collector(histories), args.toArray());
+        }
+        return seal(histories);
+    }
+
+    private static RowCallbackHandler collector(Map<Long, VehicleHistory> histories) {
+        // Types repeat across millions of rows; keep one instance of each
+        Map<String, String> types = new HashMap<>();
+        return rs -> {
+            long vehicleId = rs.getLong("vehicle_id");
+            VehicleHistory history = histories.get(vehicleId);
+            if (history == null) {
+                history = new VehicleHistory(vehicleId, rs.getString("make"), rs.getString("model"));
+                histories.put(vehicleId, history);
+            }
+            String type = rs.getString("maintenance_type");
+            history.add(types.computeIfAbsent(type, key -> key),
+                    (int) rs.getDate("service_date").toLocalDate().toEpochDay(),
+                    rs.getBigDecimal("cost").movePointRight(2).longValue());
+        };
+    }
+
+    private static Map<Long, VehicleHistory> seal(Map<Long, VehicleHistory> histories) {
+        histories.values().forEach(VehicleHistory::seal);
+        return histories;
+    }
+}
@@ -0,0 +1,204 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.dto.MaintenanceSummaryDTO;
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Per-vehicle maintenance totals kept in {@code maintenance_summaries} (see schema.sql):
+ * number of services, total cost and last service date, over every record that is
+ * not cancelled. Fleet-wide listings read one row per vehicle instead of grouping
+ * the whole {@code maintenance} table.
+ *
+ * <p>Writers {@link #refresh} the vehicles they touched in the same transaction as
+ * the maintenance change, after flushing it. The summary rows are locked before the
+ * vehicle's records are aggregated, so of two transactions changing one vehicle the
+ * second aggregates after the first has committed and counts its records too.
+ */
+@Component
+public class MaintenanceSummaryStore {
+
+    // Vehicles per statement
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String COUNTED = "m.status <> 'CANCELLED'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MaintenanceSummaryStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recomputes the summaries of the given vehicles from their maintenance records,
+     * dropping those left without any.
+     */
+    public void refresh(Collection<Long> vehicleIds) {
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(vehicleIds));
+        for (int from = 0; from < sorted.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + CHUNK_SIZE, sorted.size()));
+            String in = "(" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            Object[] ids = chunk.toArray();
+
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO maintenance_summaries (vehicle_id, service_count, total_cost) " +
+                    "VALUES (?, 0, 0) ON CONFLICT DO NOTHING",
+                    chunk, chunk.size(), (ps, vehicleId) -> ps.setLong(1, vehicleId));
+            jdbcTemplate.queryForList("SELECT vehicle_id FROM maintenance_summaries WHERE vehicle_id IN " + in +
+                    " ORDER BY vehicle_id FOR UPDATE", Long.class, ids);
+            jdbcTemplate.update(
+                    "UPDATE maintenance_summaries s SET " +
+                    "service_count = (SELECT COUNT(*) FROM maintenance m " +
+                    "WHERE m.vehicle_id = s.vehicle_id AND " + COUNTED + "), " +
+                    "total_cost = (SELECT COALESCE(SUM(m.cost), 0) FROM maintenance m " +
+                    "WHERE m.vehicle_id = s.vehicle_id AND " + COUNTED + "), " +
+                    "last_service_date = (SELECT MAX(m.service_date) FROM maintenance m " +
+                    "WHERE m.vehicle_id = s.vehicle_id AND " + COUNTED + ") " +
+                    "WHERE s.vehicle_id IN " + in, ids);
+            jdbcTemplate.update("DELETE FROM maintenance_summaries WHERE vehicle_id IN " + in +
+                    " AND service_count = 0", ids);
+        }
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM maintenance_summaries LIMIT 1").isEmpty();
+    }
+
+    /**
+     * Recomputes every summary in one transaction. The table is locked first, so
+     * maintenance changes made meanwhile wait and then refresh their vehicles on top.
+     *
+     * @return the number of vehicles summarized
+     */
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE maintenance_summaries IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM maintenance_summaries");
+        return jdbcTemplate.update(
+                "INSERT INTO maintenance_summaries (vehicle_id, service_count, total_cost, last_service_date) " +
+                "SELECT m.vehicle_id, COUNT(*), SUM(m.cost), MAX(m.service_date) FROM maintenance m " +
+                "WHERE " + COUNTED + " GROUP BY m.vehicle_id");
+    }
+
+    /**
+     * Reads up to {@code limit} summaries that sort after the cursor key {@code after}
+     * ({@code null} for the first page), with the vehicle's details.
+     */
+    public List<MaintenanceSummaryDTO> read(SummarySort sort, String after, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = "";
+        if (after != null) {
+            where = "WHERE " + sort.after(after, args) + " ";
+        }
+        args.add(limit);
+        return jdbcTemplate.query(
+                "SELECT s.vehicle_id, v.make, v.model, v.vehicle_year, s.service_count, s.total_cost, " +
+                "s.last_service_date FROM maintenance_summaries s JOIN vehicles v ON v.id = s.vehicle_id " +
+                where + "ORDER BY " + sort.orderBy() + " LIMIT ?",
+                (rs, rowNum) -> new MaintenanceSummaryDTO(rs.getLong("vehicle_id"),
+                        rs.getString("make") + " " + rs.getString("model") + " (" + rs.getInt("vehicle_year") + ")",
+                        rs.getLong("service_count"), rs.getBigDecimal("total_cost"),
+                        rs.getDate("last_service_date").toLocalDate()),
+                args.toArray());
+    }
+
+    /**
+     * Sort order of the summary listing. Ties are broken by ascending vehicle id, which
+     * makes (sort value, vehicle id) a unique key usable as a keyset pagination cursor.
+     */
+    public static final class SummarySort {
+
+        private final String column;
+        private final boolean descending;
+
+        private SummarySort(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        /**
+         * Parses {@code field} or {@code -field} for descending order; the default is
+         * by total cost, highest first.
+         */
+        public static SummarySort parse(String sort) {
+            if (sort == null || sort.isBlank()) {
+                return new SummarySort("total_cost", true);
+            }
+            boolean descending = sort.startsWith("-");
+            String field = descending ? sort.substring(1) : sort;
+            switch (field) {
+                case "vehicleId":
+                    return new SummarySort("vehicle_id", descending);
+                case "totalCost":
+                    return new SummarySort("total_cost", descending);
+                case "serviceCount":
+                    return new SummarySort("service_count", descending);
+                case "lastServiceDate":
+                    return new SummarySort("last_service_date", descending);
+                default:
+                    throw new IllegalArgumentException("Unsupported sort field: " + field);
+            }
+        }
+
+        /**
+         * Cursor key of a row: "vehicleId" for vehicle order, "value:vehicleId" otherwise.
+         */
+        public String keyOf(MaintenanceSummaryDTO summary) {
+            switch (column) {
+                case "total_cost":
+                    return summary.getTotalCost().toPlainString() + ":" + summary.getVehicleId();
+                case "service_count":
+                    return summary.getServiceCount() + ":" + summary.getVehicleId();
+                case "last_service_date":
+                    return summary.getLastServiceDate() + ":" + summary.getVehicleId();
+                default:
+                    return summary.getVehicleId().toString();
+            }
+        }
+
+        String orderBy() {
+            String direction = descending ? " DESC" : "";
+            return "vehicle_id".equals(column)
+                    ? "s.vehicle_id" + direction
+                    : "s." + column + direction + ", s.vehicle_id";
+        }
+
+        /**
+         * The condition for rows strictly after the cursor key, adding its arguments.
+         */
+        String after(String key, List<Object> args) {
+            String beyond = descending ? " < ?" : " > ?";
+            try {
+                if ("vehicle_id".equals(column)) {
+                    args.add(Long.parseLong(key));
+                    return "s.vehicle_id" + beyond;
+                }
+                int separator = key.lastIndexOf(':');
+                long afterId = Long.parseLong(key.substring(separator + 1));
+                String text = key.substring(0, separator);
+                Object value = switch (column) {
+                    case "total_cost" -> new BigDecimal(text);
+                    case "service_count" -> Long.parseLong(text);
+                    default -> Date.valueOf(LocalDate.parse(text));
+                };
+                args.add(value);
+                args.add(value);
+                args.add(afterId);
+                return "(s." + column + beyond + " OR (s." + column + " = ? AND s.vehicle_id > ?))";
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.dto.OrderStatsDTO;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-day and per-month order totals kept in {@code order_rollups} (see schema.sql),
+ * so that revenue reports read one row per bucket, status and make instead of every
+ * order in the range.
+ *
+ * <p>Each bucket has one row per status under the make {@link #ALL_MAKES} with the
+ * orders' own totals, and one row per status and make with the totals of that make's
+ * items. Writers add and subtract whole orders through a {@link Delta} in the same
+ * transaction as the order change, so the rollups commit or roll back with it.
+ *
+ * <p>Every order of a day would otherwise update the same {@link #ALL_MAKES} rows and
+ * queue behind each other's row locks until commit. Each key is therefore split into
+ * {@code order.rollups.stripes} rows: a transaction writes all its changes to one
+ * randomly chosen stripe, and reads sum the stripes. A rebuild writes stripe 0 only.
+ */
+@Component
+public class OrderRollupStore {
+
+    public static final String ALL_MAKES = "*";
+
+    private static final String UPDATE =
+            "UPDATE order_rollups SET order_count = order_count + ?, revenue = revenue + ?, units = units + ? " +
+            "WHERE granularity = ? AND bucket_start = ? AND status = ? AND make = ? AND stripe = ?";
+    private static final String INSERT =
+            "INSERT INTO order_rollups (granularity, bucket_start, status, make, stripe, order_count, revenue, units) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    // Live and archived orders and items; the rollups count both
+    private static final String ALL_ORDERS =
+            "(SELECT id, order_date, status, total_amount FROM orders " +
+            "UNION ALL SELECT id, order_date, status, total_amount FROM orders_archive)";
+    private static final String ALL_ITEMS =
+            "(SELECT order_id, vehicle_id, quantity, subtotal FROM order_items " +
+            "UNION ALL SELECT order_id, vehicle_id, quantity, subtotal FROM order_items_archive)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int stripes;
+
+    @Autowired
+    public OrderRollupStore(JdbcTemplate jdbcTemplate, @Value("${order.rollups.stripes:16}") int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("order.rollups.stripes must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripes = stripes;
+    }
+
+    /**
+     * Adds the changes to the rollups, all in one stripe. Rows are written in key
+     * order, so concurrent transactions that pick the same stripe lock them in the
+     * same order.
+     */
+    public void apply(Delta delta) {
+        List<Map.Entry<Key, Totals>> changes = new ArrayList<>(delta.changes.entrySet());
+        changes.removeIf(change -> change.getValue().isZero());
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.sort(Map.Entry.comparingByKey());
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE, changes, changes.size(), (ps, change) -> {
+            Totals totals = change.getValue();
+            ps.setLong(1, totals.orderCount);
+            ps.setBigDecimal(2, totals.revenue);
+            ps.setLong(3, totals.units);
+            change.getKey().bind(ps, 4);
+            ps.setInt(8, stripe);
+        })[0];
+        for (int i = 0; i < changes.size(); i++) {
+            if (updated[i] == 0) {
+                insertOrAdd(changes.get(i).getKey(), stripe, changes.get(i).getValue());
+            }
+        }
+    }
+
+    /**
+     * Whether any rollup has been written, i.e. whether a rebuild has ever run or
+     * orders have been placed since the table was created.
+     */
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM order_rollups LIMIT 1").isEmpty();
+    }
+
+    /**
+     * Reads the buckets from the one containing {@code from} through the one containing
+     * {@code to}, including empty ones, in date order. Stripes are summed in the query.
+     */
+    public List<OrderStatsDTO> read(RollupBucket bucket, LocalDate from, LocalDate to) {
+        Map<LocalDate, OrderStatsDTO> stats = new LinkedHashMap<>();
+        for (LocalDate start = bucket.startOf(from); !start.isAfter(to); start = bucket.next(start)) {
+            stats.put(start, new OrderStatsDTO(start));
+        }
+        jdbcTemplate.query(
+                "SELECT bucket_start, status, make, SUM(order_count) AS order_count, SUM(revenue) AS revenue, " +
+                "SUM(units) AS units FROM order_rollups WHERE granularity = ? AND bucket_start BETWEEN ? AND ? " +
+                "GROUP BY bucket_start, status, make",
+                rs -> {
+                    OrderStatsDTO bucketStats = stats.get(rs.getDate("bucket_start").toLocalDate());
+                    OrderStatsDTO.Totals totals = new OrderStatsDTO.Totals(rs.getLong("order_count"),
+                            rs.getBigDecimal("revenue"), rs.getLong("units"));
+                    if (totals.getOrderCount() == 0) {
+                        return;
+                    }
+                    String make = rs.getString("make");
+                    if (ALL_MAKES.equals(make)) {
+                        bucketStats.setOrderCount(bucketStats.getOrderCount() + totals.getOrderCount());
+                        bucketStats.setRevenue(bucketStats.getRevenue().add(totals.getRevenue()));
+                        bucketStats.setUnits(bucketStats.getUnits() + totals.getUnits());
+                        bucketStats.getByStatus().put(rs.getString("status"), totals);
+                    } else {
+                        bucketStats.getByMake().merge(make, totals, OrderRollupStore::sum);
+                    }
+                },
+                bucket.name(), Date.valueOf(bucket.startOf(from)), Date.valueOf(to));
+        return new ArrayList<>(stats.values());
+    }
+
+    /**
+     * Recomputes every rollup from the live and archived orders in one transaction. The table is
+     * locked first: orders placed meanwhile wait for the rebuild to commit and are
+     * then added on top, and orders that committed before are counted by it.
+     *
+     * @return the number of rollup rows written
+     */
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE order_rollups IN EXCLUSIVE MODE");
+        Delta delta = new Delta();
+        jdbcTemplate.query(
+                "SELECT CAST(o.order_date AS DATE) AS order_day, o.status, COUNT(*) AS order_count, " +
+                "SUM(o.total_amount) AS revenue, SUM(COALESCE(u.units, 0)) AS units FROM " + ALL_ORDERS + " o " +
+                "LEFT JOIN (SELECT order_id, SUM(quantity) AS units FROM " + ALL_ITEMS + " a GROUP BY order_id) u " +
+                "ON u.order_id = o.id " +
+                "GROUP BY CAST(o.order_date AS DATE), o.status",
+                rs -> {
+                    delta.add(rs.getDate("order_day").toLocalDate(), rs.getString("status"), ALL_MAKES,
+                            rs.getLong("order_count"), rs.getBigDecimal("revenue"), rs.getLong("units"));
+                });
+        jdbcTemplate.query(
+                "SELECT CAST(o.order_date AS DATE) AS order_day, o.status, v.make, COUNT(DISTINCT o.id) AS order_count, " +
+                "SUM(i.subtotal) AS revenue, SUM(i.quantity) AS units FROM " + ALL_ORDERS + " o " +
+                "JOIN " + ALL_ITEMS + " i ON i.order_id = o.id JOIN vehicles v ON v.id = i.vehicle_id " +
+                "GROUP BY CAST(o.order_date AS DATE), o.status, v.make",
+                rs -> {
+                    delta.add(rs.getDate("order_day").toLocalDate(), rs.getString("status"), rs.getString("make"),
+                            rs.getLong("order_count"), rs.getBigDecimal("revenue"), rs.getLong("units"));
+                });
+
+        jdbcTemplate.update("DELETE FROM order_rollups");
+        List<Map.Entry<Key, Totals>> rows = new ArrayList<>(delta.changes.entrySet());
+        rows.sort(Map.Entry.comparingByKey());
+        jdbcTemplate.batchUpdate(INSERT, rows, 500, (ps, row) -> bindInsert(ps, row.getKey(), 0, row.getValue()));
+        return rows.size();
+    }
+
+    /**
+     * Adds to {@code delta} the move of the given orders from their current statuses
+     * to {@code target}, aggregated in the database so that no order is loaded. Must
+     * run before the status update, with the orders locked.
+     */
+    public void collectStatusChange(Delta delta, Collection<Long> orderIds, String target) {
+        String in = "(" + String.join(", ", Collections.nCopies(orderIds.size(), "?")) + ")";
+        Object[] ids = orderIds.toArray();
+        jdbcTemplate.query(
+                "SELECT CAST(o.order_date AS DATE) AS order_day, o.status, COUNT(*) AS order_count, " +
+                "SUM(o.total_amount) AS revenue, SUM(COALESCE(u.units, 0)) AS units FROM orders o " +
+                "LEFT JOIN (SELECT order_id, SUM(quantity) AS units FROM order_items WHERE order_id IN " + in +
+                " GROUP BY order_id) u ON u.order_id = o.id WHERE o.id IN " + in +
+                " GROUP BY CAST(o.order_date AS DATE), o.status",
+                rs -> {
+                    delta.move(rs.getDate("order_day").toLocalDate(), rs.getString("status"), target, ALL_MAKES,
+                            rs.getLong("order_count"), rs.getBigDecimal("revenue"), rs.getLong("units"));
+                },
+                concat(ids, ids));
+        jdbcTemplate.query(
+                "SELECT CAST(o.order_date AS DATE) AS order_day, o.status, v.make, " +
+                "COUNT(DISTINCT o.id) AS order_count, SUM(i.subtotal) AS revenue, SUM(i.quantity) AS units " +
+                "FROM orders o JOIN order_items i ON i.order_id = o.id JOIN vehicles v ON v.id = i.vehicle_id " +
+                "WHERE o.id IN " + in + " GROUP BY CAST(o.order_date AS DATE), o.status, v.make",
+                rs -> {
+                    delta.move(rs.getDate("order_day").toLocalDate(), rs.getString("status"), target,
+                            rs.getString("make"), rs.getLong("order_count"), rs.getBigDecimal("revenue"),
+                            rs.getLong("units"));
+                },
+                ids);
+    }
+
+    /**
+     * Inserts a row that did not exist when its update ran. If another transaction
+     * inserted it meanwhile, the insert is skipped and the update retried, which now
+     * finds the row.
+     */
+    private void insertOrAdd(Key key, int stripe, Totals totals) {
+        int inserted = jdbcTemplate.update(INSERT, ps -> bindInsert(ps, key, stripe, totals));
+        if (inserted == 0) {
+            jdbcTemplate.update(UPDATE, ps -> {
+                ps.setLong(1, totals.orderCount);
+                ps.setBigDecimal(2, totals.revenue);
+                ps.setLong(3, totals.units);
+                key.bind(ps, 4);
+                ps.setInt(8, stripe);
+            });
+        }
+    }
+
+    private static void bindInsert(PreparedStatement ps, Key key, int stripe, Totals totals)
+            throws SQLException {
+        key.bind(ps, 1);
+        ps.setInt(5, stripe);
+        ps.setLong(6, totals.orderCount);
+        ps.setBigDecimal(7, totals.revenue);
+        ps.setLong(8, totals.units);
+    }
+
+    private static Object[] concat(Object[] first, Object[] second) {
+        Object[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    private static OrderStatsDTO.Totals sum(OrderStatsDTO.Totals a, OrderStatsDTO.Totals b) {
+        return new OrderStatsDTO.Totals(a.getOrderCount() + b.getOrderCount(), a.getRevenue().add(b.getRevenue()),
+                a.getUnits() + b.getUnits());
+    }
+
+    /**
+     * Changes to the rollups, collected over a transaction and applied at its end.
+     */
+    public static final class Delta {
+
+        private final Map<Key, Totals> changes = new HashMap<>();
+
+        /**
+         * Adds ({@code sign} 1) or subtracts ({@code sign} -1) an order as it is now:
+         * its date, status, total and items.
+         */
+        public void add(Order order, Collection<OrderItem> items, int sign) {
+            LocalDate day = order.getOrderDate().toLocalDate();
+            String status = order.getStatus().name();
+            long units = 0;
+            Map<String, Totals> byMake = new TreeMap<>();
+            for (OrderItem item : items) {
+                units += item.getQuantity();
+                Totals makeTotals = byMake.computeIfAbsent(item.getVehicle().getMake(), make -> new Totals());
+                makeTotals.orderCount = 1;
+                makeTotals.revenue = makeTotals.revenue.add(item.getSubtotal());
+                makeTotals.units += item.getQuantity();
+            }
+            add(day, status, ALL_MAKES, sign, order.getTotalAmount().multiply(BigDecimal.valueOf(sign)),
+                    sign * units);
+            byMake.forEach((make, totals) -> add(day, status, make, sign,
+                    totals.revenue.multiply(BigDecimal.valueOf(sign)), sign * totals.units));
+        }
+
+        private void move(LocalDate day, String from, String to, String make, long orderCount,
+                          BigDecimal revenue, long units) {
+            add(day, from, make, -orderCount, revenue.negate(), -units);
+            add(day, to, make, orderCount, revenue, units);
+        }
+
+        private void add(LocalDate day, String status, String make, long orderCount, BigDecimal revenue,
+                         long units) {
+            for (RollupBucket bucket : RollupBucket.values()) {
+                Totals totals = changes.computeIfAbsent(new Key(bucket, bucket.startOf(day), status, make),
+                        key -> new Totals());
+                totals.orderCount += orderCount;
+                totals.revenue = totals.revenue.add(revenue);
+                totals.units += units;
+            }
+        }
+    }
+
+    private record Key(RollupBucket bucket, LocalDate start, String status, String make) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::bucket)
+                .thenComparing(Key::start)
+                .thenComparing(Key::status)
+                .thenComparing(Key::make);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+
+        void bind(PreparedStatement ps, int first) throws SQLException {
+            ps.setString(first, bucket.name());
+            ps.setDate(first + 1, Date.valueOf(start));
+            ps.setString(first + 2, status);
+            ps.setString(first + 3, make);
+        }
+    }
+
+    private static final class Totals {
+
+        private long orderCount;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long units;
+
+        boolean isZero() {
+            return orderCount == 0 && units == 0 && revenue.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.stockmanage.automobile.reporting;
+
+import java.time.LocalDate;
+
+/**
+ * Granularity of the order rollups.
+ */
+public enum RollupBucket {
+    DAY,
+    MONTH;
+
+    /**
+     * The first day of the bucket containing {@code date}.
+     */
+    public LocalDate startOf(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+
+    /**
+     * The first day of the bucket after the one starting at {@code start}.
+     */
+    public LocalDate next(LocalDate start) {
+        return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.dto.SalesVelocityDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Turns per make/model day counts into velocity figures on a dedicated fork-join
+ * pool. The groups are split in halves until a task covers few enough samples;
+ * each group's day counts are sorted for the percentiles, large ones with a
+ * parallel sort that runs on the same pool.
+ */
+@Component
+public class SalesVelocityCalculator {
+
+    // A task summarizing fewer samples than this does so itself instead of splitting
+    private static final int SPLIT_THRESHOLD = 50_000;
+
+    // Groups larger than this are sorted with a parallel sort
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    private static final Comparator<SalesVelocityDTO.Group> FASTEST_FIRST = Comparator
+            .comparing(SalesVelocityDTO.Group::getP50DaysToSell, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(SalesVelocityDTO.Group::getP90DaysToSell, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(SalesVelocityDTO.Group::getMake)
+            .thenComparing(SalesVelocityDTO.Group::getModel);
+
+    private final ForkJoinPool pool;
+
+    public SalesVelocityCalculator(@Value("${analytics.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public List<SalesVelocityDTO.Group> calculate(List<VelocitySamples> samples) {
+        List<SalesVelocityDTO.Group> groups = pool.invoke(new SummarizeTask(samples));
+        groups.sort(FASTEST_FIRST);
+        return groups;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static SalesVelocityDTO.Group summarize(VelocitySamples samples) {
+        int[] sold = sorted(samples.daysToSell());
+        int[] inStock = sorted(samples.daysInStock());
+        SalesVelocityDTO.Group group = new SalesVelocityDTO.Group();
+        group.setMake(samples.getMake());
+        group.setModel(samples.getModel());
+        group.setSoldCount(sold.length);
+        group.setInStockCount(inStock.length);
+        if (sold.length > 0) {
+            long total = 0;
+            for (int days : sold) {
+                total += days;
+            }
+            group.setAverageDaysToSell((double) total / sold.length);
+            group.setP50DaysToSell(percentile(sold, 50));
+            group.setP90DaysToSell(percentile(sold, 90));
+        }
+        if (inStock.length > 0) {
+            group.setP50DaysInStock(percentile(inStock, 50));
+            group.setP90DaysInStock(percentile(inStock, 90));
+            group.setMaxDaysInStock(inStock[inStock.length - 1]);
+        }
+        return group;
+    }
+
+    private static int[] sorted(int[] values) {
+        if (values.length > PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(values);
+        } else {
+            Arrays.sort(values);
+        }
+        return values;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted, non-empty values.
+     */
+    private static int percentile(int[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static final class SummarizeTask extends RecursiveTask<List<SalesVelocityDTO.Group>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<VelocitySamples> samples;
+
+        SummarizeTask(List<VelocitySamples> samples) {
+            this.samples = samples;
+        }
+
+        @Override
+        protected List<SalesVelocityDTO.Group> compute() {
+            if (samples.size() == 1 || size(samples) <= SPLIT_THRESHOLD) {
+                List<SalesVelocityDTO.Group> groups = new ArrayList<>(samples.size());
+                for (VelocitySamples group : samples) {
+                    groups.add(summarize(group));
+                }
+                return groups;
+            }
+            int middle = samples.size() / 2;
+            SummarizeTask left = new SummarizeTask(samples.subList(0, middle));
+            SummarizeTask right = new SummarizeTask(samples.subList(middle, samples.size()));
+            left.fork();
+            List<SalesVelocityDTO.Group> groups = new ArrayList<>(right.compute());
+            groups.addAll(left.join());
+            return groups;
+        }
+
+        private static long size(List<VelocitySamples> samples) {
+            long size = 0;
+            for (VelocitySamples group : samples) {
+                size += group.size();
+            }
+            return size;
+        }
+    }
+}
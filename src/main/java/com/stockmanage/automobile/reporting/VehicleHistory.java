@@ -0,0 +1,113 @@
+package com.stockmanage.automobile.reporting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The maintenance history of one vehicle that the forecast is fitted on: type,
+ * service date (as epoch day) and cost in cents of each counted record, kept in
+ * growable arrays. Once complete it is {@link #seal sealed}, which orders the
+ * records by type and date.
+ */
+public final class VehicleHistory {
+
+    private final long vehicleId;
+    private final String make;
+    private final String model;
+    private String[] types = new String[4];
+    private int[] days = new int[4];
+    private long[] costCents = new long[4];
+    private int size;
+
+    public VehicleHistory(long vehicleId, String make, String model) {
+        this.vehicleId = vehicleId;
+        this.make = make;
+        this.model = model;
+    }
+
+    public void add(String type, int epochDay, long cents) {
+        if (size == days.length) {
+            types = Arrays.copyOf(types, size * 2);
+            days = Arrays.copyOf(days, size * 2);
+            costCents = Arrays.copyOf(costCents, size * 2);
+        }
+        types[size] = type;
+        days[size] = epochDay;
+        costCents[size] = cents;
+        size++;
+    }
+
+    /**
+     * Trims the arrays and orders the records by type, then date.
+     */
+    public VehicleHistory seal() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer, String>comparing(i -> types[i]).thenComparingInt(i -> days[i])
+                .thenComparingLong(i -> costCents[i]));
+        String[] sortedTypes = new String[size];
+        int[] sortedDays = new int[size];
+        long[] sortedCosts = new long[size];
+        for (int i = 0; i < size; i++) {
+            sortedTypes[i] = types[order[i]];
+            sortedDays[i] = days[order[i]];
+            sortedCosts[i] = costCents[order[i]];
+        }
+        types = sortedTypes;
+        days = sortedDays;
+        costCents = sortedCosts;
+        return this;
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * The make/model group whose forecast model the vehicle shares.
+     */
+    public String groupKey() {
+        return groupKey(make, model);
+    }
+
+    public static String groupKey(String make, String model) {
+        return make + '\u0000' + model;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String typeAt(int index) {
+        return types[index];
+    }
+
+    public int dayAt(int index) {
+        return days[index];
+    }
+
+    public long costCentsAt(int index) {
+        return costCents[index];
+    }
+
+    /**
+     * Whether both hold the same vehicle, group and records; both must be sealed.
+     */
+    public boolean sameAs(VehicleHistory other) {
+        return other != null && vehicleId == other.vehicleId && size == other.size
+                && make.equals(other.make) && model.equals(other.model)
+                && Arrays.equals(types, 0, size, other.types, 0, size)
+                && Arrays.equals(days, 0, size, other.days, 0, size)
+                && Arrays.equals(costCents, 0, size, other.costCents, 0, size);
+    }
+}
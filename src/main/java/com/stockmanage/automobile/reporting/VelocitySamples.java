@@ -0,0 +1,56 @@
+package com.stockmanage.automobile.reporting;
+
+import java.util.Arrays;
+
+/**
+ * Day counts collected for one make/model: days to sell for sold vehicles and days
+ * in stock for unsold ones, kept as growable int arrays.
+ */
+public final class VelocitySamples {
+
+    private final String make;
+    private final String model;
+    private int[] daysToSell = new int[8];
+    private int soldCount;
+    private int[] daysInStock = new int[8];
+    private int inStockCount;
+
+    public VelocitySamples(String make, String model) {
+        this.make = make;
+        this.model = model;
+    }
+
+    public void addSold(int days) {
+        if (soldCount == daysToSell.length) {
+            daysToSell = Arrays.copyOf(daysToSell, soldCount * 2);
+        }
+        daysToSell[soldCount++] = days;
+    }
+
+    public void addInStock(int days) {
+        if (inStockCount == daysInStock.length) {
+            daysInStock = Arrays.copyOf(daysInStock, inStockCount * 2);
+        }
+        daysInStock[inStockCount++] = days;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int size() {
+        return soldCount + inStockCount;
+    }
+
+    public int[] daysToSell() {
+        return Arrays.copyOf(daysToSell, soldCount);
+    }
+
+    public int[] daysInStock() {
+        return Arrays.copyOf(daysInStock, inStockCount);
+    }
+}
@@ -0,0 +1,26 @@
+package com.stockmanage.automobile.repository;
+
+import com.stockmanage.automobile.dto.OrderItemDTO;
+import com.stockmanage.automobile.model.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+    
+    String VIEW = "SELECT new com.stockmanage.automobile.dto.OrderItemDTO(i.id, i.orderId, v.id, " +
+                  "CONCAT(v.make, ' ', v.model, ' (', CAST(v.vehicleYear AS String), ')'), " +
+                  "i.quantity, i.unitPrice, i.subtotal, i.additionalServices, i.isPaid) " +
+                  "FROM ArchivedOrderItem i JOIN i.vehicle v ";
+    
+    // The order date bounds are those of the orders, so only their partitions are read
+    @Query(VIEW + "WHERE i.orderId IN :orderIds AND i.orderDate BETWEEN :from AND :to ORDER BY i.orderId, i.id")
+    List<OrderItemDTO> findViewsByOrderIdIn(Collection<Long> orderIds, LocalDateTime from, LocalDateTime to);
+    
+    boolean existsByVehicleId(Long vehicleId);
+}
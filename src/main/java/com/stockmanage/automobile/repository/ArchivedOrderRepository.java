@@ -0,0 +1,58 @@
+package com.stockmanage.automobile.repository;
+
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.model.ArchivedOrder;
+import com.stockmanage.automobile.model.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    
+    // Read views, shaped like OrderRepository.VIEW. Queries on the order date let the
+    // database skip archive partitions outside the range.
+    
+    String VIEW = "SELECT new com.stockmanage.automobile.dto.OrderDTO(o.id, o.orderNumber, u.id, " +
+                  "CONCAT(u.firstName, ' ', u.lastName), v.id, " +
+                  "CASE WHEN v.id IS NULL THEN NULL " +
+                  "ELSE CONCAT(v.make, ' ', v.model, ' (', CAST(v.vehicleYear AS String), ')') END, " +
+                  "o.orderDate, o.status, o.totalAmount, o.notes, o.paymentMethod, o.deliveryDate, " +
+                  "o.createdAt) FROM ArchivedOrder o JOIN o.user u LEFT JOIN o.vehicle v ";
+    
+    @Query(VIEW + "ORDER BY o.id")
+    List<OrderDTO> findAllViews();
+    
+    @Query(VIEW + "WHERE o.id = :id")
+    Optional<OrderDTO> findViewById(Long id);
+    
+    @Query(VIEW + "WHERE o.orderNumber = :orderNumber")
+    Optional<OrderDTO> findViewByOrderNumber(String orderNumber);
+    
+    @Query(VIEW + "WHERE u.id = :userId ORDER BY o.id")
+    List<OrderDTO> findViewsByUserId(Long userId);
+    
+    @Query(VIEW + "WHERE o.status = :status ORDER BY o.id")
+    List<OrderDTO> findViewsByStatus(Order.OrderStatus status);
+    
+    @Query(VIEW + "WHERE o.orderDate BETWEEN :startDate AND :endDate ORDER BY o.id")
+    List<OrderDTO> findViewsByOrderDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(VIEW + "WHERE o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsAfter(Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE u.id = :userId AND o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsByUserIdAfter(Long userId, Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE o.status = :status AND o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsByStatusAfter(Order.OrderStatus status, Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE o.orderDate BETWEEN :startDate AND :endDate AND o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsByOrderDateBetweenAfter(LocalDateTime startDate, LocalDateTime endDate,
+                                                    Long afterId, Limit limit);
+}
@@ -0,0 +1,9 @@
+package com.stockmanage.automobile.repository;
+
+import com.stockmanage.automobile.model.MaintenancePlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MaintenancePlanRepository extends JpaRepository<MaintenancePlan, Long> {
+}
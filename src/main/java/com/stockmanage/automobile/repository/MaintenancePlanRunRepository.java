@@ -0,0 +1,27 @@
+package com.stockmanage.automobile.repository;
+
+import com.stockmanage.automobile.model.MaintenancePlanRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MaintenancePlanRunRepository extends JpaRepository<MaintenancePlanRun, Long> {
+    
+    List<MaintenancePlanRun> findByPlanIdOrderByIdDesc(Long planId);
+    
+    @Query("SELECT r.id FROM MaintenancePlanRun r WHERE r.status IN :statuses ORDER BY r.id")
+    List<Long> findIdsByStatusIn(Collection<MaintenancePlanRun.RunStatus> statuses);
+    
+    // Each chunk of a run locks its row first, so two instances resuming the same run
+    // take turns and the second continues from the cursor the first committed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM MaintenancePlanRun r WHERE r.id = :id")
+    Optional<MaintenancePlanRun> findByIdForUpdate(Long id);
+}
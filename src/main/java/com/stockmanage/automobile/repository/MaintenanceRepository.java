@@ -1,12 +1,21 @@
 package com.stockmanage.automobile.repository;
 
+import com.stockmanage.automobile.dto.MaintenanceDTO;
 import com.stockmanage.automobile.model.Maintenance;
 import com.stockmanage.automobile.model.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MaintenanceRepository extends JpaRepository<Maintenance, Long> {
@@ -20,4 +29,74 @@ public interface MaintenanceRepository extends JpaRepository<Maintenance, Long>
     List<Maintenance> findByNextServiceDateLessThanEqual(LocalDate date);
     
     List<Maintenance> findByVehicleAndStatus(Vehicle vehicle, Maintenance.MaintenanceStatus status);
-} 
\ No newline at end of file
+    
+    // Read views: the DTO columns, vehicle details included, selected straight into
+    // DTOs without managed entities.
+    
+    String VIEW = "SELECT new com.stockmanage.automobile.dto.MaintenanceDTO(m.id, v.id, " +
+                  "CONCAT(v.make, ' ', v.model, ' (', CAST(v.vehicleYear AS String), ')'), " +
+                  "m.maintenanceType, m.serviceDate, m.nextServiceDate, m.cost, m.description, " +
+                  "m.serviceProvider, m.mileageAtService, m.status) FROM Maintenance m JOIN m.vehicle v ";
+    
+    @Query(VIEW + "ORDER BY m.id")
+    List<MaintenanceDTO> findAllViews();
+    
+    @Query(VIEW + "WHERE m.id = :id")
+    Optional<MaintenanceDTO> findViewById(Long id);
+    
+    @Query(VIEW + "WHERE v.id = :vehicleId ORDER BY m.id")
+    List<MaintenanceDTO> findViewsByVehicleId(Long vehicleId);
+    
+    @Query(VIEW + "WHERE m.status = :status ORDER BY m.id")
+    List<MaintenanceDTO> findViewsByStatus(Maintenance.MaintenanceStatus status);
+    
+    @Query(VIEW + "WHERE m.serviceDate BETWEEN :startDate AND :endDate ORDER BY m.id")
+    List<MaintenanceDTO> findViewsByServiceDateBetween(LocalDate startDate, LocalDate endDate);
+    
+    @Query(VIEW + "WHERE m.nextServiceDate <= :date ORDER BY m.id")
+    List<MaintenanceDTO> findViewsDueBy(LocalDate date);
+    
+    // Due-service schedule: loaded at startup, then refreshed for changed records and vehicles
+    
+    @Query(VIEW + "WHERE m.nextServiceDate IS NOT NULL")
+    List<MaintenanceDTO> findScheduledViews();
+    
+    @Query(VIEW + "WHERE m.id IN :ids")
+    List<MaintenanceDTO> findViewsByIdIn(Collection<Long> ids);
+    
+    @Query(VIEW + "WHERE v.id IN :vehicleIds")
+    List<MaintenanceDTO> findViewsByVehicleIdIn(Collection<Long> vehicleIds);
+    
+    @Query(VIEW + "WHERE m.id > :afterId ORDER BY m.id")
+    List<MaintenanceDTO> findViewsAfter(Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE v.id = :vehicleId AND m.id > :afterId ORDER BY m.id")
+    List<MaintenanceDTO> findViewsByVehicleIdAfter(Long vehicleId, Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE m.status = :status AND m.id > :afterId ORDER BY m.id")
+    List<MaintenanceDTO> findViewsByStatusAfter(Maintenance.MaintenanceStatus status, Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE m.serviceDate BETWEEN :startDate AND :endDate AND m.id > :afterId ORDER BY m.id")
+    List<MaintenanceDTO> findViewsByServiceDateBetweenAfter(LocalDate startDate, LocalDate endDate,
+                                                            Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE m.nextServiceDate <= :date AND m.id > :afterId ORDER BY m.id")
+    List<MaintenanceDTO> findViewsDueByAfter(LocalDate date, Long afterId, Limit limit);
+    
+    // Delta sync: rows written after the (changeVersion, id) cursor by transactions
+    // below the reader's snapshot bound, in cursor order
+    
+    @Query("SELECT m FROM Maintenance m JOIN FETCH m.vehicle " +
+           "WHERE (m.changeVersion > :version OR (m.changeVersion = :version AND m.id > :id)) " +
+           "AND m.changeVersion < :below ORDER BY m.changeVersion, m.id")
+    List<Maintenance> findChangedSince(long version, long id, long below, Limit limit);
+    
+    // Export: read through a server-side cursor, fetch-size rows at a time
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Maintenance m JOIN FETCH m.vehicle ORDER BY m.id")
+    Stream<Maintenance> streamAllOrderedById();
+}
\ No newline at end of file
@@ -1,12 +1,19 @@
 package com.stockmanage.automobile.repository;
 
+import com.stockmanage.automobile.dto.OrderItemDTO;
 import com.stockmanage.automobile.model.Order;
 import com.stockmanage.automobile.model.OrderItem;
 import com.stockmanage.automobile.model.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -16,4 +23,29 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByVehicle(Vehicle vehicle);
     
     List<OrderItem> findByIsPaid(Boolean isPaid);
+    
+    // Read views: items projected straight into DTOs so that no entities (and no
+    // eager order/vehicle loads) are involved
+    
+    String VIEW = "SELECT new com.stockmanage.automobile.dto.OrderItemDTO(i.id, i.order.id, v.id, " +
+                  "CONCAT(v.make, ' ', v.model, ' (', CAST(v.vehicleYear AS String), ')'), " +
+                  "i.quantity, i.unitPrice, i.subtotal, i.additionalServices, i.isPaid) " +
+                  "FROM OrderItem i JOIN i.vehicle v ";
+    
+    @Query(VIEW + "WHERE i.order.id = :orderId ORDER BY i.id")
+    List<OrderItemDTO> findViewsByOrderId(Long orderId);
+    
+    @Query(VIEW + "WHERE i.order.id IN :orderIds ORDER BY i.order.id, i.id")
+    List<OrderItemDTO> findViewsByOrderIdIn(Collection<Long> orderIds);
+    
+    // Stock release: the vehicles on a set of orders
+    
+    @Query("SELECT DISTINCT i.vehicle.id FROM OrderItem i WHERE i.order.id IN :orderIds")
+    List<Long> findVehicleIdsByOrderIdIn(Collection<Long> orderIds);
+    
+    // Export: all items grouped by order
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW + "ORDER BY i.order.id, i.id")
+    Stream<OrderItemDTO> streamAllOrderedByOrderId();
 } 
\ No newline at end of file
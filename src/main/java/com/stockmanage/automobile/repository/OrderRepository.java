@@ -1,14 +1,25 @@
 package com.stockmanage.automobile.repository;
 
+import com.stockmanage.automobile.dto.OrderDTO;
 import com.stockmanage.automobile.model.Order;
 import com.stockmanage.automobile.model.User;
 import com.stockmanage.automobile.model.Vehicle;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -24,4 +35,80 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserAndStatus(User user, Order.OrderStatus status);
     
     List<Order> findByVehicle(Vehicle vehicle);
-} 
\ No newline at end of file
+    
+    // Read views: order headers with the customer name and vehicle details built in
+    // the query, selected straight into DTOs without managed entities. Items are
+    // read separately.
+    
+    String VIEW = "SELECT new com.stockmanage.automobile.dto.OrderDTO(o.id, o.orderNumber, u.id, " +
+                  "CONCAT(u.firstName, ' ', u.lastName), v.id, " +
+                  "CASE WHEN v.id IS NULL THEN NULL " +
+                  "ELSE CONCAT(v.make, ' ', v.model, ' (', CAST(v.vehicleYear AS String), ')') END, " +
+                  "o.orderDate, o.status, o.totalAmount, o.notes, o.paymentMethod, o.deliveryDate, " +
+                  "o.createdAt) FROM Order o JOIN o.user u LEFT JOIN o.vehicle v ";
+    
+    @Query(VIEW + "ORDER BY o.id")
+    List<OrderDTO> findAllViews();
+    
+    @Query(VIEW + "WHERE o.id = :id")
+    Optional<OrderDTO> findViewById(Long id);
+    
+    @Query(VIEW + "WHERE o.orderNumber = :orderNumber")
+    Optional<OrderDTO> findViewByOrderNumber(String orderNumber);
+    
+    @Query(VIEW + "WHERE u.id = :userId ORDER BY o.id")
+    List<OrderDTO> findViewsByUserId(Long userId);
+    
+    @Query(VIEW + "WHERE o.status = :status ORDER BY o.id")
+    List<OrderDTO> findViewsByStatus(Order.OrderStatus status);
+    
+    @Query(VIEW + "WHERE o.orderDate BETWEEN :startDate AND :endDate ORDER BY o.id")
+    List<OrderDTO> findViewsByOrderDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(VIEW + "WHERE o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsAfter(Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE u.id = :userId AND o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsByUserIdAfter(Long userId, Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE o.status = :status AND o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsByStatusAfter(Order.OrderStatus status, Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE o.orderDate BETWEEN :startDate AND :endDate AND o.id > :afterId ORDER BY o.id")
+    List<OrderDTO> findViewsByOrderDateBetweenAfter(LocalDateTime startDate, LocalDateTime endDate,
+                                                    Long afterId, Limit limit);
+    
+    // Bulk status changes: current statuses read under row locks, in id order so that
+    // concurrent bulk changes lock rows in the same order, then one UPDATE per chunk
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<OrderStatusView> lockStatuses(Collection<Long> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.status = :status " +
+           "AND o.orderDate >= :from AND o.orderDate < :to ORDER BY o.id")
+    List<OrderStatusView> lockStatusesByStatus(Order.OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                               Limit limit);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :ids")
+    int updateStatus(Collection<Long> ids, Order.OrderStatus status);
+    
+    // Delta sync: rows written after the (changeVersion, id) cursor by transactions
+    // below the reader's snapshot bound, in cursor order
+    
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.vehicle " +
+           "WHERE (o.changeVersion > :version OR (o.changeVersion = :version AND o.id > :id)) " +
+           "AND o.changeVersion < :below ORDER BY o.changeVersion, o.id")
+    List<Order> findChangedSince(long version, long id, long below, Limit limit);
+    
+    // Export: read through a server-side cursor, fetch-size rows at a time
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.vehicle ORDER BY o.id")
+    Stream<Order> streamAllOrderedById();
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.stockmanage.automobile.repository;
+
+import com.stockmanage.automobile.model.Order;
+
+/**
+ * An order's id and status, for bulk status changes.
+ */
+public interface OrderStatusView {
+
+    Long getId();
+
+    Order.OrderStatus getStatus();
+}
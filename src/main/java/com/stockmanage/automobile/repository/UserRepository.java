@@ -1,9 +1,13 @@
 package com.stockmanage.automobile.repository;
 
+import com.stockmanage.automobile.dto.UserDTO;
 import com.stockmanage.automobile.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +20,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+    
+    // Read views: the DTO columns selected straight into DTOs, without managed entities
+    
+    String VIEW = "SELECT new com.stockmanage.automobile.dto.UserDTO(u.id, u.username, u.firstName, " +
+                  "u.lastName, u.email, u.phone, u.role) FROM User u ";
+    
+    @Query(VIEW + "ORDER BY u.id")
+    List<UserDTO> findAllViews();
+    
+    @Query(VIEW + "WHERE u.id = :id")
+    Optional<UserDTO> findViewById(Long id);
+    
+    @Query(VIEW + "WHERE u.username = :username")
+    Optional<UserDTO> findViewByUsername(String username);
+    
+    @Query(VIEW + "WHERE u.email = :email")
+    Optional<UserDTO> findViewByEmail(String email);
+    
+    @Query(VIEW + "WHERE u.role = :role ORDER BY u.id")
+    List<UserDTO> findViewsByRole(User.Role role);
+    
+    @Query(VIEW + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDTO> findViewsAfter(Long afterId, Limit limit);
+    
+    @Query(VIEW + "WHERE u.role = :role AND u.id > :afterId ORDER BY u.id")
+    List<UserDTO> findViewsByRoleAfter(User.Role role, Long afterId, Limit limit);
+}
\ No newline at end of file
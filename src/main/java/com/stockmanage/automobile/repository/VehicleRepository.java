@@ -1,15 +1,26 @@
 package com.stockmanage.automobile.repository;
 
+import com.stockmanage.automobile.model.Order;
 import com.stockmanage.automobile.model.Vehicle;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle> {
     
     List<Vehicle> findByMakeIgnoreCase(String make);
     
@@ -31,4 +42,96 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
            "LOWER(v.model) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(v.vin) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Vehicle> searchVehicles(String searchTerm);
-} 
\ No newline at end of file
+    
+    // Keyset pagination: rows after the given id, in id order
+    
+    List<Vehicle> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    List<Vehicle> findByMakeIgnoreCaseAndIdGreaterThanOrderByIdAsc(String make, Long afterId, Limit limit);
+    
+    List<Vehicle> findByModelIgnoreCaseAndIdGreaterThanOrderByIdAsc(String model, Long afterId, Limit limit);
+    
+    List<Vehicle> findByVehicleYearAndIdGreaterThanOrderByIdAsc(Integer year, Long afterId, Limit limit);
+    
+    List<Vehicle> findByAvailableAndIdGreaterThanOrderByIdAsc(Boolean available, Long afterId, Limit limit);
+    
+    List<Vehicle> findByFuelTypeAndIdGreaterThanOrderByIdAsc(Vehicle.FuelType fuelType, Long afterId, Limit limit);
+    
+    List<Vehicle> findByTransmissionTypeAndIdGreaterThanOrderByIdAsc(Vehicle.TransmissionType transmissionType,
+                                                                     Long afterId, Limit limit);
+    
+    List<Vehicle> findByPriceBetweenAndIdGreaterThanOrderByIdAsc(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                 Long afterId, Limit limit);
+    
+    List<Vehicle> findByMileageLessThanAndIdGreaterThanOrderByIdAsc(Integer maxMileage, Long afterId, Limit limit);
+    
+    @Query("SELECT v.vin FROM Vehicle v WHERE v.vin IN :vins")
+    List<String> findExistingVins(Collection<String> vins);
+    
+    // Reservation: an order locks the rows of its vehicles in id order and reads which
+    // of them are still available, then marks them all as sold with one UPDATE.
+    // Concurrent orders for the same vehicle queue on the row lock, and only the first
+    // still sees it available
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v.id FROM Vehicle v WHERE v.id IN :ids AND v.available = true ORDER BY v.id")
+    List<Long> lockAvailable(Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Vehicle v SET v.available = false, v.version = v.version + 1 " +
+           "WHERE v.id IN :ids AND v.available = true")
+    int claimAll(Collection<Long> ids);
+    
+    // Stock release: sold vehicles go back on sale once no order other than a
+    // cancelled one still holds them, live or archived. Rows are locked in id order
+    // first, like claims
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v.id FROM Vehicle v WHERE v.id IN :ids AND v.available = false ORDER BY v.id")
+    List<Long> lockSold(Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Vehicle v SET v.available = true, v.version = v.version + 1 " +
+           "WHERE v.id IN :ids AND v.available = false AND NOT EXISTS (" +
+           "SELECT i.id FROM OrderItem i WHERE i.vehicle.id = v.id AND i.order.status <> :cancelled) " +
+           "AND NOT EXISTS (SELECT a.id FROM ArchivedOrderItem a, ArchivedOrder o " +
+           "WHERE a.vehicle.id = v.id AND o.id = a.orderId AND o.orderDate = a.orderDate " +
+           "AND o.status <> :cancelled)")
+    int releaseAll(Collection<Long> ids, Order.OrderStatus cancelled);
+    
+    // Facet counts over available stock, used when the in-memory counters are not
+    // loaded and to check them. Prices are grouped into bands by the caller.
+    
+    @Query("SELECT v.make, COUNT(v) FROM Vehicle v WHERE v.available = true GROUP BY v.make")
+    List<Object[]> countAvailableByMake();
+    
+    @Query("SELECT v.fuelType, COUNT(v) FROM Vehicle v WHERE v.available = true GROUP BY v.fuelType")
+    List<Object[]> countAvailableByFuelType();
+    
+    @Query("SELECT v.transmissionType, COUNT(v) FROM Vehicle v WHERE v.available = true " +
+           "GROUP BY v.transmissionType")
+    List<Object[]> countAvailableByTransmissionType();
+    
+    @Query("SELECT v.vehicleYear, COUNT(v) FROM Vehicle v WHERE v.available = true GROUP BY v.vehicleYear")
+    List<Object[]> countAvailableByYear();
+    
+    @Query("SELECT v.price, COUNT(v) FROM Vehicle v WHERE v.available = true GROUP BY v.price")
+    List<Object[]> countAvailableByPrice();
+    
+    // Delta sync: rows written after the (changeVersion, id) cursor by transactions
+    // below the reader's snapshot bound, in cursor order
+    
+    @Query("SELECT v FROM Vehicle v WHERE (v.changeVersion > :version OR " +
+           "(v.changeVersion = :version AND v.id > :id)) AND v.changeVersion < :below " +
+           "ORDER BY v.changeVersion, v.id")
+    List<Vehicle> findChangedSince(long version, long id, long below, Limit limit);
+    
+    // Export: read through a server-side cursor, fetch-size rows at a time
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v FROM Vehicle v ORDER BY v.id")
+    Stream<Vehicle> streamAllOrderedById();
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.stockmanage.automobile.repository;
+
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import com.stockmanage.automobile.model.Vehicle;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the single SQL statement behind the faceted vehicle query. The
+ * predicates line up with the vehicle indexes in schema.sql: availability is
+ * rendered as a plain boolean test so the partial indexes on
+ * {@code WHERE available} apply, and make/model compare on {@code LOWER(...)}.
+ */
+public final class VehicleSpecifications {
+
+    private VehicleSpecifications() {
+    }
+
+    public static Specification<Vehicle> matching(VehicleQueryDTO query) {
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            
+            if (query.getMake() != null && !query.getMake().isBlank()) {
+                predicates.add(cb.equal(cb.lower(root.get("make")), query.getMake().trim().toLowerCase(Locale.ROOT)));
+            }
+            if (query.getModel() != null && !query.getModel().isBlank()) {
+                predicates.add(cb.equal(cb.lower(root.get("model")), query.getModel().trim().toLowerCase(Locale.ROOT)));
+            }
+            if (query.getMinYear() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("vehicleYear"), query.getMinYear()));
+            }
+            if (query.getMaxYear() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("vehicleYear"), query.getMaxYear()));
+            }
+            if (query.getFuelType() != null) {
+                predicates.add(cb.equal(root.get("fuelType"), query.getFuelType()));
+            }
+            if (query.getTransmissionType() != null) {
+                predicates.add(cb.equal(root.get("transmissionType"), query.getTransmissionType()));
+            }
+            if (query.getAvailable() != null) {
+                predicates.add(query.getAvailable() ? cb.isTrue(root.get("available")) : cb.isFalse(root.get("available")));
+            }
+            if (query.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), query.getMinPrice()));
+            }
+            if (query.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), query.getMaxPrice()));
+            }
+            if (query.getMaxMileage() != null) {
+                predicates.add(cb.lessThan(root.get("mileage"), query.getMaxMileage()));
+            }
+            
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Sort order of a faceted query. Ties are always broken by ascending id, which
+     * makes (sort value, id) a unique key usable as a keyset pagination cursor.
+     */
+    public static final class VehicleSort {
+
+        private final String property;
+        private final boolean descending;
+
+        private VehicleSort(String property, boolean descending) {
+            this.property = property;
+            this.descending = descending;
+        }
+
+        public static VehicleSort parse(String sort) {
+            if (sort == null || sort.isBlank()) {
+                return new VehicleSort("id", false);
+            }
+            boolean descending = sort.startsWith("-");
+            String field = descending ? sort.substring(1) : sort;
+            switch (field) {
+                case "id":
+                    return new VehicleSort("id", descending);
+                case "price":
+                    return new VehicleSort("price", descending);
+                case "mileage":
+                    return new VehicleSort("mileage", descending);
+                case "year":
+                    return new VehicleSort("vehicleYear", descending);
+                default:
+                    throw new IllegalArgumentException("Unsupported sort field: " + field);
+            }
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        public Sort toSort() {
+            Sort primary = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+            return "id".equals(property) ? primary : primary.and(Sort.by(Sort.Direction.ASC, "id"));
+        }
+
+        /**
+         * Cursor key of a row: "id" for id order, "value:id" otherwise.
+         */
+        public String keyOf(Vehicle vehicle) {
+            switch (property) {
+                case "price":
+                    return vehicle.getPrice().toPlainString() + ":" + vehicle.getId();
+                case "mileage":
+                    return vehicle.getMileage() + ":" + vehicle.getId();
+                case "vehicleYear":
+                    return vehicle.getVehicleYear() + ":" + vehicle.getId();
+                default:
+                    return vehicle.getId().toString();
+            }
+        }
+
+        /**
+         * Restricts the query to rows that sort strictly after the given cursor key.
+         */
+        public Specification<Vehicle> after(String key) {
+            try {
+                if ("id".equals(property)) {
+                    long afterId = Long.parseLong(key);
+                    return (root, query, cb) -> descending
+                            ? cb.lessThan(root.get("id"), afterId)
+                            : cb.greaterThan(root.get("id"), afterId);
+                }
+                int separator = key.lastIndexOf(':');
+                long afterId = Long.parseLong(key.substring(separator + 1));
+                String value = key.substring(0, separator);
+                if ("price".equals(property)) {
+                    return after(new BigDecimal(value), afterId);
+                }
+                return after(Integer.valueOf(value), afterId);
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException(key);
+            }
+        }
+
+        private <Y extends Comparable<? super Y>> Specification<Vehicle> after(Y value, long afterId) {
+            return (root, query, cb) -> {
+                Path<Y> path = root.get(property);
+                Predicate beyond = descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+                return cb.or(beyond, cb.and(cb.equal(path, value), cb.greaterThan(root.get("id"), afterId)));
+            };
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.stockmanage.automobile.reservation;
+
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.repository.OrderItemRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Puts the vehicles of deleted and cancelled orders back on sale.
+ *
+ * <p>A vehicle is released only if no order other than a cancelled one still holds
+ * it, so deleting an old cancelled order never frees a vehicle that has been sold
+ * again since. Archived orders count too: a delivered order moved to the archive
+ * still holds its vehicle. The vehicle rows are locked in id order, as when orders claim them,
+ * and then flipped with one UPDATE per chunk; an order placed concurrently either
+ * finds the vehicle still sold or sees it available once the release commits.
+ * Callers must have deleted or cancelled the orders in the same transaction first.
+ */
+@Component
+public class StockRelease {
+
+    // Vehicles per locking read and UPDATE
+    private static final int CHUNK_SIZE = 1000;
+
+    private final VehicleRepository vehicleRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public StockRelease(VehicleRepository vehicleRepository,
+                        OrderItemRepository orderItemRepository,
+                        ApplicationEventPublisher eventPublisher) {
+        this.vehicleRepository = vehicleRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Releases the vehicles on the given orders, which must already be cancelled.
+     *
+     * @return the number of vehicles put back on sale
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int releaseOrders(Collection<Long> orderIds) {
+        List<Long> vehicleIds = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            vehicleIds.addAll(orderItemRepository.findVehicleIdsByOrderIdIn(
+                    ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))));
+        }
+        return releaseVehicles(vehicleIds);
+    }
+
+    /**
+     * Releases the given vehicles, skipping those another live order still holds.
+     *
+     * @return the number of vehicles put back on sale
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int releaseVehicles(Collection<Long> vehicleIds) {
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(vehicleIds));
+        int released = 0;
+        List<Long> changed = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += CHUNK_SIZE) {
+            List<Long> sold = vehicleRepository.lockSold(
+                    sorted.subList(from, Math.min(from + CHUNK_SIZE, sorted.size())));
+            if (!sold.isEmpty()) {
+                released += vehicleRepository.releaseAll(sold, Order.OrderStatus.CANCELLED);
+                changed.addAll(sold);
+            }
+        }
+        if (!changed.isEmpty()) {
+            // Listeners reload the vehicles after commit, so caches, search and facet
+            // counts pick up the new availability
+            eventPublisher.publishEvent(new VehicleChangedEvent(changed));
+        }
+        return released;
+    }
+}
@@ -0,0 +1,124 @@
+package com.stockmanage.automobile.reservation;
+
+import com.stockmanage.automobile.dto.VehicleHoldDTO;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Time-limited holds that reserve available vehicles for a customer's cart.
+ *
+ * <p>Holds live in memory and are split over a fixed number of stripes, each with
+ * its own lock, so holds on different vehicles rarely contend. They are advisory:
+ * the sale itself is decided by the conditional claim in the database, and a hold
+ * only keeps other customers from claiming the vehicle while it lasts. Expired
+ * holds are ignored, and dropped from a stripe whenever a new hold is placed in it.
+ */
+@Component
+public class VehicleReservationRegistry {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Duration ttl;
+
+    public VehicleReservationRegistry(@Value("${vehicle.reservation.hold-ttl:15m}") Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("vehicle.reservation.hold-ttl must be positive");
+        }
+        this.ttl = ttl;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Holds a vehicle for a customer, or extends the customer's existing hold.
+     *
+     * @throws VehicleUnavailableException if another customer holds the vehicle
+     */
+    public VehicleHoldDTO hold(Long vehicleId, Long userId) {
+        Stripe stripe = stripeOf(vehicleId);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            stripe.purgeExpired(now);
+            Hold current = stripe.holds.get(vehicleId);
+            if (current != null && !current.userId.equals(userId)) {
+                throw new VehicleUnavailableException(vehicleId, "held for another customer");
+            }
+            stripe.holds.put(vehicleId, new Hold(userId, now + ttl.toNanos()));
+        }
+        return new VehicleHoldDTO(vehicleId, userId, LocalDateTime.now().plus(ttl));
+    }
+
+    /**
+     * Checks that a customer may claim a vehicle: it is either not held or held by them.
+     *
+     * @throws VehicleUnavailableException if another customer holds the vehicle
+     */
+    public void checkClaimable(Long vehicleId, Long userId) {
+        Stripe stripe = stripeOf(vehicleId);
+        synchronized (stripe) {
+            Hold current = stripe.holds.get(vehicleId);
+            if (current != null && !current.isExpired(System.nanoTime()) && !current.userId.equals(userId)) {
+                throw new VehicleUnavailableException(vehicleId, "held for another customer");
+            }
+        }
+    }
+
+    /**
+     * Drops the customer's holds on the given vehicles; holds of other customers are kept.
+     */
+    public void release(Collection<Long> vehicleIds, Long userId) {
+        for (Long vehicleId : vehicleIds) {
+            Stripe stripe = stripeOf(vehicleId);
+            synchronized (stripe) {
+                Hold current = stripe.holds.get(vehicleId);
+                if (current != null && current.userId.equals(userId)) {
+                    stripe.holds.remove(vehicleId);
+                }
+            }
+        }
+    }
+
+    private Stripe stripeOf(Long vehicleId) {
+        int hash = vehicleId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final Map<Long, Hold> holds = new HashMap<>();
+
+        void purgeExpired(long now) {
+            Iterator<Hold> it = holds.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isExpired(now)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Hold {
+
+        private final Long userId;
+        private final long expiresAtNanos;
+
+        Hold(Long userId, long expiresAtNanos) {
+            this.userId = userId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package com.stockmanage.automobile.search;
+
+import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.VehicleSpecifications.VehicleSort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented in-memory copy of the vehicle catalog for answering faceted
+ * queries without a database round trip.
+ *
+ * Year, mileage and price (in cents) are held in primitive arrays, make and model
+ * as dictionary codes, and fuel type, transmission type and availability as one
+ * bitmap per value. A query intersects the bitmaps of its equality filters, then
+ * scans the surviving rows' primitive columns for the range filters, keeping the
+ * best rows of the requested page in a bounded heap. Large tables are scanned in
+ * fixed-size chunks in parallel.
+ *
+ * Each row also keeps its {@link VehicleDTO} so a page is returned without
+ * touching the database. Updated vehicles are rewritten in place; deleted ones
+ * leave a free slot until deletions make up half of the store, when it is compacted.
+ */
+@Component
+public class ColumnarVehicleStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarVehicleStore.class);
+
+    // Rows per scan chunk; a multiple of 64 so chunks never share a bitmap word
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_DELETED_FOR_COMPACTION = 10_000;
+
+    private static final Vehicle.FuelType[] FUEL_TYPES = Vehicle.FuelType.values();
+    private static final Vehicle.TransmissionType[] TRANSMISSION_TYPES = Vehicle.TransmissionType.values();
+
+    public enum Backend {
+        SQL,
+        COLUMNAR
+    }
+
+    private final Backend backend;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, Integer> slotById;
+    private int rowCount;
+    private int deletedCount;
+    private long[] ids;
+    private int[] years;
+    private int[] mileages;
+    private long[] pricesInCents;
+    private int[] makeCodes;
+    private int[] modelCodes;
+    private VehicleDTO[] rows;
+    private Dictionary makes;
+    private Dictionary models;
+    private BitSet live;
+    private BitSet available;
+    private BitSet[] byFuelType;
+    private BitSet[] byTransmissionType;
+
+    private Set<Long> touchedDuringLoad;
+    private volatile boolean ready;
+
+    public ColumnarVehicleStore(@Value("${vehicle.query.backend:SQL}") Backend backend) {
+        this.backend = backend;
+        reset();
+    }
+
+    /**
+     * Whether faceted queries should be answered here; the store is only loaded when this is set.
+     */
+    public boolean isEnabled() {
+        return backend == Backend.COLUMNAR;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the store ahead of a full load. Changes applied while the load runs
+     * win over loaded rows, which may have been read before the change committed.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            reset();
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(Collection<VehicleDTO> vehicles) {
+        lock.writeLock().lock();
+        try {
+            for (VehicleDTO vehicle : vehicles) {
+                if (touchedDuringLoad == null || !touchedDuringLoad.contains(vehicle.getId())) {
+                    write(vehicle);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Columnar vehicle store ready with {} rows", size());
+    }
+
+    /**
+     * Adds or replaces the given vehicles.
+     */
+    public void upsert(Collection<VehicleDTO> vehicles) {
+        if (vehicles.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (VehicleDTO vehicle : vehicles) {
+                write(vehicle);
+                if (touchedDuringLoad != null) {
+                    touchedDuringLoad.add(vehicle.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> vehicleIds) {
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : vehicleIds) {
+                Integer slot = slotById.remove(id);
+                if (slot != null) {
+                    clearSlot(slot);
+                    deletedCount++;
+                }
+                if (touchedDuringLoad != null) {
+                    touchedDuringLoad.add(id);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a faceted query with the same filters, ordering and cursors as the SQL
+     * path. Returns up to {@code limit} rows after the cursor key (in the format
+     * of {@link VehicleSort#keyOf}), plus the key of the last row when more follow.
+     */
+    public Result query(VehicleQueryDTO query, VehicleSort sort, String afterKey, int limit) {
+        lock.readLock().lock();
+        try {
+            Scan scan = new Scan(query, sort, afterKey, limit + 1);
+            BitSet candidates = scan.candidates();
+            int chunks = (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream chunkIndexes = IntStream.range(0, chunks);
+            if (chunks > 1) {
+                chunkIndexes = chunkIndexes.parallel();
+            }
+            List<long[]> hits = chunkIndexes
+                    .mapToObj(chunk -> scan.scanChunk(candidates, chunk * CHUNK_SIZE,
+                            Math.min(rowCount, (chunk + 1) * CHUNK_SIZE)))
+                    .flatMap(List::stream)
+                    .sorted(scan::compare)
+                    .limit(limit + 1L)
+                    .collect(Collectors.toList());
+
+            String nextKey = null;
+            if (hits.size() > limit) {
+                hits = hits.subList(0, limit);
+                nextKey = scan.keyOf(hits.get(limit - 1));
+            }
+            List<VehicleDTO> items = new ArrayList<>(hits.size());
+            for (long[] hit : hits) {
+                items.add(rows[(int) hit[2]]);
+            }
+            return new Result(items, nextKey);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static final class Result {
+        private final List<VehicleDTO> items;
+        private final String nextKey;
+
+        private Result(List<VehicleDTO> items, String nextKey) {
+            this.items = items;
+            this.nextKey = nextKey;
+        }
+
+        public List<VehicleDTO> getItems() {
+            return items;
+        }
+
+        public String getNextKey() {
+            return nextKey;
+        }
+    }
+
+    private void write(VehicleDTO vehicle) {
+        Integer slot = slotById.get(vehicle.getId());
+        if (slot == null) {
+            slot = rowCount++;
+            ensureCapacity(rowCount);
+            slotById.put(vehicle.getId(), slot);
+        } else {
+            clearSlot(slot);
+        }
+
+        ids[slot] = vehicle.getId();
+        years[slot] = vehicle.getVehicleYear();
+        mileages[slot] = vehicle.getMileage();
+        pricesInCents[slot] = new BigDecimal(vehicle.getPrice()).movePointRight(2).longValue();
+        makeCodes[slot] = makes.encode(vehicle.getMake());
+        modelCodes[slot] = models.encode(vehicle.getModel());
+        rows[slot] = vehicle;
+        live.set(slot);
+        available.set(slot, Boolean.TRUE.equals(vehicle.getAvailable()));
+        byFuelType[vehicle.getFuelType().ordinal()].set(slot);
+        byTransmissionType[vehicle.getTransmissionType().ordinal()].set(slot);
+    }
+
+    private void clearSlot(int slot) {
+        live.clear(slot);
+        available.clear(slot);
+        for (BitSet bitmap : byFuelType) {
+            bitmap.clear(slot);
+        }
+        for (BitSet bitmap : byTransmissionType) {
+            bitmap.clear(slot);
+        }
+        rows[slot] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        years = Arrays.copyOf(years, newLength);
+        mileages = Arrays.copyOf(mileages, newLength);
+        pricesInCents = Arrays.copyOf(pricesInCents, newLength);
+        makeCodes = Arrays.copyOf(makeCodes, newLength);
+        modelCodes = Arrays.copyOf(modelCodes, newLength);
+        rows = Arrays.copyOf(rows, newLength);
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_DELETED_FOR_COMPACTION || deletedCount < rowCount / 2) {
+            return;
+        }
+        List<VehicleDTO> remaining = new ArrayList<>(slotById.size());
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            remaining.add(rows[slot]);
+        }
+        Set<Long> touched = touchedDuringLoad;
+        reset();
+        touchedDuringLoad = touched;
+        remaining.forEach(this::write);
+    }
+
+    private void reset() {
+        slotById = new HashMap<>();
+        rowCount = 0;
+        deletedCount = 0;
+        ids = new long[INITIAL_CAPACITY];
+        years = new int[INITIAL_CAPACITY];
+        mileages = new int[INITIAL_CAPACITY];
+        pricesInCents = new long[INITIAL_CAPACITY];
+        makeCodes = new int[INITIAL_CAPACITY];
+        modelCodes = new int[INITIAL_CAPACITY];
+        rows = new VehicleDTO[INITIAL_CAPACITY];
+        makes = new Dictionary();
+        models = new Dictionary();
+        live = new BitSet();
+        available = new BitSet();
+        byFuelType = new BitSet[FUEL_TYPES.length];
+        for (int i = 0; i < byFuelType.length; i++) {
+            byFuelType[i] = new BitSet();
+        }
+        byTransmissionType = new BitSet[TRANSMISSION_TYPES.length];
+        for (int i = 0; i < byTransmissionType.length; i++) {
+            byTransmissionType[i] = new BitSet();
+        }
+    }
+
+    /**
+     * One query compiled against the current columns. Hits are {@code long[3]} of
+     * (sort value, id, slot).
+     */
+    private final class Scan {
+
+        private final VehicleQueryDTO query;
+        private final String property;
+        private final boolean descending;
+        private final int capacity;
+        private final BitSet makeMatches;
+        private final BitSet modelMatches;
+        private final int minYear;
+        private final int maxYear;
+        private final long minPrice;
+        private final long maxPrice;
+        private final int maxMileage;
+        private final long[] after;
+
+        Scan(VehicleQueryDTO query, VehicleSort sort, String afterKey, int capacity) {
+            this.query = query;
+            this.property = sort.getProperty();
+            this.descending = sort.isDescending();
+            this.capacity = capacity;
+            this.makeMatches = isBlank(query.getMake()) ? null : makes.codesEqualIgnoringCase(query.getMake());
+            this.modelMatches = isBlank(query.getModel()) ? null : models.codesEqualIgnoringCase(query.getModel());
+            this.minYear = query.getMinYear() != null ? query.getMinYear() : Integer.MIN_VALUE;
+            this.maxYear = query.getMaxYear() != null ? query.getMaxYear() : Integer.MAX_VALUE;
+            // Prices have two decimals, so rounding the bounds inwards keeps the comparison exact
+            this.minPrice = query.getMinPrice() != null
+                    ? query.getMinPrice().movePointRight(2).setScale(0, RoundingMode.CEILING).longValue()
+                    : Long.MIN_VALUE;
+            this.maxPrice = query.getMaxPrice() != null
+                    ? query.getMaxPrice().movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue()
+                    : Long.MAX_VALUE;
+            this.maxMileage = query.getMaxMileage() != null ? query.getMaxMileage() : Integer.MAX_VALUE;
+            this.after = afterKey != null && !afterKey.isBlank() ? parseKey(afterKey) : null;
+        }
+
+        /**
+         * Live rows passing every bitmap-indexed filter.
+         */
+        BitSet candidates() {
+            BitSet candidates = (BitSet) live.clone();
+            if (query.getFuelType() != null) {
+                candidates.and(byFuelType[query.getFuelType().ordinal()]);
+            }
+            if (query.getTransmissionType() != null) {
+                candidates.and(byTransmissionType[query.getTransmissionType().ordinal()]);
+            }
+            if (query.getAvailable() != null) {
+                if (query.getAvailable()) {
+                    candidates.and(available);
+                } else {
+                    candidates.andNot(available);
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * Scans the candidates in [from, to) and returns the best matching rows, at
+         * most {@code capacity} of them, in no particular order.
+         */
+        List<long[]> scanChunk(BitSet candidates, int from, int to) {
+            // Max-heap on the sort order, so the worst of the kept rows is evicted first
+            PriorityQueue<long[]> best = new PriorityQueue<>(capacity + 1, (a, b) -> compare(b, a));
+            for (int slot = candidates.nextSetBit(from); slot >= 0 && slot < to;
+                 slot = candidates.nextSetBit(slot + 1)) {
+                int year = years[slot];
+                if (year < minYear || year > maxYear || mileages[slot] >= maxMileage) {
+                    continue;
+                }
+                long price = pricesInCents[slot];
+                if (price < minPrice || price > maxPrice) {
+                    continue;
+                }
+                if (makeMatches != null && !makeMatches.get(makeCodes[slot])) {
+                    continue;
+                }
+                if (modelMatches != null && !modelMatches.get(modelCodes[slot])) {
+                    continue;
+                }
+
+                long[] hit = {sortValue(slot), ids[slot], slot};
+                if (after != null && compare(hit, after) <= 0) {
+                    continue;
+                }
+                if (best.size() < capacity) {
+                    best.offer(hit);
+                } else if (compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.offer(hit);
+                }
+            }
+            return new ArrayList<>(best);
+        }
+
+        int compare(long[] a, long[] b) {
+            int byValue = Long.compare(a[0], b[0]);
+            if (descending) {
+                byValue = -byValue;
+            }
+            return byValue != 0 ? byValue : Long.compare(a[1], b[1]);
+        }
+
+        String keyOf(long[] hit) {
+            switch (property) {
+                case "price":
+                    return BigDecimal.valueOf(hit[0], 2).toPlainString() + ":" + hit[1];
+                case "mileage":
+                case "vehicleYear":
+                    return hit[0] + ":" + hit[1];
+                default:
+                    return Long.toString(hit[1]);
+            }
+        }
+
+        private long sortValue(int slot) {
+            switch (property) {
+                case "price":
+                    return pricesInCents[slot];
+                case "mileage":
+                    return mileages[slot];
+                case "vehicleYear":
+                    return years[slot];
+                default:
+                    return ids[slot];
+            }
+        }
+
+        private long[] parseKey(String key) {
+            try {
+                if ("id".equals(property)) {
+                    long id = Long.parseLong(key);
+                    return new long[] {id, id};
+                }
+                int separator = key.lastIndexOf(':');
+                long id = Long.parseLong(key.substring(separator + 1));
+                String value = key.substring(0, separator);
+                long sortValue = "price".equals(property)
+                        ? new BigDecimal(value).movePointRight(2).longValueExact()
+                        : Integer.parseInt(value);
+                return new long[] {sortValue, id};
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException(key);
+            }
+        }
+    }
+
+    /**
+     * Maps each distinct string to a dense integer code.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        /**
+         * Codes of all values equal to {@code value} ignoring case and surrounding blanks.
+         */
+        BitSet codesEqualIgnoringCase(String value) {
+            String wanted = value.trim().toLowerCase(Locale.ROOT);
+            BitSet matches = new BitSet();
+            for (int code = 0; code < values.size(); code++) {
+                if (values.get(code).toLowerCase(Locale.ROOT).equals(wanted)) {
+                    matches.set(code);
+                }
+            }
+            return matches;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
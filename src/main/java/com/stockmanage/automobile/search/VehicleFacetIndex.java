@@ -0,0 +1,285 @@
+package com.stockmanage.automobile.search;
+
+import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleFacetsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet counts over available vehicles: per make, fuel type,
+ * transmission type, year and price band.
+ *
+ * The facet values each counted vehicle contributed are remembered by id, so a
+ * change is applied by subtracting the vehicle's previous values and adding its
+ * new ones. Applying the same state twice is therefore harmless, and reading the
+ * counts costs time proportional to the number of facet values only.
+ */
+@Component
+public class VehicleFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleFacetIndex.class);
+
+    private static final int MAKE = 0;
+    private static final int FUEL_TYPE = 1;
+    private static final int TRANSMISSION_TYPE = 2;
+    private static final int YEAR = 3;
+    private static final int PRICE_BAND = 4;
+    private static final int FACET_COUNT = 5;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ascending lower bounds of the price bands; the first band starts at 0
+    private final List<BigDecimal> bandFloors;
+    private final List<String> bandLabels;
+
+    private Counts counts = new Counts();
+    private Rebuild rebuild;
+    private volatile boolean ready;
+
+    public VehicleFacetIndex(@Value("${vehicle.facets.price-bands:10000,20000,30000,50000,75000,100000}")
+                             String priceBands) {
+        List<BigDecimal> floors = new ArrayList<>();
+        floors.add(BigDecimal.ZERO);
+        for (String bound : priceBands.split(",")) {
+            if (!bound.isBlank()) {
+                floors.add(new BigDecimal(bound.trim()));
+            }
+        }
+        Collections.sort(floors);
+
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < floors.size(); i++) {
+            labels.add(i + 1 < floors.size()
+                    ? floors.get(i).toPlainString() + "-" + floors.get(i + 1).toPlainString()
+                    : floors.get(i).toPlainString() + "+");
+        }
+        this.bandFloors = List.copyOf(floors);
+        this.bandLabels = List.copyOf(labels);
+    }
+
+    /**
+     * Whether the counters have been loaded; until then callers should count in the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Applies committed vehicle changes: {@code current} holds the new state of
+     * changed vehicles, {@code removed} the ids of deleted ones.
+     */
+    public void apply(Collection<VehicleDTO> current, Collection<Long> removed) {
+        lock.writeLock().lock();
+        try {
+            for (VehicleDTO vehicle : current) {
+                String[] values = valuesOf(vehicle);
+                counts.put(vehicle.getId(), values);
+                if (rebuild != null) {
+                    rebuild.touch(vehicle.getId(), values);
+                }
+            }
+            for (Long id : removed) {
+                counts.put(id, null);
+                if (rebuild != null) {
+                    rebuild.touch(id, null);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts reloading the counters. The current counters keep serving reads until
+     * {@link Rebuild#finish()}; changes applied in the meantime are recorded in the
+     * rebuild too and take precedence over loaded rows, which may be older.
+     */
+    public Rebuild beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (rebuild != null) {
+                throw new IllegalStateException("A facet rebuild is already running");
+            }
+            rebuild = new Rebuild();
+            return rebuild;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public VehicleFacetsDTO snapshot() {
+        lock.readLock().lock();
+        try {
+            return summarize(counts.total(), counts.byFacet.get(MAKE), counts.byFacet.get(FUEL_TYPE),
+                    counts.byFacet.get(TRANSMISSION_TYPE), counts.byFacet.get(YEAR), counts.byFacet.get(PRICE_BAND));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the facet response from counts taken elsewhere (the database), grouping
+     * the per-price counts into the configured bands.
+     */
+    public VehicleFacetsDTO summarize(Map<String, Long> makes, Map<String, Long> fuelTypes,
+                                      Map<String, Long> transmissionTypes, Map<String, Long> years,
+                                      Map<BigDecimal, Long> countsByPrice) {
+        Map<String, Long> bands = new HashMap<>();
+        countsByPrice.forEach((price, count) -> bands.merge(priceBandOf(price), count, Long::sum));
+        long total = makes.values().stream().mapToLong(Long::longValue).sum();
+        return summarize(total, makes, fuelTypes, transmissionTypes, years, bands);
+    }
+
+    private VehicleFacetsDTO summarize(long total, Map<String, Long> makes, Map<String, Long> fuelTypes,
+                                       Map<String, Long> transmissionTypes, Map<String, Long> years,
+                                       Map<String, Long> bands) {
+        // Every band is listed, empty ones included, in price order
+        Map<String, Long> priceBands = new LinkedHashMap<>();
+        for (String label : bandLabels) {
+            priceBands.put(label, bands.getOrDefault(label, 0L));
+        }
+        return new VehicleFacetsDTO(total, new TreeMap<>(makes), new TreeMap<>(fuelTypes),
+                new TreeMap<>(transmissionTypes), new TreeMap<>(years), priceBands);
+    }
+
+    private String priceBandOf(BigDecimal price) {
+        int band = 0;
+        while (band + 1 < bandFloors.size() && price.compareTo(bandFloors.get(band + 1)) >= 0) {
+            band++;
+        }
+        return bandLabels.get(band);
+    }
+
+    /**
+     * The facet values a vehicle is counted under, or {@code null} if it is not counted.
+     */
+    private String[] valuesOf(VehicleDTO vehicle) {
+        if (!Boolean.TRUE.equals(vehicle.getAvailable())) {
+            return null;
+        }
+        String[] values = new String[FACET_COUNT];
+        values[MAKE] = vehicle.getMake();
+        values[FUEL_TYPE] = vehicle.getFuelType() != null ? vehicle.getFuelType().name() : null;
+        values[TRANSMISSION_TYPE] = vehicle.getTransmissionType() != null
+                ? vehicle.getTransmissionType().name() : null;
+        values[YEAR] = vehicle.getVehicleYear() != null ? vehicle.getVehicleYear().toString() : null;
+        values[PRICE_BAND] = vehicle.getPrice() != null ? priceBandOf(new BigDecimal(vehicle.getPrice())) : null;
+        return values;
+    }
+
+    /**
+     * A reload of the counters from the database, fed in batches.
+     */
+    public final class Rebuild {
+
+        private final Counts loaded = new Counts();
+        private final Set<Long> touched = new HashSet<>();
+
+        private Rebuild() {
+        }
+
+        /**
+         * Adds vehicles read from the database; vehicles that are not available are skipped.
+         */
+        public void load(Collection<VehicleDTO> vehicles) {
+            lock.writeLock().lock();
+            try {
+                checkActive();
+                for (VehicleDTO vehicle : vehicles) {
+                    if (!touched.contains(vehicle.getId())) {
+                        loaded.put(vehicle.getId(), valuesOf(vehicle));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void finish() {
+            lock.writeLock().lock();
+            try {
+                checkActive();
+                counts = loaded;
+                rebuild = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Vehicle facet counts loaded for {} available vehicles", loaded.total());
+        }
+
+        public void abandon() {
+            lock.writeLock().lock();
+            try {
+                if (rebuild == this) {
+                    rebuild = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void touch(Long id, String[] values) {
+            touched.add(id);
+            loaded.put(id, values);
+        }
+
+        private void checkActive() {
+            if (rebuild != this) {
+                throw new IllegalStateException("Facet rebuild is no longer active");
+            }
+        }
+    }
+
+    private static final class Counts {
+
+        private final Map<Long, String[]> byVehicle = new HashMap<>();
+        private final List<Map<String, Long>> byFacet = new ArrayList<>(FACET_COUNT);
+
+        private Counts() {
+            for (int i = 0; i < FACET_COUNT; i++) {
+                byFacet.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * Replaces the values a vehicle is counted under; {@code null} stops counting it.
+         */
+        void put(Long id, String[] values) {
+            String[] previous = values != null ? byVehicle.put(id, values) : byVehicle.remove(id);
+            if (previous != null) {
+                adjust(previous, -1);
+            }
+            if (values != null) {
+                adjust(values, 1);
+            }
+        }
+
+        long total() {
+            return byVehicle.size();
+        }
+
+        private void adjust(String[] values, long delta) {
+            for (int i = 0; i < FACET_COUNT; i++) {
+                if (values[i] != null) {
+                    // Values whose count drops to zero are removed, so the maps only hold live values
+                    byFacet.get(i).merge(values[i], delta, (count, change) -> count + change == 0 ? null : count + change);
+                }
+            }
+        }
+    }
+}
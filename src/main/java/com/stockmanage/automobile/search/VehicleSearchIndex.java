@@ -0,0 +1,415 @@
+package com.stockmanage.automobile.search;
+
+import com.stockmanage.automobile.cache.BoundedCache;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over the vehicle catalog.
+ *
+ * Make, model, VIN and color are indexed as character trigrams, so partial and
+ * slightly misspelled terms still match; the free-text description is indexed by
+ * whole words. Each indexed vehicle keeps its {@link VehicleDTO}, so searches are
+ * answered entirely from memory. Results are ranked by an IDF-weighted score and a
+ * bounded LRU cache sits in front of the index for repeated terms.
+ *
+ * Updates are applied incrementally: a changed vehicle is appended as a new
+ * document and its previous document is tombstoned. Tombstoned documents are
+ * compacted away once they make up half of the index.
+ */
+@Component
+public class VehicleSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleSearchIndex.class);
+
+    private static final int MAKE = 0;
+    private static final int MODEL = 1;
+    private static final int VIN = 2;
+    private static final int COLOR = 3;
+    private static final float[] FIELD_WEIGHTS = {3f, 3f, 2f, 1f};
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Share of query trigrams a field match must contain; tolerates a typo in longer terms
+    private static final double MIN_GRAM_MATCH_RATIO = 0.75;
+    private static final int MAX_QUERY_GRAMS = 64;
+    private static final int MIN_DELETED_FOR_COMPACTION = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BoundedCache<String, List<VehicleDTO>> resultCache;
+    // Scratch accumulators are pooled rather than thread-local so idle request threads don't pin them
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    private List<Map<String, IntList>> gramPostings;
+    private Map<String, IntList> wordPostings;
+    private Map<Long, Integer> docByVehicleId;
+    private VehicleDTO[] docs;
+    private int docCount;
+    private BitSet deleted;
+    private int deletedCount;
+    private volatile boolean ready;
+
+    public VehicleSearchIndex(@Value("${vehicle.search.cache-size:1000}") int cacheSize) {
+        this.resultCache = new BoundedCache<>(cacheSize);
+        reset();
+    }
+
+    /**
+     * Whether the index has been fully loaded; until then callers should fall back to the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Drops all documents and marks the index as loading.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            reset();
+            resultCache.invalidateAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markReady() {
+        ready = true;
+        logger.info("Vehicle search index ready with {} documents", size());
+    }
+
+    /**
+     * Adds or replaces the given vehicles.
+     */
+    public void upsert(Collection<VehicleDTO> vehicles) {
+        if (vehicles.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (VehicleDTO vehicle : vehicles) {
+                tombstone(vehicle.getId());
+                int doc = appendDocument(vehicle);
+                docByVehicleId.put(vehicle.getId(), doc);
+            }
+            compactIfNeeded();
+            resultCache.invalidateAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> vehicleIds) {
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long vehicleId : vehicleIds) {
+                tombstone(vehicleId);
+                docByVehicleId.remove(vehicleId);
+            }
+            compactIfNeeded();
+            resultCache.invalidateAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} vehicles matching the term, best match first.
+     */
+    public List<VehicleDTO> search(String term, int limit) {
+        String normalized = normalize(term);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        String cacheKey = limit + ":" + normalized;
+        List<VehicleDTO> cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<VehicleDTO> results = Collections.unmodifiableList(execute(normalized, limit));
+            // Cached while still holding the read lock, so no write can slip in between
+            resultCache.put(cacheKey, results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByVehicleId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<VehicleDTO> execute(String normalized, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(normalized)));
+        List<String> grams = queryGrams(tokens);
+        int liveDocs = Math.max(1, docCount - deletedCount);
+
+        Scratch pooled = scratchPool.poll();
+        Scratch s = pooled != null ? pooled : new Scratch();
+        s.ensureCapacity(docCount);
+        try {
+            for (int g = 0; g < grams.size(); g++) {
+                long bit = 1L << g;
+                for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+                    IntList postings = gramPostings.get(field).get(grams.get(g));
+                    if (postings == null) {
+                        continue;
+                    }
+                    float weight = FIELD_WEIGHTS[field] * idf(postings.size, liveDocs);
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.values[i];
+                        if (!deleted.get(doc)) {
+                            s.touch(doc);
+                            s.scores[doc] += weight;
+                            s.gramMasks[doc] |= bit;
+                        }
+                    }
+                }
+            }
+
+            for (String token : tokens) {
+                IntList postings = wordPostings.get(token);
+                if (postings == null) {
+                    continue;
+                }
+                float weight = DESCRIPTION_WEIGHT * idf(postings.size, liveDocs);
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.values[i];
+                    if (!deleted.get(doc)) {
+                        s.touch(doc);
+                        s.scores[doc] += weight;
+                        s.wordHits[doc]++;
+                    }
+                }
+            }
+
+            int requiredGrams = grams.size() <= 2
+                    ? grams.size()
+                    : (int) Math.ceil(grams.size() * MIN_GRAM_MATCH_RATIO);
+
+            // Min-heap of the best 'limit' documents seen so far
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> compareDocs(s.scores, a, b));
+            for (int i = 0; i < s.touchedCount; i++) {
+                int doc = s.touched[i];
+                boolean gramMatch = !grams.isEmpty() && Long.bitCount(s.gramMasks[doc]) >= requiredGrams;
+                boolean wordMatch = s.wordHits[doc] == tokens.size();
+                if (!gramMatch && !wordMatch) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.offer(doc);
+                } else if (compareDocs(s.scores, doc, top.peek()) > 0) {
+                    top.poll();
+                    top.offer(doc);
+                }
+            }
+
+            VehicleDTO[] results = new VehicleDTO[top.size()];
+            for (int i = results.length - 1; i >= 0; i--) {
+                results[i] = docs[top.poll()];
+            }
+            return Arrays.asList(results);
+        } finally {
+            s.reset();
+            scratchPool.offer(s);
+        }
+    }
+
+    // Higher score ranks first; ties go to the lower vehicle id
+    private int compareDocs(float[] scores, int a, int b) {
+        int byScore = Float.compare(scores[a], scores[b]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        return Long.compare(docs[b].getId(), docs[a].getId());
+    }
+
+    private int appendDocument(VehicleDTO vehicle) {
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int doc = docCount++;
+        docs[doc] = vehicle;
+
+        addGrams(MAKE, doc, vehicle.getMake());
+        addGrams(MODEL, doc, vehicle.getModel());
+        addGrams(VIN, doc, vehicle.getVin());
+        addGrams(COLOR, doc, vehicle.getColor());
+        for (String word : tokenize(normalize(vehicle.getDescription()))) {
+            addPosting(wordPostings, word, doc);
+        }
+        return doc;
+    }
+
+    private void addGrams(int field, int doc, String text) {
+        Map<String, IntList> postings = gramPostings.get(field);
+        for (String token : tokenize(normalize(text))) {
+            // "$t" and the padded trigrams let short terms match on word prefixes
+            addPosting(postings, "$" + token.charAt(0), doc);
+            String padded = "$" + token + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addPosting(postings, padded.substring(i, i + 3), doc);
+            }
+        }
+    }
+
+    private void addPosting(Map<String, IntList> postings, String key, int doc) {
+        IntList list = postings.computeIfAbsent(key, k -> new IntList());
+        // Documents are appended in increasing order, so a repeat can only be the last entry
+        if (list.size == 0 || list.values[list.size - 1] != doc) {
+            list.add(doc);
+        }
+    }
+
+    private void tombstone(Long vehicleId) {
+        Integer previous = docByVehicleId.get(vehicleId);
+        if (previous != null && !deleted.get(previous)) {
+            deleted.set(previous);
+            docs[previous] = null;
+            deletedCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_DELETED_FOR_COMPACTION || deletedCount * 2 < docCount) {
+            return;
+        }
+        List<VehicleDTO> live = new ArrayList<>(docCount - deletedCount);
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                live.add(docs[doc]);
+            }
+        }
+        reset();
+        for (VehicleDTO vehicle : live) {
+            docByVehicleId.put(vehicle.getId(), appendDocument(vehicle));
+        }
+        logger.debug("Compacted vehicle search index to {} documents", docCount);
+    }
+
+    private void reset() {
+        gramPostings = new ArrayList<>();
+        for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+            gramPostings.add(new HashMap<>());
+        }
+        wordPostings = new HashMap<>();
+        docByVehicleId = new HashMap<>();
+        docs = new VehicleDTO[1024];
+        docCount = 0;
+        deleted = new BitSet();
+        deletedCount = 0;
+    }
+
+    private static List<String> queryGrams(List<String> tokens) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (token.length() < 3) {
+                grams.add("$" + token);
+            } else {
+                for (int i = 0; i + 3 <= token.length(); i++) {
+                    grams.add(token.substring(i, i + 3));
+                }
+            }
+        }
+        List<String> result = new ArrayList<>(grams);
+        return result.size() > MAX_QUERY_GRAMS ? result.subList(0, MAX_QUERY_GRAMS) : result;
+    }
+
+    private static float idf(int documentFrequency, int liveDocs) {
+        return (float) Math.log(1.0 + (double) liveDocs / (1 + documentFrequency));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Score accumulators reused across searches; only touched slots are cleared.
+     */
+    private static final class Scratch {
+        private float[] scores = new float[0];
+        private long[] gramMasks = new long[0];
+        private int[] wordHits = new int[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        void ensureCapacity(int docs) {
+            if (scores.length < docs) {
+                int capacity = Math.max(docs, scores.length * 2);
+                scores = new float[capacity];
+                gramMasks = new long[capacity];
+                wordHits = new int[capacity];
+                touched = new int[capacity];
+            }
+        }
+
+        void touch(int doc) {
+            if (gramMasks[doc] == 0 && wordHits[doc] == 0 && scores[doc] == 0f) {
+                touched[touchedCount++] = doc;
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                scores[doc] = 0f;
+                gramMasks[doc] = 0L;
+                wordHits[doc] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
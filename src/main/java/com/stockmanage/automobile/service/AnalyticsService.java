@@ -0,0 +1,9 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.dto.SalesVelocityDTO;
+
+public interface AnalyticsService {
+    
+    // Served from a cache that is recomputed once older than the refresh interval, or on request
+    SalesVelocityDTO getSalesVelocity(boolean refresh);
+}
@@ -0,0 +1,12 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.dto.MaintenanceForecastDTO;
+import com.stockmanage.automobile.dto.VehicleForecastDTO;
+
+public interface MaintenanceForecastService {
+    
+    // Served from a cache that recomputes the make/models whose history changed, or everything on request
+    MaintenanceForecastDTO getMaintenanceForecast(boolean refresh);
+    
+    VehicleForecastDTO getVehicleForecast(Long vehicleId);
+}
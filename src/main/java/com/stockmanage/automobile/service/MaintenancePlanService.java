@@ -0,0 +1,26 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.dto.MaintenancePlanDTO;
+import com.stockmanage.automobile.dto.MaintenancePlanRunDTO;
+
+import java.util.List;
+
+public interface MaintenancePlanService {
+    
+    List<MaintenancePlanDTO> getAllPlans();
+    
+    MaintenancePlanDTO getPlanById(Long id);
+    
+    MaintenancePlanDTO createPlan(MaintenancePlanDTO planDTO);
+    
+    // Runs: applying a plan to a vehicle filter schedules its records in the background
+    
+    MaintenancePlanRunDTO applyPlan(Long planId, MaintenancePlanRunDTO runDTO);
+    
+    List<MaintenancePlanRunDTO> getRunsByPlanId(Long planId);
+    
+    MaintenancePlanRunDTO getRunById(Long runId);
+    
+    // Carries a failed run on from its last committed chunk
+    MaintenancePlanRunDTO resumeRun(Long runId);
+}
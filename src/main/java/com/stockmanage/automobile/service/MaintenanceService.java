@@ -1,8 +1,15 @@
 package com.stockmanage.automobile.service;
 
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
 import com.stockmanage.automobile.dto.MaintenanceDTO;
+import com.stockmanage.automobile.dto.MaintenanceSummaryDTO;
 import com.stockmanage.automobile.model.Maintenance;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -20,6 +27,12 @@ public interface MaintenanceService {
     
     List<MaintenanceDTO> getUpcomingMaintenance(LocalDate date);
     
+    // Records due within the given number of days from today, earliest first
+    List<MaintenanceDTO> getDueMaintenance(int days);
+    
+    // Server-Sent Events stream announcing records as they become due
+    SseEmitter subscribeToDueMaintenance();
+    
     MaintenanceDTO createMaintenance(MaintenanceDTO maintenanceDTO);
     
     MaintenanceDTO updateMaintenance(Long id, MaintenanceDTO maintenanceDTO);
@@ -27,4 +40,32 @@ public interface MaintenanceService {
     void deleteMaintenance(Long id);
     
     MaintenanceDTO updateMaintenanceStatus(Long id, Maintenance.MaintenanceStatus status);
-} 
\ No newline at end of file
+    
+    // Keyset-paginated variants: 'after' is the cursor returned with the previous page
+    
+    CursorPage<MaintenanceDTO> getAllMaintenance(String after, Integer limit);
+    
+    CursorPage<MaintenanceDTO> getMaintenanceByVehicleId(Long vehicleId, String after, Integer limit);
+    
+    CursorPage<MaintenanceDTO> getMaintenanceByStatus(Maintenance.MaintenanceStatus status,
+                                                      String after, Integer limit);
+    
+    CursorPage<MaintenanceDTO> getMaintenanceByDateRange(LocalDate startDate, LocalDate endDate,
+                                                         String after, Integer limit);
+    
+    CursorPage<MaintenanceDTO> getUpcomingMaintenance(LocalDate date, String after, Integer limit);
+    
+    // Per-vehicle totals across the fleet, sorted by 'sort' ("field" or "-field") and keyset-paginated
+    
+    CursorPage<MaintenanceSummaryDTO> getMaintenanceSummaries(String sort, String after, Integer limit);
+    
+    int rebuildMaintenanceSummaries();
+    
+    // Export: writes every record to the stream without materialising the result
+    
+    void exportMaintenance(ExportFormat format, OutputStream out) throws IOException;
+    
+    // Delta sync: changes after a cursor, for clients that keep a local copy
+    
+    ChangeSetDTO<MaintenanceDTO> getMaintenanceChanges(String since, Integer limit);
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderIntakeDTO;
+
+public interface OrderIntakeService {
+    
+    // Whether POST /api/orders queues orders instead of placing them directly
+    boolean isEnabled();
+    
+    OrderIntakeDTO submit(OrderDTO orderDTO, String idempotencyKey);
+    
+    OrderIntakeDTO getIntake(String id);
+}
@@ -1,8 +1,19 @@
 package com.stockmanage.automobile.service;
 
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
 import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderResultDTO;
+import com.stockmanage.automobile.dto.OrderStatsDTO;
+import com.stockmanage.automobile.dto.OrderStatusUpdateDTO;
+import com.stockmanage.automobile.dto.OrderStatusUpdateResultDTO;
 import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.reporting.RollupBucket;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -22,9 +33,41 @@ public interface OrderService {
     
     OrderDTO createOrder(OrderDTO orderDTO);
     
+    // Places several orders in one transaction, rejecting invalid ones individually
+    List<OrderResultDTO> createOrders(List<OrderDTO> orderDTOs);
+    
     OrderDTO updateOrder(Long id, OrderDTO orderDTO);
     
     void deleteOrder(Long id);
     
     OrderDTO updateOrderStatus(Long id, Order.OrderStatus status);
-} 
\ No newline at end of file
+    
+    // Moves many orders at once with set-based updates; invalid moves are reported per order
+    OrderStatusUpdateResultDTO updateOrderStatuses(OrderStatusUpdateDTO request);
+    
+    // Keyset-paginated variants: 'after' is the cursor returned with the previous page
+    
+    CursorPage<OrderDTO> getAllOrders(String after, Integer limit);
+    
+    CursorPage<OrderDTO> getOrdersByUserId(Long userId, String after, Integer limit);
+    
+    CursorPage<OrderDTO> getOrdersByStatus(Order.OrderStatus status, String after, Integer limit);
+    
+    CursorPage<OrderDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                              String after, Integer limit);
+    
+    // Export: writes every record to the stream without materialising the result
+    
+    void exportOrders(ExportFormat format, OutputStream out) throws IOException;
+    
+    // Delta sync: changes after a cursor, for clients that keep a local copy
+    
+    ChangeSetDTO<OrderDTO> getOrderChanges(String since, Integer limit);
+    
+    // Reporting: totals per day or month, read from the order rollups
+    
+    List<OrderStatsDTO> getOrderStats(LocalDate from, LocalDate to, RollupBucket bucket);
+    
+    // Recomputes the rollups from the orders; returns the number of rollup rows
+    int rebuildOrderRollups();
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.stockmanage.automobile.service;
 
+import com.stockmanage.automobile.dto.CursorPage;
 import com.stockmanage.automobile.dto.UserDTO;
 import com.stockmanage.automobile.model.User;
 
@@ -26,4 +27,10 @@ public interface UserService {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+    
+    // Keyset-paginated variants: 'after' is the cursor returned with the previous page
+    
+    CursorPage<UserDTO> getAllUsers(String after, Integer limit);
+    
+    CursorPage<UserDTO> getUsersByRole(User.Role role, String after, Integer limit);
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.bulk.ImportFormat;
+import com.stockmanage.automobile.dto.BulkImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface VehicleImportService {
+    
+    BulkImportResultDTO importVehicles(InputStream input, ImportFormat format) throws IOException;
+}
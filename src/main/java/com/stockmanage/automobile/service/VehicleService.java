@@ -1,8 +1,18 @@
 package com.stockmanage.automobile.service;
 
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.dto.CacheStatsDTO;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.dto.FacetCheckDTO;
 import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleFacetsDTO;
+import com.stockmanage.automobile.dto.VehicleHoldDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
 import com.stockmanage.automobile.model.Vehicle;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface VehicleService {
@@ -34,4 +44,55 @@ public interface VehicleService {
     List<VehicleDTO> findVehiclesByMaxMileage(Integer maxMileage);
     
     List<VehicleDTO> searchVehicles(String searchTerm);
-} 
\ No newline at end of file
+    
+    List<VehicleDTO> searchVehicles(String searchTerm, Integer limit);
+    
+    // Keyset-paginated variants: 'after' is the cursor returned with the previous page
+    
+    CursorPage<VehicleDTO> getAllVehicles(String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByMake(String make, String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByModel(String model, String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByYear(Integer year, String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByAvailability(Boolean available, String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByFuelType(Vehicle.FuelType fuelType, String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByTransmissionType(Vehicle.TransmissionType transmissionType,
+                                                          String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByPriceRange(String minPrice, String maxPrice, String after, Integer limit);
+    
+    CursorPage<VehicleDTO> findVehiclesByMaxMileage(Integer maxMileage, String after, Integer limit);
+    
+    // Faceted query: any combination of criteria, compiled into a single SQL statement
+    
+    CursorPage<VehicleDTO> queryVehicles(VehicleQueryDTO query, String after, Integer limit);
+    
+    List<CacheStatsDTO> getCacheStats();
+    
+    // Facet counts over available stock, served from incrementally maintained counters
+    
+    VehicleFacetsDTO getFacets();
+    
+    void rebuildFacets();
+    
+    FacetCheckDTO verifyFacets();
+    
+    // Export: writes the whole catalog to the stream without materialising it
+    
+    void exportVehicles(ExportFormat format, OutputStream out) throws IOException;
+    
+    // Delta sync: changes after a cursor, for clients that keep a local copy
+    
+    ChangeSetDTO<VehicleDTO> getVehicleChanges(String since, Integer limit);
+    
+    // Cart holds: reserve an available vehicle for one customer for a limited time
+    
+    VehicleHoldDTO holdVehicle(Long id, Long userId);
+    
+    void releaseHold(Long id, Long userId);
+}
\ No newline at end of file
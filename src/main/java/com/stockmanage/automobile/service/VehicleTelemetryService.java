@@ -0,0 +1,12 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.dto.TelemetryIngestResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface VehicleTelemetryService {
+    
+    // Buffers NDJSON odometer readings; vehicles.mileage is updated in the background
+    TelemetryIngestResultDTO ingest(InputStream input) throws IOException;
+}
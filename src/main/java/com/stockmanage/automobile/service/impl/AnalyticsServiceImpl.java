@@ -0,0 +1,99 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.stockmanage.automobile.dto.SalesVelocityDTO;
+import com.stockmanage.automobile.reporting.SalesVelocityCalculator;
+import com.stockmanage.automobile.reporting.SalesVelocityReader;
+import com.stockmanage.automobile.reporting.VelocitySamples;
+import com.stockmanage.automobile.service.AnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sales velocity report, computed from a snapshot of the whole inventory and cached.
+ *
+ * <p>Once the cached report is older than {@code analytics.velocity.refresh-interval}
+ * the next request recomputes it. Only one request computes at a time; while it does,
+ * other requests get the previous report rather than waiting.
+ */
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    private final SalesVelocityReader velocityReader;
+    private final SalesVelocityCalculator velocityCalculator;
+    private final long refreshIntervalNanos;
+    private final ReentrantLock computing = new ReentrantLock();
+
+    private volatile Cached velocity;
+
+    @Autowired
+    public AnalyticsServiceImpl(SalesVelocityReader velocityReader,
+                                SalesVelocityCalculator velocityCalculator,
+                                @Value("${analytics.velocity.refresh-interval:10m}") Duration refreshInterval) {
+        this.velocityReader = velocityReader;
+        this.velocityCalculator = velocityCalculator;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    @Override
+    public SalesVelocityDTO getSalesVelocity(boolean refresh) {
+        Cached current = velocity;
+        if (current != null && !refresh && current.isFresh(refreshIntervalNanos)) {
+            return current.report;
+        }
+        if (current != null) {
+            if (!computing.tryLock()) {
+                return current.report;
+            }
+        } else {
+            computing.lock();
+        }
+        try {
+            // Another request may have recomputed it while this one waited for the lock
+            Cached latest = velocity;
+            if (latest != null && latest != current) {
+                return latest.report;
+            }
+            velocity = new Cached(computeVelocity(), System.nanoTime());
+            return velocity.report;
+        } finally {
+            computing.unlock();
+        }
+    }
+
+    private SalesVelocityDTO computeVelocity() {
+        long started = System.nanoTime();
+        LocalDate asOf = LocalDate.now();
+        List<VelocitySamples> samples = velocityReader.read(asOf);
+        long read = System.nanoTime();
+        SalesVelocityDTO report = new SalesVelocityDTO(asOf, LocalDateTime.now(), velocityCalculator.calculate(samples));
+        logger.info("Sales velocity computed for {} make/model groups: read in {} ms, summarized in {} ms",
+                samples.size(), (read - started) / 1_000_000, (System.nanoTime() - read) / 1_000_000);
+        return report;
+    }
+
+    private static final class Cached {
+
+        private final SalesVelocityDTO report;
+        private final long computedAtNanos;
+
+        Cached(SalesVelocityDTO report, long computedAtNanos) {
+            this.report = report;
+            this.computedAtNanos = computedAtNanos;
+        }
+
+        boolean isFresh(long intervalNanos) {
+            return System.nanoTime() - computedAtNanos < intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.stockmanage.automobile.dto.MaintenanceForecastDTO;
+import com.stockmanage.automobile.dto.VehicleForecastDTO;
+import com.stockmanage.automobile.event.MaintenanceChangedEvent;
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.reporting.MaintenanceForecaster;
+import com.stockmanage.automobile.reporting.MaintenanceHistoryReader;
+import com.stockmanage.automobile.reporting.VehicleHistory;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.service.MaintenanceForecastService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintenance cost forecast over the next {@code maintenance.forecast.horizon-months},
+ * computed by {@link MaintenanceForecaster} and cached.
+ *
+ * <p>Committed maintenance and vehicle changes mark their vehicles dirty. The next
+ * request re-reads only those vehicles' histories and refits the make/models whose
+ * histories actually changed, since a vehicle's forecast depends on the model fitted
+ * on its whole make/model. Everything is read and computed again on the first request,
+ * on request, when the date changes and once the cache is older than
+ * {@code maintenance.forecast.refresh-interval}. Only one request computes at a time;
+ * while it does, other requests get the previous forecast rather than waiting.
+ */
+@Service
+public class MaintenanceForecastServiceImpl implements MaintenanceForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceForecastServiceImpl.class);
+
+    private final MaintenanceHistoryReader historyReader;
+    private final MaintenanceForecaster forecaster;
+    private final VehicleRepository vehicleRepository;
+    private final int horizonMonths;
+    private final long refreshIntervalNanos;
+    private final ReentrantLock computing = new ReentrantLock();
+    // Vehicles whose history may have changed since it was last read
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Histories the cached forecast was computed from, by vehicle and by make/model; guarded by computing
+    private Map<Long, VehicleHistory> histories = new HashMap<>();
+    private Map<String, Map<Long, VehicleHistory>> members = new HashMap<>();
+
+    private volatile Cached forecast;
+
+    @Autowired
+    public MaintenanceForecastServiceImpl(MaintenanceHistoryReader historyReader,
+                                          MaintenanceForecaster forecaster,
+                                          VehicleRepository vehicleRepository,
+                                          @Value("${maintenance.forecast.horizon-months:12}") int horizonMonths,
+                                          @Value("${maintenance.forecast.refresh-interval:1h}") Duration refreshInterval) {
+        this.historyReader = historyReader;
+        this.forecaster = forecaster;
+        this.vehicleRepository = vehicleRepository;
+        this.horizonMonths = Math.max(1, horizonMonths);
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    @Override
+    public MaintenanceForecastDTO getMaintenanceForecast(boolean refresh) {
+        return current(refresh).report;
+    }
+
+    @Override
+    public VehicleForecastDTO getVehicleForecast(Long vehicleId) {
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + vehicleId));
+        Cached cached = current(false);
+        MaintenanceForecaster.GroupForecast group =
+                cached.groups.get(VehicleHistory.groupKey(vehicle.getMake(), vehicle.getModel()));
+        VehicleForecastDTO forecast = group != null ? group.getVehicles().get(vehicleId) : null;
+        if (forecast == null) {
+            // No maintenance history to project from
+            return new VehicleForecastDTO(vehicleId, vehicle.getMake(), vehicle.getModel(),
+                    cached.report.getAsOf(), cached.report.getUntil(), 0, BigDecimal.ZERO, new ArrayList<>());
+        }
+        return forecast;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        dirty.addAll(event.getVehicleIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehiclesChanged(VehicleChangedEvent event) {
+        // A vehicle's make or model may have changed, or the vehicle and its history been deleted
+        dirty.addAll(event.getVehicleIds());
+    }
+
+    private Cached current(boolean refresh) {
+        Cached current = forecast;
+        if (current != null && !refresh && current.isFresh(refreshIntervalNanos) && dirty.isEmpty()) {
+            return current;
+        }
+        if (current != null) {
+            if (!computing.tryLock()) {
+                return current;
+            }
+        } else {
+            computing.lock();
+        }
+        try {
+            // Another request may have recomputed it while this one waited for the lock
+            Cached latest = forecast;
+            if (latest != null && latest != current) {
+                return latest;
+            }
+            forecast = latest == null || refresh || !latest.isFresh(refreshIntervalNanos)
+                    ? computeAll()
+                    : computeChanged(latest);
+            return forecast;
+        } finally {
+            computing.unlock();
+        }
+    }
+
+    private Cached computeAll() {
+        long started = System.nanoTime();
+        LocalDate asOf = LocalDate.now();
+        // Changes committed from here on are either in the read or marked dirty again
+        dirty.clear();
+        histories = historyReader.readAll(asOf);
+        members = new HashMap<>();
+        for (VehicleHistory history : histories.values()) {
+            members.computeIfAbsent(history.groupKey(), key -> new HashMap<>()).put(history.getVehicleId(), history);
+        }
+        long read = System.nanoTime();
+
+        Map<String, MaintenanceForecaster.GroupForecast> groups = new HashMap<>();
+        forecast(members.keySet(), asOf, groups);
+        Cached cached = new Cached(report(groups, asOf), groups, System.nanoTime());
+        logger.info("Maintenance forecast computed for {} vehicles in {} make/model groups: read in {} ms, " +
+                        "forecast in {} ms", histories.size(), groups.size(), (read - started) / 1_000_000,
+                (System.nanoTime() - read) / 1_000_000);
+        return cached;
+    }
+
+    /**
+     * Re-reads the dirty vehicles and refits the make/models they left or joined if
+     * their history differs from the one the cached forecast used.
+     */
+    private Cached computeChanged(Cached latest) {
+        long started = System.nanoTime();
+        LocalDate asOf = latest.report.getAsOf();
+        List<Long> vehicleIds = new ArrayList<>(dirty);
+        vehicleIds.forEach(dirty::remove);
+        Map<Long, VehicleHistory> reread = historyReader.readVehicles(vehicleIds, asOf);
+
+        Set<String> changed = new HashSet<>();
+        int changedVehicles = 0;
+        for (Long vehicleId : vehicleIds) {
+            VehicleHistory previous = histories.get(vehicleId);
+            VehicleHistory history = reread.get(vehicleId);
+            if (history == null ? previous == null : history.sameAs(previous)) {
+                continue;
+            }
+            changedVehicles++;
+            if (previous != null) {
+                histories.remove(vehicleId);
+                Map<Long, VehicleHistory> group = members.get(previous.groupKey());
+                group.remove(vehicleId);
+                if (group.isEmpty()) {
+                    members.remove(previous.groupKey());
+                }
+                changed.add(previous.groupKey());
+            }
+            if (history != null) {
+                histories.put(vehicleId, history);
+                members.computeIfAbsent(history.groupKey(), key -> new HashMap<>()).put(vehicleId, history);
+                changed.add(history.groupKey());
+            }
+        }
+        if (changed.isEmpty()) {
+            return latest;
+        }
+
+        Map<String, MaintenanceForecaster.GroupForecast> groups = new HashMap<>(latest.groups);
+        groups.keySet().removeAll(changed);
+        changed.retainAll(members.keySet());
+        forecast(changed, asOf, groups);
+        logger.info("Maintenance forecast recomputed for {} changed vehicles in {} make/model groups in {} ms",
+                changedVehicles, changed.size(), (System.nanoTime() - started) / 1_000_000);
+        // The cache keeps its age, so it is still read again in full every refresh interval
+        return new Cached(report(groups, asOf), groups, latest.computedAtNanos);
+    }
+
+    private void forecast(Set<String> groupKeys, LocalDate asOf,
+                          Map<String, MaintenanceForecaster.GroupForecast> groups) {
+        List<List<VehicleHistory>> input = new ArrayList<>(groupKeys.size());
+        for (String key : groupKeys) {
+            input.add(new ArrayList<>(members.get(key).values()));
+        }
+        for (MaintenanceForecaster.GroupForecast group : forecaster.forecast(input, asOf, until(asOf))) {
+            groups.put(group.getKey(), group);
+        }
+    }
+
+    private MaintenanceForecastDTO report(Map<String, MaintenanceForecaster.GroupForecast> groups, LocalDate asOf) {
+        MaintenanceForecaster.Window window = new MaintenanceForecaster.Window(asOf, until(asOf));
+        long[] monthServices = new long[window.monthCount()];
+        long[] monthCostCents = new long[window.monthCount()];
+        long vehicles = 0;
+        List<MaintenanceForecastDTO.Group> lines = new ArrayList<>();
+        for (MaintenanceForecaster.GroupForecast group : groups.values()) {
+            vehicles += group.getVehicles().size();
+            lines.addAll(group.getLines());
+            for (int month = 0; month < monthServices.length; month++) {
+                monthServices[month] += group.monthServices(month);
+                monthCostCents[month] += group.monthCostCents(month);
+            }
+        }
+        lines.sort(Comparator.comparing(MaintenanceForecastDTO.Group::getExpectedCost).reversed()
+                .thenComparing(MaintenanceForecastDTO.Group::getMake)
+                .thenComparing(MaintenanceForecastDTO.Group::getModel)
+                .thenComparing(MaintenanceForecastDTO.Group::getMaintenanceType));
+
+        List<MaintenanceForecastDTO.Month> months = new ArrayList<>(monthServices.length);
+        long services = 0;
+        long costCents = 0;
+        for (int month = 0; month < monthServices.length; month++) {
+            months.add(new MaintenanceForecastDTO.Month(window.firstMonth().plusMonths(month).toString(),
+                    monthServices[month], BigDecimal.valueOf(monthCostCents[month], 2)));
+            services += monthServices[month];
+            costCents += monthCostCents[month];
+        }
+        return new MaintenanceForecastDTO(asOf, window.until(), LocalDateTime.now(), vehicles, services,
+                BigDecimal.valueOf(costCents, 2), months, lines);
+    }
+
+    private LocalDate until(LocalDate asOf) {
+        return asOf.plusMonths(horizonMonths);
+    }
+
+    private static final class Cached {
+
+        private final MaintenanceForecastDTO report;
+        private final Map<String, MaintenanceForecaster.GroupForecast> groups;
+        private final long computedAtNanos;
+
+        Cached(MaintenanceForecastDTO report, Map<String, MaintenanceForecaster.GroupForecast> groups,
+               long computedAtNanos) {
+            this.report = report;
+            this.groups = groups;
+            this.computedAtNanos = computedAtNanos;
+        }
+
+        boolean isFresh(long intervalNanos) {
+            return LocalDate.now().equals(report.getAsOf()) && System.nanoTime() - computedAtNanos < intervalNanos;
+        }
+    }
+}
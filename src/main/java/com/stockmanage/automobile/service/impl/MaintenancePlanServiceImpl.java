@@ -0,0 +1,219 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.dto.MaintenancePlanDTO;
+import com.stockmanage.automobile.dto.MaintenancePlanRunDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.event.MaintenancePlanRunQueuedEvent;
+import com.stockmanage.automobile.maintenance.MaintenancePlanGenerator;
+import com.stockmanage.automobile.model.MaintenancePlan;
+import com.stockmanage.automobile.model.MaintenancePlanRun;
+import com.stockmanage.automobile.repository.MaintenancePlanRepository;
+import com.stockmanage.automobile.repository.MaintenancePlanRunRepository;
+import com.stockmanage.automobile.service.MaintenancePlanService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class MaintenancePlanServiceImpl implements MaintenancePlanService {
+
+    // Lengths of maintenance.maintenance_type and maintenance.service_provider
+    private static final int MAX_TYPE_LENGTH = 20;
+    private static final int MAX_PROVIDER_LENGTH = 100;
+    private static final int MAX_SERVICES_PER_VEHICLE = 1000;
+
+    private final MaintenancePlanRepository planRepository;
+    private final MaintenancePlanRunRepository runRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public MaintenancePlanServiceImpl(MaintenancePlanRepository planRepository,
+                                      MaintenancePlanRunRepository runRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      ObjectMapper objectMapper) {
+        this.planRepository = planRepository;
+        this.runRepository = runRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MaintenancePlanDTO> getAllPlans() {
+        return planRepository.findAll().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MaintenancePlanDTO getPlanById(Long id) {
+        return convertToDTO(findPlan(id));
+    }
+
+    @Override
+    @Transactional
+    public MaintenancePlanDTO createPlan(MaintenancePlanDTO planDTO) {
+        if (planDTO.getName() == null || planDTO.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (planDTO.getMaintenanceType() == null || planDTO.getMaintenanceType().isBlank()
+                || planDTO.getMaintenanceType().length() > MAX_TYPE_LENGTH) {
+            throw new IllegalArgumentException("maintenanceType is required, up to " + MAX_TYPE_LENGTH + " characters");
+        }
+        if (planDTO.getServiceProvider() != null && planDTO.getServiceProvider().length() > MAX_PROVIDER_LENGTH) {
+            throw new IllegalArgumentException("serviceProvider must be at most " + MAX_PROVIDER_LENGTH + " characters");
+        }
+        if (planDTO.getIntervalDays() == null || planDTO.getIntervalDays() < 1) {
+            throw new IllegalArgumentException("intervalDays must be at least 1");
+        }
+        if (planDTO.getCost() == null || planDTO.getCost().compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("cost is required and must not be negative");
+        }
+
+        MaintenancePlan plan = new MaintenancePlan();
+        plan.setName(planDTO.getName());
+        plan.setMaintenanceType(planDTO.getMaintenanceType());
+        plan.setIntervalDays(planDTO.getIntervalDays());
+        plan.setServiceProvider(planDTO.getServiceProvider());
+        plan.setCost(planDTO.getCost());
+        plan.setDescription(planDTO.getDescription());
+        plan.setCreatedAt(LocalDateTime.now());
+
+        return convertToDTO(planRepository.save(plan));
+    }
+
+    @Override
+    @Transactional
+    public MaintenancePlanRunDTO applyPlan(Long planId, MaintenancePlanRunDTO runDTO) {
+        MaintenancePlan plan = findPlan(planId);
+        if (runDTO.getStartDate() == null || runDTO.getEndDate() == null) {
+            throw new IllegalArgumentException("startDate and endDate are required");
+        }
+        if (runDTO.getEndDate().isBefore(runDTO.getStartDate())) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        int services = MaintenancePlanGenerator.serviceDates(runDTO.getStartDate(), runDTO.getEndDate(),
+                plan.getIntervalDays()).size();
+        if (services > MAX_SERVICES_PER_VEHICLE) {
+            throw new IllegalArgumentException("A run may schedule at most " + MAX_SERVICES_PER_VEHICLE
+                    + " services per vehicle, this one would schedule " + services);
+        }
+        VehicleQueryDTO filter = runDTO.getVehicleFilter() != null ? runDTO.getVehicleFilter() : new VehicleQueryDTO();
+        // Vehicles are always taken in id order
+        filter.setSort(null);
+
+        MaintenancePlanRun run = new MaintenancePlanRun();
+        run.setPlan(plan);
+        run.setVehicleFilter(writeFilter(filter));
+        run.setStartDate(runDTO.getStartDate());
+        run.setEndDate(runDTO.getEndDate());
+        run.setStatus(MaintenancePlanRun.RunStatus.PENDING);
+        run.setVehiclesProcessed(0L);
+        run.setRecordsCreated(0L);
+        run.setLastVehicleId(0L);
+        run.setCreatedAt(LocalDateTime.now());
+
+        run = runRepository.save(run);
+        eventPublisher.publishEvent(new MaintenancePlanRunQueuedEvent(run.getId()));
+        return convertToDTO(run);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MaintenancePlanRunDTO> getRunsByPlanId(Long planId) {
+        findPlan(planId);
+        return runRepository.findByPlanIdOrderByIdDesc(planId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MaintenancePlanRunDTO getRunById(Long runId) {
+        return convertToDTO(runRepository.findById(runId)
+                .orElseThrow(() -> new EntityNotFoundException("Maintenance plan run not found with id: " + runId)));
+    }
+
+    /**
+     * @throws IllegalStateException if the run has not failed
+     */
+    @Override
+    @Transactional
+    public MaintenancePlanRunDTO resumeRun(Long runId) {
+        MaintenancePlanRun run = runRepository.findByIdForUpdate(runId)
+                .orElseThrow(() -> new EntityNotFoundException("Maintenance plan run not found with id: " + runId));
+        if (run.getStatus() != MaintenancePlanRun.RunStatus.FAILED) {
+            throw new IllegalStateException("Maintenance plan run " + runId + " is " + run.getStatus()
+                    + "; only failed runs can be resumed");
+        }
+        run.setStatus(run.getStartedAt() != null
+                ? MaintenancePlanRun.RunStatus.RUNNING : MaintenancePlanRun.RunStatus.PENDING);
+        run.setError(null);
+        run.setFinishedAt(null);
+        eventPublisher.publishEvent(new MaintenancePlanRunQueuedEvent(runId));
+        return convertToDTO(run);
+    }
+
+    private MaintenancePlan findPlan(Long id) {
+        return planRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Maintenance plan not found with id: " + id));
+    }
+
+    private String writeFilter(VehicleQueryDTO filter) {
+        try {
+            return objectMapper.writeValueAsString(filter);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid vehicle filter", e);
+        }
+    }
+
+    private VehicleQueryDTO readFilter(String filter) {
+        try {
+            return objectMapper.readValue(filter, VehicleQueryDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable vehicle filter", e);
+        }
+    }
+
+    private MaintenancePlanDTO convertToDTO(MaintenancePlan plan) {
+        MaintenancePlanDTO dto = new MaintenancePlanDTO();
+        dto.setId(plan.getId());
+        dto.setName(plan.getName());
+        dto.setMaintenanceType(plan.getMaintenanceType());
+        dto.setIntervalDays(plan.getIntervalDays());
+        dto.setServiceProvider(plan.getServiceProvider());
+        dto.setCost(plan.getCost());
+        dto.setDescription(plan.getDescription());
+        dto.setCreatedAt(plan.getCreatedAt());
+        return dto;
+    }
+
+    private MaintenancePlanRunDTO convertToDTO(MaintenancePlanRun run) {
+        MaintenancePlanRunDTO dto = new MaintenancePlanRunDTO();
+        dto.setId(run.getId());
+        dto.setPlanId(run.getPlan().getId());
+        dto.setVehicleFilter(readFilter(run.getVehicleFilter()));
+        dto.setStartDate(run.getStartDate());
+        dto.setEndDate(run.getEndDate());
+        dto.setStatus(run.getStatus());
+        dto.setTotalVehicles(run.getTotalVehicles());
+        dto.setVehiclesProcessed(run.getVehiclesProcessed());
+        dto.setRecordsCreated(run.getRecordsCreated());
+        dto.setError(run.getError());
+        dto.setCreatedAt(run.getCreatedAt());
+        dto.setStartedAt(run.getStartedAt());
+        dto.setFinishedAt(run.getFinishedAt());
+        return dto;
+    }
+}
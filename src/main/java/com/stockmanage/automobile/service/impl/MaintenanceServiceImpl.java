@@ -1,76 +1,202 @@
 package com.stockmanage.automobile.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.bulk.ExportWriter;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
 import com.stockmanage.automobile.dto.MaintenanceDTO;
+import com.stockmanage.automobile.dto.MaintenanceSummaryDTO;
+import com.stockmanage.automobile.event.MaintenanceChangedEvent;
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import com.stockmanage.automobile.maintenance.MaintenanceDueNotifier;
+import com.stockmanage.automobile.maintenance.MaintenanceSchedule;
 import com.stockmanage.automobile.model.Maintenance;
 import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.reporting.MaintenanceSummaryStore;
 import com.stockmanage.automobile.repository.MaintenanceRepository;
 import com.stockmanage.automobile.repository.VehicleRepository;
 import com.stockmanage.automobile.service.MaintenanceService;
+import com.stockmanage.automobile.sync.ChangeTracker;
+import com.stockmanage.automobile.telemetry.MileageBuffer;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class MaintenanceServiceImpl implements MaintenanceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceServiceImpl.class);
+
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
+    // Vehicles per statement when re-reading the records of a vehicle change event
+    private static final int CHANGE_CHUNK_SIZE = 1000;
+
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "vehicleId", "vehicleDetails",
+            "maintenanceType", "serviceDate", "nextServiceDate", "cost", "description", "serviceProvider",
+            "mileageAtService", "status");
+
     private final MaintenanceRepository maintenanceRepository;
     private final VehicleRepository vehicleRepository;
+    private final MaintenanceSchedule schedule;
+    private final MaintenanceDueNotifier dueNotifier;
+    private final MaintenanceSummaryStore summaries;
+    private final MileageBuffer mileageBuffer;
+    private final ChangeTracker changeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public MaintenanceServiceImpl(MaintenanceRepository maintenanceRepository, 
-                                  VehicleRepository vehicleRepository) {
+                                  VehicleRepository vehicleRepository,
+                                  MaintenanceSchedule schedule,
+                                  MaintenanceDueNotifier dueNotifier,
+                                  MaintenanceSummaryStore summaries,
+                                  MileageBuffer mileageBuffer,
+                                  ChangeTracker changeTracker,
+                                  ApplicationEventPublisher eventPublisher,
+                                  EntityManager entityManager,
+                                  ObjectMapper objectMapper) {
         this.maintenanceRepository = maintenanceRepository;
         this.vehicleRepository = vehicleRepository;
+        this.schedule = schedule;
+        this.dueNotifier = dueNotifier;
+        this.summaries = summaries;
+        this.mileageBuffer = mileageBuffer;
+        this.changeTracker = changeTracker;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MaintenanceDTO> getAllMaintenance() {
-        return maintenanceRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return maintenanceRepository.findAllViews();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MaintenanceDTO getMaintenanceById(Long id) {
-        return maintenanceRepository.findById(id)
-                .map(this::convertToDTO)
+        return maintenanceRepository.findViewById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Maintenance record not found with id: " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MaintenanceDTO> getMaintenanceByVehicleId(Long vehicleId) {
-        Vehicle vehicle = vehicleRepository.findById(vehicleId)
-                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + vehicleId));
-        
-        return maintenanceRepository.findByVehicle(vehicle).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        checkVehicleExists(vehicleId);
+        return maintenanceRepository.findViewsByVehicleId(vehicleId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MaintenanceDTO> getMaintenanceByStatus(Maintenance.MaintenanceStatus status) {
-        return maintenanceRepository.findByStatus(status).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return maintenanceRepository.findViewsByStatus(status);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MaintenanceDTO> getMaintenanceByDateRange(LocalDate startDate, LocalDate endDate) {
-        return maintenanceRepository.findByServiceDateBetween(startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return maintenanceRepository.findViewsByServiceDateBetween(startDate, endDate);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MaintenanceDTO> getUpcomingMaintenance(LocalDate date) {
-        return maintenanceRepository.findByNextServiceDateLessThanEqual(date).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (!schedule.isReady()) {
+            return maintenanceRepository.findViewsDueBy(date);
+        }
+        List<MaintenanceDTO> due = schedule.dueBy(date);
+        due.sort(Comparator.comparing(MaintenanceDTO::getId));
+        return due;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MaintenanceDTO> getDueMaintenance(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days must not be negative");
+        }
+        LocalDate date = LocalDate.now().plusDays(days);
+        if (schedule.isReady()) {
+            return schedule.dueBy(date);
+        }
+        List<MaintenanceDTO> due = new ArrayList<>(maintenanceRepository.findViewsDueBy(date));
+        due.sort(Comparator.comparing(MaintenanceDTO::getNextServiceDate).thenComparing(MaintenanceDTO::getId));
+        return due;
+    }
+
+    @Override
+    public SseEmitter subscribeToDueMaintenance() {
+        return dueNotifier.subscribe();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceDTO> getAllMaintenance(String after, Integer limit) {
+        return page(after, limit, maintenanceRepository::findViewsAfter);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceDTO> getMaintenanceByVehicleId(Long vehicleId, String after, Integer limit) {
+        checkVehicleExists(vehicleId);
+        return page(after, limit, (afterId, max) ->
+                maintenanceRepository.findViewsByVehicleIdAfter(vehicleId, afterId, max));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceDTO> getMaintenanceByStatus(Maintenance.MaintenanceStatus status,
+                                                             String after, Integer limit) {
+        return page(after, limit, (afterId, max) ->
+                maintenanceRepository.findViewsByStatusAfter(status, afterId, max));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceDTO> getMaintenanceByDateRange(LocalDate startDate, LocalDate endDate,
+                                                                String after, Integer limit) {
+        return page(after, limit, (afterId, max) ->
+                maintenanceRepository.findViewsByServiceDateBetweenAfter(startDate, endDate, afterId, max));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceDTO> getUpcomingMaintenance(LocalDate date, String after, Integer limit) {
+        return page(after, limit, (afterId, max) ->
+                maintenanceRepository.findViewsDueByAfter(date, afterId, max));
     }
 
     @Override
@@ -89,8 +215,12 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         maintenance.setServiceProvider(maintenanceDTO.getServiceProvider());
         maintenance.setStatus(maintenanceDTO.getStatus() != null ? 
                 maintenanceDTO.getStatus() : Maintenance.MaintenanceStatus.SCHEDULED);
+        maintenance.setMileageAtService(maintenanceDTO.getMileageAtService());
+        recordMileage(maintenance);
         
-        maintenance = maintenanceRepository.save(maintenance);
+        maintenance = maintenanceRepository.saveAndFlush(maintenance);
+        summaries.refresh(List.of(vehicle.getId()));
+        eventPublisher.publishEvent(MaintenanceChangedEvent.of(maintenance.getId(), vehicle.getId()));
         
         return convertToDTO(maintenance);
     }
@@ -109,8 +239,14 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         maintenance.setDescription(maintenanceDTO.getDescription());
         maintenance.setServiceProvider(maintenanceDTO.getServiceProvider());
         maintenance.setStatus(maintenanceDTO.getStatus());
+        if (maintenanceDTO.getMileageAtService() != null) {
+            maintenance.setMileageAtService(maintenanceDTO.getMileageAtService());
+        }
+        recordMileage(maintenance);
         
-        maintenance = maintenanceRepository.save(maintenance);
+        maintenance = maintenanceRepository.saveAndFlush(maintenance);
+        summaries.refresh(List.of(maintenance.getVehicle().getId()));
+        eventPublisher.publishEvent(MaintenanceChangedEvent.of(id, maintenance.getVehicle().getId()));
         
         return convertToDTO(maintenance);
     }
@@ -118,10 +254,12 @@ public class MaintenanceServiceImpl implements MaintenanceService {
     @Override
     @Transactional
     public void deleteMaintenance(Long id) {
-        if (!maintenanceRepository.existsById(id)) {
-            throw new EntityNotFoundException("Maintenance record not found with id: " + id);
-        }
-        maintenanceRepository.deleteById(id);
+        Maintenance maintenance = maintenanceRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Maintenance record not found with id: " + id));
+        maintenanceRepository.delete(maintenance);
+        maintenanceRepository.flush();
+        summaries.refresh(List.of(maintenance.getVehicle().getId()));
+        eventPublisher.publishEvent(MaintenanceChangedEvent.of(id, maintenance.getVehicle().getId()));
     }
 
     @Override
@@ -131,11 +269,173 @@ public class MaintenanceServiceImpl implements MaintenanceService {
                 .orElseThrow(() -> new EntityNotFoundException("Maintenance record not found with id: " + id));
         
         maintenance.setStatus(status);
-        maintenance = maintenanceRepository.save(maintenance);
+        recordMileage(maintenance);
+        maintenance = maintenanceRepository.saveAndFlush(maintenance);
+        summaries.refresh(List.of(maintenance.getVehicle().getId()));
+        eventPublisher.publishEvent(MaintenanceChangedEvent.of(id, maintenance.getVehicle().getId()));
         
         return convertToDTO(maintenance);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceSummaryDTO> getMaintenanceSummaries(String sort, String after, Integer limit) {
+        MaintenanceSummaryStore.SummarySort order = MaintenanceSummaryStore.SummarySort.parse(sort);
+        int size = CursorPage.clampLimit(limit);
+        String afterKey = after != null && !after.isBlank() ? CursorPage.decodeKey(after) : null;
+        
+        List<MaintenanceSummaryDTO> rows = summaries.read(order, afterKey, size + 1);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = CursorPage.encodeKey(order.keyOf(rows.get(size - 1)));
+        }
+        return new CursorPage<>(rows, nextCursor, size);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildMaintenanceSummaries() {
+        int rows = summaries.rebuild();
+        logger.info("Maintenance summaries rebuilt for {} vehicles", rows);
+        return rows;
+    }
+
+    /**
+     * Builds the summaries on first start after the table was created, when there are
+     * maintenance records but none of them has been summarized yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadMaintenanceSummaries() {
+        try {
+            if (summaries.isEmpty() && maintenanceRepository.count() > 0) {
+                rebuildMaintenanceSummaries();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to build the maintenance summaries; run POST /api/maintenance/summary/rebuild", e);
+        }
+    }
+
+    /**
+     * Streams all maintenance records from a database cursor in a read-only
+     * repeatable-read transaction, clearing the persistence context per batch.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void exportMaintenance(ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter<MaintenanceDTO> writer = ExportWriter.open(format, out, objectMapper, EXPORT_COLUMNS,
+                record -> List.of(Arrays.asList(record.getId(), record.getVehicleId(), record.getVehicleDetails(),
+                        record.getMaintenanceType(), record.getServiceDate(), record.getNextServiceDate(),
+                        record.getCost(), record.getDescription(), record.getServiceProvider(),
+                        record.getMileageAtService(), record.getStatus())));
+        try (Stream<Maintenance> records = maintenanceRepository.streamAllOrderedById()) {
+            writer.writeAll(records, this::convertToDTO, EXPORT_BATCH_SIZE, entityManager::clear);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ChangeSetDTO<MaintenanceDTO> getMaintenanceChanges(String since, Integer limit) {
+        return changeTracker.changes(ChangeTracker.MAINTENANCE, since, limit, maintenanceRepository::findChangedSince,
+                Maintenance::getChangeVersion, Maintenance::getId, this::convertToDTO);
+    }
+
+    /**
+     * Withholds maintenance ETags from the moment a change is published until the
+     * due-service schedule has applied it; until then it may still serve the old state.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onMaintenanceChanging(MaintenanceChangedEvent event) {
+        changeTracker.hold(ChangeTracker.MAINTENANCE);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onMaintenanceChangeRolledBack(MaintenanceChangedEvent event) {
+        changeTracker.release(ChangeTracker.MAINTENANCE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        try {
+            if (!event.getMaintenanceIds().isEmpty()) {
+                List<MaintenanceDTO> current = maintenanceRepository.findViewsByIdIn(event.getMaintenanceIds());
+                Set<Long> removed = new HashSet<>(event.getMaintenanceIds());
+                current.forEach(record -> removed.remove(record.getId()));
+                schedule.apply(current, removed);
+            } else if (!event.getVehicleIds().isEmpty()) {
+                schedule.applyVehicles(event.getVehicleIds(),
+                        maintenanceRepository.findViewsByVehicleIdIn(event.getVehicleIds()));
+            }
+        } finally {
+            changeTracker.release(ChangeTracker.MAINTENANCE);
+        }
+    }
+
+    // Scheduled records carry vehicle details, so vehicle changes are reloaded as well
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onVehiclesChanging(VehicleChangedEvent event) {
+        changeTracker.hold(ChangeTracker.MAINTENANCE);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onVehicleChangeRolledBack(VehicleChangedEvent event) {
+        changeTracker.release(ChangeTracker.MAINTENANCE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onVehiclesChanged(VehicleChangedEvent event) {
+        try {
+            // A vehicle's records all fall in its chunk, so each chunk is applied on its own
+            List<Long> ids = new ArrayList<>(event.getVehicleIds());
+            for (int from = 0; from < ids.size(); from += CHANGE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHANGE_CHUNK_SIZE, ids.size()));
+                schedule.applyVehicles(chunk, maintenanceRepository.findViewsByVehicleIdIn(chunk));
+            }
+        } finally {
+            changeTracker.release(ChangeTracker.MAINTENANCE);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadSchedule() {
+        try {
+            schedule.load(maintenanceRepository.findScheduledViews());
+        } catch (Exception e) {
+            logger.error("Failed to load the maintenance schedule; due service will be read from the database", e);
+        }
+    }
+
+    /**
+     * Stamps a record that is being or has been serviced with the vehicle's odometer,
+     * including a telemetry reading not yet written, unless a reading was given.
+     */
+    private void recordMileage(Maintenance maintenance) {
+        Maintenance.MaintenanceStatus status = maintenance.getStatus();
+        if (maintenance.getMileageAtService() == null && (status == Maintenance.MaintenanceStatus.IN_PROGRESS
+                || status == Maintenance.MaintenanceStatus.COMPLETED)) {
+            Vehicle vehicle = maintenance.getVehicle();
+            maintenance.setMileageAtService(mileageBuffer.currentMileage(vehicle.getId(), vehicle.getMileage()));
+        }
+    }
+
+    private CursorPage<MaintenanceDTO> page(String after, Integer limit,
+                                            BiFunction<Long, Limit, List<MaintenanceDTO>> query) {
+        return CursorPage.fetch(after, limit, query, MaintenanceDTO::getId, Function.identity());
+    }
+    
+    private void checkVehicleExists(Long vehicleId) {
+        if (!vehicleRepository.existsById(vehicleId)) {
+            throw new EntityNotFoundException("Vehicle not found with id: " + vehicleId);
+        }
+    }
+    
     private MaintenanceDTO convertToDTO(Maintenance maintenance) {
         MaintenanceDTO dto = new MaintenanceDTO();
         dto.setId(maintenance.getId());
@@ -150,8 +450,7 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         dto.setCost(maintenance.getCost());
         dto.setDescription(maintenance.getDescription());
         dto.setServiceProvider(maintenance.getServiceProvider());
-        // Set mileageAtService to the vehicle's current mileage as a fallback
-        dto.setMileageAtService(vehicle.getMileage());
+        dto.setMileageAtService(maintenance.getMileageAtService());
         dto.setStatus(maintenance.getStatus());
         
         return dto;
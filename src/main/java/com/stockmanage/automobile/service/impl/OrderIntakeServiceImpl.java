@@ -0,0 +1,298 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.stockmanage.automobile.cache.BoundedCache;
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderIntakeDTO;
+import com.stockmanage.automobile.dto.OrderResultDTO;
+import com.stockmanage.automobile.exception.IntakeQueueFullException;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.service.OrderIntakeService;
+import com.stockmanage.automobile.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous order intake. Submitted orders go into a bounded queue and are
+ * answered with a ticket; worker threads drain the queue in batches and place
+ * each batch in a single transaction. When the queue is full, submissions are
+ * refused so that clients back off instead of piling up requests.
+ *
+ * <p>Tickets and idempotency keys of orders still queued or being placed are held
+ * until the order is placed, so they are never evicted. Once placed, they move to
+ * bounded caches that keep up to {@code order.intake.max-tickets} of them for
+ * {@code order.intake.ticket-ttl}. A retry with a known key returns the original
+ * ticket instead of queueing the order again.
+ */
+@Service
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeServiceImpl.class);
+
+    private final OrderService orderService;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<Submission> queue;
+    // Tickets of orders not yet placed; bounded by the queue plus the batches in progress
+    private final Map<String, OrderIntakeDTO> pending = new ConcurrentHashMap<>();
+    private final BoundedCache<String, OrderIntakeDTO> intakes;
+    // Keys of orders not yet placed, guarded by the lock on submissionsByKey
+    private final Map<String, Submission> pendingByKey = new HashMap<>();
+    private final BoundedCache<String, Submission> submissionsByKey;
+
+    private ExecutorService workerPool;
+    private volatile boolean running;
+
+    @Autowired
+    public OrderIntakeServiceImpl(OrderService orderService,
+                                  UserRepository userRepository,
+                                  @Value("${order.intake.async:false}") boolean enabled,
+                                  @Value("${order.intake.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${order.intake.workers:2}") int workers,
+                                  @Value("${order.intake.batch-size:50}") int batchSize,
+                                  @Value("${order.intake.retry-after:5s}") Duration retryAfter,
+                                  @Value("${order.intake.max-tickets:100000}") int maxTickets,
+                                  @Value("${order.intake.ticket-ttl:24h}") Duration ticketTtl) {
+        this.orderService = orderService;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.intakes = new BoundedCache<>(maxTickets, ticketTtl);
+        this.submissionsByKey = new BoundedCache<>(maxTickets, ticketTtl);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates and queues an order.
+     *
+     * @throws IllegalArgumentException if the order is invalid, or the idempotency key
+     *                                  was already used for a different order
+     * @throws EntityNotFoundException  if the ordering user does not exist
+     * @throws IntakeQueueFullException if the queue has no room left
+     */
+    @Override
+    public OrderIntakeDTO submit(OrderDTO orderDTO, String idempotencyKey) {
+        if (orderDTO.getUserId() == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (!userRepository.existsById(orderDTO.getUserId())) {
+            throw new EntityNotFoundException("User not found with id: " + orderDTO.getUserId());
+        }
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return enqueue(new Submission(UUID.randomUUID().toString(), null, orderDTO));
+        }
+        // Serialized so that two concurrent retries with one key queue the order once
+        synchronized (submissionsByKey) {
+            Submission previous = pendingByKey.get(idempotencyKey);
+            if (previous == null) {
+                previous = submissionsByKey.get(idempotencyKey);
+            }
+            if (previous != null) {
+                if (!previous.order.equals(orderDTO)) {
+                    throw new IllegalArgumentException("Idempotency-Key " + idempotencyKey
+                            + " was already used for a different order");
+                }
+                OrderIntakeDTO intake = findIntake(previous.id);
+                if (intake != null) {
+                    return intake;
+                }
+            }
+            Submission submission = new Submission(UUID.randomUUID().toString(), idempotencyKey, orderDTO);
+            OrderIntakeDTO intake = enqueue(submission);
+            pendingByKey.put(idempotencyKey, submission);
+            return intake;
+        }
+    }
+
+    @Override
+    public OrderIntakeDTO getIntake(String id) {
+        OrderIntakeDTO intake = findIntake(id);
+        if (intake == null) {
+            throw new EntityNotFoundException("Order intake not found with id: " + id);
+        }
+        return intake;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::drain);
+        }
+        logger.info("Order intake started with {} workers, batches of up to {}", workers, batchSize);
+    }
+
+    /**
+     * Stops taking new batches once the queue is empty, giving queued orders a
+     * chance to be placed before shutdown.
+     */
+    @PreDestroy
+    public void stopWorkers() throws InterruptedException {
+        if (workerPool == null) {
+            return;
+        }
+        running = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Order intake stopped with {} orders still queued", queue.size());
+            workerPool.shutdownNow();
+        }
+    }
+
+    private OrderIntakeDTO enqueue(Submission submission) {
+        OrderIntakeDTO intake = new OrderIntakeDTO(submission.id, OrderIntakeDTO.State.QUEUED,
+                LocalDateTime.now(), null, null);
+        // Registered first so that a worker completing it right away finds the ticket
+        pending.put(submission.id, intake);
+        if (!queue.offer(submission)) {
+            pending.remove(submission.id);
+            throw new IntakeQueueFullException(retryAfterSeconds);
+        }
+        return intake;
+    }
+
+    private OrderIntakeDTO findIntake(String id) {
+        // Completed tickets are cached before they leave the pending map, so checking
+        // in this order never misses a ticket that is being completed
+        OrderIntakeDTO intake = pending.get(id);
+        return intake != null ? intake : intakes.get(id);
+    }
+
+    /**
+     * Records the outcome of a placed order and moves its ticket and idempotency key
+     * into the bounded caches.
+     */
+    private void complete(Submission submission, OrderResultDTO result) {
+        OrderIntakeDTO queued = pending.get(submission.id);
+        intakes.put(submission.id, new OrderIntakeDTO(submission.id, OrderIntakeDTO.State.COMPLETED,
+                queued != null ? queued.getSubmittedAt() : null, LocalDateTime.now(), result));
+        pending.remove(submission.id);
+        if (submission.idempotencyKey != null) {
+            synchronized (submissionsByKey) {
+                submissionsByKey.put(submission.idempotencyKey, submission);
+                pendingByKey.remove(submission.idempotencyKey, submission);
+            }
+        }
+    }
+
+    private void drain() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                place(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Order intake worker failed on a batch of {}", batch.size(), e);
+                // Completed with an error rather than left pending forever
+                OrderResultDTO failed = new OrderResultDTO(HttpStatus.INTERNAL_SERVER_ERROR.value(), null,
+                        e.getMessage());
+                for (Submission submission : batch) {
+                    if (pending.containsKey(submission.id)) {
+                        complete(submission, failed);
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Places a batch in one transaction. If the transaction itself fails, every order
+     * of the batch is retried on its own so that one bad order cannot sink the others.
+     */
+    private void place(List<Submission> batch) {
+        List<OrderResultDTO> results;
+        try {
+            results = orderService.createOrders(batch.stream()
+                    .map(submission -> submission.order)
+                    .collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} orders failed, placing them one by one", batch.size(), e);
+            results = batch.stream()
+                    .map(submission -> placeAlone(submission.order))
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results.get(i));
+        }
+    }
+
+    private OrderResultDTO placeAlone(OrderDTO orderDTO) {
+        try {
+            return new OrderResultDTO(HttpStatus.CREATED.value(), orderService.createOrder(orderDTO), null);
+        } catch (VehicleUnavailableException e) {
+            return new OrderResultDTO(HttpStatus.CONFLICT.value(), null, e.getMessage());
+        } catch (EntityNotFoundException e) {
+            return new OrderResultDTO(HttpStatus.NOT_FOUND.value(), null, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new OrderResultDTO(HttpStatus.BAD_REQUEST.value(), null, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error placing queued order", e);
+            return new OrderResultDTO(HttpStatus.INTERNAL_SERVER_ERROR.value(), null, e.getMessage());
+        }
+    }
+
+    private static final class Submission {
+
+        private final String id;
+        private final String idempotencyKey;
+        private final OrderDTO order;
+
+        Submission(String id, String idempotencyKey, OrderDTO order) {
+            this.id = id;
+            this.idempotencyKey = idempotencyKey;
+            this.order = order;
+        }
+    }
+}
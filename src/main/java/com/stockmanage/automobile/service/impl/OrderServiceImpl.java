@@ -1,222 +1,401 @@
 package com.stockmanage.automobile.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.archive.OrderArchiver;
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.bulk.ExportWriter;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
 import com.stockmanage.automobile.dto.OrderDTO;
 import com.stockmanage.automobile.dto.OrderItemDTO;
+import com.stockmanage.automobile.dto.OrderResultDTO;
+import com.stockmanage.automobile.dto.OrderStatsDTO;
+import com.stockmanage.automobile.dto.OrderStatusUpdateDTO;
+import com.stockmanage.automobile.dto.OrderStatusUpdateResultDTO;
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import com.stockmanage.automobile.exception.InvalidStatusTransitionException;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
 import com.stockmanage.automobile.model.Order;
 import com.stockmanage.automobile.model.OrderItem;
 import com.stockmanage.automobile.model.User;
 import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.numbering.OrderNumberAllocator;
+import com.stockmanage.automobile.repository.ArchivedOrderItemRepository;
+import com.stockmanage.automobile.repository.ArchivedOrderRepository;
+import com.stockmanage.automobile.reporting.OrderRollupStore;
+import com.stockmanage.automobile.reporting.RollupBucket;
 import com.stockmanage.automobile.repository.OrderItemRepository;
 import com.stockmanage.automobile.repository.OrderRepository;
+import com.stockmanage.automobile.repository.OrderStatusView;
 import com.stockmanage.automobile.repository.UserRepository;
 import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.reservation.StockRelease;
+import com.stockmanage.automobile.reservation.VehicleReservationRegistry;
 import com.stockmanage.automobile.service.OrderService;
+import com.stockmanage.automobile.sync.ChangeTracker;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
+
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    
+    // Orders whose items are read with one IN query
+    private static final int ITEM_BATCH_SIZE = 500;
+    
+    // Orders one bulk status change handles, and orders per locking read and UPDATE
+    private static final int MAX_BULK_STATUS_ORDERS = 10000;
+    private static final int STATUS_CHUNK_SIZE = 1000;
+    
+    // Order date bounds used when a bulk status filter leaves them open
+    private static final LocalDateTime EARLIEST_ORDER_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST_ORDER_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    // Upper bound on the buckets of one stats request, about ten years of days
+    private static final int MAX_STATS_BUCKETS = 3660;
+    
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "orderNumber", "userId", "customerName",
+            "vehicleId", "vehicleDetails", "orderDate", "status", "totalAmount", "notes", "paymentMethod",
+            "deliveryDate", "createdAt", "itemId", "itemVehicleId", "itemVehicleDetails", "quantity",
+            "unitPrice", "subtotal", "additionalServices", "isPaid");
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final OrderArchiver archiver;
     private final UserRepository userRepository;
     private final VehicleRepository vehicleRepository;
+    private final VehicleReservationRegistry reservations;
+    private final StockRelease stockRelease;
+    private final OrderNumberAllocator orderNumbers;
+    private final OrderRollupStore rollups;
+    private final ChangeTracker changeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository, 
                             OrderItemRepository orderItemRepository,
+                            ArchivedOrderRepository archivedOrderRepository,
+                            ArchivedOrderItemRepository archivedOrderItemRepository,
+                            OrderArchiver archiver,
                             UserRepository userRepository,
-                            VehicleRepository vehicleRepository) {
+                            VehicleRepository vehicleRepository,
+                            VehicleReservationRegistry reservations,
+                            StockRelease stockRelease,
+                            OrderNumberAllocator orderNumbers,
+                            OrderRollupStore rollups,
+                            ChangeTracker changeTracker,
+                            ApplicationEventPublisher eventPublisher,
+                            EntityManager entityManager,
+                            ObjectMapper objectMapper) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.archiver = archiver;
         this.userRepository = userRepository;
         this.vehicleRepository = vehicleRepository;
+        this.reservations = reservations;
+        this.stockRelease = stockRelease;
+        this.orderNumbers = orderNumbers;
+        this.rollups = rollups;
+        this.changeTracker = changeTracker;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return withArchived(orderRepository.findAllViews(), archivedOrderRepository.findAllViews());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
-        return orderRepository.findById(id)
-                .map(this::convertToDTO)
+        return orderRepository.findViewById(id)
+                .map(this::withItems)
+                .or(() -> archivedOrderRepository.findViewById(id).map(this::withArchivedItems))
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderDTO getOrderByOrderNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber)
-                .map(this::convertToDTO)
+        return orderRepository.findViewByOrderNumber(orderNumber)
+                .map(this::withItems)
+                .or(() -> archivedOrderRepository.findViewByOrderNumber(orderNumber).map(this::withArchivedItems))
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with order number: " + orderNumber));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
-        
-        return orderRepository.findByUser(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        checkUserExists(userId);
+        return withArchived(orderRepository.findViewsByUserId(userId),
+                archivedOrderRepository.findViewsByUserId(userId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.findByStatus(status).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (!OrderArchiver.isClosed(status)) {
+            return withItems(orderRepository.findViewsByStatus(status));
+        }
+        return withArchived(orderRepository.findViewsByStatus(status),
+                archivedOrderRepository.findViewsByStatus(status));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.findByOrderDateBetween(startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (!startDate.isBefore(archiver.cutoff())) {
+            return withItems(orderRepository.findViewsByOrderDateBetween(startDate, endDate));
+        }
+        return withArchived(orderRepository.findViewsByOrderDateBetween(startDate, endDate),
+                archivedOrderRepository.findViewsByOrderDateBetween(startDate, endDate));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getAllOrders(String after, Integer limit) {
+        return page(after, limit, orderRepository::findViewsAfter, archivedOrderRepository::findViewsAfter);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getOrdersByUserId(Long userId, String after, Integer limit) {
+        checkUserExists(userId);
+        return page(after, limit,
+                (afterId, max) -> orderRepository.findViewsByUserIdAfter(userId, afterId, max),
+                (afterId, max) -> archivedOrderRepository.findViewsByUserIdAfter(userId, afterId, max));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getOrdersByStatus(Order.OrderStatus status, String after, Integer limit) {
+        if (!OrderArchiver.isClosed(status)) {
+            return page(after, limit, (afterId, max) ->
+                    orderRepository.findViewsByStatusAfter(status, afterId, max));
+        }
+        return page(after, limit,
+                (afterId, max) -> orderRepository.findViewsByStatusAfter(status, afterId, max),
+                (afterId, max) -> archivedOrderRepository.findViewsByStatusAfter(status, afterId, max));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                     String after, Integer limit) {
+        if (!startDate.isBefore(archiver.cutoff())) {
+            return page(after, limit, (afterId, max) ->
+                    orderRepository.findViewsByOrderDateBetweenAfter(startDate, endDate, afterId, max));
+        }
+        return page(after, limit,
+                (afterId, max) -> orderRepository.findViewsByOrderDateBetweenAfter(startDate, endDate, afterId, max),
+                (afterId, max) -> archivedOrderRepository.findViewsByOrderDateBetweenAfter(startDate, endDate,
+                        afterId, max));
     }
 
     @Override
     @Transactional
     public OrderDTO createOrder(OrderDTO orderDTO) {
-        try {
-            // Log input data for debugging
-            System.out.println("Creating order with DTO: " + orderDTO);
-            
-            // Validate required fields
-            if (orderDTO.getUserId() == null) {
-                throw new IllegalArgumentException("userId is required");
-            }
-            
-            User user = userRepository.findById(orderDTO.getUserId())
-                    .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + orderDTO.getUserId()));
-            
-            Order order = new Order();
-            order.setOrderNumber(generateOrderNumber());
-            order.setUser(user);
-            
-            // Set order date, either from DTO or current time
-            if (orderDTO.getOrderDate() != null) {
-                order.setOrderDate(orderDTO.getOrderDate());
-            } else {
-                order.setOrderDate(LocalDateTime.now());
+        Order order = placeOrder(orderDTO);
+        addToRollups(List.of(order));
+        publishVehicleChanges(List.of(order));
+        
+        return convertPlacedOrder(order);
+    }
+
+    /**
+     * Places several orders in one transaction. An order that is invalid or whose
+     * vehicles are no longer available is rejected before anything of it is written,
+     * and the rest of the batch goes ahead. Results are in request order.
+     */
+    @Override
+    @Transactional
+    public List<OrderResultDTO> createOrders(List<OrderDTO> orderDTOs) {
+        List<OrderResultDTO> results = new ArrayList<>();
+        List<Order> placed = new ArrayList<>();
+        for (OrderDTO orderDTO : orderDTOs) {
+            try {
+                Order order = placeOrder(orderDTO);
+                placed.add(order);
+                results.add(new OrderResultDTO(HttpStatus.CREATED.value(), convertPlacedOrder(order), null));
+            } catch (VehicleUnavailableException e) {
+                results.add(new OrderResultDTO(HttpStatus.CONFLICT.value(), null, e.getMessage()));
+            } catch (EntityNotFoundException e) {
+                results.add(new OrderResultDTO(HttpStatus.NOT_FOUND.value(), null, e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                results.add(new OrderResultDTO(HttpStatus.BAD_REQUEST.value(), null, e.getMessage()));
             }
-            
-            // Set status, default to PENDING if not specified
-            if (orderDTO.getStatus() != null) {
-                order.setStatus(orderDTO.getStatus());
+        }
+        addToRollups(placed);
+        publishVehicleChanges(placed);
+        return results;
+    }
+
+    /**
+     * Builds an order with its items, claims its vehicles and saves it. Everything
+     * that can reject the order happens before the insert, so a rejected order
+     * leaves nothing behind in the transaction.
+     *
+     * <p>The round trips don't grow with the number of vehicles: the vehicles are read
+     * with one query, claimed with one locking read and one UPDATE, and the items
+     * (with pooled ids) go out in JDBC batches together with the order.
+     */
+    private Order placeOrder(OrderDTO orderDTO) {
+        // Validate required fields
+        if (orderDTO.getUserId() == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        
+        User user = userRepository.findById(orderDTO.getUserId())
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + orderDTO.getUserId()));
+        
+        Order order = new Order();
+        order.setOrderNumber(orderNumbers.next());
+        order.setUser(user);
+        
+        // Set order date, either from DTO or current time
+        if (orderDTO.getOrderDate() != null) {
+            order.setOrderDate(orderDTO.getOrderDate());
+        } else {
+            order.setOrderDate(LocalDateTime.now());
+        }
+        
+        // Set status, default to PENDING if not specified
+        if (orderDTO.getStatus() != null) {
+            order.setStatus(orderDTO.getStatus());
+        } else {
+            order.setStatus(Order.OrderStatus.PENDING);
+        }
+        
+        order.setNotes(orderDTO.getNotes());
+        order.setPaymentMethod(orderDTO.getPaymentMethod());
+        order.setDeliveryDate(orderDTO.getDeliveryDate());
+        order.setCreatedAt(LocalDateTime.now());
+        
+        Map<Long, Vehicle> vehicles = findVehicles(orderDTO);
+        
+        // Set vehicle if vehicleId is provided
+        if (orderDTO.getVehicleId() != null) {
+            Vehicle vehicle = vehicles.get(orderDTO.getVehicleId());
+            if (vehicle != null) {
+                order.setVehicle(vehicle);
             } else {
-                order.setStatus(Order.OrderStatus.PENDING);
+                // Continue without vehicle if it doesn't exist
+                logger.warn("Order vehicle not found with id {}; placing the order without it",
+                        orderDTO.getVehicleId());
             }
-            
-            order.setTotalAmount(BigDecimal.ZERO);
-            order.setNotes(orderDTO.getNotes());
-            order.setPaymentMethod(orderDTO.getPaymentMethod());
-            order.setDeliveryDate(orderDTO.getDeliveryDate());
-            order.setCreatedAt(LocalDateTime.now());
-            
-            // Set vehicle if vehicleId is provided
-            if (orderDTO.getVehicleId() != null) {
-                try {
-                    Vehicle vehicle = vehicleRepository.findById(orderDTO.getVehicleId())
-                            .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + orderDTO.getVehicleId()));
-                    order.setVehicle(vehicle);
-                } catch (Exception e) {
-                    System.err.println("Error setting vehicle: " + e.getMessage());
-                    // Continue without vehicle if there's an error
+        }
+        
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        
+        // Vehicles to mark as sold, claimed in id order so that concurrent orders
+        // for overlapping vehicles lock their rows in the same order
+        Set<Long> vehiclesToClaim = new TreeSet<>();
+        
+        // Process order items if available
+        if (orderDTO.getOrderItems() != null && !orderDTO.getOrderItems().isEmpty()) {
+            for (OrderItemDTO itemDTO : orderDTO.getOrderItems()) {
+                if (itemDTO.getVehicleId() == null) {
+                    logger.warn("Skipping order item with null vehicleId");
+                    continue;
                 }
-            }
-            
-            // First save to generate ID
-            order = orderRepository.save(order);
-            
-            BigDecimal totalAmount = BigDecimal.ZERO;
-            
-            // Process order items if available
-            if (orderDTO.getOrderItems() != null && !orderDTO.getOrderItems().isEmpty()) {
-                for (OrderItemDTO itemDTO : orderDTO.getOrderItems()) {
-                    try {
-                        if (itemDTO.getVehicleId() == null) {
-                            System.err.println("Skipping order item with null vehicleId");
-                            continue;
-                        }
-                        
-                        Vehicle vehicle = vehicleRepository.findById(itemDTO.getVehicleId())
-                                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + itemDTO.getVehicleId()));
-                        
-                        // Create order item and set all required fields
-                        OrderItem orderItem = new OrderItem();
-                        orderItem.setVehicle(vehicle);
-                        orderItem.setQuantity(itemDTO.getQuantity() != null ? itemDTO.getQuantity() : 1);
-                        orderItem.setUnitPrice(vehicle.getPrice());
-                        orderItem.setSubtotal(vehicle.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
-                        orderItem.setAdditionalServices(itemDTO.getAdditionalServices());
-                        orderItem.setIsPaid(itemDTO.getIsPaid() != null ? itemDTO.getIsPaid() : false);
-                        
-                        // Add using helper method
-                        order.addOrderItem(orderItem);
-                        
-                        totalAmount = totalAmount.add(orderItem.getSubtotal());
-                        
-                        // Mark vehicle as unavailable if it's purchased
-                        if (orderItem.getQuantity() > 0) {
-                            vehicle.setAvailable(false);
-                            vehicleRepository.save(vehicle);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error processing order item: " + e.getMessage());
-                        // Continue with next item if there's an error
-                    }
+                
+                Vehicle vehicle = vehicles.get(itemDTO.getVehicleId());
+                if (vehicle == null) {
+                    throw new EntityNotFoundException("Vehicle not found with id: " + itemDTO.getVehicleId());
                 }
-            } else {
-                // If no order items, but we have a vehicleId, create an implicit order item
-                if (orderDTO.getVehicleId() != null) {
-                    try {
-                        Vehicle vehicle = vehicleRepository.findById(orderDTO.getVehicleId())
-                                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + orderDTO.getVehicleId()));
-                        
-                        OrderItem orderItem = new OrderItem();
-                        orderItem.setVehicle(vehicle);
-                        orderItem.setQuantity(1);
-                        orderItem.setUnitPrice(vehicle.getPrice());
-                        orderItem.setSubtotal(vehicle.getPrice());
-                        orderItem.setIsPaid(false);
-                        
-                        // Add using helper method
-                        order.addOrderItem(orderItem);
-                        
-                        totalAmount = vehicle.getPrice();
-                        
-                        // Mark vehicle as unavailable
-                        vehicle.setAvailable(false);
-                        vehicleRepository.save(vehicle);
-                    } catch (Exception e) {
-                        System.err.println("Error creating implicit order item: " + e.getMessage());
-                    }
+                
+                // Create order item and set all required fields
+                OrderItem orderItem = new OrderItem();
+                orderItem.setVehicle(vehicle);
+                orderItem.setQuantity(itemDTO.getQuantity() != null ? itemDTO.getQuantity() : 1);
+                orderItem.setUnitPrice(vehicle.getPrice());
+                orderItem.setSubtotal(vehicle.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+                orderItem.setAdditionalServices(itemDTO.getAdditionalServices());
+                orderItem.setIsPaid(itemDTO.getIsPaid() != null ? itemDTO.getIsPaid() : false);
+                
+                // Add using helper method
+                order.addOrderItem(orderItem);
+                
+                totalAmount = totalAmount.add(orderItem.getSubtotal());
+                
+                // Mark vehicle as unavailable if it's purchased
+                if (orderItem.getQuantity() > 0) {
+                    vehiclesToClaim.add(vehicle.getId());
                 }
             }
-            
-            order.setTotalAmount(totalAmount);
-            
-            // Save order again with associated order items
-            order = orderRepository.save(order);
-            
-            return convertToDTO(order);
-        } catch (Exception e) {
-            System.err.println("Error creating order: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+        } else {
+            // If no order items, but we have a vehicleId, create an implicit order item
+            if (order.getVehicle() != null) {
+                Vehicle vehicle = order.getVehicle();
+                
+                OrderItem orderItem = new OrderItem();
+                orderItem.setVehicle(vehicle);
+                orderItem.setQuantity(1);
+                orderItem.setUnitPrice(vehicle.getPrice());
+                orderItem.setSubtotal(vehicle.getPrice());
+                orderItem.setIsPaid(false);
+                
+                // Add using helper method
+                order.addOrderItem(orderItem);
+                
+                totalAmount = vehicle.getPrice();
+                
+                // Mark vehicle as unavailable
+                vehiclesToClaim.add(vehicle.getId());
+            }
         }
+        
+        claimVehicles(vehiclesToClaim, user.getId());
+        
+        order.setTotalAmount(totalAmount);
+        
+        // Save the order together with its items
+        return orderRepository.save(order);
     }
 
     @Override
@@ -225,8 +404,10 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
         
-        // Only allow certain fields to be updated
-        order.setStatus(orderDTO.getStatus());
+        // Only allow certain fields to be updated; the status moves as in updateOrderStatus
+        if (orderDTO.getStatus() != null) {
+            moveStatus(order, orderDTO.getStatus());
+        }
         order.setNotes(orderDTO.getNotes());
         order.setPaymentMethod(orderDTO.getPaymentMethod());
         order.setDeliveryDate(orderDTO.getDeliveryDate());
@@ -242,15 +423,20 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
         
-        // Make vehicles available again
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-        for (OrderItem item : orderItems) {
-            Vehicle vehicle = item.getVehicle();
-            vehicle.setAvailable(true);
-            vehicleRepository.save(vehicle);
-        }
+        Set<OrderItem> orderItems = order.getOrderItems();
+        List<Long> vehicleIds = orderItems.stream()
+                .map(item -> item.getVehicle().getId())
+                .collect(Collectors.toList());
+        
+        OrderRollupStore.Delta delta = new OrderRollupStore.Delta();
+        delta.add(order, orderItems, -1);
+        rollups.apply(delta);
         
         orderRepository.delete(order);
+        orderRepository.flush();
+        
+        // Make vehicles available again, unless another order holds them by now
+        stockRelease.releaseVehicles(vehicleIds);
     }
 
     @Override
@@ -259,14 +445,391 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
         
-        order.setStatus(status);
-        order = orderRepository.save(order);
+        moveStatus(order, status);
         
         return convertToDTO(order);
     }
     
-    private String generateOrderNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    /**
+     * Reads the current statuses under row locks, decides each order's outcome, then
+     * moves the valid ones with one UPDATE and two rollup aggregates per chunk of
+     * orders. No order entity or item is loaded.
+     */
+    @Override
+    @Transactional
+    public OrderStatusUpdateResultDTO updateOrderStatuses(OrderStatusUpdateDTO request) {
+        Order.OrderStatus target = request.getStatus();
+        if (target == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+        boolean byIds = request.getIds() != null;
+        if (byIds == (request.getFromStatus() != null)) {
+            throw new IllegalArgumentException("Give either ids or fromStatus");
+        }
+        
+        Map<Long, Order.OrderStatus> current = new HashMap<>();
+        List<Long> requested;
+        boolean more = false;
+        if (byIds) {
+            requested = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+            requested.remove(null);
+            if (requested.size() > MAX_BULK_STATUS_ORDERS) {
+                throw new IllegalArgumentException("At most " + MAX_BULK_STATUS_ORDERS + " orders per request");
+            }
+            List<Long> sorted = requested.stream().sorted().collect(Collectors.toList());
+            for (int from = 0; from < sorted.size(); from += STATUS_CHUNK_SIZE) {
+                for (OrderStatusView view : orderRepository.lockStatuses(
+                        sorted.subList(from, Math.min(from + STATUS_CHUNK_SIZE, sorted.size())))) {
+                    current.put(view.getId(), view.getStatus());
+                }
+            }
+        } else {
+            Order.OrderStatus fromStatus = request.getFromStatus();
+            checkTransition(fromStatus, target);
+            List<OrderStatusView> matched = orderRepository.lockStatusesByStatus(fromStatus,
+                    request.getOrderDateFrom() != null ? request.getOrderDateFrom() : EARLIEST_ORDER_DATE,
+                    request.getOrderDateTo() != null ? request.getOrderDateTo() : LATEST_ORDER_DATE,
+                    Limit.of(MAX_BULK_STATUS_ORDERS + 1));
+            if (matched.size() > MAX_BULK_STATUS_ORDERS) {
+                matched = matched.subList(0, MAX_BULK_STATUS_ORDERS);
+                more = true;
+            }
+            requested = new ArrayList<>(matched.size());
+            for (OrderStatusView view : matched) {
+                requested.add(view.getId());
+                current.put(view.getId(), view.getStatus());
+            }
+        }
+        
+        List<OrderStatusUpdateResultDTO.Outcome> outcomes = new ArrayList<>(requested.size());
+        List<Long> toMove = new ArrayList<>();
+        for (Long id : requested) {
+            Order.OrderStatus previous = current.get(id);
+            OrderStatusUpdateResultDTO.Result result;
+            if (previous == null) {
+                result = OrderStatusUpdateResultDTO.Result.NOT_FOUND;
+            } else if (previous == target) {
+                result = OrderStatusUpdateResultDTO.Result.UNCHANGED;
+            } else if (!previous.canTransitionTo(target)) {
+                result = OrderStatusUpdateResultDTO.Result.INVALID_TRANSITION;
+            } else {
+                result = OrderStatusUpdateResultDTO.Result.UPDATED;
+                toMove.add(id);
+            }
+            outcomes.add(new OrderStatusUpdateResultDTO.Outcome(id, previous, result));
+        }
+        
+        OrderRollupStore.Delta delta = new OrderRollupStore.Delta();
+        for (int from = 0; from < toMove.size(); from += STATUS_CHUNK_SIZE) {
+            List<Long> chunk = toMove.subList(from, Math.min(from + STATUS_CHUNK_SIZE, toMove.size()));
+            rollups.collectStatusChange(delta, chunk, target.name());
+            orderRepository.updateStatus(chunk, target);
+        }
+        rollups.apply(delta);
+        if (target == Order.OrderStatus.CANCELLED && !toMove.isEmpty()) {
+            stockRelease.releaseOrders(toMove);
+        }
+        
+        return new OrderStatusUpdateResultDTO(target, toMove.size(), more, outcomes);
+    }
+    
+    /**
+     * Streams orders and their items from two database cursors, both ordered by
+     * order id, and merges them as they are read. Both run in one read-only
+     * repeatable-read transaction so they see the same snapshot.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void exportOrders(ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter<OrderDTO> writer = ExportWriter.open(format, out, objectMapper, EXPORT_COLUMNS, this::toExportRows);
+        try (Stream<Order> orders = orderRepository.streamAllOrderedById();
+             Stream<OrderItemDTO> items = orderItemRepository.streamAllOrderedByOrderId()) {
+            OrderItemCursor itemCursor = new OrderItemCursor(items.iterator());
+            writer.writeAll(orders, order -> {
+                OrderDTO dto = convertHeaderToDTO(order);
+                dto.setOrderItems(itemCursor.takeFor(order.getId()));
+                return dto;
+            }, EXPORT_BATCH_SIZE, entityManager::clear);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ChangeSetDTO<OrderDTO> getOrderChanges(String since, Integer limit) {
+        ChangeSetDTO<OrderDTO> changes = changeTracker.changes(ChangeTracker.ORDERS, since, limit,
+                orderRepository::findChangedSince, Order::getChangeVersion, Order::getId, this::convertHeaderToDTO);
+        withItems(changes.getUpserts());
+        return changes;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderStatsDTO> getOrderStats(LocalDate from, LocalDate to, RollupBucket bucket) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        ChronoUnit unit = bucket == RollupBucket.DAY ? ChronoUnit.DAYS : ChronoUnit.MONTHS;
+        if (unit.between(bucket.startOf(from), to) >= MAX_STATS_BUCKETS) {
+            throw new IllegalArgumentException("At most " + MAX_STATS_BUCKETS + " buckets can be requested");
+        }
+        return rollups.read(bucket, from, to);
+    }
+    
+    @Override
+    @Transactional
+    public int rebuildOrderRollups() {
+        int rows = rollups.rebuild();
+        logger.info("Order rollups rebuilt with {} rows", rows);
+        return rows;
+    }
+    
+    /**
+     * Builds the rollups on first start after the table was created, when there are
+     * orders but none of them has been counted yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadOrderRollups() {
+        try {
+            if (rollups.isEmpty() && orderRepository.count() > 0) {
+                rebuildOrderRollups();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to build the order rollups; run POST /api/orders/stats/rebuild", e);
+        }
+    }
+    
+    private List<List<Object>> toExportRows(OrderDTO order) {
+        List<Object> header = Arrays.asList(order.getId(), order.getOrderNumber(), order.getUserId(),
+                order.getCustomerName(), order.getVehicleId(), order.getVehicleDetails(), order.getOrderDate(),
+                order.getStatus(), order.getTotalAmount(), order.getNotes(), order.getPaymentMethod(),
+                order.getDeliveryDate(), order.getCreatedAt());
+        if (order.getOrderItems().isEmpty()) {
+            List<Object> row = new ArrayList<>(header);
+            row.addAll(Arrays.asList(new Object[8]));
+            return List.of(row);
+        }
+        
+        // One row per item, repeating the order columns
+        List<List<Object>> rows = new ArrayList<>();
+        for (OrderItemDTO item : order.getOrderItems()) {
+            List<Object> row = new ArrayList<>(header);
+            row.addAll(Arrays.asList(item.getId(), item.getVehicleId(), item.getVehicleDetails(), item.getQuantity(),
+                    item.getUnitPrice(), item.getSubtotal(), item.getAdditionalServices(), item.getIsPaid()));
+            rows.add(row);
+        }
+        return rows;
+    }
+    
+    private CursorPage<OrderDTO> page(String after, Integer limit,
+                                      BiFunction<Long, Limit, List<OrderDTO>> query) {
+        CursorPage<OrderDTO> page = CursorPage.fetch(after, limit, query, OrderDTO::getId, Function.identity());
+        withItems(page.getItems());
+        return page;
+    }
+    
+    /**
+     * Pages over live and archived orders together: both are asked for a full page
+     * after the cursor and the two are merged by id, so the page holds the lowest ids
+     * of either.
+     */
+    private CursorPage<OrderDTO> page(String after, Integer limit,
+                                      BiFunction<Long, Limit, List<OrderDTO>> liveQuery,
+                                      BiFunction<Long, Limit, List<OrderDTO>> archiveQuery) {
+        Set<Long> archivedIds = new HashSet<>();
+        CursorPage<OrderDTO> page = CursorPage.fetch(after, limit, (afterId, max) -> {
+            List<OrderDTO> archived = archiveQuery.apply(afterId, max);
+            archived.forEach(order -> archivedIds.add(order.getId()));
+            List<OrderDTO> merged = mergeById(liveQuery.apply(afterId, max), archived);
+            return merged.size() > max.max() ? merged.subList(0, max.max()) : merged;
+        }, OrderDTO::getId, Function.identity());
+        attachItems(page.getItems(), archivedIds);
+        return page;
+    }
+    
+    /**
+     * Merges live and archived orders into one id-ordered list with their items.
+     */
+    private List<OrderDTO> withArchived(List<OrderDTO> live, List<OrderDTO> archived) {
+        Set<Long> archivedIds = archived.stream().map(OrderDTO::getId).collect(Collectors.toSet());
+        return attachItems(mergeById(live, archived), archivedIds);
+    }
+    
+    private List<OrderDTO> attachItems(List<OrderDTO> orders, Set<Long> archivedIds) {
+        if (archivedIds.isEmpty()) {
+            return withItems(orders);
+        }
+        Map<Boolean, List<OrderDTO>> byArchived = orders.stream()
+                .collect(Collectors.partitioningBy(order -> archivedIds.contains(order.getId())));
+        withItems(byArchived.get(false));
+        withArchivedItems(byArchived.get(true));
+        return orders;
+    }
+    
+    private static List<OrderDTO> mergeById(List<OrderDTO> live, List<OrderDTO> archived) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        return Stream.concat(live.stream(), archived.stream())
+                .sorted(Comparator.comparing(OrderDTO::getId))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Attaches their items to archived orders in batches. Each batch is bounded by its
+     * orders' dates, so only the archive partitions holding them are read.
+     */
+    private List<OrderDTO> withArchivedItems(List<OrderDTO> orders) {
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        for (int from = 0; from < orders.size(); from += ITEM_BATCH_SIZE) {
+            List<OrderDTO> batch = orders.subList(from, Math.min(from + ITEM_BATCH_SIZE, orders.size()));
+            List<Long> orderIds = batch.stream().map(OrderDTO::getId).collect(Collectors.toList());
+            LocalDateTime earliest = batch.stream().map(OrderDTO::getOrderDate).min(Comparator.naturalOrder()).get();
+            LocalDateTime latest = batch.stream().map(OrderDTO::getOrderDate).max(Comparator.naturalOrder()).get();
+            for (OrderItemDTO item : archivedOrderItemRepository.findViewsByOrderIdIn(orderIds, earliest, latest)) {
+                itemsByOrder.computeIfAbsent(item.getOrderId(), orderId -> new ArrayList<>()).add(item);
+            }
+        }
+        for (OrderDTO order : orders) {
+            order.setOrderItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>()));
+        }
+        return orders;
+    }
+    
+    private OrderDTO withArchivedItems(OrderDTO order) {
+        withArchivedItems(List.of(order));
+        return order;
+    }
+    
+    /**
+     * Attaches their items to a list of orders, reading the items of up to
+     * ITEM_BATCH_SIZE orders per query instead of issuing one query per order.
+     */
+    private List<OrderDTO> withItems(List<OrderDTO> orders) {
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        for (int from = 0; from < orders.size(); from += ITEM_BATCH_SIZE) {
+            List<Long> orderIds = orders.subList(from, Math.min(from + ITEM_BATCH_SIZE, orders.size())).stream()
+                    .map(OrderDTO::getId)
+                    .collect(Collectors.toList());
+            for (OrderItemDTO item : orderItemRepository.findViewsByOrderIdIn(orderIds)) {
+                itemsByOrder.computeIfAbsent(item.getOrderId(), orderId -> new ArrayList<>()).add(item);
+            }
+        }
+        for (OrderDTO order : orders) {
+            order.setOrderItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>()));
+        }
+        return orders;
+    }
+    
+    private OrderDTO withItems(OrderDTO order) {
+        order.setOrderItems(orderItemRepository.findViewsByOrderId(order.getId()));
+        return order;
+    }
+    
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+    }
+    
+    /**
+     * Reads every vehicle an order refers to with a single query, keyed by id.
+     */
+    private Map<Long, Vehicle> findVehicles(OrderDTO orderDTO) {
+        Set<Long> vehicleIds = new HashSet<>();
+        if (orderDTO.getVehicleId() != null) {
+            vehicleIds.add(orderDTO.getVehicleId());
+        }
+        if (orderDTO.getOrderItems() != null) {
+            for (OrderItemDTO itemDTO : orderDTO.getOrderItems()) {
+                if (itemDTO.getVehicleId() != null) {
+                    vehicleIds.add(itemDTO.getVehicleId());
+                }
+            }
+        }
+        if (vehicleIds.isEmpty()) {
+            return Map.of();
+        }
+        return vehicleRepository.findAllById(vehicleIds).stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+    }
+    
+    /**
+     * Marks the vehicles as sold, failing the whole order if any of them has been
+     * sold meanwhile or is held for another customer's cart. The vehicle rows are
+     * locked while their availability is read, so of several orders racing for one
+     * vehicle exactly one sees it available; nothing is written for an order that
+     * fails. The customer's own holds are then released.
+     */
+    private void claimVehicles(Set<Long> vehicleIds, Long userId) {
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+        for (Long vehicleId : vehicleIds) {
+            reservations.checkClaimable(vehicleId, userId);
+        }
+        Set<Long> available = new HashSet<>(vehicleRepository.lockAvailable(vehicleIds));
+        for (Long vehicleId : vehicleIds) {
+            if (!available.contains(vehicleId)) {
+                throw new VehicleUnavailableException(vehicleId, "already sold");
+            }
+        }
+        vehicleRepository.claimAll(vehicleIds);
+        reservations.release(vehicleIds, userId);
+    }
+    
+    /**
+     * Moves a loaded order to {@code status}, with its rollups, and releases its
+     * vehicles if it is being cancelled. Every single-order status change goes
+     * through here; asking for the current status changes nothing.
+     *
+     * @throws InvalidStatusTransitionException if the order cannot move to {@code status}
+     */
+    private void moveStatus(Order order, Order.OrderStatus status) {
+        Order.OrderStatus previous = order.getStatus();
+        if (previous == status) {
+            return;
+        }
+        checkTransition(previous, status);
+        
+        OrderRollupStore.Delta delta = new OrderRollupStore.Delta();
+        delta.add(order, order.getOrderItems(), -1);
+        order.setStatus(status);
+        orderRepository.save(order);
+        delta.add(order, order.getOrderItems(), 1);
+        rollups.apply(delta);
+        if (isCancelling(previous, status)) {
+            stockRelease.releaseOrders(List.of(order.getId()));
+        }
+    }
+    
+    private static void checkTransition(Order.OrderStatus from, Order.OrderStatus to) {
+        if (from != to && !from.canTransitionTo(to)) {
+            throw new InvalidStatusTransitionException(from, to);
+        }
+    }
+    
+    private static boolean isCancelling(Order.OrderStatus from, Order.OrderStatus to) {
+        return to == Order.OrderStatus.CANCELLED && from != Order.OrderStatus.CANCELLED;
+    }
+    
+    private void addToRollups(List<Order> orders) {
+        OrderRollupStore.Delta delta = new OrderRollupStore.Delta();
+        for (Order order : orders) {
+            delta.add(order, order.getOrderItems(), 1);
+        }
+        rollups.apply(delta);
+    }
+    
+    private void publishVehicleChanges(List<Order> orders) {
+        List<Long> vehicleIds = orders.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .map(item -> item.getVehicle().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        if (!vehicleIds.isEmpty()) {
+            eventPublisher.publishEvent(new VehicleChangedEvent(vehicleIds));
+        }
     }
     
     private String generateOrderNumber(Vehicle vehicle) {
@@ -277,6 +840,30 @@ public class OrderServiceImpl implements OrderService {
     }
     
     private OrderDTO convertToDTO(Order order) {
+        OrderDTO dto = convertHeaderToDTO(order);
+        
+        List<OrderItemDTO> orderItemDTOs = orderItemRepository.findByOrder(order).stream()
+                .map(this::convertOrderItemToDTO)
+                .collect(Collectors.toList());
+        
+        dto.setOrderItems(orderItemDTOs);
+        
+        return dto;
+    }
+    
+    /**
+     * Converts an order placed in this transaction, whose items are still in memory.
+     */
+    private OrderDTO convertPlacedOrder(Order order) {
+        OrderDTO dto = convertHeaderToDTO(order);
+        dto.setOrderItems(order.getOrderItems().stream()
+                .map(this::convertOrderItemToDTO)
+                .sorted(Comparator.comparing(OrderItemDTO::getId))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+    
+    private OrderDTO convertHeaderToDTO(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setOrderNumber(order.getOrderNumber());
@@ -297,12 +884,6 @@ public class OrderServiceImpl implements OrderService {
             dto.setVehicleDetails(vehicle.getMake() + " " + vehicle.getModel() + " (" + vehicle.getVehicleYear() + ")");
         }
         
-        List<OrderItemDTO> orderItemDTOs = orderItemRepository.findByOrder(order).stream()
-                .map(this::convertOrderItemToDTO)
-                .collect(Collectors.toList());
-        
-        dto.setOrderItems(orderItemDTOs);
-        
         return dto;
     }
     
@@ -323,4 +904,28 @@ public class OrderServiceImpl implements OrderService {
         
         return dto;
     }
+    
+    /**
+     * Walks an item stream ordered by order id alongside the order stream.
+     */
+    private static class OrderItemCursor {
+        private final Iterator<OrderItemDTO> items;
+        private OrderItemDTO next;
+        
+        OrderItemCursor(Iterator<OrderItemDTO> items) {
+            this.items = items;
+            this.next = items.hasNext() ? items.next() : null;
+        }
+        
+        List<OrderItemDTO> takeFor(Long orderId) {
+            List<OrderItemDTO> taken = new ArrayList<>();
+            while (next != null && next.getOrderId() <= orderId) {
+                if (next.getOrderId().equals(orderId)) {
+                    taken.add(next);
+                }
+                next = items.hasNext() ? items.next() : null;
+            }
+            return taken;
+        }
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.stockmanage.automobile.service.impl;
 
+import com.stockmanage.automobile.dto.CursorPage;
 import com.stockmanage.automobile.dto.UserDTO;
 import com.stockmanage.automobile.model.User;
 import com.stockmanage.automobile.repository.UserRepository;
@@ -10,7 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -23,30 +24,29 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return userRepository.findAllViews();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(this::convertToDTO)
+        return userRepository.findViewById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .map(this::convertToDTO)
+        return userRepository.findViewByUsername(username)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .map(this::convertToDTO)
+        return userRepository.findViewByEmail(email)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with email: " + email));
     }
 
@@ -98,23 +98,38 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getUsersByRole(User.Role role) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRole() == role)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return userRepository.findViewsByRole(role);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> getAllUsers(String after, Integer limit) {
+        return CursorPage.fetch(after, limit, userRepository::findViewsAfter,
+                UserDTO::getId, Function.identity());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> getUsersByRole(User.Role role, String after, Integer limit) {
+        return CursorPage.fetch(after, limit,
+                (afterId, max) -> userRepository.findViewsByRoleAfter(role, afterId, max),
+                UserDTO::getId, Function.identity());
+    }
+
     private UserDTO convertToDTO(User user) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
@@ -0,0 +1,181 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.bulk.ImportFormat;
+import com.stockmanage.automobile.bulk.VehicleRecordReader;
+import com.stockmanage.automobile.bulk.VehicleRecordReader.VehicleRecord;
+import com.stockmanage.automobile.dto.BulkImportResultDTO;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.service.VehicleImportService;
+import com.stockmanage.automobile.validation.VehicleValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams vehicles from an upload into the database. Rows are validated as they
+ * are read and written in batches, each batch in its own transaction, so the
+ * upload is never held in memory as a whole. Only the VINs seen so far are kept,
+ * to reject duplicates within the upload.
+ */
+@Service
+public class VehicleImportServiceImpl implements VehicleImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleImportServiceImpl.class);
+
+    private final VehicleRepository vehicleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public VehicleImportServiceImpl(VehicleRepository vehicleRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${vehicle.import.batch-size:1000}") int batchSize,
+                                    @Value("${vehicle.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.vehicleRepository = vehicleRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public BulkImportResultDTO importVehicles(InputStream input, ImportFormat format) throws IOException {
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        Set<String> seenVins = new HashSet<>();
+        List<VehicleRecord> batch = new ArrayList<>(batchSize);
+
+        try (VehicleRecordReader reader = VehicleRecordReader.open(input, format, objectMapper)) {
+            VehicleRecord record;
+            while ((record = reader.next()) != null) {
+                result.setReceived(result.getReceived() + 1);
+                if (record.getError() != null) {
+                    reject(result, record.getLine(), null, record.getError());
+                    continue;
+                }
+
+                VehicleDTO vehicle = record.getVehicle();
+                String error = VehicleValidator.validate(vehicle);
+                if (error != null) {
+                    reject(result, record.getLine(), vehicle.getVin(), error);
+                    continue;
+                }
+                vehicle.setVin(vehicle.getVin().trim());
+                if (!seenVins.add(vehicle.getVin())) {
+                    reject(result, record.getLine(), vehicle.getVin(), "Duplicate VIN in upload");
+                    continue;
+                }
+
+                batch.add(record);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, result);
+                    batch.clear();
+                }
+            }
+        }
+        writeBatch(batch, result);
+        return result;
+    }
+
+    private void writeBatch(List<VehicleRecord> batch, BulkImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = new HashSet<>(vehicleRepository.findExistingVins(batch.stream()
+                .map(record -> record.getVehicle().getVin())
+                .collect(Collectors.toList())));
+        List<VehicleRecord> rows = new ArrayList<>(batch.size());
+        for (VehicleRecord record : batch) {
+            if (existing.contains(record.getVehicle().getVin())) {
+                reject(result, record.getLine(), record.getVehicle().getVin(), "VIN already exists");
+            } else {
+                rows.add(record);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(rows));
+            result.setImported(result.getImported() + rows.size());
+        } catch (RuntimeException e) {
+            // A single bad row rolls back the whole batch; retry the rows one by one to isolate it
+            logger.warn("Bulk insert of {} vehicles failed, retrying row by row: {}", rows.size(), e.getMessage());
+            for (VehicleRecord record : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(record)));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException rowError) {
+                    reject(result, record.getLine(), record.getVehicle().getVin(),
+                            NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<VehicleRecord> rows) {
+        List<Vehicle> vehicles = rows.stream()
+                .map(record -> convertToEntity(record.getVehicle()))
+                .collect(Collectors.toList());
+        vehicleRepository.saveAll(vehicles);
+        vehicleRepository.flush();
+        eventPublisher.publishEvent(new VehicleChangedEvent(vehicles.stream()
+                .map(Vehicle::getId)
+                .collect(Collectors.toList())));
+    }
+
+    private void reject(BulkImportResultDTO result, long line, String vin, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResultDTO.RowError(line, vin, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private Vehicle convertToEntity(VehicleDTO dto) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake(dto.getMake());
+        vehicle.setModel(dto.getModel());
+        vehicle.setVehicleYear(dto.getVehicleYear());
+        vehicle.setVin(dto.getVin());
+        vehicle.setColor(dto.getColor());
+        vehicle.setPrice(new BigDecimal(dto.getPrice()));
+        vehicle.setMileage(dto.getMileage());
+        vehicle.setFuelType(dto.getFuelType());
+        vehicle.setTransmissionType(dto.getTransmissionType());
+        vehicle.setEngineSize(dto.getEngineSize());
+        vehicle.setAvailable(dto.getAvailable() != null ? dto.getAvailable() : true);
+        vehicle.setAcquisitionDate(dto.getAcquisitionDate() != null ? dto.getAcquisitionDate() : LocalDate.now());
+        vehicle.setDescription(dto.getDescription());
+        vehicle.setImageUrl(dto.getImageUrl());
+        return vehicle;
+    }
+}
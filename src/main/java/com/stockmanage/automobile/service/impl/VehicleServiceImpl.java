@@ -1,50 +1,147 @@
 package com.stockmanage.automobile.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.bulk.ExportFormat;
+import com.stockmanage.automobile.bulk.ExportWriter;
+import com.stockmanage.automobile.cache.VehicleCatalogCache;
+import com.stockmanage.automobile.dto.CacheStatsDTO;
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.dto.FacetCheckDTO;
 import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleFacetsDTO;
+import com.stockmanage.automobile.dto.VehicleHoldDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
 import com.stockmanage.automobile.model.OrderItem;
 import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.ArchivedOrderItemRepository;
 import com.stockmanage.automobile.repository.OrderItemRepository;
 import com.stockmanage.automobile.repository.OrderRepository;
+import com.stockmanage.automobile.repository.UserRepository;
 import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.repository.VehicleSpecifications;
+import com.stockmanage.automobile.repository.VehicleSpecifications.VehicleSort;
+import com.stockmanage.automobile.reservation.VehicleReservationRegistry;
+import com.stockmanage.automobile.search.ColumnarVehicleStore;
+import com.stockmanage.automobile.search.VehicleFacetIndex;
+import com.stockmanage.automobile.search.VehicleSearchIndex;
 import com.stockmanage.automobile.service.VehicleService;
+import com.stockmanage.automobile.sync.ChangeTracker;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class VehicleServiceImpl implements VehicleService {
 
+    private static final Logger logger = LoggerFactory.getLogger(VehicleServiceImpl.class);
+    
+    private static final int RELOAD_BATCH_SIZE = 1000;
+    
+    // Vehicles per statement when re-reading the vehicles of a change event
+    private static final int CHANGE_CHUNK_SIZE = 1000;
+    
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "make", "model", "vehicleYear", "vin",
+            "color", "price", "mileage", "fuelType", "transmissionType", "engineSize", "available",
+            "acquisitionDate", "description", "imageUrl");
+
     private final VehicleRepository vehicleRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
     private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final VehicleSearchIndex searchIndex;
+    private final VehicleFacetIndex facetIndex;
+    private final ColumnarVehicleStore columnStore;
+    private final VehicleCatalogCache catalogCache;
+    private final VehicleReservationRegistry reservations;
+    private final ChangeTracker changeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int maxSearchResults;
 
     @Autowired
     public VehicleServiceImpl(VehicleRepository vehicleRepository, 
                              OrderItemRepository orderItemRepository,
-                             OrderRepository orderRepository) {
+                             ArchivedOrderItemRepository archivedOrderItemRepository,
+                             OrderRepository orderRepository,
+                             UserRepository userRepository,
+                             VehicleSearchIndex searchIndex,
+                             VehicleFacetIndex facetIndex,
+                             ColumnarVehicleStore columnStore,
+                             VehicleCatalogCache catalogCache,
+                             VehicleReservationRegistry reservations,
+                             ChangeTracker changeTracker,
+                             ApplicationEventPublisher eventPublisher,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper,
+                             @Value("${vehicle.search.max-results:50}") int maxSearchResults) {
         this.vehicleRepository = vehicleRepository;
         this.orderItemRepository = orderItemRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
         this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.columnStore = columnStore;
+        this.catalogCache = catalogCache;
+        this.reservations = reservations;
+        this.changeTracker = changeTracker;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.maxSearchResults = maxSearchResults;
     }
 
     @Override
     public List<VehicleDTO> getAllVehicles() {
-        return vehicleRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("all"), vehicle -> true,
+                () -> convertAll(vehicleRepository.findAll()));
     }
 
     @Override
     public VehicleDTO getVehicleById(Long id) {
-        return vehicleRepository.findById(id)
+        return catalogCache.getVehicle(id, key -> vehicleRepository.findById(key)
                 .map(this::convertToDTO)
-                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + id));
+                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + key)));
     }
 
     @Override
@@ -52,6 +149,7 @@ public class VehicleServiceImpl implements VehicleService {
     public VehicleDTO createVehicle(VehicleDTO vehicleDTO) {
         Vehicle vehicle = convertToEntity(vehicleDTO);
         vehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(VehicleChangedEvent.of(vehicle.getId()));
         return convertToDTO(vehicle);
     }
 
@@ -63,6 +161,7 @@ public class VehicleServiceImpl implements VehicleService {
         
         updateVehicleFromDTO(vehicle, vehicleDTO);
         vehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(VehicleChangedEvent.of(vehicle.getId()));
         return convertToDTO(vehicle);
     }
 
@@ -83,73 +182,454 @@ public class VehicleServiceImpl implements VehicleService {
             throw new IllegalStateException("Cannot delete vehicle as it is referenced in order items. Mark as unavailable instead.");
         }
         
+        // Archived items keep their vehicle too (ON DELETE RESTRICT in schema.sql)
+        if (archivedOrderItemRepository.existsByVehicleId(id)) {
+            throw new IllegalStateException("Cannot delete vehicle as it is referenced in order items. Mark as unavailable instead.");
+        }
+        
         vehicleRepository.delete(vehicle);
+        eventPublisher.publishEvent(VehicleChangedEvent.of(id));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByMake(String make) {
-        return vehicleRepository.findByMakeIgnoreCase(make).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("make", make.toLowerCase()),
+                vehicle -> make.equalsIgnoreCase(vehicle.getMake()),
+                () -> convertAll(vehicleRepository.findByMakeIgnoreCase(make)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByModel(String model) {
-        return vehicleRepository.findByModelIgnoreCase(model).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("model", model.toLowerCase()),
+                vehicle -> model.equalsIgnoreCase(vehicle.getModel()),
+                () -> convertAll(vehicleRepository.findByModelIgnoreCase(model)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByYear(Integer year) {
-        return vehicleRepository.findByVehicleYear(year).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("year", year),
+                vehicle -> Objects.equals(year, vehicle.getVehicleYear()),
+                () -> convertAll(vehicleRepository.findByVehicleYear(year)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByAvailability(Boolean available) {
-        return vehicleRepository.findByAvailable(available).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("available", available),
+                vehicle -> Objects.equals(available, vehicle.getAvailable()),
+                () -> convertAll(vehicleRepository.findByAvailable(available)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByFuelType(Vehicle.FuelType fuelType) {
-        return vehicleRepository.findByFuelType(fuelType).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("fuel", fuelType),
+                vehicle -> vehicle.getFuelType() == fuelType,
+                () -> convertAll(vehicleRepository.findByFuelType(fuelType)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByTransmissionType(Vehicle.TransmissionType transmissionType) {
-        return vehicleRepository.findByTransmissionType(transmissionType).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("transmission", transmissionType),
+                vehicle -> vehicle.getTransmissionType() == transmissionType,
+                () -> convertAll(vehicleRepository.findByTransmissionType(transmissionType)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByPriceRange(String minPrice, String maxPrice) {
-        return vehicleRepository.findByPriceBetween(
-            new BigDecimal(minPrice),
-            new BigDecimal(maxPrice)
-        ).stream()
-        .map(this::convertToDTO)
-        .collect(Collectors.toList());
+        BigDecimal min = new BigDecimal(minPrice);
+        BigDecimal max = new BigDecimal(maxPrice);
+        return catalogCache.getList(VehicleCatalogCache.key("price", min, max),
+                vehicle -> isPriceBetween(vehicle, min, max),
+                () -> convertAll(vehicleRepository.findByPriceBetween(min, max)));
     }
 
     @Override
     public List<VehicleDTO> findVehiclesByMaxMileage(Integer maxMileage) {
-        return vehicleRepository.findByMileageLessThan(maxMileage).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getList(VehicleCatalogCache.key("mileage", maxMileage),
+                vehicle -> vehicle.getMileage() != null && vehicle.getMileage() < maxMileage,
+                () -> convertAll(vehicleRepository.findByMileageLessThan(maxMileage)));
     }
 
     @Override
     public List<VehicleDTO> searchVehicles(String searchTerm) {
+        return searchVehicles(searchTerm, maxSearchResults);
+    }
+
+    @Override
+    public List<VehicleDTO> searchVehicles(String searchTerm, Integer limit) {
+        int topK = limit != null && limit > 0 ? Math.min(limit, CursorPage.MAX_LIMIT) : maxSearchResults;
+        if (searchIndex.isReady()) {
+            return searchIndex.search(searchTerm, topK);
+        }
+        // The index is still loading after startup; answer from the database meanwhile
         return vehicleRepository.searchVehicles(searchTerm).stream()
+                .limit(topK)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> getAllVehicles(String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("all", after, limit),
+                vehicle -> true,
+                () -> page(after, limit, vehicleRepository::findByIdGreaterThanOrderByIdAsc));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByMake(String make, String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("make", make.toLowerCase(), after, limit),
+                vehicle -> make.equalsIgnoreCase(vehicle.getMake()),
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByMakeIgnoreCaseAndIdGreaterThanOrderByIdAsc(make, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByModel(String model, String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("model", model.toLowerCase(), after, limit),
+                vehicle -> model.equalsIgnoreCase(vehicle.getModel()),
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByModelIgnoreCaseAndIdGreaterThanOrderByIdAsc(model, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByYear(Integer year, String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("year", year, after, limit),
+                vehicle -> Objects.equals(year, vehicle.getVehicleYear()),
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByVehicleYearAndIdGreaterThanOrderByIdAsc(year, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByAvailability(Boolean available, String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("available", available, after, limit),
+                vehicle -> Objects.equals(available, vehicle.getAvailable()),
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByAvailableAndIdGreaterThanOrderByIdAsc(available, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByFuelType(Vehicle.FuelType fuelType, String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("fuel", fuelType, after, limit),
+                vehicle -> vehicle.getFuelType() == fuelType,
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByFuelTypeAndIdGreaterThanOrderByIdAsc(fuelType, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByTransmissionType(Vehicle.TransmissionType transmissionType,
+                                                                 String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("transmission", transmissionType, after, limit),
+                vehicle -> vehicle.getTransmissionType() == transmissionType,
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByTransmissionTypeAndIdGreaterThanOrderByIdAsc(transmissionType, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByPriceRange(String minPrice, String maxPrice,
+                                                           String after, Integer limit) {
+        BigDecimal min = new BigDecimal(minPrice);
+        BigDecimal max = new BigDecimal(maxPrice);
+        return catalogCache.getPage(VehicleCatalogCache.key("price", min, max, after, limit),
+                vehicle -> isPriceBetween(vehicle, min, max),
+                () -> page(after, limit, (afterId, rows) ->
+                        vehicleRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(min, max, afterId, rows)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> findVehiclesByMaxMileage(Integer maxMileage, String after, Integer limit) {
+        return catalogCache.getPage(VehicleCatalogCache.key("mileage", maxMileage, after, limit),
+                vehicle -> vehicle.getMileage() != null && vehicle.getMileage() < maxMileage,
+                () -> page(after, limit, (afterId, max) ->
+                        vehicleRepository.findByMileageLessThanAndIdGreaterThanOrderByIdAsc(maxMileage, afterId, max)));
+    }
+
+    @Override
+    public CursorPage<VehicleDTO> queryVehicles(VehicleQueryDTO query, String after, Integer limit) {
+        VehicleSort sort = VehicleSort.parse(query.getSort());
+        int size = CursorPage.clampLimit(limit);
+        
+        if (columnStore.isEnabled() && columnStore.isReady()) {
+            String afterKey = after != null && !after.isBlank() ? CursorPage.decodeKey(after) : null;
+            ColumnarVehicleStore.Result result = columnStore.query(query, sort, afterKey, size);
+            String nextCursor = result.getNextKey() != null ? CursorPage.encodeKey(result.getNextKey()) : null;
+            return new CursorPage<>(result.getItems(), nextCursor, size);
+        }
+        
+        Specification<Vehicle> spec = VehicleSpecifications.matching(query);
+        if (after != null && !after.isBlank()) {
+            spec = spec.and(sort.after(CursorPage.decodeKey(after)));
+        }
+        
+        List<Vehicle> rows = vehicleRepository.findBy(spec, q -> q.sortBy(sort.toSort()).limit(size + 1).all());
+        
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = CursorPage.encodeKey(sort.keyOf(rows.get(size - 1)));
+        }
+        
+        List<VehicleDTO> items = rows.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor, size);
+    }
+
+    @Override
+    public List<CacheStatsDTO> getCacheStats() {
+        return catalogCache.getStats();
+    }
+
+    @Override
+    public VehicleFacetsDTO getFacets() {
+        if (facetIndex.isReady()) {
+            return facetIndex.snapshot();
+        }
+        return countFacetsInDatabase();
+    }
+
+    /**
+     * Reloads the facet counters from the available vehicles in id-ordered batches.
+     * Changes committed meanwhile are applied to the new counters as well.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuildFacets() {
+        VehicleFacetIndex.Rebuild rebuild = facetIndex.beginRebuild();
+        try {
+            Long afterId = 0L;
+            List<Vehicle> batch;
+            do {
+                batch = vehicleRepository.findByAvailableAndIdGreaterThanOrderByIdAsc(true, afterId,
+                        Limit.of(RELOAD_BATCH_SIZE));
+                rebuild.load(convertAll(batch));
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+                entityManager.clear();
+            } while (batch.size() == RELOAD_BATCH_SIZE);
+            rebuild.finish();
+        } catch (RuntimeException e) {
+            rebuild.abandon();
+            throw e;
+        }
+    }
+
+    /**
+     * Compares the facet counters with GROUP BY counts taken from one database snapshot.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public FacetCheckDTO verifyFacets() {
+        VehicleFacetsDTO database = countFacetsInDatabase();
+        VehicleFacetsDTO indexed = facetIndex.snapshot();
+        
+        List<FacetCheckDTO.Mismatch> mismatches = new ArrayList<>();
+        if (indexed.getTotal() != database.getTotal()) {
+            mismatches.add(new FacetCheckDTO.Mismatch("total", null, indexed.getTotal(), database.getTotal()));
+        }
+        compareFacet("make", indexed.getMakes(), database.getMakes(), mismatches);
+        compareFacet("fuelType", indexed.getFuelTypes(), database.getFuelTypes(), mismatches);
+        compareFacet("transmissionType", indexed.getTransmissionTypes(), database.getTransmissionTypes(),
+                mismatches);
+        compareFacet("year", indexed.getYears(), database.getYears(), mismatches);
+        compareFacet("priceBand", indexed.getPriceBands(), database.getPriceBands(), mismatches);
+        return new FacetCheckDTO(mismatches.isEmpty(), mismatches);
+    }
+
+    /**
+     * Streams the catalog from a database cursor inside one read-only repeatable-read
+     * transaction, so the export is a consistent snapshot. The persistence context is
+     * cleared after every batch to keep memory flat.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void exportVehicles(ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter<VehicleDTO> writer = ExportWriter.open(format, out, objectMapper, EXPORT_COLUMNS,
+                vehicle -> List.of(Arrays.asList(vehicle.getId(), vehicle.getMake(), vehicle.getModel(),
+                        vehicle.getVehicleYear(), vehicle.getVin(), vehicle.getColor(), vehicle.getPrice(),
+                        vehicle.getMileage(), vehicle.getFuelType(), vehicle.getTransmissionType(),
+                        vehicle.getEngineSize(), vehicle.getAvailable(), vehicle.getAcquisitionDate(),
+                        vehicle.getDescription(), vehicle.getImageUrl())));
+        try (Stream<Vehicle> vehicles = vehicleRepository.streamAllOrderedById()) {
+            writer.writeAll(vehicles, this::convertToDTO, EXPORT_BATCH_SIZE, entityManager::clear);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ChangeSetDTO<VehicleDTO> getVehicleChanges(String since, Integer limit) {
+        return changeTracker.changes(ChangeTracker.VEHICLES, since, limit, vehicleRepository::findChangedSince,
+                Vehicle::getChangeVersion, Vehicle::getId, this::convertToDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VehicleHoldDTO holdVehicle(Long id, Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+        Vehicle vehicle = vehicleRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Vehicle not found with id: " + id));
+        if (!Boolean.TRUE.equals(vehicle.getAvailable())) {
+            throw new VehicleUnavailableException(id, "already sold");
+        }
+        return reservations.hold(id, userId);
+    }
+
+    @Override
+    public void releaseHold(Long id, Long userId) {
+        reservations.release(List.of(id), userId);
+    }
+
+    /**
+     * Withholds vehicle ETags from the moment a change is published until
+     * {@link #onVehiclesChanged} has applied it to the cache and search index;
+     * until then they may still serve the old state.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onVehiclesChanging(VehicleChangedEvent event) {
+        changeTracker.hold(ChangeTracker.VEHICLES);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onVehicleChangeRolledBack(VehicleChangedEvent event) {
+        changeTracker.release(ChangeTracker.VEHICLES);
+    }
+
+    /**
+     * Refreshes the in-memory views of the catalog once a change has committed. The
+     * vehicles are re-read in a new transaction so that set-based updates, which
+     * bypass the persistence context, are picked up as well.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onVehiclesChanged(VehicleChangedEvent event) {
+        try {
+            List<VehicleDTO> current = new ArrayList<>();
+            Set<Long> removed = new HashSet<>(event.getVehicleIds());
+            // Telemetry flushes name up to a whole write batch of vehicles; keep each IN list bounded
+            List<Long> ids = new ArrayList<>(event.getVehicleIds());
+            for (int from = 0; from < ids.size(); from += CHANGE_CHUNK_SIZE) {
+                for (Vehicle vehicle : vehicleRepository.findAllById(
+                        ids.subList(from, Math.min(from + CHANGE_CHUNK_SIZE, ids.size())))) {
+                    current.add(convertToDTO(vehicle));
+                    removed.remove(vehicle.getId());
+                }
+            }
+            
+            searchIndex.upsert(current);
+            searchIndex.remove(removed);
+            facetIndex.apply(current, removed);
+            if (columnStore.isEnabled()) {
+                columnStore.upsert(current);
+                columnStore.remove(removed);
+            }
+            catalogCache.onVehiclesChanged(current, removed);
+        } finally {
+            changeTracker.release(ChangeTracker.VEHICLES);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadFacets() {
+        try {
+            rebuildFacets();
+        } catch (Exception e) {
+            logger.error("Failed to load the vehicle facet counts; facets will be counted in the database", e);
+        }
+    }
+
+    /**
+     * Loads the whole catalog into the search index, and into the columnar store
+     * when that query backend is enabled, in id-ordered batches. Both share the
+     * same DTO instances.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadCatalogViews() {
+        boolean columnar = columnStore.isEnabled();
+        try {
+            searchIndex.clear();
+            if (columnar) {
+                columnStore.beginLoad();
+            }
+            Long afterId = 0L;
+            List<Vehicle> batch;
+            do {
+                batch = vehicleRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(RELOAD_BATCH_SIZE));
+                List<VehicleDTO> vehicles = convertAll(batch);
+                searchIndex.upsert(vehicles);
+                if (columnar) {
+                    columnStore.load(vehicles);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+                entityManager.clear();
+            } while (batch.size() == RELOAD_BATCH_SIZE);
+            searchIndex.markReady();
+            if (columnar) {
+                columnStore.finishLoad();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to load the vehicle search index or columnar store; "
+                    + "searches and queries will use the database", e);
+        }
+    }
+
+    private CursorPage<VehicleDTO> page(String after, Integer limit,
+                                        BiFunction<Long, Limit, List<Vehicle>> query) {
+        return CursorPage.fetch(after, limit, query, Vehicle::getId, this::convertToDTO);
+    }
+
+    private VehicleFacetsDTO countFacetsInDatabase() {
+        Map<BigDecimal, Long> countsByPrice = new HashMap<>();
+        for (Object[] row : vehicleRepository.countAvailableByPrice()) {
+            countsByPrice.put((BigDecimal) row[0], (Long) row[1]);
+        }
+        return facetIndex.summarize(toCounts(vehicleRepository.countAvailableByMake()),
+                toCounts(vehicleRepository.countAvailableByFuelType()),
+                toCounts(vehicleRepository.countAvailableByTransmissionType()),
+                toCounts(vehicleRepository.countAvailableByYear()),
+                countsByPrice);
+    }
+
+    private static Map<String, Long> toCounts(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put(row[0] instanceof Enum<?> value ? value.name() : row[0].toString(), (Long) row[1]);
+            }
+        }
+        return counts;
+    }
+
+    private static void compareFacet(String facet, Map<String, Long> indexed, Map<String, Long> database,
+                                     List<FacetCheckDTO.Mismatch> mismatches) {
+        Set<String> values = new TreeSet<>(indexed.keySet());
+        values.addAll(database.keySet());
+        for (String value : values) {
+            long indexedCount = indexed.getOrDefault(value, 0L);
+            long databaseCount = database.getOrDefault(value, 0L);
+            if (indexedCount != databaseCount) {
+                mismatches.add(new FacetCheckDTO.Mismatch(facet, value, indexedCount, databaseCount));
+            }
+        }
+    }
+
+    private List<VehicleDTO> convertAll(List<Vehicle> vehicles) {
+        return vehicles.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isPriceBetween(VehicleDTO vehicle, BigDecimal min, BigDecimal max) {
+        if (vehicle.getPrice() == null) {
+            return false;
+        }
+        BigDecimal price = new BigDecimal(vehicle.getPrice());
+        return price.compareTo(min) >= 0 && price.compareTo(max) <= 0;
     }
 
     private VehicleDTO convertToDTO(Vehicle vehicle) {
@@ -0,0 +1,97 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.stockmanage.automobile.dto.TelemetryIngestResultDTO;
+import com.stockmanage.automobile.dto.TelemetryReadingDTO;
+import com.stockmanage.automobile.service.VehicleTelemetryService;
+import com.stockmanage.automobile.telemetry.MileageBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Telemetry ingestion. Readings are parsed line by line and handed to the
+ * {@link MileageBuffer}; no database work is done on the request thread, so the
+ * response time depends only on the size of the upload.
+ */
+@Service
+public class VehicleTelemetryServiceImpl implements VehicleTelemetryService {
+
+    private final MileageBuffer buffer;
+    private final ObjectReader readingReader;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public VehicleTelemetryServiceImpl(MileageBuffer buffer,
+                                       ObjectMapper objectMapper,
+                                       @Value("${vehicle.telemetry.max-reported-errors:100}") int maxReportedErrors) {
+        this.buffer = buffer;
+        this.readingReader = objectMapper.readerFor(TelemetryReadingDTO.class);
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public TelemetryIngestResultDTO ingest(InputStream input) throws IOException {
+        TelemetryIngestResultDTO result = new TelemetryIngestResultDTO();
+        Instant received = Instant.now();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024)) {
+            String text;
+            long line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+                String error;
+                try {
+                    error = offer(readingReader.readValue(text), received, result);
+                } catch (JsonProcessingException e) {
+                    error = e.getOriginalMessage();
+                }
+                if (error != null) {
+                    reject(result, line, error);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Buffers a reading, counting it as accepted or refused; returns why it is invalid, if it is.
+     */
+    private String offer(TelemetryReadingDTO reading, Instant received, TelemetryIngestResultDTO result) {
+        // A line that is just "null" reads as no reading at all
+        if (reading == null || reading.getVehicleId() == null || reading.getOdometer() == null) {
+            return "vehicleId and odometer are required";
+        }
+        if (reading.getOdometer() < 0) {
+            return "odometer must not be negative";
+        }
+        Instant timestamp = reading.getTimestamp() != null ? reading.getTimestamp() : received;
+        if (buffer.offer(new MileageBuffer.Reading(reading.getVehicleId(), reading.getOdometer(), timestamp))) {
+            result.setAccepted(result.getAccepted() + 1);
+        } else {
+            result.setRefused(result.getRefused() + 1);
+        }
+        return null;
+    }
+
+    private void reject(TelemetryIngestResultDTO result, long line, String message) {
+        result.setInvalid(result.getInvalid() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new TelemetryIngestResultDTO.LineError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.stockmanage.automobile.sync;
+
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Reads the change versions that database triggers stamp on tracked tables (see
+ * schema.sql) to serve delta syncs and collection ETags.
+ *
+ * <p>A change version is the id of the transaction that wrote the row, or that
+ * deleted it for a tombstone. Transaction ids are handed out in start order but
+ * commit in any order, so a reader only trusts versions below its snapshot's
+ * {@code xmin}: every transaction with a smaller id has already committed or
+ * aborted, so nothing can still appear behind a cursor that stays below it.
+ */
+@Component
+public class ChangeTracker {
+
+    public static final String VEHICLES = "vehicles";
+    public static final String USERS = "users";
+    public static final String ORDERS = "orders";
+    public static final String MAINTENANCE = "maintenance";
+
+    private static final Set<String> TRACKED_TABLES = Set.of(VEHICLES, USERS, ORDERS, MAINTENANCE);
+
+    private static final String SNAPSHOT_XMIN = "pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean etagsEnabled;
+    private final Map<String, AtomicInteger> holds = new ConcurrentHashMap<>();
+
+    /**
+     * Fetches live rows whose (changeVersion, id) is after the given cursor and whose
+     * changeVersion is below {@code below}, ordered by (changeVersion, id).
+     */
+    @FunctionalInterface
+    public interface ChangeQuery<E> {
+        List<E> fetch(long version, long id, long below, Limit limit);
+    }
+
+    @Autowired
+    public ChangeTracker(JdbcTemplate jdbcTemplate,
+                         @Value("${sync.etag.enabled:true}") boolean etagsEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.etagsEnabled = etagsEnabled;
+    }
+
+    /**
+     * Returns the changes to {@code table} after the {@code since} cursor (from the
+     * beginning when it is empty): up to {@code limit} upserts and deletes, merged in
+     * version order. Must be called in a read-only repeatable-read transaction so
+     * that the snapshot bound and both queries see the same snapshot.
+     */
+    public <E, T> ChangeSetDTO<T> changes(String table, String since, Integer limit, ChangeQuery<E> query,
+                                          Function<E, Long> versionOf, Function<E, Long> idOf,
+                                          Function<E, T> mapper) {
+        requireTracked(table);
+        int size = CursorPage.clampLimit(limit);
+        long below = jdbcTemplate.queryForObject("SELECT " + SNAPSHOT_XMIN, Long.class);
+        Key from = Key.decode(since);
+
+        List<E> rows = query.fetch(from.version(), from.id(), below, Limit.of(size + 1));
+        List<Key> tombstones = jdbcTemplate.query(
+                "SELECT change_version, entity_id FROM change_tombstones " +
+                "WHERE entity_type = ? AND (change_version, entity_id) > (?, ?) AND change_version < ? " +
+                "AND NOT archived ORDER BY change_version, entity_id LIMIT ?",
+                (rs, rowNum) -> new Key(rs.getLong(1), rs.getLong(2)),
+                table, from.version(), from.id(), below, size + 1);
+
+        List<T> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        Key last = from;
+        int r = 0;
+        int t = 0;
+        while (upserts.size() + deletes.size() < size && (r < rows.size() || t < tombstones.size())) {
+            Key row = r < rows.size() ? new Key(versionOf.apply(rows.get(r)), idOf.apply(rows.get(r))) : null;
+            if (row != null && (t == tombstones.size() || row.compareTo(tombstones.get(t)) < 0)) {
+                upserts.add(mapper.apply(rows.get(r++)));
+                last = row;
+            } else {
+                last = tombstones.get(t++);
+                deletes.add(last.id());
+            }
+        }
+
+        boolean hasMore = r < rows.size() || t < tombstones.size();
+        if (!hasMore) {
+            // Everything below the bound has been returned, so the next sync can skip
+            // straight to it instead of rescanning from the last change
+            Key bound = new Key(below - 1, Long.MAX_VALUE);
+            if (bound.compareTo(last) > 0) {
+                last = bound;
+            }
+        }
+        return new ChangeSetDTO<>(upserts, deletes, last.encode(), hasMore);
+    }
+
+    /**
+     * Returns a strong ETag for the current contents of the given tables, or
+     * {@code null} when no stable tag can be given: a transaction older than the
+     * latest change may still commit, or an in-memory view has not caught up yet.
+     */
+    public String etag(Collection<String> tables) {
+        if (!etagsEnabled || tables.stream().anyMatch(this::isHeld)) {
+            return null;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(SNAPSHOT_XMIN).append(", GREATEST(0");
+        for (String table : tables) {
+            requireTracked(table);
+            sql.append(", (SELECT MAX(change_version) FROM ").append(table).append(")")
+               .append(", (SELECT MAX(change_version) FROM change_tombstones WHERE entity_type = '")
+               .append(table).append("')");
+        }
+        sql.append(")");
+
+        return jdbcTemplate.query(sql.toString(), rs -> {
+            rs.next();
+            long below = rs.getLong(1);
+            long latest = rs.getLong(2);
+            return latest < below ? "\"" + latest + "\"" : null;
+        });
+    }
+
+    /**
+     * Withholds ETags for {@code table} until a matching {@link #release}. Used
+     * while a committed change is still being applied to in-memory views, which
+     * would otherwise be served under the tag of the new state.
+     */
+    public void hold(String table) {
+        holds.computeIfAbsent(table, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void release(String table) {
+        holds.computeIfAbsent(table, key -> new AtomicInteger()).decrementAndGet();
+    }
+
+    private boolean isHeld(String table) {
+        AtomicInteger count = holds.get(table);
+        return count != null && count.get() > 0;
+    }
+
+    private static void requireTracked(String table) {
+        if (!TRACKED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Table is not change-tracked: " + table);
+        }
+    }
+
+    private record Key(long version, long id) implements Comparable<Key> {
+
+        static Key decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new Key(0, 0);
+            }
+            String[] parts = CursorPage.decodeKey(cursor).split(":");
+            try {
+                if (parts.length == 2) {
+                    return new Key(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            throw new InvalidCursorException(cursor);
+        }
+
+        String encode() {
+            return CursorPage.encodeKey(version + ":" + id);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byVersion = Long.compare(version, other.version);
+            return byVersion != 0 ? byVersion : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.stockmanage.automobile.sync;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * Answers conditional GETs on endpoints whose responses are built from the given
+ * tables. The ETag is taken before the handler runs, so a change committing while
+ * the response is built can only make the tag older than the body, never newer;
+ * the client then simply refetches on its next request.
+ */
+public class ETagInterceptor implements HandlerInterceptor {
+
+    private final ChangeTracker changeTracker;
+    private final List<String> tables;
+
+    public ETagInterceptor(ChangeTracker changeTracker, List<String> tables) {
+        this.changeTracker = changeTracker;
+        this.tables = List.copyOf(tables);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String etag = changeTracker.etag(tables);
+        if (etag == null) {
+            return true;
+        }
+        // Let clients keep the response but revalidate it on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -0,0 +1,131 @@
+package com.stockmanage.automobile.telemetry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Odometer readings waiting to be written to {@code vehicles.mileage}, coalesced to
+ * the latest reading per vehicle.
+ *
+ * <p>The buffer is split into stripes by vehicle id, each with its own lock, so
+ * concurrent ingestion requests rarely wait on each other. {@link #drain} swaps each
+ * stripe's map for an empty one, holding a stripe's lock only for the swap. At most
+ * {@code vehicle.telemetry.max-pending} vehicles are buffered; readings for further
+ * vehicles are refused until the next drain, while readings for buffered vehicles
+ * are always taken.
+ */
+@Component
+public class MileageBuffer {
+
+    private final Stripe[] stripes;
+    private final int maxPerStripe;
+
+    @Autowired
+    public MileageBuffer(@Value("${vehicle.telemetry.stripes:64}") int stripes,
+                         @Value("${vehicle.telemetry.max-pending:100000}") int maxPending) {
+        // A power of two, so a stripe is picked with a mask
+        int count = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.maxPerStripe = Math.max(1, maxPending / count);
+    }
+
+    /**
+     * Buffers a reading unless a later one is already buffered for the vehicle.
+     *
+     * @return false if the reading was refused because the buffer is full
+     */
+    public boolean offer(Reading reading) {
+        Stripe stripe = stripeOf(reading.vehicleId());
+        synchronized (stripe) {
+            Reading previous = stripe.readings.get(reading.vehicleId());
+            if (previous == null) {
+                if (stripe.readings.size() >= maxPerStripe) {
+                    return false;
+                }
+                stripe.readings.put(reading.vehicleId(), reading);
+            } else if (reading.isAfter(previous)) {
+                stripe.readings.put(reading.vehicleId(), reading);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The vehicle's odometer including a buffered reading: the higher of {@code stored}
+     * and the reading not yet written.
+     */
+    public Integer currentMileage(Long vehicleId, Integer stored) {
+        Stripe stripe = stripeOf(vehicleId);
+        Reading pending;
+        synchronized (stripe) {
+            pending = stripe.readings.get(vehicleId);
+        }
+        if (pending == null || (stored != null && stored >= pending.odometer())) {
+            return stored;
+        }
+        return pending.odometer();
+    }
+
+    /**
+     * Takes every buffered reading, leaving the buffer empty.
+     */
+    public List<Reading> drain() {
+        List<Reading> drained = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, Reading> readings;
+            synchronized (stripe) {
+                if (stripe.readings.isEmpty()) {
+                    continue;
+                }
+                readings = stripe.readings;
+                stripe.readings = new HashMap<>();
+            }
+            drained.addAll(readings.values());
+        }
+        return drained;
+    }
+
+    /**
+     * Puts back readings that could not be written; readings that arrived meanwhile win
+     * if they are later.
+     */
+    public void restore(Collection<Reading> readings) {
+        for (Reading reading : readings) {
+            Stripe stripe = stripeOf(reading.vehicleId());
+            synchronized (stripe) {
+                stripe.readings.merge(reading.vehicleId(), reading,
+                        (current, restored) -> restored.isAfter(current) ? restored : current);
+            }
+        }
+    }
+
+    private Stripe stripeOf(long vehicleId) {
+        return stripes[Long.hashCode(vehicleId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+        private Map<Long, Reading> readings = new HashMap<>();
+    }
+
+    /**
+     * One odometer reading; readings are ordered by timestamp, then by odometer.
+     */
+    public record Reading(long vehicleId, int odometer, Instant timestamp) {
+
+        boolean isAfter(Reading other) {
+            int byTime = timestamp.compareTo(other.timestamp);
+            return byTime != 0 ? byTime > 0 : odometer > other.odometer;
+        }
+    }
+}
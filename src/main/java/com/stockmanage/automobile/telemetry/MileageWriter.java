@@ -0,0 +1,133 @@
+package com.stockmanage.automobile.telemetry;
+
+import com.stockmanage.automobile.event.VehicleChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the buffered odometer readings to {@code vehicles.mileage} every
+ * {@code vehicle.telemetry.flush-interval}, so the database sees at most one update
+ * per vehicle per interval however fast readings arrive.
+ *
+ * <p>Each flush is one transaction of batched UPDATEs in vehicle id order, the order
+ * in which orders lock vehicles. A row is only written when the reading is higher
+ * than the stored mileage. The version column is left alone, so telemetry never
+ * makes an edit of the vehicle fail; an edit that writes an older mileage is
+ * corrected by the next reading. Readings still buffered when the application stops
+ * abruptly are lost; a regular shutdown flushes them first.
+ */
+@Component
+public class MileageWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MileageWriter.class);
+
+    private static final String UPDATE_SQL = "UPDATE vehicles SET mileage = ? WHERE id = ? AND mileage < ?";
+
+    private final MileageBuffer buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration interval;
+    private final int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public MileageWriter(MileageBuffer buffer,
+                         JdbcTemplate jdbcTemplate,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${vehicle.telemetry.flush-interval:5s}") Duration interval,
+                         @Value("${vehicle.telemetry.batch-size:1000}") int batchSize) {
+        this.buffer = buffer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.interval = interval;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Telemetry writer started: mileage flushed every {}", interval);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Writes the buffered readings. If the write fails they are put back for the next flush.
+     *
+     * @return the number of vehicles whose mileage changed
+     */
+    public int flush() {
+        List<MileageBuffer.Reading> readings = buffer.drain();
+        if (readings.isEmpty()) {
+            return 0;
+        }
+        readings.sort(Comparator.comparingLong(MileageBuffer.Reading::vehicleId));
+        try {
+            List<Long> updated = transactionTemplate.execute(status -> write(readings));
+            logger.debug("Flushed {} odometer readings, {} vehicles updated", readings.size(), updated.size());
+            return updated.size();
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} odometer readings; retrying on the next flush", readings.size(), e);
+            buffer.restore(readings);
+            return 0;
+        }
+    }
+
+    private List<Long> write(List<MileageBuffer.Reading> readings) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, readings, batchSize, (ps, reading) -> {
+            ps.setInt(1, reading.odometer());
+            ps.setLong(2, reading.vehicleId());
+            ps.setInt(3, reading.odometer());
+        });
+        List<Long> updated = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers that cannot tell report SUCCESS_NO_INFO (-2); count those as changed
+                if (count != 0) {
+                    updated.add(readings.get(index).vehicleId());
+                }
+                index++;
+            }
+        }
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new VehicleChangedEvent(updated));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,69 @@
+package com.stockmanage.automobile.validation;
+
+import com.stockmanage.automobile.dto.VehicleDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * Validation rules for vehicles submitted through the API, shared by single
+ * creation and bulk import.
+ */
+public final class VehicleValidator {
+
+    private VehicleValidator() {
+    }
+
+    /**
+     * Returns a message describing the first rule the vehicle breaks, or
+     * {@code null} when it is valid.
+     */
+    public static String validate(VehicleDTO vehicleDTO) {
+        if (isBlank(vehicleDTO.getMake())) {
+            return "Make is required";
+        }
+        if (isBlank(vehicleDTO.getModel())) {
+            return "Model is required";
+        }
+        if (vehicleDTO.getVehicleYear() == null) {
+            return "Year is required";
+        }
+        if (isBlank(vehicleDTO.getVin())) {
+            return "VIN is required";
+        }
+        if (isBlank(vehicleDTO.getColor())) {
+            return "Color is required";
+        }
+        if (isBlank(vehicleDTO.getPrice())) {
+            return "Price is required";
+        }
+        if (!isNumber(vehicleDTO.getPrice())) {
+            return "Price must be a number";
+        }
+        if (vehicleDTO.getMileage() == null) {
+            return "Mileage is required";
+        }
+        if (vehicleDTO.getFuelType() == null) {
+            return "Fuel type is required";
+        }
+        if (vehicleDTO.getTransmissionType() == null) {
+            return "Transmission type is required";
+        }
+        if (isBlank(vehicleDTO.getEngineSize())) {
+            return "Engine size is required";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            new BigDecimal(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
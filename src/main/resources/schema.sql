@@ -17,6 +17,37 @@ CREATE TABLE IF NOT EXISTS vehicles (
     image_url VARCHAR(255)
 );
 
+-- Vehicle ids are allocated by Hibernate in blocks of 50 (allocationSize on Vehicle.id),
+-- which lets bulk imports batch their inserts. Must match the entity mapping.
+ALTER SEQUENCE vehicles_id_seq INCREMENT BY 50;
+
+-- Indexes for the faceted vehicle query (GET /api/vehicles/query).
+-- Storefront queries are almost always restricted to available stock, so the
+-- composite indexes are partial on "available". Each one ends in id so that the
+-- (sort key, id) keyset cursor is served straight from the index, and INCLUDEs
+-- the remaining range-filtered columns so they are checked without heap visits.
+CREATE INDEX IF NOT EXISTS idx_vehicles_avail_fuel_trans_price
+    ON vehicles (fuel_type, transmission_type, price, id)
+    INCLUDE (mileage, vehicle_year)
+    WHERE available;
+CREATE INDEX IF NOT EXISTS idx_vehicles_avail_make_model_year
+    ON vehicles (LOWER(make), LOWER(model), vehicle_year, id)
+    INCLUDE (price, mileage)
+    WHERE available;
+CREATE INDEX IF NOT EXISTS idx_vehicles_avail_price
+    ON vehicles (price, id)
+    INCLUDE (mileage, vehicle_year)
+    WHERE available;
+CREATE INDEX IF NOT EXISTS idx_vehicles_avail_mileage
+    ON vehicles (mileage, id)
+    WHERE available;
+CREATE INDEX IF NOT EXISTS idx_vehicles_avail_year
+    ON vehicles (vehicle_year, id)
+    WHERE available;
+-- Unrestricted lookups by make/model (including sold stock)
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_model
+    ON vehicles (LOWER(make), LOWER(model), id);
+
 -- Create users table
 CREATE TABLE IF NOT EXISTS users (
     id BIGSERIAL PRIMARY KEY,
@@ -32,7 +63,7 @@ CREATE TABLE IF NOT EXISTS users (
 -- Create orders table
 CREATE TABLE IF NOT EXISTS orders (
     id BIGSERIAL PRIMARY KEY,
-    order_number VARCHAR(20) NOT NULL UNIQUE,
+    order_number VARCHAR(32) NOT NULL UNIQUE,
     order_date TIMESTAMP NOT NULL,
     delivery_date TIMESTAMP,
     total_amount DECIMAL(10,2) NOT NULL,
@@ -80,6 +111,10 @@ CREATE TABLE IF NOT EXISTS order_items (
 CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_vehicle_id ON order_items(vehicle_id);
 
+-- Order item ids are allocated by Hibernate in blocks of 50 (allocationSize on OrderItem.id),
+-- so the items of an order are inserted in batches. Must match the entity mapping.
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+
 -- Create maintenance table
 CREATE TABLE IF NOT EXISTS maintenance (
     id BIGSERIAL PRIMARY KEY,
@@ -98,5 +133,225 @@ CREATE TABLE IF NOT EXISTS maintenance (
         ON DELETE CASCADE
 );
 
+-- Odometer reading when the vehicle was serviced, recorded as a record goes in progress or is
+-- completed. Records created before this column existed have none.
+ALTER TABLE maintenance ADD COLUMN IF NOT EXISTS mileage_at_service INTEGER;
+
 -- Create index for maintenance table foreign key
-CREATE INDEX IF NOT EXISTS idx_maintenance_vehicle_id ON maintenance(vehicle_id);  
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_maintenance_vehicle_id ON maintenance(vehicle_id);  
+-- Due-service lookups (GET /api/maintenance/upcoming) before the in-memory schedule is
+-- loaded, and its paged variant, which always reads the table
+CREATE INDEX IF NOT EXISTS idx_maintenance_next_service_date ON maintenance(next_service_date, id);
+
+-- Maintenance totals per vehicle for GET /api/maintenance/summary, over the records that
+-- are not cancelled. Refreshed by the maintenance service in the same transaction as each
+-- change; POST /api/maintenance/summary/rebuild recomputes it from the table. The indexes
+-- serve the listing's sort orders, ties broken by vehicle id.
+CREATE TABLE IF NOT EXISTS maintenance_summaries (
+    vehicle_id BIGINT PRIMARY KEY REFERENCES vehicles(id) ON DELETE CASCADE,
+    service_count BIGINT NOT NULL DEFAULT 0,
+    total_cost DECIMAL(14,2) NOT NULL DEFAULT 0,
+    last_service_date DATE
+);
+CREATE INDEX IF NOT EXISTS idx_maintenance_summaries_total_cost ON maintenance_summaries (total_cost, vehicle_id);
+CREATE INDEX IF NOT EXISTS idx_maintenance_summaries_service_count ON maintenance_summaries (service_count, vehicle_id);
+CREATE INDEX IF NOT EXISTS idx_maintenance_summaries_last_service ON maintenance_summaries (last_service_date, vehicle_id);
+
+-- Recurring maintenance plans, and their runs: each run schedules a plan's services for the
+-- vehicles matching a filter (VehicleQueryDTO as JSON), a chunk of vehicles per transaction.
+-- last_vehicle_id is the id of the last vehicle whose records are committed, so an
+-- interrupted run resumes after it.
+CREATE TABLE IF NOT EXISTS maintenance_plans (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    maintenance_type VARCHAR(20) NOT NULL,
+    interval_days INTEGER NOT NULL CHECK (interval_days > 0),
+    service_provider VARCHAR(100),
+    cost DECIMAL(10,2) NOT NULL,
+    description VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS maintenance_plan_runs (
+    id BIGSERIAL PRIMARY KEY,
+    plan_id BIGINT NOT NULL REFERENCES maintenance_plans(id) ON DELETE CASCADE,
+    vehicle_filter TEXT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_vehicles BIGINT,
+    vehicles_processed BIGINT NOT NULL DEFAULT 0,
+    records_created BIGINT NOT NULL DEFAULT 0,
+    last_vehicle_id BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_maintenance_plan_runs_plan_id ON maintenance_plan_runs (plan_id, id);
+CREATE INDEX IF NOT EXISTS idx_maintenance_plan_runs_status ON maintenance_plan_runs (status);
+
+-- Change tracking (GET /api/{vehicles,orders,maintenance}/changes and ETags).
+-- Every insert or update stamps the row with the id of the writing transaction, and
+-- every delete leaves a tombstone stamped the same way. A reader treats versions below
+-- its snapshot's xmin as settled: all transactions with a smaller id have finished,
+-- so no row can later appear with a version a client has already read past.
+-- Function bodies are single-quoted rather than dollar-quoted so that Spring's script
+-- runner can split this file.
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE maintenance ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_vehicles_change_version ON vehicles (change_version, id);
+CREATE INDEX IF NOT EXISTS idx_users_change_version ON users (change_version, id);
+CREATE INDEX IF NOT EXISTS idx_orders_change_version ON orders (change_version, id);
+CREATE INDEX IF NOT EXISTS idx_maintenance_change_version ON maintenance (change_version, id);
+
+CREATE TABLE IF NOT EXISTS change_tombstones (
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    change_version BIGINT NOT NULL,
+    PRIMARY KEY (entity_type, entity_id)
+);
+CREATE INDEX IF NOT EXISTS idx_change_tombstones_version
+    ON change_tombstones (entity_type, change_version, entity_id);
+-- Orders moved to the archive tables are still served from there. Their tombstones
+-- keep the collection ETags moving but are not reported as deletes.
+ALTER TABLE change_tombstones ADD COLUMN IF NOT EXISTS archived BOOLEAN NOT NULL DEFAULT false;
+
+CREATE OR REPLACE FUNCTION set_change_version() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    NEW.change_version := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END';
+
+-- The archiver sets app.archiving for its own transaction (OrderArchiveStore)
+CREATE OR REPLACE FUNCTION record_tombstone() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    INSERT INTO change_tombstones (entity_type, entity_id, change_version, archived)
+    VALUES (TG_TABLE_NAME, OLD.id, pg_current_xact_id()::text::bigint,
+            coalesce(current_setting(''app.archiving'', true), '''') = ''on'')
+    ON CONFLICT (entity_type, entity_id) DO UPDATE
+        SET change_version = EXCLUDED.change_version, archived = EXCLUDED.archived;
+    RETURN OLD;
+END';
+
+-- Adding, changing or removing an item changes the order it belongs to. The value
+-- written here is irrelevant: set_change_version() replaces it.
+CREATE OR REPLACE FUNCTION touch_parent_order() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF TG_OP = ''DELETE'' THEN
+        UPDATE orders SET change_version = 0 WHERE id = OLD.order_id;
+        RETURN NULL;
+    END IF;
+    UPDATE orders SET change_version = 0 WHERE id = NEW.order_id;
+    IF TG_OP = ''UPDATE'' THEN
+        IF OLD.order_id <> NEW.order_id THEN
+            UPDATE orders SET change_version = 0 WHERE id = OLD.order_id;
+        END IF;
+    END IF;
+    RETURN NULL;
+END';
+
+CREATE OR REPLACE TRIGGER trg_vehicles_change_version
+    BEFORE INSERT OR UPDATE ON vehicles FOR EACH ROW EXECUTE FUNCTION set_change_version();
+CREATE OR REPLACE TRIGGER trg_users_change_version
+    BEFORE INSERT OR UPDATE ON users FOR EACH ROW EXECUTE FUNCTION set_change_version();
+CREATE OR REPLACE TRIGGER trg_orders_change_version
+    BEFORE INSERT OR UPDATE ON orders FOR EACH ROW EXECUTE FUNCTION set_change_version();
+CREATE OR REPLACE TRIGGER trg_maintenance_change_version
+    BEFORE INSERT OR UPDATE ON maintenance FOR EACH ROW EXECUTE FUNCTION set_change_version();
+
+CREATE OR REPLACE TRIGGER trg_vehicles_tombstone
+    AFTER DELETE ON vehicles FOR EACH ROW EXECUTE FUNCTION record_tombstone();
+CREATE OR REPLACE TRIGGER trg_users_tombstone
+    AFTER DELETE ON users FOR EACH ROW EXECUTE FUNCTION record_tombstone();
+CREATE OR REPLACE TRIGGER trg_orders_tombstone
+    AFTER DELETE ON orders FOR EACH ROW EXECUTE FUNCTION record_tombstone();
+CREATE OR REPLACE TRIGGER trg_maintenance_tombstone
+    AFTER DELETE ON maintenance FOR EACH ROW EXECUTE FUNCTION record_tombstone();
+
+CREATE OR REPLACE TRIGGER trg_order_items_touch_order
+    AFTER INSERT OR UPDATE OR DELETE ON order_items FOR EACH ROW EXECUTE FUNCTION touch_parent_order();
+
+-- Optimistic locking on vehicles (Vehicle.version). Orders claim a vehicle with a
+-- conditional UPDATE ... WHERE available = true that also bumps the version, so
+-- an edit based on a stale read fails instead of silently putting a sold car back.
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Order numbers (ORD-yyyyMMdd-sequence) take their sequence part from order_number_seq.
+-- Each nextval reserves a block of INCREMENT BY numbers that one instance hands out
+-- from memory; must match order.number.block-size. The column is widened to leave
+-- room for the date and a growing sequence.
+CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1 INCREMENT BY 100;
+ALTER TABLE orders ALTER COLUMN order_number SET DATA TYPE VARCHAR(32);
+
+-- Order totals per day and per month (granularity DAY or MONTH) for GET /api/orders/stats.
+-- One row per bucket and status with make '*' holds the orders' own totals; one row per
+-- bucket, status and make holds the totals of that make's items. Maintained by the order
+-- service in the same transaction as each order change; POST /api/orders/stats/rebuild
+-- recomputes it from the orders. Each key is split into order.rollups.stripes rows so
+-- that concurrent orders rarely update the same row; reads sum the stripes.
+CREATE TABLE IF NOT EXISTS order_rollups (
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    make VARCHAR(50) NOT NULL,
+    stripe SMALLINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start, status, make, stripe)
+);
+ALTER TABLE order_rollups ADD COLUMN IF NOT EXISTS stripe SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE order_rollups DROP CONSTRAINT IF EXISTS order_rollups_pkey;
+ALTER TABLE order_rollups ADD CONSTRAINT order_rollups_pkey
+    PRIMARY KEY (granularity, bucket_start, status, make, stripe);
+
+-- Live order lookups by status and by date, in id order for keyset pagination.
+-- Closed orders older than order.archive.after-months are moved to the archive
+-- tables below, so these stay sized to recent and open orders.
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, id);
+CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders (order_date, id);
+
+-- Archived orders and items, range-partitioned by month of the order date so that
+-- date-bounded reads only visit the months they need. The archiver creates each
+-- month's partitions (orders_archive_pYYYYMM, order_items_archive_pYYYYMM) as it
+-- first archives an order of that month. Items carry the order date as partition key.
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id BIGINT NOT NULL,
+    order_number VARCHAR(32) NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    delivery_date TIMESTAMP,
+    total_amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_method VARCHAR(20),
+    notes TEXT,
+    customer_id BIGINT NOT NULL REFERENCES users(id) ON DELETE RESTRICT,
+    vehicle_id BIGINT REFERENCES vehicles(id) ON DELETE SET NULL,
+    created_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE INDEX IF NOT EXISTS idx_orders_archive_id ON orders_archive (id);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_order_number ON orders_archive (order_number);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_customer_id ON orders_archive (customer_id, id);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_status_id ON orders_archive (status, id);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    vehicle_id BIGINT NOT NULL REFERENCES vehicles(id) ON DELETE RESTRICT,
+    price DECIMAL(10,2) NOT NULL,
+    quantity INTEGER NOT NULL,
+    subtotal DECIMAL(10,2) NOT NULL,
+    additional_services VARCHAR(500),
+    is_paid BOOLEAN NOT NULL,
+    PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order_id ON order_items_archive (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_vehicle_id ON order_items_archive (vehicle_id);
@@ -63,6 +63,104 @@ function setupEventListeners() {
     // Users page
     document.getElementById('filter-users-btn').addEventListener('click', filterUsers);
     document.getElementById('add-user-btn').addEventListener('click', showAddUserModal);
+    
+    // "Load More" buttons under each paginated table
+    ['vehicles', 'orders', 'maintenance', 'users'].forEach(key => {
+        document.getElementById(`${key}-load-more`).addEventListener('click', () => {
+            fetchNextPage(key).catch(error => {
+                console.error(`Error loading more ${key}:`, error);
+                alert('Failed to load more records. Please try again.');
+            });
+        });
+    });
+}
+
+// --- PAGINATION FUNCTIONS ---
+
+const PAGE_SIZE = 50;
+const pagers = {};
+
+// Start a fresh paginated listing for a table and load its first page
+function loadPaged(key, url, display) {
+    pagers[key] = { url: url, display: display, items: [], nextCursor: null };
+    return fetchNextPage(key);
+}
+
+// Drop the current listing of a table, e.g. when it is replaced by unpaginated results
+function clearPaged(key) {
+    delete pagers[key];
+    document.getElementById(`${key}-load-more`).classList.add('d-none');
+}
+
+// Append the next page of a listing, using the cursor returned with the previous page
+function fetchNextPage(key) {
+    const pager = pagers[key];
+    const separator = pager.url.includes('?') ? '&' : '?';
+    let pageUrl = `${pager.url}${separator}limit=${PAGE_SIZE}`;
+    if (pager.nextCursor) {
+        pageUrl += `&after=${encodeURIComponent(pager.nextCursor)}`;
+    }
+    
+    return fetch(pageUrl)
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`Failed to fetch ${key}: ${response.status}`);
+            }
+            return response.json();
+        })
+        .then(page => {
+            // Ignore responses for a listing that has since been replaced
+            if (pagers[key] !== pager) {
+                return;
+            }
+            pager.items = pager.items.concat(page.items || []);
+            pager.nextCursor = page.nextCursor;
+            pager.display(pager.items);
+            document.getElementById(`${key}-load-more`).classList.toggle('d-none', !pager.nextCursor);
+        });
+}
+
+// --- VEHICLE STORE ---
+
+// Local copy of the whole catalog for dropdowns and filters. It is kept current
+// through the delta endpoint, so after the first load only changed vehicles are
+// downloaded.
+const vehicleStore = { vehicles: new Map(), cursor: null, syncing: null };
+
+// Bring the store up to date and resolve with all vehicles in id order;
+// callers arriving while a sync is running share it
+function syncVehicles() {
+    if (!vehicleStore.syncing) {
+        vehicleStore.syncing = fetchVehicleChanges().finally(() => {
+            vehicleStore.syncing = null;
+        });
+    }
+    return vehicleStore.syncing.then(() =>
+        Array.from(vehicleStore.vehicles.values()).sort((a, b) => a.id - b.id));
+}
+
+// Apply one batch of changes, following the cursor until there are no more
+function fetchVehicleChanges() {
+    let url = '/api/vehicles/changes?limit=500';
+    if (vehicleStore.cursor) {
+        url += `&since=${encodeURIComponent(vehicleStore.cursor)}`;
+    }
+    
+    return fetch(url)
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`Failed to sync vehicles: ${response.status}`);
+            }
+            return response.json();
+        })
+        .then(changes => {
+            changes.upserts.forEach(vehicle => vehicleStore.vehicles.set(vehicle.id, vehicle));
+            changes.deletes.forEach(id => vehicleStore.vehicles.delete(id));
+            vehicleStore.cursor = changes.cursor;
+            if (changes.hasMore) {
+                return fetchVehicleChanges();
+            }
+        });
 }
 
 // Load data based on active page
@@ -87,11 +185,7 @@ function loadDataForPage(page) {
 
 // Load all vehicles
 function loadVehicles() {
-    fetch('/api/vehicles')
-        .then(response => response.json())
-        .then(data => {
-            displayVehicles(data);
-        })
+    loadPaged('vehicles', '/api/vehicles', displayVehicles)
         .catch(error => {
             console.error('Error fetching vehicles:', error);
             alert('Failed to load vehicles. Please try again later.');
@@ -131,6 +225,7 @@ function searchVehicles() {
         return;
     }
     
+    clearPaged('vehicles');
     fetch(`/api/vehicles/search?searchTerm=${encodeURIComponent(searchTerm)}`)
         .then(response => response.json())
         .then(data => {
@@ -149,37 +244,14 @@ function filterVehicles() {
     const transmission = document.getElementById('filter-transmission').value;
     const availability = document.getElementById('filter-availability').value;
     
-    let url = '/api/vehicles';
-    
-    if (make) {
-        url = `/api/vehicles/make/${encodeURIComponent(make)}`;
-    } else if (fuelType) {
-        url = `/api/vehicles/fuel-type/${fuelType}`;
-    } else if (transmission) {
-        url = `/api/vehicles/transmission-type/${transmission}`;
-    } else if (availability !== '') {
-        url = `/api/vehicles/available`;
-        if (availability === 'false') {
-            // Custom handling for non-available vehicles
-            fetch('/api/vehicles')
-                .then(response => response.json())
-                .then(data => {
-                    const unavailableVehicles = data.filter(v => !v.available);
-                    displayVehicles(unavailableVehicles);
-                })
-                .catch(error => {
-                    console.error('Error filtering vehicles:', error);
-                    alert('Failed to filter vehicles. Please try again.');
-                });
-            return;
-        }
-    }
+    // All selected filters are combined into a single server-side query
+    const params = new URLSearchParams();
+    if (make) params.append('make', make);
+    if (fuelType) params.append('fuelType', fuelType);
+    if (transmission) params.append('transmissionType', transmission);
+    if (availability !== '') params.append('available', availability);
     
-    fetch(url)
-        .then(response => response.json())
-        .then(data => {
-            displayVehicles(data);
-        })
+    loadPaged('vehicles', `/api/vehicles/query?${params.toString()}`, displayVehicles)
         .catch(error => {
             console.error('Error filtering vehicles:', error);
             alert('Failed to filter vehicles. Please try again.');
@@ -188,8 +260,7 @@ function filterVehicles() {
 
 // Load makes for filter dropdown
 function loadMakesForFilter() {
-    fetch('/api/vehicles')
-        .then(response => response.json())
+    syncVehicles()
         .then(data => {
             const makeFilter = document.getElementById('filter-make');
             const uniqueMakes = [...new Set(data.map(vehicle => vehicle.make))];
@@ -343,18 +414,7 @@ function showAddVehicleModal() {
 
 // Load all orders
 function loadOrders() {
-    fetch('/api/orders')
-        .then(response => {
-            if (!response.ok) {
-                throw new Error('Failed to fetch orders');
-            }
-            return response.json();
-        })
-        .then(data => {
-            // Ensure data is an array even if empty
-            const orders = Array.isArray(data) ? data : [];
-            displayOrders(orders);
-        })
+    loadPaged('orders', '/api/orders', displayOrders)
         .catch(error => {
             console.error('Error fetching orders:', error);
             // Display empty table on error
@@ -411,11 +471,7 @@ function filterOrders() {
         url = `/api/orders/status/${status}`;
     }
     
-    fetch(url)
-        .then(response => response.json())
-        .then(data => {
-            displayOrders(data);
-        })
+    loadPaged('orders', url, displayOrders)
         .catch(error => {
             console.error('Error filtering orders:', error);
             alert('Failed to filter orders. Please try again.');
@@ -426,7 +482,7 @@ function filterOrders() {
 function showCreateOrderModal() {
     // Load available vehicles and customers for the dropdown
     Promise.all([
-        fetch('/api/vehicles').then(response => response.json()),
+        syncVehicles(),
         fetch('/api/users').then(response => response.json())
     ])
     .then(([vehicles, users]) => {
@@ -596,7 +652,7 @@ function editOrder(id) {
             
             // Then load all vehicles and customers
             return Promise.all([
-                fetch('/api/vehicles').then(response => response.json()),
+                syncVehicles(),
                 fetch('/api/users').then(response => response.json().then(users => users.filter(u => u.role === 'CUSTOMER'))),
                 order // Pass the order along
             ]);
@@ -770,18 +826,7 @@ function deleteOrder(id) {
 
 // Load all maintenance records
 function loadMaintenance() {
-    fetch('/api/maintenance')
-        .then(response => {
-            if (!response.ok) {
-                throw new Error(`Failed to fetch maintenance records: ${response.status}`);
-            }
-            return response.json();
-        })
-        .then(data => {
-            // Ensure data is always an array, even if backend returns an error object
-            const maintenanceRecords = Array.isArray(data) ? data : [];
-            displayMaintenance(maintenanceRecords);
-        })
+    loadPaged('maintenance', '/api/maintenance', displayMaintenance)
         .catch(error => {
             console.error('Error fetching maintenance records:', error);
             // Display empty table on error
@@ -835,11 +880,7 @@ function displayMaintenance(records) {
 function loadUpcomingMaintenance() {
     const today = new Date().toISOString().split('T')[0]; // Format: YYYY-MM-DD
     
-    fetch(`/api/maintenance/upcoming?date=${today}`)
-        .then(response => response.json())
-        .then(data => {
-            displayMaintenance(data);
-        })
+    loadPaged('maintenance', `/api/maintenance/upcoming?date=${today}`, displayMaintenance)
         .catch(error => {
             console.error('Error fetching upcoming maintenance:', error);
             alert('Failed to load upcoming maintenance. Please try again.');
@@ -868,8 +909,7 @@ function showAddMaintenanceModal() {
             }
             
             // Now fetch the full vehicle details for these IDs
-            fetch('/api/vehicles')
-                .then(response => response.json())
+            syncVehicles()
                 .then(allVehicles => {
                     // Filter to only include vehicles from delivered orders
                     const deliveredVehicles = allVehicles.filter(vehicle => 
@@ -999,7 +1039,7 @@ function editMaintenance(id) {
             // Now fetch orders with DELIVERED status to get eligible vehicles
             return Promise.all([
                 fetch('/api/orders/status/DELIVERED').then(response => response.json()),
-                fetch('/api/vehicles').then(response => response.json()),
+                syncVehicles(),
                 maintenance // Pass maintenance along
             ]);
         })
@@ -1134,11 +1174,7 @@ function deleteMaintenance(id) {
 
 // Load all users
 function loadUsers() {
-    fetch('/api/users')
-        .then(response => response.json())
-        .then(data => {
-            displayUsers(data);
-        })
+    loadPaged('users', '/api/users', displayUsers)
         .catch(error => {
             console.error('Error fetching users:', error);
             alert('Failed to load users. Please try again later.');
@@ -1192,11 +1228,7 @@ function filterUsers() {
         url = `/api/users/role/${role}`;
     }
     
-    fetch(url)
-        .then(response => response.json())
-        .then(data => {
-            displayUsers(data);
-        })
+    loadPaged('users', url, displayUsers)
         .catch(error => {
             console.error('Error filtering users:', error);
             alert('Failed to filter users. Please try again.');
@@ -0,0 +1,18 @@
+package com.stockmanage.automobile;
+
+import org.junit.jupiter.api.Tag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a benchmark. Benchmarks are left out of the default build and run with
+ * {@code mvn -Pbenchmark test -Dtest=<name>}; see {@link Benchmarks}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+public @interface Benchmark {
+}
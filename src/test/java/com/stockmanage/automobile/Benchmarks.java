@@ -0,0 +1,143 @@
+package com.stockmanage.automobile;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Measuring and database set-up shared by the {@link Benchmark}s.
+ *
+ * <p>Benchmarks run against PostgreSQL in a container, with the production
+ * schema, when Docker is available. Without Docker they keep the test profile's
+ * H2 database, which is enough to compare code paths against each other but not
+ * for absolute database latencies. Data sizes are read from system properties,
+ * e.g. {@code -Dbenchmark.rows=1000000}.
+ */
+public final class Benchmarks {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static PostgreSQLContainer<?> postgres;
+
+    // Results are folded in here so the JIT cannot drop the measured work
+    private static volatile int sink;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Points the context at a PostgreSQL container shared by all benchmarks of the
+     * run, if Docker is available.
+     */
+    public static synchronized void usePostgresIfAvailable(DynamicPropertyRegistry registry) {
+        if (!DockerClientFactory.instance().isDockerAvailable()) {
+            return;
+        }
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+            postgres.start();
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.sql.init.schema-locations", () -> "classpath:schema.sql");
+    }
+
+    public static boolean onPostgres(JdbcTemplate jdbcTemplate) {
+        return "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    /**
+     * Refreshes the planner statistics after bulk loading; a no-op on H2.
+     */
+    public static void analyze(JdbcTemplate jdbcTemplate, String... tables) {
+        if (onPostgres(jdbcTemplate)) {
+            for (String table : tables) {
+                jdbcTemplate.execute("ANALYZE " + table);
+            }
+        }
+    }
+
+    /**
+     * Removes every row of the tables, children first.
+     */
+    public static void clear(JdbcTemplate jdbcTemplate, String... tables) {
+        boolean postgres = onPostgres(jdbcTemplate);
+        for (String table : tables) {
+            jdbcTemplate.execute(postgres ? "TRUNCATE " + table + " CASCADE" : "DELETE FROM " + table);
+        }
+    }
+
+    /**
+     * Data sizes from a comma-separated system property, e.g. {@code 1000000,10000000}.
+     */
+    public static int[] sizes(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    public static int intProperty(String property, int defaultValue) {
+        return Integer.getInteger(property, defaultValue);
+    }
+
+    /**
+     * Runs the operation {@code warmups} times, then times {@code iterations} runs
+     * one by one on the calling thread.
+     */
+    public static Measurement measure(int warmups, int iterations, Supplier<?> operation) {
+        for (int i = 0; i < warmups; i++) {
+            consume(operation.get());
+        }
+        long[] nanos = new long[iterations];
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long started = System.nanoTime();
+            consume(operation.get());
+            nanos[i] = System.nanoTime() - started;
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Measurement(nanos[(iterations - 1) / 2], nanos[(int) Math.ceil(iterations * 0.9) - 1],
+                allocated / iterations);
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread, for benchmarks that measure
+     * on threads of their own.
+     */
+    public static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    public static void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+
+    /**
+     * Median and 90th percentile time of one operation, and the bytes it allocated on average.
+     */
+    public record Measurement(long medianNanos, long p90Nanos, long bytesPerOp) {
+
+        public static String header() {
+            return String.format("%12s %12s %14s", "median ms", "p90 ms", "bytes/op");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%12.3f %12.3f %14d", medianNanos / 1e6, p90Nanos / 1e6, bytesPerOp);
+        }
+    }
+}
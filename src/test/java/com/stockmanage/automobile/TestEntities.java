@@ -0,0 +1,88 @@
+package com.stockmanage.automobile;
+
+import com.stockmanage.automobile.model.Maintenance;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.OrderItem;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Valid, unsaved entities for tests; callers pass a unique key for the unique columns.
+ */
+public final class TestEntities {
+
+    private TestEntities() {
+    }
+
+    public static Vehicle vehicle(String vin) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake("Toyota");
+        vehicle.setModel("Corolla");
+        vehicle.setVehicleYear(2022);
+        vehicle.setVin(vin);
+        vehicle.setColor("Silver");
+        vehicle.setPrice(new BigDecimal("20000.00"));
+        vehicle.setMileage(10000);
+        vehicle.setFuelType(Vehicle.FuelType.PETROL);
+        vehicle.setTransmissionType(Vehicle.TransmissionType.AUTOMATIC);
+        vehicle.setEngineSize("1.8L");
+        vehicle.setAvailable(true);
+        vehicle.setAcquisitionDate(LocalDate.of(2024, 1, 1));
+        return vehicle;
+    }
+
+    public static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setFirstName("Test");
+        user.setLastName(username);
+        user.setEmail(username + "@example.com");
+        user.setRole(role);
+        return user;
+    }
+
+    /**
+     * An order with one item per vehicle, at each vehicle's price.
+     */
+    public static Order order(String orderNumber, User user, LocalDateTime orderDate, Order.OrderStatus status,
+                              Vehicle... vehicles) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setUser(user);
+        order.setOrderDate(orderDate);
+        order.setStatus(status);
+        order.setCreatedAt(orderDate);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Vehicle vehicle : vehicles) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setVehicle(vehicle);
+            item.setQuantity(1);
+            item.setUnitPrice(vehicle.getPrice());
+            item.setSubtotal(vehicle.getPrice());
+            item.setIsPaid(false);
+            order.getOrderItems().add(item);
+            total = total.add(vehicle.getPrice());
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+
+    public static Maintenance maintenance(Vehicle vehicle, String type, LocalDate serviceDate,
+                                          Maintenance.MaintenanceStatus status) {
+        Maintenance maintenance = new Maintenance();
+        maintenance.setVehicle(vehicle);
+        maintenance.setMaintenanceType(type);
+        maintenance.setServiceDate(serviceDate);
+        maintenance.setNextServiceDate(serviceDate.plusMonths(6));
+        maintenance.setCost(new BigDecimal("150.00"));
+        maintenance.setServiceProvider("Dealer");
+        maintenance.setStatus(status);
+        return maintenance;
+    }
+}
@@ -0,0 +1,112 @@
+package com.stockmanage.automobile.archive;
+
+import com.stockmanage.automobile.dto.ChangeSetDTO;
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.service.OrderService;
+import com.stockmanage.automobile.sync.ChangeTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archiving moves orders out of {@code orders} with plain deletes; the change feed
+ * must not report those orders as deleted, since they are still served from the
+ * archive. Needs PostgreSQL for the partitions and the change-tracking triggers.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class OrderArchiveStoreTest {
+
+    private static final long ARCHIVED_ORDER = 1;
+    private static final long DELETED_ORDER = 2;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.sql.init.schema-locations", () -> "classpath:schema.sql");
+        registry.add("sync.etag.enabled", () -> "true");
+    }
+
+    @Autowired
+    private OrderArchiveStore archiveStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivedOrdersAreNotReportedAsDeleted() {
+        seed();
+        String cursor = latestCursor();
+        String etag = changeTracker.etag(List.of(ChangeTracker.ORDERS));
+
+        assertThat(archiveStore.archiveBatch(List.of("DELIVERED"), LocalDateTime.now().minusMonths(12), 100))
+                .isEqualTo(1);
+        // A real delete after the archive move is still reported
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id = ?", DELETED_ORDER);
+        jdbcTemplate.update("DELETE FROM orders WHERE id = ?", DELETED_ORDER);
+
+        ChangeSetDTO<OrderDTO> changes = orderService.getOrderChanges(cursor, 100);
+        assertThat(changes.getDeletes()).containsExactly(DELETED_ORDER);
+        assertThat(changes.getUpserts()).isEmpty();
+        assertThat(orderService.getOrderById(ARCHIVED_ORDER).getOrderNumber()).isEqualTo("ARCHIVE-1");
+        assertThat(changeTracker.etag(List.of(ChangeTracker.ORDERS))).isNotNull().isNotEqualTo(etag);
+    }
+
+    private String latestCursor() {
+        ChangeSetDTO<OrderDTO> changes = orderService.getOrderChanges(null, 100);
+        while (changes.isHasMore()) {
+            changes = orderService.getOrderChanges(changes.getCursor(), 100);
+        }
+        return changes.getCursor();
+    }
+
+    /**
+     * One customer and two sold vehicles: order 1 delivered two years ago, so due for
+     * the archive, and order 2 delivered last week.
+     */
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, username, password, first_name, last_name, email, role) " +
+                "VALUES (1, 'archive', 'secret', 'Archive', 'Customer', 'archive@example.com', 'CUSTOMER')");
+        for (long id : new long[]{ARCHIVED_ORDER, DELETED_ORDER}) {
+            LocalDateTime orderDate = id == ARCHIVED_ORDER
+                    ? LocalDateTime.now().minusYears(2)
+                    : LocalDateTime.now().minusWeeks(1);
+            jdbcTemplate.update("INSERT INTO vehicles (id, make, model, vehicle_year, vin, color, price, " +
+                    "mileage, fuel_type, transmission_type, engine_size, available, acquisition_date, version) " +
+                    "VALUES (?, 'Ford', 'Focus', 2020, ?, 'Black', 20000.00, 0, 'PETROL', 'MANUAL', '1.6L', " +
+                    "false, DATE '2020-01-01', 0)", id, String.format("%017d", id));
+            jdbcTemplate.update("INSERT INTO orders (id, order_number, order_date, total_amount, status, " +
+                    "customer_id, vehicle_id, created_at) VALUES (?, ?, ?, 20000.00, 'DELIVERED', 1, ?, ?)",
+                    id, "ARCHIVE-" + id, orderDate, id, orderDate);
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, vehicle_id, price, quantity, subtotal, " +
+                    "is_paid) VALUES (?, ?, ?, 20000.00, 1, 20000.00, true)", id, id, id);
+        }
+    }
+}
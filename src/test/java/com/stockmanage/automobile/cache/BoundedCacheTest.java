@@ -0,0 +1,135 @@
+package com.stockmanage.automobile.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        // Reading "a" makes "b" the eldest
+        assertThat(cache.get("a")).isEqualTo(1);
+        cache.put("d", 4);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.get("d")).isEqualTo(4);
+    }
+
+    @Test
+    void neverHoldsMoreThanMaxSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.getEvictions()).isEqualTo(900);
+        assertThat(cache.get(899)).isNull();
+        assertThat(cache.get(900)).isEqualTo(900);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("k", "v");
+        cache.get("k");
+        cache.get("k");
+        cache.get("missing");
+
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntriesAreDroppedOnGet() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMillis(1));
+        cache.put("k", "v");
+        Thread.sleep(10);
+
+        assertThat(cache.get("k")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getExpirations()).isEqualTo(1);
+    }
+
+    @Test
+    void lookupReturnsStaleEntriesMarkedExpired() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMillis(1));
+        cache.put("k", "v");
+        Thread.sleep(10);
+
+        BoundedCache.Lookup<String> lookup = cache.lookup("k");
+        assertThat(lookup.value()).isEqualTo("v");
+        assertThat(lookup.expired()).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.lookup("missing")).isNull();
+    }
+
+    @Test
+    void entriesWithoutTtlDoNotExpire() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("k", "v");
+        Thread.sleep(10);
+
+        assertThat(cache.lookup("k").expired()).isFalse();
+        assertThat(cache.get("k")).isEqualTo("v");
+    }
+
+    @Test
+    void loadThatRacedWithAnInvalidationIsDropped() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        long generation = cache.generation();
+        cache.invalidate("other");
+
+        assertThat(cache.putIfGeneration("k", "stale", generation)).isFalse();
+        assertThat(cache.get("k")).isNull();
+        assertThat(cache.putIfGeneration("k", "fresh", cache.generation())).isTrue();
+        assertThat(cache.get("k")).isEqualTo("fresh");
+    }
+
+    @Test
+    void replaceIfRewritesOrRemovesMatchingEntries() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        cache.put("one", 1);
+        cache.put("two", 2);
+        cache.put("three", 3);
+
+        int changed = cache.replaceIf((key, value) -> value >= 2, value -> value == 2 ? null : value * 10);
+
+        assertThat(changed).isEqualTo(2);
+        assertThat(cache.get("one")).isEqualTo(1);
+        assertThat(cache.get("two")).isNull();
+        assertThat(cache.get("three")).isEqualTo(30);
+
+        assertThat(cache.invalidateIf((key, value) -> key.startsWith("o"))).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateAllClearsAndAdvancesGeneration() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("k", "v");
+        long generation = cache.generation();
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.generation()).isGreaterThan(generation);
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThatThrownBy(() -> new BoundedCache<String, String>(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
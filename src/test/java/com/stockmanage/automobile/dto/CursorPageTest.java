@@ -0,0 +1,97 @@
+package com.stockmanage.automobile.dto;
+
+import com.stockmanage.automobile.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    @Test
+    void cursorRoundTripsIdsAndKeys() {
+        assertThat(CursorPage.decodeCursor(CursorPage.encodeCursor(0L))).isZero();
+        assertThat(CursorPage.decodeCursor(CursorPage.encodeCursor(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+        assertThat(CursorPage.decodeKey(CursorPage.encodeKey("15999.99:42"))).isEqualTo("15999.99:42");
+        assertThat(CursorPage.decodeKey(CursorPage.encodeKey("Škoda:7"))).isEqualTo("Škoda:7");
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        for (long id = 0; id < 10_000; id += 37) {
+            assertThat(CursorPage.encodeCursor(id)).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @Test
+    void missingCursorStartsAtTheBeginning() {
+        assertThat(CursorPage.decodeCursor(null)).isZero();
+        assertThat(CursorPage.decodeCursor("  ")).isZero();
+    }
+
+    @Test
+    void foreignCursorsAreRejected() {
+        assertThatThrownBy(() -> CursorPage.decodeCursor("not a cursor!"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> CursorPage.decodeCursor(CursorPage.encodeKey("abc")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> CursorPage.decodeKey("%%%"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void limitIsClamped() {
+        assertThat(CursorPage.clampLimit(null)).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.clampLimit(0)).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.clampLimit(-5)).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.clampLimit(10)).isEqualTo(10);
+        assertThat(CursorPage.clampLimit(100_000)).isEqualTo(CursorPage.MAX_LIMIT);
+    }
+
+    @Test
+    void fetchWalksEveryRowOnceAndEndsWithoutCursor() {
+        List<Long> table = LongStream.rangeClosed(1, 23).boxed().collect(Collectors.toList());
+
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            CursorPage<String> page = CursorPage.fetch(after, 5, (afterId, limit) -> keyset(table, afterId, limit),
+                    id -> id, id -> "row-" + id);
+            page.getItems().forEach(item -> seen.add(Long.parseLong(item.substring(4))));
+            assertThat(page.getLimit()).isEqualTo(5);
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        assertThat(seen).isEqualTo(table);
+        assertThat(pages).isEqualTo(5);
+    }
+
+    @Test
+    void lastFullPageHasNoCursor() {
+        List<Long> table = LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList());
+
+        CursorPage<Long> first = CursorPage.fetch(null, 5, (afterId, limit) -> keyset(table, afterId, limit),
+                id -> id, id -> id);
+        CursorPage<Long> second = CursorPage.fetch(first.getNextCursor(), 5,
+                (afterId, limit) -> keyset(table, afterId, limit), id -> id, id -> id);
+
+        assertThat(first.getItems()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(second.getItems()).containsExactly(6L, 7L, 8L, 9L, 10L);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    private static List<Long> keyset(List<Long> table, Long afterId, Limit limit) {
+        return table.stream()
+                .filter(id -> id > afterId)
+                .limit(limit.max())
+                .collect(Collectors.toList());
+    }
+}
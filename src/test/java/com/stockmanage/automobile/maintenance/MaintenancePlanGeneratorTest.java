@@ -0,0 +1,112 @@
+package com.stockmanage.automobile.maintenance;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.dto.MaintenancePlanDTO;
+import com.stockmanage.automobile.dto.MaintenancePlanRunDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.model.MaintenancePlanRun;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.service.MaintenancePlanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A plan run schedules one record per vehicle and service date, across several
+ * chunks and JDBC batches, and only for the vehicles matching its filter.
+ */
+@SpringBootTest(properties = {
+        "maintenance.plans.chunk-size=3",
+        "maintenance.plans.batch-size=2"
+})
+@ActiveProfiles("test")
+class MaintenancePlanGeneratorTest {
+
+    private static final int VEHICLES = 7;
+
+    @Autowired
+    private MaintenancePlanService planService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void serviceDatesRunEveryIntervalThroughTheEndDate() {
+        assertThat(MaintenancePlanGenerator.serviceDates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), 30))
+                .containsExactly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), LocalDate.of(2024, 3, 1),
+                        LocalDate.of(2024, 3, 31));
+        assertThat(MaintenancePlanGenerator.serviceDates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 30), 30))
+                .hasSize(3);
+        assertThat(MaintenancePlanGenerator.serviceDates(LocalDate.of(2024, 5, 5), LocalDate.of(2024, 5, 5), 90))
+                .containsExactly(LocalDate.of(2024, 5, 5));
+        assertThat(MaintenancePlanGenerator.serviceDates(LocalDate.of(2024, 5, 5), LocalDate.of(2024, 6, 1), 365))
+                .containsExactly(LocalDate.of(2024, 5, 5));
+    }
+
+    @Test
+    void runSchedulesEveryMatchingVehicleInChunks() throws Exception {
+        for (int i = 0; i < VEHICLES; i++) {
+            Vehicle vehicle = TestEntities.vehicle("PLAN-RUN-" + i);
+            vehicle.setMake("Planmake");
+            vehicleRepository.save(vehicle);
+        }
+        Vehicle other = vehicleRepository.save(TestEntities.vehicle("PLAN-RUN-OTHER"));
+
+        MaintenancePlanDTO plan = new MaintenancePlanDTO();
+        plan.setName("Quarterly check");
+        plan.setMaintenanceType("INSPECTION");
+        plan.setIntervalDays(90);
+        plan.setServiceProvider("Dealer");
+        plan.setCost(new BigDecimal("80.00"));
+        plan = planService.createPlan(plan);
+
+        VehicleQueryDTO filter = new VehicleQueryDTO();
+        filter.setMake("Planmake");
+        MaintenancePlanRunDTO request = new MaintenancePlanRunDTO();
+        request.setVehicleFilter(filter);
+        request.setStartDate(LocalDate.of(2031, 1, 1));
+        request.setEndDate(LocalDate.of(2031, 6, 30));
+        MaintenancePlanRunDTO run = planService.applyPlan(plan.getId(), request);
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (run.getStatus() != MaintenancePlanRun.RunStatus.COMPLETED
+                && run.getStatus() != MaintenancePlanRun.RunStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            run = planService.getRunById(run.getId());
+        }
+
+        assertThat(run.getStatus()).isEqualTo(MaintenancePlanRun.RunStatus.COMPLETED);
+        assertThat(run.getTotalVehicles()).isEqualTo(VEHICLES);
+        assertThat(run.getVehiclesProcessed()).isEqualTo(VEHICLES);
+        // Jan 1, Apr 1 and Jun 30
+        assertThat(run.getRecordsCreated()).isEqualTo(3L * VEHICLES);
+
+        List<LocalDate> dates = jdbcTemplate.queryForList(
+                "SELECT DISTINCT m.service_date FROM maintenance m JOIN vehicles v ON v.id = m.vehicle_id " +
+                "WHERE v.make = 'Planmake' AND m.maintenance_type = 'INSPECTION' ORDER BY m.service_date",
+                LocalDate.class);
+        assertThat(dates).containsExactly(LocalDate.of(2031, 1, 1), LocalDate.of(2031, 4, 1),
+                LocalDate.of(2031, 6, 30));
+        Integer perVehicleMismatches = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT v.id FROM vehicles v LEFT JOIN maintenance m ON m.vehicle_id = v.id " +
+                "AND m.maintenance_type = 'INSPECTION' AND m.status = 'SCHEDULED' WHERE v.make = 'Planmake' " +
+                "GROUP BY v.id HAVING COUNT(m.id) <> 3) t", Integer.class);
+        assertThat(perVehicleMismatches).isZero();
+        Integer otherRecords = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM maintenance WHERE vehicle_id = ?", Integer.class, other.getId());
+        assertThat(otherRecords).isZero();
+    }
+}
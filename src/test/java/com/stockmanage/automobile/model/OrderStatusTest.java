@@ -0,0 +1,50 @@
+package com.stockmanage.automobile.model;
+
+import com.stockmanage.automobile.model.Order.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.stockmanage.automobile.model.Order.OrderStatus.CANCELLED;
+import static com.stockmanage.automobile.model.Order.OrderStatus.CONFIRMED;
+import static com.stockmanage.automobile.model.Order.OrderStatus.DELIVERED;
+import static com.stockmanage.automobile.model.Order.OrderStatus.PENDING;
+import static com.stockmanage.automobile.model.Order.OrderStatus.PROCESSING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusTest {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED = Map.of(
+            PENDING, EnumSet.of(PROCESSING, CONFIRMED, CANCELLED),
+            PROCESSING, EnumSet.of(CONFIRMED, CANCELLED),
+            CONFIRMED, EnumSet.of(DELIVERED, CANCELLED),
+            DELIVERED, EnumSet.noneOf(OrderStatus.class),
+            CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+    @ParameterizedTest
+    @EnumSource(OrderStatus.class)
+    void movesOnlyToTheAllowedStatuses(OrderStatus from) {
+        for (OrderStatus to : OrderStatus.values()) {
+            assertThat(from.canTransitionTo(to))
+                    .as("%s -> %s", from, to)
+                    .isEqualTo(ALLOWED.get(from).contains(to));
+        }
+    }
+
+    @Test
+    void finalStatusesCannotBeReopened() {
+        assertThat(CANCELLED.canTransitionTo(PENDING)).isFalse();
+        assertThat(DELIVERED.canTransitionTo(PENDING)).isFalse();
+        assertThat(CANCELLED.canTransitionTo(CONFIRMED)).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderStatus.class)
+    void noStatusTransitionsToItself(OrderStatus status) {
+        assertThat(status.canTransitionTo(status)).isFalse();
+    }
+}
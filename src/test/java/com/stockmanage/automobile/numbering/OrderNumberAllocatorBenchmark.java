@@ -0,0 +1,134 @@
+package com.stockmanage.automobile.numbering;
+
+import com.stockmanage.automobile.Benchmark;
+import com.stockmanage.automobile.Benchmarks;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order numbers handed out per second by {@link SequenceOrderNumberAllocator} as
+ * the number of threads asking for them grows, for several block sizes. A block
+ * size of 1 goes to the database for every number, like a plain sequence; the
+ * random UUID prefix the allocator replaced is included for reference.
+ *
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=OrderNumberAllocatorBenchmark -Dbenchmark.threads=1,2,4,8,16,32
+ * </pre>
+ */
+@Benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderNumberAllocatorBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNumberAllocatorBenchmark.class);
+
+    // order_number_seq's increment in schema.sql
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        Benchmarks.usePostgresIfAvailable(registry);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allocationsPerSecondUnderContention() throws Exception {
+        int[] threadCounts = Benchmarks.sizes("benchmark.threads", "1,2,4,8,16");
+        int[] blockSizes = Benchmarks.sizes("benchmark.block-sizes", "1,10,100,1000");
+        int seconds = Benchmarks.intProperty("benchmark.seconds", 5);
+
+        logger.info(String.format("%-12s %8s %16s %12s", "allocator", "threads", "numbers/s", "bytes/op"));
+        try {
+            for (int threads : threadCounts) {
+                for (int blockSize : blockSizes) {
+                    // The allocator relies on the sequence stepping by its block size
+                    jdbcTemplate.execute("ALTER SEQUENCE order_number_seq INCREMENT BY " + blockSize);
+                    SequenceOrderNumberAllocator allocator =
+                            new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", blockSize);
+                    // Warm up the JIT and reserve the first block outside the timed run
+                    run(allocator, threads, 1);
+                    report("block " + blockSize, threads, run(allocator, threads, seconds));
+                }
+                OrderNumberAllocator uuid = () -> "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                run(uuid, threads, 1);
+                report("random UUID", threads, run(uuid, threads, seconds));
+            }
+        } finally {
+            jdbcTemplate.execute("ALTER SEQUENCE order_number_seq INCREMENT BY " + DEFAULT_BLOCK_SIZE);
+        }
+    }
+
+    /**
+     * Calls the allocator from {@code threads} threads for the given time; the
+     * threads start together.
+     */
+    private static Run run(OrderNumberAllocator allocator, int threads, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<long[]>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    long allocatedBefore = Benchmarks.allocatedBytes();
+                    long count = 0;
+                    String last = null;
+                    while (running.get()) {
+                        last = allocator.next();
+                        count++;
+                    }
+                    Benchmarks.consume(last);
+                    return new long[]{count, Benchmarks.allocatedBytes() - allocatedBefore};
+                }));
+            }
+            ready.await();
+            long started = System.nanoTime();
+            start.countDown();
+            TimeUnit.SECONDS.sleep(seconds);
+            running.set(false);
+            long numbers = 0;
+            long bytes = 0;
+            for (Future<long[]> worker : workers) {
+                long[] result = worker.get(30, TimeUnit.SECONDS);
+                numbers += result[0];
+                bytes += result[1];
+            }
+            return new Run(numbers, bytes, System.nanoTime() - started);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void report(String allocator, int threads, Run run) {
+        assertThat(run.numbers()).isPositive();
+        logger.info(String.format("%-12s %8d %,16.0f %12d", allocator, threads,
+                run.numbers() * 1e9 / run.nanos(), run.bytes() / run.numbers()));
+    }
+
+    private record Run(long numbers, long bytes, long nanos) {
+    }
+}
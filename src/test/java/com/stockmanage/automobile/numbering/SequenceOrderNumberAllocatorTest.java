@@ -0,0 +1,119 @@
+package com.stockmanage.automobile.numbering;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SequenceOrderNumberAllocatorTest {
+
+    private static final int BLOCK_SIZE = 100;
+
+    // Stands in for order_number_seq: START WITH 1 INCREMENT BY 100
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final AtomicLong nextvalCalls = new AtomicLong();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            nextvalCalls.incrementAndGet();
+            return sequence.getAndAdd(BLOCK_SIZE);
+        });
+    }
+
+    @Test
+    void numbersCarryPrefixDateAndSequenceValue() {
+        SequenceOrderNumberAllocator allocator = new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", BLOCK_SIZE);
+
+        String today = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        assertThat(allocator.next()).isEqualTo("ORD-" + today + "-000001");
+        assertThat(allocator.next()).isEqualTo("ORD-" + today + "-000002");
+    }
+
+    @Test
+    void blockIsRefilledOnlyWhenExhausted() {
+        SequenceOrderNumberAllocator allocator = new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", BLOCK_SIZE);
+
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            values.add(sequenceValue(allocator.next()));
+        }
+        assertThat(nextvalCalls).hasValue(1);
+        assertThat(values.get(0)).isEqualTo(1);
+        assertThat(values.get(BLOCK_SIZE - 1)).isEqualTo(BLOCK_SIZE);
+
+        assertThat(sequenceValue(allocator.next())).isEqualTo(BLOCK_SIZE + 1);
+        assertThat(nextvalCalls).hasValue(2);
+    }
+
+    @Test
+    void instancesSharingTheSequenceNeverOverlap() {
+        SequenceOrderNumberAllocator first = new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", BLOCK_SIZE);
+        SequenceOrderNumberAllocator second = new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", BLOCK_SIZE);
+
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 3 * BLOCK_SIZE; i++) {
+            assertThat(values.add(sequenceValue(first.next()))).isTrue();
+            assertThat(values.add(sequenceValue(second.next()))).isTrue();
+        }
+        assertThat(nextvalCalls).hasValue(6);
+    }
+
+    @Test
+    void concurrentCallersGetUniqueNumbersWithoutWastingBlocks() throws Exception {
+        SequenceOrderNumberAllocator allocator = new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", BLOCK_SIZE);
+        int threads = 8;
+        int perThread = 5_000;
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(allocator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(numbers).hasSize(threads * perThread);
+        // Racing threads must not each reserve a block for the same exhausted one
+        assertThat(nextvalCalls).hasValue((long) threads * perThread / BLOCK_SIZE);
+    }
+
+    @Test
+    void rejectsNonPositiveBlockSize() {
+        assertThatThrownBy(() -> new SequenceOrderNumberAllocator(jdbcTemplate, "ORD", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long sequenceValue(String orderNumber) {
+        return Long.parseLong(orderNumber.substring(orderNumber.lastIndexOf('-') + 1));
+    }
+}
@@ -0,0 +1,188 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.Benchmark;
+import com.stockmanage.automobile.Benchmarks;
+import com.stockmanage.automobile.dto.MaintenanceForecastDTO;
+import com.stockmanage.automobile.event.MaintenanceChangedEvent;
+import com.stockmanage.automobile.service.MaintenanceForecastService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The maintenance forecast over millions of maintenance records: the history read,
+ * the fork-join forecast against a single-threaded pool, the full recompute and the
+ * incremental recompute after a few vehicles' records change.
+ *
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=MaintenanceForecastBenchmark -Dbenchmark.records=5000000
+ * </pre>
+ *
+ * Bytes per operation count the calling thread only, not the fork-join workers.
+ */
+@Benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+class MaintenanceForecastBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceForecastBenchmark.class);
+
+    private static final String[] MAKES = {"Ford", "Toyota", "BMW", "Audi", "Honda", "Kia", "Mazda", "Tesla"};
+    private static final String[] TYPES = {"OIL_CHANGE", "TIRE_ROTATION", "BRAKES", "INSPECTION"};
+
+    // Make/model combinations: every make with Model0 to Model9
+    private static final int GROUPS = MAKES.length * 10;
+
+    private static final int INSERT_BATCH = 10_000;
+
+    // Records per vehicle; services are spread over the last five years
+    private static final int RECORDS_PER_VEHICLE = 10;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        Benchmarks.usePostgresIfAvailable(registry);
+    }
+
+    @Autowired
+    private MaintenanceHistoryReader historyReader;
+
+    @Autowired
+    private MaintenanceForecaster forecaster;
+
+    @Autowired
+    private MaintenanceForecastService forecastService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void forecast() {
+        int records = Benchmarks.intProperty("benchmark.records", 3_000_000);
+        int changedVehicles = Benchmarks.intProperty("benchmark.changed-vehicles", 100);
+        int warmups = Benchmarks.intProperty("benchmark.warmups", 2);
+        int iterations = Benchmarks.intProperty("benchmark.iterations", 10);
+        int vehicles = records / RECORDS_PER_VEHICLE;
+        long started = System.nanoTime();
+        seed(vehicles);
+        logger.info(String.format("%,d maintenance records for %,d vehicles seeded in %d ms", records, vehicles,
+                (System.nanoTime() - started) / 1_000_000));
+
+        LocalDate asOf = LocalDate.now();
+        LocalDate until = asOf.plusMonths(12);
+        Map<Long, VehicleHistory> histories = historyReader.readAll(asOf);
+        List<List<VehicleHistory>> groups = new ArrayList<>(histories.values().stream()
+                .collect(Collectors.groupingBy(VehicleHistory::groupKey)).values());
+        MaintenanceForecastDTO full = forecastService.getMaintenanceForecast(true);
+        assertThat(full.getVehicles()).isEqualTo(vehicles);
+
+        MaintenanceForecaster singleThreaded = new MaintenanceForecaster(1);
+        try {
+            assertThat(vehicleCount(singleThreaded.forecast(groups, asOf, until)))
+                    .isEqualTo(vehicleCount(forecaster.forecast(groups, asOf, until)));
+
+            logger.info(String.format("%-40s %s", "step", Benchmarks.Measurement.header()));
+            log("read histories", Benchmarks.measure(warmups, iterations, () -> historyReader.readAll(asOf)));
+            log("forecast, fork-join",
+                    Benchmarks.measure(warmups, iterations, () -> forecaster.forecast(groups, asOf, until)));
+            log("forecast, one thread",
+                    Benchmarks.measure(warmups, iterations, () -> singleThreaded.forecast(groups, asOf, until)));
+            log("full recompute",
+                    Benchmarks.measure(warmups, iterations, () -> forecastService.getMaintenanceForecast(true)));
+            int[] round = {0};
+            log(String.format("incremental, %d vehicles of one model", changedVehicles),
+                    Benchmarks.measure(warmups, iterations, () -> {
+                        changeRecords(round[0]++, changedVehicles, vehicles);
+                        return forecastService.getMaintenanceForecast(false);
+                    }));
+            log("from cache", Benchmarks.measure(warmups, iterations,
+                    () -> forecastService.getMaintenanceForecast(false)));
+        } finally {
+            singleThreaded.shutdown();
+        }
+    }
+
+    private static long vehicleCount(List<MaintenanceForecaster.GroupForecast> forecasts) {
+        return forecasts.stream().mapToLong(group -> group.getVehicles().size()).sum();
+    }
+
+    private static void log(String step, Benchmarks.Measurement measurement) {
+        logger.info(String.format("%-40s %s", step, measurement));
+    }
+
+    /**
+     * Raises the cost of the last record of {@code count} vehicles of one make/model,
+     * different ones each round, and publishes the change as the maintenance service
+     * does after a commit.
+     */
+    private void changeRecords(int round, int count, int vehicles) {
+        int groupSize = vehicles / GROUPS;
+        List<Long> vehicleIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Vehicles 1, 81, 161, ... are all the same make/model
+            vehicleIds.add(1 + (long) ((round * count + i) % groupSize) * GROUPS);
+        }
+        jdbcTemplate.update("UPDATE maintenance SET cost = cost + 1 WHERE id IN (" +
+                        String.join(", ", Collections.nCopies(count, "?")) + ")",
+                vehicleIds.stream().map(id -> id * RECORDS_PER_VEHICLE).toArray());
+        eventPublisher.publishEvent(MaintenanceChangedEvent.forVehicles(vehicleIds));
+    }
+
+    /**
+     * {@code vehicles} vehicles over {@link #GROUPS} make/models; vehicle {@code v}'s
+     * records have ids {@code (v - 1) * 10 + 1} to {@code v * 10}, oldest first.
+     */
+    private void seed(int vehicles) {
+        Benchmarks.clear(jdbcTemplate, "order_items_archive", "orders_archive", "order_items", "orders",
+                "maintenance", "vehicles");
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long v = 1; v <= vehicles; v++) {
+            batch.add(new Object[]{v, MAKES[(int) (v % MAKES.length)], "Model" + (v / MAKES.length % 10),
+                    String.format("%017d", v)});
+            if (batch.size() == INSERT_BATCH || v == vehicles) {
+                jdbcTemplate.batchUpdate("INSERT INTO vehicles (id, make, model, vehicle_year, vin, color, price, " +
+                        "mileage, fuel_type, transmission_type, engine_size, available, acquisition_date, version) " +
+                        "VALUES (?, ?, ?, 2018, ?, 'Black', 20000.00, 0, 'PETROL', 'MANUAL', '1.6L', true, " +
+                        "DATE '2018-01-01', 0)", batch);
+                batch.clear();
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        long records = (long) vehicles * RECORDS_PER_VEHICLE;
+        for (long id = 1; id <= records; id++) {
+            long vehicle = (id - 1) / RECORDS_PER_VEHICLE + 1;
+            int r = (int) ((id - 1) % RECORDS_PER_VEHICLE);
+            // Each vehicle's records run from about five years ago to the last few months
+            LocalDate serviceDate = today.minusDays(1800 - r * 180L + vehicle % 90);
+            batch.add(new Object[]{id, vehicle, TYPES[r % TYPES.length], Date.valueOf(serviceDate),
+                    BigDecimal.valueOf(5000 + vehicle % 40 * 100 + r * 250L, 2)});
+            if (batch.size() == INSERT_BATCH || id == records) {
+                jdbcTemplate.batchUpdate("INSERT INTO maintenance (id, vehicle_id, maintenance_type, service_date, " +
+                        "cost, service_provider, status) VALUES (?, ?, ?, ?, ?, 'Dealer', 'COMPLETED')", batch);
+                batch.clear();
+            }
+        }
+        Benchmarks.analyze(jdbcTemplate, "vehicles", "maintenance");
+    }
+}
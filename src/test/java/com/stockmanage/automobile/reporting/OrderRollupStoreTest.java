@@ -0,0 +1,104 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.dto.OrderStatsDTO;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Orders written concurrently land in different stripes of the same rollup keys,
+ * and reads add the stripes back up to the exact totals.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderRollupStoreTest {
+
+    private static final int ORDERS = 200;
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2031, 3, 14, 10, 0);
+
+    @Autowired
+    private OrderRollupStore rollupStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentOrdersAreSpreadOverStripesAndSummedOnRead() throws Exception {
+        User customer = TestEntities.user("rollup-stripes", User.Role.CUSTOMER);
+        Vehicle toyota = TestEntities.vehicle("ROLLUP-TOYOTA");
+        Vehicle ford = TestEntities.vehicle("ROLLUP-FORD");
+        ford.setMake("Ford");
+        ford.setPrice(new BigDecimal("30000.00"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                boolean cancelled = i % 4 == 0;
+                writes.add(executor.submit(() -> {
+                    Order order = TestEntities.order("ROLLUP", customer, ORDER_DATE, Order.OrderStatus.PENDING,
+                            toyota, ford);
+                    OrderRollupStore.Delta placed = new OrderRollupStore.Delta();
+                    placed.add(order, order.getOrderItems(), 1);
+                    rollupStore.apply(placed);
+                    if (cancelled) {
+                        // The cancellation usually lands in another stripe than the order
+                        OrderRollupStore.Delta cancel = new OrderRollupStore.Delta();
+                        cancel.add(order, order.getOrderItems(), -1);
+                        order.setStatus(Order.OrderStatus.CANCELLED);
+                        cancel.add(order, order.getOrderItems(), 1);
+                        rollupStore.apply(cancel);
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer stripes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT stripe) FROM order_rollups WHERE granularity = 'DAY' AND bucket_start = ? " +
+                "AND status = 'PENDING' AND make = '*'", Integer.class, ORDER_DATE.toLocalDate());
+        assertThat(stripes).isGreaterThan(1);
+
+        List<OrderStatsDTO> stats = rollupStore.read(RollupBucket.DAY, ORDER_DATE.toLocalDate(),
+                ORDER_DATE.toLocalDate());
+        assertThat(stats).hasSize(1);
+        OrderStatsDTO day = stats.get(0);
+        assertThat(day.getOrderCount()).isEqualTo(ORDERS);
+        assertThat(day.getUnits()).isEqualTo(2L * ORDERS);
+        assertThat(day.getRevenue()).isEqualByComparingTo(new BigDecimal("50000.00").multiply(BigDecimal.valueOf(ORDERS)));
+        assertThat(day.getByStatus().get("PENDING").getOrderCount()).isEqualTo(150);
+        assertThat(day.getByStatus().get("CANCELLED").getOrderCount()).isEqualTo(50);
+        assertThat(day.getByMake().get("Ford").getOrderCount()).isEqualTo(ORDERS);
+        assertThat(day.getByMake().get("Ford").getRevenue())
+                .isEqualByComparingTo(new BigDecimal("30000.00").multiply(BigDecimal.valueOf(ORDERS)));
+
+        List<OrderStatsDTO> month = rollupStore.read(RollupBucket.MONTH, LocalDate.of(2031, 3, 1),
+                LocalDate.of(2031, 3, 31));
+        assertThat(month).hasSize(1);
+        assertThat(month.get(0).getOrderCount()).isEqualTo(ORDERS);
+        assertThat(month.get(0).getByStatus().get("CANCELLED").getUnits()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,162 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.Benchmark;
+import com.stockmanage.automobile.Benchmarks;
+import com.stockmanage.automobile.dto.SalesVelocityDTO;
+import com.stockmanage.automobile.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sales velocity report on a synthetic dataset of 1M orders, each selling one
+ * vehicle, plus 10% more vehicles still in stock, over 80 make/model groups. Times
+ * the snapshot read, the fork-join calculation against a single-threaded pool, the
+ * report end to end, and on PostgreSQL the same percentiles as one ad hoc SQL query.
+ * Bytes per operation count the calling thread only, not the fork-join workers.
+ *
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=SalesVelocityBenchmark -Dbenchmark.orders=1000000
+ * </pre>
+ */
+@Benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+class SalesVelocityBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesVelocityBenchmark.class);
+
+    private static final String[] MAKES = {"Ford", "Toyota", "BMW", "Audi", "Honda", "Kia", "Mazda", "Tesla"};
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final LocalDate FIRST_ACQUISITION = LocalDate.of(2022, 1, 1);
+
+    private static final String AD_HOC_SQL =
+            "SELECT make, model, COUNT(*), AVG(days), " +
+            "percentile_disc(0.5) WITHIN GROUP (ORDER BY days), percentile_disc(0.9) WITHIN GROUP (ORDER BY days) " +
+            "FROM (SELECT v.make, v.model, GREATEST(0, MIN(o.order_date)::date - v.acquisition_date) AS days " +
+            "FROM vehicles v JOIN order_items i ON i.vehicle_id = v.id JOIN orders o ON o.id = i.order_id " +
+            "WHERE NOT v.available GROUP BY v.id) sold GROUP BY make, model";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        Benchmarks.usePostgresIfAvailable(registry);
+    }
+
+    @Autowired
+    private SalesVelocityReader reader;
+
+    @Autowired
+    private SalesVelocityCalculator calculator;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void velocityReport() {
+        int orders = Benchmarks.intProperty("benchmark.orders", 1_000_000);
+        int warmups = Benchmarks.intProperty("benchmark.warmups", 2);
+        int iterations = Benchmarks.intProperty("benchmark.iterations", 10);
+        long started = System.nanoTime();
+        seed(orders);
+        logger.info(String.format("%,d orders seeded in %d ms", orders, (System.nanoTime() - started) / 1_000_000));
+
+        LocalDate asOf = LocalDate.now();
+        List<VelocitySamples> samples = reader.read(asOf);
+        SalesVelocityDTO report = analyticsService.getSalesVelocity(true);
+        assertThat(report.getGroups()).hasSize(MAKES.length * 10);
+        assertThat(report.getGroups().stream().mapToLong(SalesVelocityDTO.Group::getSoldCount).sum())
+                .isEqualTo(orders);
+
+        SalesVelocityCalculator singleThreaded = new SalesVelocityCalculator(1);
+        try {
+            assertThat(singleThreaded.calculate(samples)).isEqualTo(calculator.calculate(samples));
+
+            logger.info(String.format("%-32s %s", "step", Benchmarks.Measurement.header()));
+            log("read snapshot", Benchmarks.measure(warmups, iterations, () -> reader.read(asOf)));
+            log("calculate, fork-join", Benchmarks.measure(warmups, iterations, () -> calculator.calculate(samples)));
+            log("calculate, one thread",
+                    Benchmarks.measure(warmups, iterations, () -> singleThreaded.calculate(samples)));
+            log("report end to end",
+                    Benchmarks.measure(warmups, iterations, () -> analyticsService.getSalesVelocity(true)));
+            log("report from cache",
+                    Benchmarks.measure(warmups, iterations, () -> analyticsService.getSalesVelocity(false)));
+            if (Benchmarks.onPostgres(jdbcTemplate)) {
+                log("ad hoc SQL, sold figures only",
+                        Benchmarks.measure(warmups, iterations, () -> jdbcTemplate.queryForList(AD_HOC_SQL)));
+            }
+        } finally {
+            singleThreaded.shutdown();
+        }
+    }
+
+    private static void log(String step, Benchmarks.Measurement measurement) {
+        logger.info(String.format("%-32s %s", step, measurement));
+    }
+
+    /**
+     * One customer; vehicle {@code g} is sold by order {@code g} between 0 and 364
+     * days after it was acquired, and the vehicles after the last order are in stock.
+     */
+    private void seed(int orders) {
+        Benchmarks.clear(jdbcTemplate, "order_items_archive", "orders_archive", "order_items", "orders",
+                "maintenance", "vehicles", "users");
+        jdbcTemplate.update("INSERT INTO users (id, username, password, first_name, last_name, email, role) " +
+                "VALUES (1, 'velocity', 'secret', 'Velocity', 'Customer', 'velocity@example.com', 'CUSTOMER')");
+
+        int vehicles = orders + orders / 10;
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long g = 1; g <= vehicles; g++) {
+            batch.add(new Object[]{g, MAKES[(int) (g % MAKES.length)], "Model" + (g / MAKES.length % 10),
+                    2020, String.format("%017d", g), new BigDecimal("20000.00"), g > orders,
+                    Date.valueOf(acquired(g))});
+            if (batch.size() == INSERT_BATCH || g == vehicles) {
+                jdbcTemplate.batchUpdate("INSERT INTO vehicles (id, make, model, vehicle_year, vin, color, price, " +
+                        "mileage, fuel_type, transmission_type, engine_size, available, acquisition_date, version) " +
+                        "VALUES (?, ?, ?, ?, ?, 'Black', ?, 0, 'PETROL', 'MANUAL', '1.6L', ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+
+        List<Object[]> items = new ArrayList<>(INSERT_BATCH);
+        for (long g = 1; g <= orders; g++) {
+            // Spread by group so the groups sell at different speeds
+            int daysToSell = (int) ((g * 7919 % 365) * (1 + g % MAKES.length) / MAKES.length);
+            Timestamp orderDate = Timestamp.valueOf(acquired(g).plusDays(daysToSell).atTime(10, 0));
+            batch.add(new Object[]{g, "VELOCITY-" + g, orderDate, g, orderDate});
+            items.add(new Object[]{g, g, g});
+            if (batch.size() == INSERT_BATCH || g == orders) {
+                jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_number, order_date, total_amount, status, " +
+                        "customer_id, vehicle_id, created_at) VALUES (?, ?, ?, 20000.00, 'DELIVERED', 1, ?, ?)", batch);
+                jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, vehicle_id, price, quantity, " +
+                        "subtotal, is_paid) VALUES (?, ?, ?, 20000.00, 1, 20000.00, true)", items);
+                batch.clear();
+                items.clear();
+            }
+        }
+        Benchmarks.analyze(jdbcTemplate, "vehicles", "orders", "order_items");
+    }
+
+    private static LocalDate acquired(long vehicle) {
+        return FIRST_ACQUISITION.plusDays(vehicle % 1000);
+    }
+}
@@ -0,0 +1,100 @@
+package com.stockmanage.automobile.reporting;
+
+import com.stockmanage.automobile.dto.SalesVelocityDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesVelocityCalculatorTest {
+
+    private final SalesVelocityCalculator calculator = new SalesVelocityCalculator(4);
+
+    @AfterEach
+    void shutdown() {
+        calculator.shutdown();
+    }
+
+    @Test
+    void summarizesEachGroupWithNearestRankPercentiles() {
+        VelocitySamples corolla = new VelocitySamples("Toyota", "Corolla");
+        for (int days : new int[]{40, 10, 30, 20, 100, 50, 60, 70, 80, 90}) {
+            corolla.addSold(days);
+        }
+        corolla.addInStock(5);
+        corolla.addInStock(200);
+        corolla.addInStock(15);
+
+        SalesVelocityDTO.Group group = calculator.calculate(List.of(corolla)).get(0);
+
+        assertThat(group.getMake()).isEqualTo("Toyota");
+        assertThat(group.getModel()).isEqualTo("Corolla");
+        assertThat(group.getSoldCount()).isEqualTo(10);
+        assertThat(group.getAverageDaysToSell()).isEqualTo(55.0);
+        assertThat(group.getP50DaysToSell()).isEqualTo(50);
+        assertThat(group.getP90DaysToSell()).isEqualTo(90);
+        assertThat(group.getInStockCount()).isEqualTo(3);
+        assertThat(group.getP50DaysInStock()).isEqualTo(15);
+        assertThat(group.getP90DaysInStock()).isEqualTo(200);
+        assertThat(group.getMaxDaysInStock()).isEqualTo(200);
+    }
+
+    @Test
+    void groupWithoutSalesHasNoSellFigures() {
+        VelocitySamples unsold = new VelocitySamples("Kia", "Rio");
+        unsold.addInStock(12);
+
+        SalesVelocityDTO.Group group = calculator.calculate(List.of(unsold)).get(0);
+
+        assertThat(group.getSoldCount()).isZero();
+        assertThat(group.getAverageDaysToSell()).isNull();
+        assertThat(group.getP50DaysToSell()).isNull();
+        assertThat(group.getMaxDaysInStock()).isEqualTo(12);
+    }
+
+    @Test
+    void ordersFastestSellingFirstAndUnsoldLast() {
+        VelocitySamples slow = new VelocitySamples("Ford", "Focus");
+        slow.addSold(90);
+        VelocitySamples unsold = new VelocitySamples("Audi", "A4");
+        unsold.addInStock(3);
+        VelocitySamples fast = new VelocitySamples("Honda", "Civic");
+        fast.addSold(7);
+        VelocitySamples tied = new VelocitySamples("BMW", "X1");
+        tied.addSold(7);
+
+        List<SalesVelocityDTO.Group> groups = calculator.calculate(List.of(slow, unsold, fast, tied));
+
+        assertThat(groups).extracting(SalesVelocityDTO.Group::getModel)
+                .containsExactly("X1", "Civic", "Focus", "A4");
+    }
+
+    @Test
+    void largeGroupsSplitAcrossTasksKeepEveryGroup() {
+        // Well above the split and parallel sort thresholds
+        List<VelocitySamples> samples = new ArrayList<>();
+        for (int g = 0; g < 6; g++) {
+            VelocitySamples group = new VelocitySamples("Make" + g, "Model" + g);
+            for (int i = 100_000; i > 0; i--) {
+                group.addSold(g + i);
+            }
+            group.addInStock(g);
+            samples.add(group);
+        }
+
+        List<SalesVelocityDTO.Group> groups = calculator.calculate(samples);
+
+        assertThat(groups).hasSize(6);
+        for (int g = 0; g < 6; g++) {
+            SalesVelocityDTO.Group group = groups.get(g);
+            assertThat(group.getModel()).isEqualTo("Model" + g);
+            assertThat(group.getSoldCount()).isEqualTo(100_000);
+            assertThat(group.getP50DaysToSell()).isEqualTo(g + 50_000);
+            assertThat(group.getP90DaysToSell()).isEqualTo(g + 90_000);
+            assertThat(group.getAverageDaysToSell()).isEqualTo(g + 50_000.5);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.stockmanage.automobile.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.model.Vehicle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the vehicle indexes in schema.sql: every filter combination of
+ * {@code GET /api/vehicles/query} that an index is meant to serve must plan without
+ * a sequential scan of {@code vehicles}. The statements are the ones Hibernate
+ * generates from {@link VehicleSpecifications}, explained as generic plans (as a
+ * prepared statement runs them) over an analyzed table of 200,000 vehicles.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.sql.init.data-locations=optional:classpath:no-data.sql",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.stockmanage.automobile.repository.RecordingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VehicleQueryPlanTest {
+
+    private static final int VEHICLES = 200_000;
+
+    private static final int PAGE_SIZE = CursorPage.DEFAULT_LIMIT;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    void loadVehicles() {
+        // 8 makes x 40 models, 35 years, about 90% available
+        jdbcTemplate.update("INSERT INTO vehicles (make, model, vehicle_year, vin, color, price, mileage, " +
+                "fuel_type, transmission_type, engine_size, available) " +
+                "SELECT (ARRAY['Ford','Toyota','BMW','Audi','Honda','Kia','Mazda','Tesla'])[1 + g % 8], " +
+                "'Model' || (g / 8 % 40), 1990 + g % 35, LPAD(g::text, 17, '0'), 'Red', " +
+                "5000 + g::bigint * 7919 % 95000, g::bigint * 104729 % 300000, " +
+                "(ARRAY['PETROL','DIESEL','ELECTRIC','HYBRID','LPG'])[1 + g % 5], " +
+                "(ARRAY['MANUAL','AUTOMATIC','SEMI_AUTOMATIC'])[1 + g / 5 % 3], '2.0L', g % 10 <> 0 " +
+                "FROM generate_series(1, ?) g", VEHICLES);
+        jdbcTemplate.execute("ANALYZE vehicles");
+    }
+
+    static Stream<Arguments> indexedQueries() {
+        return Stream.of(
+                query("fuel type and transmission by price", "price", null, q -> {
+                    q.setFuelType(Vehicle.FuelType.DIESEL);
+                    q.setTransmissionType(Vehicle.TransmissionType.AUTOMATIC);
+                }),
+                query("fuel type, transmission, price range and mileage", "-price", null, q -> {
+                    q.setFuelType(Vehicle.FuelType.ELECTRIC);
+                    q.setTransmissionType(Vehicle.TransmissionType.MANUAL);
+                    q.setMinPrice(new BigDecimal("20000"));
+                    q.setMaxPrice(new BigDecimal("30000"));
+                    q.setMaxMileage(50000);
+                }),
+                query("make and model by year", "year", null, q -> {
+                    q.setMake("Toyota");
+                    q.setModel("Model7");
+                }),
+                query("make, model and year range", "id", null, q -> {
+                    q.setMake("bmw");
+                    q.setModel("model12");
+                    q.setMinYear(2015);
+                    q.setMaxYear(2020);
+                }),
+                query("make", "id", null, q -> q.setMake("Audi")),
+                query("price range by price", "price", null, q -> {
+                    q.setMinPrice(new BigDecimal("15000"));
+                    q.setMaxPrice(new BigDecimal("16000"));
+                }),
+                query("price range, next page", "price", "15500.00:1234", q -> {
+                    q.setMinPrice(new BigDecimal("15000"));
+                    q.setMaxPrice(new BigDecimal("16000"));
+                }),
+                query("all stock by price", "price", null, q -> { }),
+                query("all stock by price, descending", "-price", null, q -> { }),
+                query("all stock by mileage", "mileage", null, q -> { }),
+                query("all stock by mileage, next page", "mileage", "120000:999", q -> { }),
+                query("maximum mileage", "mileage", null, q -> q.setMaxMileage(10000)),
+                query("all stock by year", "-year", null, q -> { }),
+                query("year range", "year", null, q -> {
+                    q.setMinYear(2001);
+                    q.setMaxYear(2002);
+                }),
+                // Make/model lookups also cover sold stock
+                Arguments.of("make and model, any availability", criteria("id", q -> {
+                    q.setMake("Kia");
+                    q.setModel("Model3");
+                }), null),
+                Arguments.of("sold make and model", criteria("id", q -> {
+                    q.setMake("Kia");
+                    q.setModel("Model3");
+                    q.setAvailable(false);
+                }), null)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("indexedQueries")
+    void indexedQueryDoesNotScanVehicles(String name, VehicleQueryDTO query, String afterKey) throws Exception {
+        VehicleSpecifications.VehicleSort sort = VehicleSpecifications.VehicleSort.parse(query.getSort());
+        var spec = VehicleSpecifications.matching(query);
+        if (afterKey != null) {
+            spec = spec.and(sort.after(afterKey));
+        }
+
+        RecordingStatementInspector.clear();
+        vehicleRepository.findBy(spec, q -> q.sortBy(sort.toSort()).limit(PAGE_SIZE + 1).all());
+        String sql = RecordingStatementInspector.statements().stream()
+                .filter(statement -> statement.contains("vehicles"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+
+        String plan = explain(numbered(sql));
+        List<String> scans = new ArrayList<>();
+        collectSeqScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        assertThat(scans)
+                .as("sequential scans for %s in%n%s%n%s", name, sql, plan)
+                .isEmpty();
+    }
+
+    private static Arguments query(String name, String sort, String afterKey, Consumer<VehicleQueryDTO> filters) {
+        return Arguments.of(name, criteria(sort, query -> {
+            query.setAvailable(true);
+            filters.accept(query);
+        }), afterKey);
+    }
+
+    private static VehicleQueryDTO criteria(String sort, Consumer<VehicleQueryDTO> filters) {
+        VehicleQueryDTO query = new VehicleQueryDTO();
+        query.setSort(sort);
+        filters.accept(query);
+        return query;
+    }
+
+    /**
+     * Explains a statement with $n placeholders as a generic plan. The simple query
+     * protocol is used so the driver sends the placeholders as they are.
+     */
+    private static String explain(String sql) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", postgres.getUsername());
+        properties.setProperty("password", postgres.getPassword());
+        properties.setProperty("preferQueryMode", "simple");
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), properties);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON, GENERIC_PLAN) " + sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    /**
+     * Rewrites JDBC placeholders as $1, $2, ... so the statement can be explained without values.
+     */
+    private static String numbered(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> scans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && "vehicles".equals(node.path("Relation Name").asText())) {
+            scans.add(node.toString());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, scans);
+        }
+    }
+}
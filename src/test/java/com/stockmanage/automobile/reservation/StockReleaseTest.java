@@ -0,0 +1,99 @@
+package com.stockmanage.automobile.reservation;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.model.ArchivedOrder;
+import com.stockmanage.automobile.model.ArchivedOrderItem;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.ArchivedOrderItemRepository;
+import com.stockmanage.automobile.repository.ArchivedOrderRepository;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Releasing stock must respect archived orders: a vehicle delivered by an order
+ * that has since been archived stays sold.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReleaseTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2020, 5, 4, 9, 30);
+
+    @Autowired
+    private StockRelease stockRelease;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void vehiclesOfArchivedDeliveredOrdersStaySold() {
+        User customer = userRepository.save(TestEntities.user("stock-release", User.Role.CUSTOMER));
+        Vehicle delivered = sold("RELEASE-DELIVERED");
+        Vehicle cancelled = sold("RELEASE-CANCELLED");
+        Vehicle unordered = sold("RELEASE-UNORDERED");
+        archive(900_001L, customer, delivered, Order.OrderStatus.DELIVERED);
+        archive(900_002L, customer, cancelled, Order.OrderStatus.CANCELLED);
+
+        Integer released = transactionTemplate.execute(status -> stockRelease.releaseVehicles(
+                List.of(delivered.getId(), cancelled.getId(), unordered.getId())));
+
+        assertThat(released).isEqualTo(2);
+        assertThat(vehicleRepository.findById(delivered.getId()).orElseThrow().getAvailable()).isFalse();
+        assertThat(vehicleRepository.findById(cancelled.getId()).orElseThrow().getAvailable()).isTrue();
+        assertThat(vehicleRepository.findById(unordered.getId()).orElseThrow().getAvailable()).isTrue();
+    }
+
+    private Vehicle sold(String vin) {
+        Vehicle vehicle = TestEntities.vehicle(vin);
+        vehicle.setAvailable(false);
+        return vehicleRepository.save(vehicle);
+    }
+
+    private void archive(Long orderId, User customer, Vehicle vehicle, Order.OrderStatus status) {
+        ArchivedOrder order = new ArchivedOrder();
+        order.setId(orderId);
+        order.setOrderNumber("ARCHIVED-" + orderId);
+        order.setUser(customer);
+        order.setVehicle(vehicle);
+        order.setOrderDate(ORDER_DATE);
+        order.setStatus(status);
+        order.setTotalAmount(vehicle.getPrice());
+        order.setArchivedAt(ORDER_DATE.plusYears(2));
+        archivedOrderRepository.save(order);
+
+        ArchivedOrderItem item = new ArchivedOrderItem();
+        item.setId(orderId);
+        item.setOrderId(orderId);
+        item.setOrderDate(ORDER_DATE);
+        item.setVehicle(vehicle);
+        item.setQuantity(1);
+        item.setUnitPrice(vehicle.getPrice());
+        item.setSubtotal(vehicle.getPrice());
+        item.setIsPaid(true);
+        archivedOrderItemRepository.save(item);
+    }
+}
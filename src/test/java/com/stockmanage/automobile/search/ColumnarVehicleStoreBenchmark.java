@@ -0,0 +1,227 @@
+package com.stockmanage.automobile.search;
+
+import com.stockmanage.automobile.Benchmark;
+import com.stockmanage.automobile.Benchmarks;
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.VehicleSpecifications.VehicleSort;
+import com.stockmanage.automobile.service.VehicleService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Faceted vehicle queries on the columnar store against the SQL backend at 1M and
+ * 10M vehicles. Each query's first page is checked to be the same on both before
+ * it is timed.
+ *
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=ColumnarVehicleStoreBenchmark -Dbenchmark.rows=1000000,10000000
+ * </pre>
+ *
+ * 10M rows need about 8 GB of heap for the store's copies of the vehicles.
+ */
+@Benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+class ColumnarVehicleStoreBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarVehicleStoreBenchmark.class);
+
+    private static final String[] MAKES = {"Ford", "Toyota", "BMW", "Audi", "Honda", "Kia", "Mazda", "Tesla"};
+    private static final String[] COLORS = {"Black", "White", "Silver", "Red", "Blue", "Grey"};
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final String INSERT_SQL = "INSERT INTO vehicles (id, make, model, vehicle_year, vin, color, " +
+            "price, mileage, fuel_type, transmission_type, engine_size, available, acquisition_date, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        Benchmarks.usePostgresIfAvailable(registry);
+    }
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void columnarStoreAgainstSql() {
+        int warmups = Benchmarks.intProperty("benchmark.warmups", 10);
+        int iterations = Benchmarks.intProperty("benchmark.iterations", 50);
+        for (int rows : Benchmarks.sizes("benchmark.rows", "1000000,10000000")) {
+            long started = System.nanoTime();
+            seed(rows);
+            long seeded = System.nanoTime();
+            ColumnarVehicleStore store = load();
+            logger.info(String.format("%,d vehicles: seeded in %d ms, columnar store loaded in %d ms", rows,
+                    (seeded - started) / 1_000_000, (System.nanoTime() - seeded) / 1_000_000));
+
+            logger.info(String.format("%-45s %-8s %s", "query", "backend", Benchmarks.Measurement.header()));
+            queries().forEach((name, query) -> {
+                VehicleQueryDTO criteria = query.criteria();
+                VehicleSort sort = VehicleSort.parse(criteria.getSort());
+                String cursor = query.afterKey() != null ? CursorPage.encodeKey(query.afterKey()) : null;
+                int limit = CursorPage.DEFAULT_LIMIT;
+
+                List<Long> sqlIds = ids(vehicleService.queryVehicles(criteria, cursor, limit).getItems());
+                List<Long> columnarIds = ids(store.query(criteria, sort, query.afterKey(), limit).getItems());
+                assertThat(columnarIds).as(name).isEqualTo(sqlIds);
+
+                Benchmarks.Measurement sql = Benchmarks.measure(warmups, iterations,
+                        () -> vehicleService.queryVehicles(criteria, cursor, limit));
+                Benchmarks.Measurement columnar = Benchmarks.measure(warmups, iterations,
+                        () -> store.query(criteria, sort, query.afterKey(), limit));
+                logger.info(String.format("%-45s %-8s %s", name, "SQL", sql));
+                logger.info(String.format("%-45s %-8s %s", "", "columnar", columnar));
+            });
+        }
+    }
+
+    /**
+     * Replaces the vehicles with {@code rows} generated ones: 8 makes of 40 models,
+     * 35 years, 5 fuel types, 3 transmissions, about 90% available.
+     */
+    private void seed(int rows) {
+        Benchmarks.clear(jdbcTemplate, "vehicles");
+        Vehicle.FuelType[] fuelTypes = Vehicle.FuelType.values();
+        Vehicle.TransmissionType[] transmissions = Vehicle.TransmissionType.values();
+        LocalDate firstAcquisition = LocalDate.of(2020, 1, 1);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long g = 1; g <= rows; g++) {
+            batch.add(new Object[]{g, MAKES[(int) (g % MAKES.length)], "Model" + (g / MAKES.length % 40),
+                    1990 + (int) (g % 35), String.format("%017d", g), COLORS[(int) (g % COLORS.length)],
+                    BigDecimal.valueOf(5000 + g * 7919 % 95000), (int) (g * 104729 % 300000),
+                    fuelTypes[(int) (g % fuelTypes.length)].name(),
+                    transmissions[(int) (g / 5 % transmissions.length)].name(), "2.0L", g % 10 != 0,
+                    Date.valueOf(firstAcquisition.plusDays(g % 1500))});
+            if (batch.size() == INSERT_BATCH || g == rows) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        Benchmarks.analyze(jdbcTemplate, "vehicles");
+    }
+
+    /**
+     * Loads a columnar store with the vehicles as the SQL backend returns them,
+     * streamed in id order. Repeated strings share one instance, as they do in
+     * the startup load where Hibernate reads them.
+     */
+    private ColumnarVehicleStore load() {
+        ColumnarVehicleStore store = new ColumnarVehicleStore(ColumnarVehicleStore.Backend.COLUMNAR);
+        Map<String, String> strings = new HashMap<>();
+        store.beginLoad();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            List<VehicleDTO> batch = new ArrayList<>(INSERT_BATCH);
+            jdbcTemplate.setFetchSize(INSERT_BATCH);
+            try {
+                jdbcTemplate.query("SELECT id, make, model, vehicle_year, vin, color, price, mileage, fuel_type, " +
+                        "transmission_type, engine_size, available, acquisition_date FROM vehicles ORDER BY id", rs -> {
+                    VehicleDTO vehicle = new VehicleDTO();
+                    vehicle.setId(rs.getLong("id"));
+                    vehicle.setMake(strings.computeIfAbsent(rs.getString("make"), s -> s));
+                    vehicle.setModel(strings.computeIfAbsent(rs.getString("model"), s -> s));
+                    vehicle.setVehicleYear(rs.getInt("vehicle_year"));
+                    vehicle.setVin(rs.getString("vin"));
+                    vehicle.setColor(strings.computeIfAbsent(rs.getString("color"), s -> s));
+                    vehicle.setPrice(rs.getBigDecimal("price").toString());
+                    vehicle.setMileage(rs.getInt("mileage"));
+                    vehicle.setFuelType(Vehicle.FuelType.valueOf(rs.getString("fuel_type")));
+                    vehicle.setTransmissionType(Vehicle.TransmissionType.valueOf(rs.getString("transmission_type")));
+                    vehicle.setEngineSize(strings.computeIfAbsent(rs.getString("engine_size"), s -> s));
+                    vehicle.setAvailable(rs.getBoolean("available"));
+                    vehicle.setAcquisitionDate(rs.getDate("acquisition_date").toLocalDate());
+                    batch.add(vehicle);
+                    if (batch.size() == INSERT_BATCH) {
+                        store.load(batch);
+                        batch.clear();
+                    }
+                });
+            } finally {
+                jdbcTemplate.setFetchSize(-1);
+            }
+            store.load(batch);
+        });
+        store.finishLoad();
+        return store;
+    }
+
+    private static Map<String, Query> queries() {
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("fuel type and transmission by price", query("price", null, q -> {
+            q.setAvailable(true);
+            q.setFuelType(Vehicle.FuelType.DIESEL);
+            q.setTransmissionType(Vehicle.TransmissionType.AUTOMATIC);
+        }));
+        queries.put("fuel, transmission, price range, mileage", query("-price", null, q -> {
+            q.setAvailable(true);
+            q.setFuelType(Vehicle.FuelType.ELECTRIC);
+            q.setTransmissionType(Vehicle.TransmissionType.MANUAL);
+            q.setMinPrice(new BigDecimal("20000"));
+            q.setMaxPrice(new BigDecimal("30000"));
+            q.setMaxMileage(50000);
+        }));
+        queries.put("make and model by year", query("year", null, q -> {
+            q.setAvailable(true);
+            q.setMake("Toyota");
+            q.setModel("Model7");
+        }));
+        queries.put("price range by price, next page", query("price", "15500.00:1234", q -> {
+            q.setAvailable(true);
+            q.setMinPrice(new BigDecimal("15000"));
+            q.setMaxPrice(new BigDecimal("16000"));
+        }));
+        queries.put("all stock by mileage", query("mileage", null, q -> q.setAvailable(true)));
+        queries.put("year range, any availability", query("year", null, q -> {
+            q.setMinYear(2001);
+            q.setMaxYear(2002);
+        }));
+        queries.put("nothing matches", query("id", null, q -> q.setMake("Lada")));
+        return queries;
+    }
+
+    private static Query query(String sort, String afterKey, Consumer<VehicleQueryDTO> filters) {
+        VehicleQueryDTO criteria = new VehicleQueryDTO();
+        criteria.setSort(sort);
+        filters.accept(criteria);
+        return new Query(criteria, afterKey);
+    }
+
+    private static List<Long> ids(List<VehicleDTO> vehicles) {
+        return vehicles.stream().map(VehicleDTO::getId).toList();
+    }
+
+    private record Query(VehicleQueryDTO criteria, String afterKey) {
+    }
+}
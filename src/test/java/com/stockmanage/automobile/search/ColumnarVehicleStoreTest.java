@@ -0,0 +1,165 @@
+package com.stockmanage.automobile.search;
+
+import com.stockmanage.automobile.dto.CursorPage;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleQueryDTO;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.repository.VehicleSpecifications.VehicleSort;
+import com.stockmanage.automobile.service.VehicleService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The columnar backend must page through every faceted query exactly as the SQL
+ * backend does: the same vehicles, in the same order, with the same cursors.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ColumnarVehicleStoreTest {
+
+    private static final int VEHICLES = 600;
+
+    private static final int PAGE_SIZE = 7;
+
+    private static final String[][] MODELS = {
+            {"Toyota", "Corolla", "Camry", "Yaris"},
+            {"Ford", "Focus", "Fiesta", "Kuga"},
+            {"BMW", "X1", "X3", "320i"},
+            {"kia", "Rio", "Ceed", "Sportage"}
+    };
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private final ColumnarVehicleStore store = new ColumnarVehicleStore(ColumnarVehicleStore.Backend.COLUMNAR);
+
+    @BeforeAll
+    void loadVehicles() {
+        // Few distinct prices, mileages and years, so most sort values are shared and ties are broken by id
+        Random random = new Random(42);
+        List<Vehicle> vehicles = new ArrayList<>(VEHICLES);
+        for (int i = 0; i < VEHICLES; i++) {
+            String[] make = MODELS[random.nextInt(MODELS.length)];
+            Vehicle vehicle = new Vehicle();
+            vehicle.setMake(make[0]);
+            vehicle.setModel(make[1 + random.nextInt(make.length - 1)]);
+            vehicle.setVehicleYear(2010 + random.nextInt(15));
+            vehicle.setVin("COLUMNAR-" + i);
+            vehicle.setColor("Black");
+            vehicle.setPrice(new BigDecimal(8000 + 500 * random.nextInt(40) + (random.nextBoolean() ? "" : ".99")));
+            vehicle.setMileage(5000 * random.nextInt(30));
+            vehicle.setFuelType(Vehicle.FuelType.values()[random.nextInt(Vehicle.FuelType.values().length)]);
+            vehicle.setTransmissionType(Vehicle.TransmissionType.values()[
+                    random.nextInt(Vehicle.TransmissionType.values().length)]);
+            vehicle.setEngineSize("2.0L");
+            vehicle.setAvailable(random.nextInt(5) != 0);
+            vehicle.setAcquisitionDate(LocalDate.of(2024, 1, 1));
+            vehicles.add(vehicle);
+        }
+        vehicleRepository.saveAll(vehicles);
+
+        // The store is loaded with the DTOs the SQL backend returns, as the startup load does
+        store.beginLoad();
+        store.load(walkSql(new VehicleQueryDTO(), CursorPage.MAX_LIMIT).stream()
+                .flatMap(page -> page.getItems().stream())
+                .toList());
+        store.finishLoad();
+    }
+
+    static Stream<Arguments> queries() {
+        List<Arguments> queries = new ArrayList<>();
+        for (String sort : List.of("id", "-id", "price", "-price", "mileage", "-mileage", "year", "-year")) {
+            queries.add(query("everything", sort, q -> { }));
+            queries.add(query("available", sort, q -> q.setAvailable(true)));
+            queries.add(query("sold", sort, q -> q.setAvailable(false)));
+            queries.add(query("make ignoring case", sort, q -> q.setMake(" KIA ")));
+            queries.add(query("make and model", sort, q -> {
+                q.setMake("toyota");
+                q.setModel("corolla");
+            }));
+            queries.add(query("fuel type and transmission", sort, q -> {
+                q.setFuelType(Vehicle.FuelType.DIESEL);
+                q.setTransmissionType(Vehicle.TransmissionType.AUTOMATIC);
+                q.setAvailable(true);
+            }));
+            queries.add(query("year and price range", sort, q -> {
+                q.setMinYear(2014);
+                q.setMaxYear(2019);
+                q.setMinPrice(new BigDecimal("10000.50"));
+                q.setMaxPrice(new BigDecimal("20000.99"));
+            }));
+            queries.add(query("maximum mileage", sort, q -> q.setMaxMileage(50000)));
+            queries.add(query("nothing matches", sort, q -> q.setMake("Lada")));
+        }
+        return queries.stream();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void columnarPagesMatchSqlPages(String name, VehicleQueryDTO query) {
+        List<CursorPage<VehicleDTO>> sqlPages = walkSql(query, PAGE_SIZE);
+        List<CursorPage<VehicleDTO>> columnarPages = walkColumnar(query, PAGE_SIZE);
+
+        assertThat(columnarPages).hasSameSizeAs(sqlPages);
+        for (int i = 0; i < sqlPages.size(); i++) {
+            assertThat(ids(columnarPages.get(i))).as("page %d", i).isEqualTo(ids(sqlPages.get(i)));
+            assertThat(columnarPages.get(i).getNextCursor()).as("cursor of page %d", i)
+                    .isEqualTo(sqlPages.get(i).getNextCursor());
+        }
+    }
+
+    private List<CursorPage<VehicleDTO>> walkSql(VehicleQueryDTO query, int limit) {
+        List<CursorPage<VehicleDTO>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<VehicleDTO> page = vehicleService.queryVehicles(query, cursor, limit);
+            pages.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private List<CursorPage<VehicleDTO>> walkColumnar(VehicleQueryDTO query, int limit) {
+        VehicleSort sort = VehicleSort.parse(query.getSort());
+        List<CursorPage<VehicleDTO>> pages = new ArrayList<>();
+        String key = null;
+        do {
+            ColumnarVehicleStore.Result result = store.query(query, sort, key, limit);
+            key = result.getNextKey();
+            pages.add(new CursorPage<>(result.getItems(), key != null ? CursorPage.encodeKey(key) : null, limit));
+        } while (key != null);
+        return pages;
+    }
+
+    private static Arguments query(String name, String sort, Consumer<VehicleQueryDTO> filters) {
+        VehicleQueryDTO query = new VehicleQueryDTO();
+        query.setSort(sort);
+        filters.accept(query);
+        return Arguments.of(name + " by " + sort, query);
+    }
+
+    private static List<Long> ids(CursorPage<VehicleDTO> page) {
+        return page.getItems().stream().map(VehicleDTO::getId).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.stockmanage.automobile.search;
+
+import com.stockmanage.automobile.dto.VehicleDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VehicleSearchIndexTest {
+
+    private VehicleSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VehicleSearchIndex(100);
+        index.upsert(List.of(
+                vehicle(1L, "Toyota", "Corolla", "Silver", "Reliable family car"),
+                vehicle(2L, "Chevrolet", "Camaro", "Yellow", "Sporty coupe with a V8"),
+                vehicle(3L, "Ford", "Mustang", "Red", "Classic coupe"),
+                vehicle(4L, "Toyota", "Camry", "Blue", "Comfortable sedan")));
+        index.markReady();
+    }
+
+    @Test
+    void matchesWordPrefixes() {
+        assertThat(ids(index.search("toyo", 10))).containsExactlyInAnyOrder(1L, 4L);
+    }
+
+    @Test
+    void toleratesATypoInLongerTerms() {
+        assertThat(ids(index.search("Camarp", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void matchesDescriptionWords() {
+        assertThat(ids(index.search("coupe", 10))).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void respectsLimit() {
+        assertThat(index.search("toyota", 1)).hasSize(1);
+        assertThat(index.search("toyota", 0)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void upsertReplacesThePreviousDocument() {
+        assertThat(ids(index.search("mustang", 10))).containsExactly(3L);
+
+        index.upsert(List.of(vehicle(3L, "Ford", "Focus", "Red", "Hatchback")));
+
+        assertThat(index.search("mustang", 10)).isEmpty();
+        assertThat(ids(index.search("focus", 10))).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void removedVehiclesAreNotFound() {
+        index.remove(List.of(1L));
+
+        assertThat(ids(index.search("toyota", 10))).containsExactly(4L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void clearMarksTheIndexAsLoading() {
+        index.clear();
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.size()).isZero();
+        assertThat(index.search("toyota", 10)).isEmpty();
+    }
+
+    private static VehicleDTO vehicle(Long id, String make, String model, String color, String description) {
+        VehicleDTO vehicle = new VehicleDTO();
+        vehicle.setId(id);
+        vehicle.setMake(make);
+        vehicle.setModel(model);
+        vehicle.setColor(color);
+        vehicle.setVin("VIN" + id);
+        vehicle.setDescription(description);
+        return vehicle;
+    }
+
+    private static List<Long> ids(List<VehicleDTO> vehicles) {
+        return vehicles.stream().map(VehicleDTO::getId).toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderItemDTO;
+import com.stockmanage.automobile.exception.VehicleUnavailableException;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Many customers ordering the same few vehicles at once: each vehicle must be sold
+ * exactly once, and every other order for it must be refused as unavailable.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConcurrentOrderTest {
+
+    private static final int VEHICLES = 4;
+
+    private static final int ORDERS = 48;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void eachVehicleIsSoldToExactlyOneOrder() throws Exception {
+        User customer = userRepository.save(TestEntities.user("concurrent-orders", User.Role.CUSTOMER));
+        List<Long> vehicleIds = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleIds.add(vehicleRepository.save(TestEntities.vehicle("CONCURRENT-" + i)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Long, List<Future<OrderDTO>>> attemptsByVehicle = new HashMap<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                Long vehicleId = vehicleIds.get(i % VEHICLES);
+                Callable<OrderDTO> attempt = () -> {
+                    start.await();
+                    return orderService.createOrder(order(customer.getId(), vehicleId));
+                };
+                attemptsByVehicle.computeIfAbsent(vehicleId, id -> new ArrayList<>()).add(executor.submit(attempt));
+            }
+            start.countDown();
+
+            for (Long vehicleId : vehicleIds) {
+                int sold = 0;
+                for (Future<OrderDTO> attempt : attemptsByVehicle.get(vehicleId)) {
+                    try {
+                        attempt.get(60, TimeUnit.SECONDS);
+                        sold++;
+                    } catch (ExecutionException e) {
+                        assertThat(e.getCause())
+                                .isInstanceOf(VehicleUnavailableException.class)
+                                .extracting(cause -> ((VehicleUnavailableException) cause).getVehicleId())
+                                .isEqualTo(vehicleId);
+                    }
+                }
+                assertThat(sold).as("orders placed for vehicle %d", vehicleId).isEqualTo(1);
+                assertThat(vehicleRepository.findById(vehicleId).orElseThrow().getAvailable()).isFalse();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void orderForAMissingVehicleIsRejected() {
+        User customer = userRepository.save(TestEntities.user("missing-vehicle", User.Role.CUSTOMER));
+        Vehicle vehicle = vehicleRepository.save(TestEntities.vehicle("MISSING-VEHICLE-1"));
+        OrderDTO order = order(customer.getId(), vehicle.getId());
+        OrderItemDTO missing = new OrderItemDTO();
+        missing.setVehicleId(Long.MAX_VALUE);
+        order.getOrderItems().add(missing);
+
+        assertThatThrownBy(() -> orderService.createOrder(order))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining(String.valueOf(Long.MAX_VALUE));
+        assertThat(vehicleRepository.findById(vehicle.getId()).orElseThrow().getAvailable()).isTrue();
+    }
+
+    private static OrderDTO order(Long userId, Long vehicleId) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setVehicleId(vehicleId);
+        item.setQuantity(1);
+        OrderDTO order = new OrderDTO();
+        order.setUserId(userId);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        return order;
+    }
+}
@@ -0,0 +1,120 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.dto.MaintenanceDTO;
+import com.stockmanage.automobile.dto.MaintenanceForecastDTO;
+import com.stockmanage.automobile.dto.VehicleDTO;
+import com.stockmanage.automobile.dto.VehicleForecastDTO;
+import com.stockmanage.automobile.model.Maintenance;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.MaintenanceRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The forecast recomputed for changed vehicles only must equal a forecast computed
+ * from scratch over the same data.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MaintenanceForecastServiceTest {
+
+    @Autowired
+    private MaintenanceForecastService forecastService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Test
+    void incrementalRecomputeMatchesFullRecompute() {
+        LocalDate today = LocalDate.now();
+        List<Vehicle> vehicles = new ArrayList<>();
+        List<Maintenance> focusRecords = new ArrayList<>();
+        String[][] models = {{"Toyota", "Corolla"}, {"Toyota", "Corolla"}, {"Toyota", "Corolla"},
+                {"Ford", "Focus"}, {"Ford", "Focus"}, {"Honda", "Civic"}, {"Honda", "Civic"}};
+        for (int i = 0; i < models.length; i++) {
+            Vehicle vehicle = TestEntities.vehicle("FORECAST-" + i);
+            vehicle.setMake(models[i][0]);
+            vehicle.setModel(models[i][1]);
+            vehicle = vehicleRepository.save(vehicle);
+            vehicles.add(vehicle);
+            for (int service = 0; service < 4; service++) {
+                Maintenance oilChange = maintenanceRepository.save(TestEntities.maintenance(vehicle, "OIL_CHANGE",
+                        today.minusDays(900 - service * (170 + 10L * i)), Maintenance.MaintenanceStatus.COMPLETED));
+                if ("Focus".equals(vehicle.getModel())) {
+                    focusRecords.add(oilChange);
+                }
+            }
+            maintenanceRepository.save(TestEntities.maintenance(vehicle, "BRAKES", today.minusDays(400 + 30L * i),
+                    Maintenance.MaintenanceStatus.COMPLETED));
+        }
+
+        MaintenanceForecastDTO before = forecastService.getMaintenanceForecast(true);
+
+        // A new service, a deleted one, a vehicle moving to another model and a newly serviced make
+        maintenanceService.createMaintenance(record(vehicles.get(0).getId(), "OIL_CHANGE", today.minusDays(10),
+                "95.00"));
+        maintenanceService.deleteMaintenance(focusRecords.get(1).getId());
+        VehicleDTO civic = vehicleService.getVehicleById(vehicles.get(6).getId());
+        civic.setModel("Accord");
+        vehicleService.updateVehicle(civic.getId(), civic);
+        Vehicle rio = TestEntities.vehicle("FORECAST-RIO");
+        rio.setMake("Kia");
+        rio.setModel("Rio");
+        rio = vehicleRepository.save(rio);
+        maintenanceService.createMaintenance(record(rio.getId(), "OIL_CHANGE", today.minusDays(200), "60.00"));
+        maintenanceService.createMaintenance(record(rio.getId(), "OIL_CHANGE", today.minusDays(20), "65.00"));
+        vehicles.add(rio);
+
+        MaintenanceForecastDTO incremental = forecastService.getMaintenanceForecast(false);
+        Map<Long, VehicleForecastDTO> incrementalVehicles = vehicleForecasts(vehicles);
+        MaintenanceForecastDTO full = forecastService.getMaintenanceForecast(true);
+        Map<Long, VehicleForecastDTO> fullVehicles = vehicleForecasts(vehicles);
+
+        assertThat(incremental.getGroups()).extracting(MaintenanceForecastDTO.Group::getModel)
+                .contains("Accord", "Rio");
+        assertThat(incremental.getVehicles()).isEqualTo(before.getVehicles() + 1);
+        assertThat(incremental).usingRecursiveComparison().ignoringFields("computedAt").isEqualTo(full);
+        assertThat(incrementalVehicles).isEqualTo(fullVehicles);
+    }
+
+    private Map<Long, VehicleForecastDTO> vehicleForecasts(List<Vehicle> vehicles) {
+        Map<Long, VehicleForecastDTO> forecasts = new HashMap<>();
+        for (Vehicle vehicle : vehicles) {
+            forecasts.put(vehicle.getId(), forecastService.getVehicleForecast(vehicle.getId()));
+        }
+        return forecasts;
+    }
+
+    private static MaintenanceDTO record(Long vehicleId, String type, LocalDate serviceDate, String cost) {
+        MaintenanceDTO record = new MaintenanceDTO();
+        record.setVehicleId(vehicleId);
+        record.setMaintenanceType(type);
+        record.setServiceDate(serviceDate);
+        record.setCost(new BigDecimal(cost));
+        record.setServiceProvider("Dealer");
+        record.setStatus(Maintenance.MaintenanceStatus.COMPLETED);
+        return record;
+    }
+}
@@ -0,0 +1,103 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.OrderRepository;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order listings read headers with one query and items in batches of up to 500
+ * orders, so listing 10 or 500 orders must run the same statements. The test starts
+ * on an empty database, so the unfiltered listings see exactly its orders.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class OrderReadStatementsTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2031, 5, 1, 10, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingsRunTheSameStatementsForTenAndFiveHundredOrders() {
+        User customer = userRepository.save(TestEntities.user("order-reads", User.Role.CUSTOMER));
+        Vehicle first = vehicleRepository.save(TestEntities.vehicle("ORDER-READS-1"));
+        Vehicle second = vehicleRepository.save(TestEntities.vehicle("ORDER-READS-2"));
+
+        addOrders(customer, first, second, 0, 10);
+        Map<String, Long> few = countStatements(customer.getId());
+        addOrders(customer, first, second, 10, 500);
+        Map<String, Long> many = countStatements(customer.getId());
+
+        assertThat(orderService.getOrdersByUserId(customer.getId()))
+                .hasSize(500)
+                .allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(2));
+        assertThat(few.values()).allMatch(count -> count > 0);
+        assertThat(many).isEqualTo(few);
+    }
+
+    private void addOrders(User customer, Vehicle first, Vehicle second, int from, int to) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            orders.add(TestEntities.order("ORDER-READS-" + i, customer, ORDER_DATE.plusHours(i),
+                    Order.OrderStatus.CONFIRMED, first, second));
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    private Map<String, Long> countStatements(Long userId) {
+        LocalDateTime from = ORDER_DATE;
+        LocalDateTime to = ORDER_DATE.plusYears(1);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("all", statements(() -> orderService.getAllOrders()));
+        counts.put("by status", statements(() -> orderService.getOrdersByStatus(Order.OrderStatus.CONFIRMED)));
+        counts.put("by user", statements(() -> orderService.getOrdersByUserId(userId)));
+        counts.put("by date range", statements(() -> orderService.getOrdersByDateRange(from, to)));
+        counts.put("all page", statements(() -> orderService.getAllOrders(null, 500)));
+        counts.put("by status page", statements(() ->
+                orderService.getOrdersByStatus(Order.OrderStatus.CONFIRMED, null, 500)));
+        counts.put("by user page", statements(() -> orderService.getOrdersByUserId(userId, null, 500)));
+        counts.put("by date range page", statements(() -> orderService.getOrdersByDateRange(from, to, null, 500)));
+        return counts;
+    }
+
+    private long statements(Runnable read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,113 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.controller.OrderController;
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderItemDTO;
+import com.stockmanage.automobile.dto.OrderStatsDTO;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.reporting.RollupBucket;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A full update (PUT) may only move an order's status the way the status endpoint
+ * does, so a cancelled order cannot be reopened after its vehicle was sold again.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderUpdateTest {
+
+    // Only the reopened order and its replacement are placed on this day
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2032, 6, 1, 12, 0);
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void cancelledOrderCannotBeReopenedByPut() {
+        User first = userRepository.save(TestEntities.user("reopen-first", User.Role.CUSTOMER));
+        User second = userRepository.save(TestEntities.user("reopen-second", User.Role.CUSTOMER));
+        Vehicle vehicle = vehicleRepository.save(TestEntities.vehicle("REOPEN-1"));
+
+        OrderDTO cancelled = orderService.createOrder(order(first.getId(), vehicle.getId(), ORDER_DATE));
+        ResponseEntity<?> cancel = orderController.updateOrder(cancelled.getId(),
+                update(Order.OrderStatus.CANCELLED, "customer changed their mind"));
+        assertThat(cancel.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(vehicleRepository.findById(vehicle.getId()).orElseThrow().getAvailable()).isTrue();
+
+        // The released vehicle is sold to someone else
+        orderService.createOrder(order(second.getId(), vehicle.getId(), ORDER_DATE));
+
+        ResponseEntity<?> reopen = orderController.updateOrder(cancelled.getId(),
+                update(Order.OrderStatus.PENDING, "reopened"));
+
+        assertThat(reopen.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        OrderDTO stored = orderService.getOrderById(cancelled.getId());
+        assertThat(stored.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(stored.getNotes()).isEqualTo("customer changed their mind");
+
+        OrderStatsDTO day = orderService.getOrderStats(ORDER_DATE.toLocalDate(), ORDER_DATE.toLocalDate(),
+                RollupBucket.DAY).get(0);
+        assertThat(day.getByStatus().get("CANCELLED").getOrderCount()).isEqualTo(1);
+        assertThat(day.getByStatus().get("PENDING").getOrderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void putWithTheCurrentStatusUpdatesTheOtherFields() {
+        User customer = userRepository.save(TestEntities.user("same-status", User.Role.CUSTOMER));
+        Vehicle vehicle = vehicleRepository.save(TestEntities.vehicle("SAME-STATUS-1"));
+        OrderDTO placed = orderService.createOrder(order(customer.getId(), vehicle.getId(), LocalDateTime.now()));
+
+        ResponseEntity<?> response = orderController.updateOrder(placed.getId(),
+                update(Order.OrderStatus.PENDING, "call before delivery"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        OrderDTO stored = orderService.getOrderById(placed.getId());
+        assertThat(stored.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(stored.getNotes()).isEqualTo("call before delivery");
+        assertThat(vehicleRepository.findById(vehicle.getId()).orElseThrow().getAvailable()).isFalse();
+    }
+
+    private static OrderDTO order(Long userId, Long vehicleId, LocalDateTime orderDate) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setVehicleId(vehicleId);
+        item.setQuantity(1);
+        OrderDTO order = new OrderDTO();
+        order.setUserId(userId);
+        order.setOrderDate(orderDate);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        return order;
+    }
+
+    private static OrderDTO update(Order.OrderStatus status, String notes) {
+        OrderDTO update = new OrderDTO();
+        update.setStatus(status);
+        update.setNotes(notes);
+        update.setPaymentMethod("CARD");
+        return update;
+    }
+}
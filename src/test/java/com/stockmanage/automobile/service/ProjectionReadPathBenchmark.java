@@ -0,0 +1,274 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.Benchmark;
+import com.stockmanage.automobile.Benchmarks;
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.dto.MaintenanceDTO;
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderItemDTO;
+import com.stockmanage.automobile.dto.UserDTO;
+import com.stockmanage.automobile.model.Maintenance;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.OrderItem;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.OrderItemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and allocation of the read endpoints on the DTO projections, against
+ * the entity path they replaced: load managed entities with their eager
+ * associations outside a transaction, in a session bound the way open-in-view
+ * bound it for the request, and convert them field by field.
+ *
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=ProjectionReadPathBenchmark -Dbenchmark.orders=10000
+ * </pre>
+ *
+ * The full-list endpoints return every row, so keep the order count moderate; the
+ * entity path loads each order's items with a query of its own.
+ */
+@Benchmark
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjectionReadPathBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionReadPathBenchmark.class);
+
+    private static final int PAGE = 50;
+
+    private static final int SAVE_BATCH = 1000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        Benchmarks.usePostgresIfAvailable(registry);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void projectionsAgainstEntities() {
+        int orders = Benchmarks.intProperty("benchmark.orders", 10_000);
+        int warmups = Benchmarks.intProperty("benchmark.warmups", 5);
+        int iterations = Benchmarks.intProperty("benchmark.iterations", 20);
+        seed(orders);
+        Long orderId = orderService.getAllOrders(null, 1).getItems().get(0).getId();
+
+        logger.info(String.format("%,d orders, %,d maintenance records, %,d users", orders, orders, orders / 10));
+        logger.info(String.format("%-30s %-11s %s", "endpoint", "read path", Benchmarks.Measurement.header()));
+        compare(warmups, iterations, "GET /api/orders?limit=50",
+                () -> orderService.getAllOrders(null, PAGE).getItems(),
+                () -> entityOrders(entityManager.createQuery("SELECT o FROM Order o ORDER BY o.id", Order.class)
+                        .setMaxResults(PAGE).getResultList()));
+        compare(warmups, iterations, "GET /api/orders/{id}",
+                () -> List.of(orderService.getOrderById(orderId)),
+                () -> entityOrders(List.of(entityManager.find(Order.class, orderId))));
+        compare(warmups, iterations, "GET /api/orders",
+                () -> orderService.getAllOrders(),
+                () -> entityOrders(entityManager.createQuery("SELECT o FROM Order o", Order.class).getResultList()));
+        compare(warmups, iterations, "GET /api/maintenance?limit=50",
+                () -> maintenanceService.getAllMaintenance(null, PAGE).getItems(),
+                () -> entityMaintenance(entityManager.createQuery("SELECT m FROM Maintenance m ORDER BY m.id",
+                        Maintenance.class).setMaxResults(PAGE).getResultList()));
+        compare(warmups, iterations, "GET /api/maintenance",
+                () -> maintenanceService.getAllMaintenance(),
+                () -> entityMaintenance(entityManager.createQuery("SELECT m FROM Maintenance m", Maintenance.class)
+                        .getResultList()));
+        compare(warmups, iterations, "GET /api/users?limit=50",
+                () -> userService.getAllUsers(null, PAGE).getItems(),
+                () -> entityUsers(entityManager.createQuery("SELECT u FROM User u ORDER BY u.id", User.class)
+                        .setMaxResults(PAGE).getResultList()));
+        compare(warmups, iterations, "GET /api/users",
+                () -> userService.getAllUsers(),
+                () -> entityUsers(entityManager.createQuery("SELECT u FROM User u", User.class).getResultList()));
+    }
+
+    /**
+     * Checks both paths return the same DTOs, then times each.
+     */
+    private <T> void compare(int warmups, int iterations, String endpoint, Supplier<List<T>> projection,
+                             Supplier<List<T>> entities) {
+        Supplier<List<T>> entityPath = () -> inOpenSession(entities);
+        assertThat(entityPath.get()).as(endpoint).containsExactlyInAnyOrderElementsOf(projection.get());
+
+        Benchmarks.Measurement projected = Benchmarks.measure(warmups, iterations, projection);
+        Benchmarks.Measurement loaded = Benchmarks.measure(warmups, iterations, entityPath);
+        logger.info(String.format("%-30s %-11s %s", endpoint, "projection", projected));
+        logger.info(String.format("%-30s %-11s %s", "", "entities", loaded));
+    }
+
+    private <T> T inOpenSession(Supplier<T> read) {
+        EntityManager session = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(session));
+        try {
+            return read.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            session.close();
+        }
+    }
+
+    private void seed(int orders) {
+        Benchmarks.clear(jdbcTemplate, "order_items", "orders", "maintenance", "users", "vehicles");
+        int customers = Math.max(1, orders / 10);
+        List<User> users = new ArrayList<>();
+        List<Vehicle> vehicles = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < customers; i++) {
+                User user = TestEntities.user("bench-" + i, User.Role.CUSTOMER);
+                entityManager.persist(user);
+                users.add(user);
+                Vehicle vehicle = TestEntities.vehicle(String.format("BENCH%012d", i));
+                vehicle.setModel("Model" + i % 40);
+                entityManager.persist(vehicle);
+                vehicles.add(vehicle);
+            }
+        });
+
+        LocalDateTime firstOrder = LocalDateTime.of(2026, 1, 1, 9, 0);
+        LocalDate firstService = LocalDate.of(2025, 1, 1);
+        for (int from = 0; from < orders; from += SAVE_BATCH) {
+            int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < Math.min(start + SAVE_BATCH, orders); i++) {
+                    Vehicle vehicle = entityManager.getReference(Vehicle.class, vehicles.get(i % customers).getId());
+                    Order order = TestEntities.order("BENCH-" + i, entityManager.getReference(User.class,
+                                    users.get(i % customers).getId()), firstOrder.plusMinutes(i),
+                            Order.OrderStatus.values()[i % Order.OrderStatus.values().length], vehicle,
+                            entityManager.getReference(Vehicle.class, vehicles.get((i + 1) % customers).getId()));
+                    order.setVehicle(vehicle);
+                    entityManager.persist(order);
+                    entityManager.persist(TestEntities.maintenance(vehicle, "OIL_CHANGE", firstService.plusDays(i % 700), Maintenance.MaintenanceStatus.COMPLETED));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        Benchmarks.analyze(jdbcTemplate, "users", "vehicles", "orders", "order_items", "maintenance");
+    }
+
+    private List<OrderDTO> entityOrders(List<Order> orders) {
+        List<OrderDTO> dtos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderDTO dto = new OrderDTO();
+            dto.setId(order.getId());
+            dto.setOrderNumber(order.getOrderNumber());
+            dto.setUserId(order.getUser().getId());
+            dto.setCustomerName(order.getUser().getFirstName() + " " + order.getUser().getLastName());
+            dto.setOrderDate(order.getOrderDate());
+            dto.setStatus(order.getStatus());
+            dto.setTotalAmount(order.getTotalAmount());
+            dto.setNotes(order.getNotes());
+            dto.setPaymentMethod(order.getPaymentMethod());
+            dto.setDeliveryDate(order.getDeliveryDate());
+            dto.setCreatedAt(order.getCreatedAt());
+            if (order.getVehicle() != null) {
+                dto.setVehicleId(order.getVehicle().getId());
+                dto.setVehicleDetails(details(order.getVehicle()));
+            }
+            List<OrderItemDTO> items = new ArrayList<>();
+            for (OrderItem item : orderItemRepository.findByOrder(order)) {
+                OrderItemDTO itemDTO = new OrderItemDTO();
+                itemDTO.setId(item.getId());
+                itemDTO.setOrderId(order.getId());
+                itemDTO.setVehicleId(item.getVehicle().getId());
+                itemDTO.setVehicleDetails(details(item.getVehicle()));
+                itemDTO.setQuantity(item.getQuantity());
+                itemDTO.setUnitPrice(item.getUnitPrice());
+                itemDTO.setSubtotal(item.getSubtotal());
+                itemDTO.setAdditionalServices(item.getAdditionalServices());
+                itemDTO.setIsPaid(item.getIsPaid());
+                items.add(itemDTO);
+            }
+            items.sort(Comparator.comparing(OrderItemDTO::getId));
+            dto.setOrderItems(items);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private static List<MaintenanceDTO> entityMaintenance(List<Maintenance> records) {
+        List<MaintenanceDTO> dtos = new ArrayList<>(records.size());
+        for (Maintenance maintenance : records) {
+            MaintenanceDTO dto = new MaintenanceDTO();
+            dto.setId(maintenance.getId());
+            dto.setVehicleId(maintenance.getVehicle().getId());
+            dto.setVehicleDetails(details(maintenance.getVehicle()));
+            dto.setMaintenanceType(maintenance.getMaintenanceType());
+            dto.setServiceDate(maintenance.getServiceDate());
+            dto.setNextServiceDate(maintenance.getNextServiceDate());
+            dto.setCost(maintenance.getCost());
+            dto.setDescription(maintenance.getDescription());
+            dto.setServiceProvider(maintenance.getServiceProvider());
+            dto.setMileageAtService(maintenance.getMileageAtService());
+            dto.setStatus(maintenance.getStatus());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private static List<UserDTO> entityUsers(List<User> users) {
+        List<UserDTO> dtos = new ArrayList<>(users.size());
+        for (User user : users) {
+            UserDTO dto = new UserDTO();
+            dto.setId(user.getId());
+            dto.setUsername(user.getUsername());
+            dto.setFirstName(user.getFirstName());
+            dto.setLastName(user.getLastName());
+            dto.setEmail(user.getEmail());
+            dto.setPhone(user.getPhone());
+            dto.setRole(user.getRole());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private static String details(Vehicle vehicle) {
+        return vehicle.getMake() + " " + vehicle.getModel() + " (" + vehicle.getVehicleYear() + ")";
+    }
+}
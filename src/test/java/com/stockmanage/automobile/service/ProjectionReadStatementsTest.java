@@ -0,0 +1,106 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.model.Maintenance;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.MaintenanceRepository;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User and maintenance listings are DTO projections: the number of statements they
+ * run must not grow with the number of rows they return.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjectionReadStatementsTest {
+
+    private static final LocalDate SERVICE_DATE = LocalDate.of(2031, 3, 1);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingsRunTheSameStatementsForTenAndFiveHundredRows() {
+        Vehicle vehicle = vehicleRepository.save(TestEntities.vehicle("PROJECTION-READS"));
+
+        addRows(vehicle, 0, 10);
+        Map<String, Long> few = countStatements(vehicle.getId());
+        addRows(vehicle, 10, 500);
+        Map<String, Long> many = countStatements(vehicle.getId());
+
+        assertThat(few.values()).allMatch(count -> count > 0);
+        assertThat(many).isEqualTo(few);
+    }
+
+    private void addRows(Vehicle vehicle, int from, int to) {
+        List<User> users = new ArrayList<>();
+        List<Maintenance> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            users.add(TestEntities.user("projection-reads-" + i, User.Role.SALESPERSON));
+            records.add(TestEntities.maintenance(vehicle, "OIL_CHANGE", SERVICE_DATE.plusDays(i % 20),
+                    Maintenance.MaintenanceStatus.SCHEDULED));
+        }
+        userRepository.saveAll(users);
+        maintenanceRepository.saveAll(records);
+    }
+
+    private Map<String, Long> countStatements(Long vehicleId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("users", statements(() -> userService.getAllUsers()));
+        counts.put("users by role", statements(() -> userService.getUsersByRole(User.Role.SALESPERSON)));
+        counts.put("users page", statements(() -> userService.getAllUsers(null, 500)));
+        counts.put("users by role page", statements(() ->
+                userService.getUsersByRole(User.Role.SALESPERSON, null, 500)));
+        counts.put("maintenance", statements(() -> maintenanceService.getAllMaintenance()));
+        counts.put("maintenance by vehicle", statements(() -> maintenanceService.getMaintenanceByVehicleId(vehicleId)));
+        counts.put("maintenance by status", statements(() ->
+                maintenanceService.getMaintenanceByStatus(Maintenance.MaintenanceStatus.SCHEDULED)));
+        counts.put("maintenance by date range", statements(() ->
+                maintenanceService.getMaintenanceByDateRange(SERVICE_DATE, SERVICE_DATE.plusDays(30))));
+        counts.put("maintenance page", statements(() -> maintenanceService.getAllMaintenance(null, 500)));
+        counts.put("maintenance by vehicle page", statements(() ->
+                maintenanceService.getMaintenanceByVehicleId(vehicleId, null, 500)));
+        counts.put("maintenance by status page", statements(() ->
+                maintenanceService.getMaintenanceByStatus(Maintenance.MaintenanceStatus.SCHEDULED, null, 500)));
+        return counts;
+    }
+
+    private long statements(Runnable read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,91 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.model.ArchivedOrder;
+import com.stockmanage.automobile.model.ArchivedOrderItem;
+import com.stockmanage.automobile.model.Order;
+import com.stockmanage.automobile.model.User;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.ArchivedOrderItemRepository;
+import com.stockmanage.automobile.repository.ArchivedOrderRepository;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A vehicle sold by an order that has since been archived cannot be deleted; the
+ * archived item still references it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VehicleDeleteTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2020, 5, 4, 9, 30);
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Test
+    void vehicleOfAnArchivedOrderIsNotDeleted() {
+        User customer = userRepository.save(TestEntities.user("vehicle-delete", User.Role.CUSTOMER));
+        Vehicle vehicle = vehicleRepository.save(TestEntities.vehicle("DELETE-ARCHIVED"));
+        archive(910_001L, customer, vehicle);
+
+        assertThatThrownBy(() -> vehicleService.deleteVehicle(vehicle.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("referenced in order items");
+        assertThat(vehicleRepository.existsById(vehicle.getId())).isTrue();
+    }
+
+    @Test
+    void vehicleWithoutOrdersIsDeleted() {
+        Vehicle vehicle = vehicleRepository.save(TestEntities.vehicle("DELETE-UNORDERED"));
+
+        vehicleService.deleteVehicle(vehicle.getId());
+
+        assertThat(vehicleRepository.existsById(vehicle.getId())).isFalse();
+    }
+
+    private void archive(Long orderId, User customer, Vehicle vehicle) {
+        ArchivedOrder order = new ArchivedOrder();
+        order.setId(orderId);
+        order.setOrderNumber("ARCHIVED-" + orderId);
+        order.setUser(customer);
+        order.setOrderDate(ORDER_DATE);
+        order.setStatus(Order.OrderStatus.DELIVERED);
+        order.setTotalAmount(vehicle.getPrice());
+        order.setArchivedAt(ORDER_DATE.plusYears(2));
+        archivedOrderRepository.save(order);
+
+        ArchivedOrderItem item = new ArchivedOrderItem();
+        item.setId(orderId);
+        item.setOrderId(orderId);
+        item.setOrderDate(ORDER_DATE);
+        item.setVehicle(vehicle);
+        item.setQuantity(1);
+        item.setUnitPrice(vehicle.getPrice());
+        item.setSubtotal(vehicle.getPrice());
+        item.setIsPaid(true);
+        archivedOrderItemRepository.save(item);
+    }
+}
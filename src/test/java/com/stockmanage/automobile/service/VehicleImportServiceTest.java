@@ -0,0 +1,100 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.bulk.ImportFormat;
+import com.stockmanage.automobile.dto.BulkImportResultDTO;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "vehicle.import.batch-size=2")
+@ActiveProfiles("test")
+class VehicleImportServiceTest {
+
+    private static final String HEADER = "make,model,vehicle_year,vin,color,price,mileage,fuel_type,"
+            + "transmission_type,engine_size,description\n";
+
+    @Autowired
+    private VehicleImportService importService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void importsValidCsvRowsAndReportsRejectedOnesByLine() throws IOException {
+        String csv = HEADER
+                + "Toyota,Corolla,2020,CSV-0001,Silver,18000,12000,petrol,automatic,1.8L,Plain\n"
+                + "Ford,Focus,2019,CSV-0002,Blue,15000,30000,DIESEL,MANUAL,2.0L,\"Quoted, with comma\n"
+                + "and a line break\"\n"
+                + "Kia,Rio,2018,,Red,9000,40000,PETROL,MANUAL,1.2L,Missing VIN\n"
+                + "Kia,Ceed,2021,CSV-0001,White,21000,5000,PETROL,MANUAL,1.4L,Duplicate in upload\n"
+                + "BMW,X1,2022,CSV-0003,Black,abc,1000,PETROL,AUTOMATIC,2.0L,Bad price\n"
+                + "Audi,A3,2023,CSV-0004,Grey,30000,100,HYBRID,AUTOMATIC,1.5L,Last row\n";
+
+        BulkImportResultDTO result = importService.importVehicles(stream(csv), ImportFormat.CSV);
+
+        assertThat(result.getReceived()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors())
+                .extracting(BulkImportResultDTO.RowError::getLine, BulkImportResultDTO.RowError::getMessage)
+                .containsExactly(
+                        tuple(5L, "VIN is required"),
+                        tuple(6L, "Duplicate VIN in upload"),
+                        tuple(7L, "Price must be a number"));
+        assertThat(vehicleRepository.findExistingVins(List.of("CSV-0001", "CSV-0002", "CSV-0003", "CSV-0004")))
+                .containsExactlyInAnyOrder("CSV-0001", "CSV-0002", "CSV-0004");
+    }
+
+    @Test
+    void rejectsVinsThatAlreadyExist() throws IOException {
+        String row = "Mazda,3,2020,EXIST-0001,Red,17000,20000,PETROL,MANUAL,2.0L,First\n";
+        importService.importVehicles(stream(HEADER + row), ImportFormat.CSV);
+
+        BulkImportResultDTO result = importService.importVehicles(stream(HEADER + row), ImportFormat.CSV);
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getErrors())
+                .extracting(BulkImportResultDTO.RowError::getVin, BulkImportResultDTO.RowError::getMessage)
+                .containsExactly(tuple("EXIST-0001", "VIN already exists"));
+    }
+
+    @Test
+    void rowThatFailsInTheDatabaseOnlyRejectsItself() throws IOException {
+        // The description column holds 1,000 characters, so the second row of the batch fails on insert
+        String ndjson = ndjson("ROW-0001", "ok") + "\n"
+                + ndjson("ROW-0002", "x".repeat(1001)) + "\n"
+                + "\n"
+                + "{\"make\": \"Honda\", \"fuelType\": \"STEAM\"}\n"
+                + ndjson("ROW-0003", "ok") + "\n";
+
+        BulkImportResultDTO result = importService.importVehicles(stream(ndjson), ImportFormat.NDJSON);
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors())
+                .extracting(BulkImportResultDTO.RowError::getLine, BulkImportResultDTO.RowError::getVin)
+                .containsExactlyInAnyOrder(tuple(2L, "ROW-0002"), tuple(4L, null));
+        assertThat(vehicleRepository.findExistingVins(List.of("ROW-0001", "ROW-0002", "ROW-0003")))
+                .containsExactlyInAnyOrder("ROW-0001", "ROW-0003");
+    }
+
+    private static String ndjson(String vin, String description) {
+        return "{\"make\":\"Honda\",\"model\":\"Civic\",\"vehicleYear\":2020,\"vin\":\"" + vin + "\","
+                + "\"color\":\"Red\",\"price\":\"19000\",\"mileage\":15000,\"fuelType\":\"PETROL\","
+                + "\"transmissionType\":\"MANUAL\",\"engineSize\":\"1.5L\",\"description\":\"" + description + "\"}";
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,110 @@
+package com.stockmanage.automobile.service;
+
+import com.stockmanage.automobile.TestEntities;
+import com.stockmanage.automobile.dto.TelemetryIngestResultDTO;
+import com.stockmanage.automobile.model.Vehicle;
+import com.stockmanage.automobile.repository.RecordingStatementInspector;
+import com.stockmanage.automobile.repository.VehicleRepository;
+import com.stockmanage.automobile.telemetry.MileageWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Flushed by the tests only
+        "vehicle.telemetry.flush-interval=1h",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.stockmanage.automobile.repository.RecordingStatementInspector"
+})
+@ActiveProfiles("test")
+class VehicleTelemetryServiceTest {
+
+    // More vehicles than the change listeners read per statement
+    private static final int VEHICLES = 2500;
+
+    // A chunk of 1,000 ids, padded to the next power of two by in_clause_parameter_padding
+    private static final int MAX_IN_PARAMETERS = 1024;
+
+    @Autowired
+    private VehicleTelemetryService telemetryService;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private MileageWriter mileageWriter;
+
+    @Test
+    void invalidLinesAreCountedAndReportedByLine() throws IOException {
+        String ndjson = "{\"vehicleId\": 1, \"odometer\": 500}\n"
+                + "null\n"
+                + "\n"
+                + "42\n"
+                + "{\"vehicleId\": 1}\n"
+                + "{\"vehicleId\": 1, \"odometer\": -5}\n"
+                + "{\"vehicleId\": \n";
+
+        TelemetryIngestResultDTO result = telemetryService.ingest(stream(ndjson));
+
+        assertThat(result.getReceived()).isEqualTo(6);
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getInvalid()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(TelemetryIngestResultDTO.LineError::getLine)
+                .containsExactly(2L, 4L, 5L, 6L, 7L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("vehicleId and odometer are required");
+        assertThat(result.getErrors().get(2).getMessage()).isEqualTo("vehicleId and odometer are required");
+        assertThat(result.getErrors().get(3).getMessage()).isEqualTo("odometer must not be negative");
+        // Leaves the buffer empty for the flush test
+        mileageWriter.flush();
+    }
+
+    @Test
+    void flushLargerThanOneChunkRefreshesEveryVehicle() throws IOException {
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicles.add(TestEntities.vehicle(String.format("FLUSH-%05d", i)));
+        }
+        vehicles = vehicleRepository.saveAll(vehicles);
+        Long first = vehicles.get(0).getId();
+        Long last = vehicles.get(VEHICLES - 1).getId();
+        // Cached before the flush, so the reads below only see the new mileage if the listener ran
+        assertThat(vehicleService.getVehicleById(first).getMileage()).isEqualTo(10000);
+        assertThat(vehicleService.getVehicleById(last).getMileage()).isEqualTo(10000);
+
+        StringBuilder readings = new StringBuilder();
+        for (Vehicle vehicle : vehicles) {
+            readings.append("{\"vehicleId\": ").append(vehicle.getId()).append(", \"odometer\": 25000}\n");
+        }
+        TelemetryIngestResultDTO result = telemetryService.ingest(stream(readings.toString()));
+        assertThat(result.getAccepted()).isEqualTo(VEHICLES);
+
+        RecordingStatementInspector.clear();
+        assertThat(mileageWriter.flush()).isEqualTo(VEHICLES);
+
+        assertThat(vehicleService.getVehicleById(first).getMileage()).isEqualTo(25000);
+        assertThat(vehicleService.getVehicleById(last).getMileage()).isEqualTo(25000);
+        List<String> lookups = RecordingStatementInspector.statements().stream()
+                .filter(sql -> sql.contains(" in ("))
+                .toList();
+        // Vehicles, then the maintenance records of the same vehicles, three chunks each
+        assertThat(lookups).hasSize(6);
+        assertThat(lookups).allSatisfy(sql ->
+                assertThat(sql.chars().filter(c -> c == '?').count()).isLessThanOrEqualTo(MAX_IN_PARAMETERS));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.stockmanage.automobile.service.impl;
+
+import com.stockmanage.automobile.dto.OrderDTO;
+import com.stockmanage.automobile.dto.OrderIntakeDTO;
+import com.stockmanage.automobile.dto.OrderResultDTO;
+import com.stockmanage.automobile.exception.IntakeQueueFullException;
+import com.stockmanage.automobile.repository.UserRepository;
+import com.stockmanage.automobile.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceImplTest {
+
+    private static final int MAX_TICKETS = 2;
+
+    private static final int QUEUE_CAPACITY = 8;
+
+    private OrderService orderService;
+    private OrderIntakeServiceImpl intake;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.existsById(any())).thenReturn(true);
+        when(orderService.createOrders(anyList())).thenAnswer(invocation -> {
+            List<OrderDTO> orders = invocation.getArgument(0);
+            return orders.stream()
+                    .map(order -> new OrderResultDTO(201, order, null))
+                    .collect(Collectors.toList());
+        });
+        intake = new OrderIntakeServiceImpl(orderService, userRepository, true, QUEUE_CAPACITY, 1, 50,
+                Duration.ofSeconds(5), MAX_TICKETS, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        intake.stopWorkers();
+    }
+
+    @Test
+    void queuedTicketsOutnumberingTheCacheAreNotEvicted() {
+        List<OrderIntakeDTO> tickets = new ArrayList<>();
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            tickets.add(intake.submit(order(i), null));
+        }
+
+        for (OrderIntakeDTO ticket : tickets) {
+            assertThat(intake.getIntake(ticket.getId()).getState()).isEqualTo(OrderIntakeDTO.State.QUEUED);
+        }
+        assertThatThrownBy(() -> intake.submit(order(99), null)).isInstanceOf(IntakeQueueFullException.class);
+    }
+
+    @Test
+    void retryOfAQueuedOrderReturnsItsTicketAfterManyOtherKeys() {
+        OrderIntakeDTO first = intake.submit(order(0), "key-0");
+        for (int i = 1; i < QUEUE_CAPACITY; i++) {
+            intake.submit(order(i), "key-" + i);
+        }
+
+        assertThat(intake.submit(order(0), "key-0").getId()).isEqualTo(first.getId());
+        assertThatThrownBy(() -> intake.submit(order(1), "key-0")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void placedOrdersMoveToTheBoundedCache() throws InterruptedException {
+        List<OrderIntakeDTO> tickets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tickets.add(intake.submit(order(i), "placed-" + i));
+        }
+
+        intake.startWorkers();
+        OrderIntakeDTO last = tickets.get(tickets.size() - 1);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (intake.getIntake(last.getId()).getState() != OrderIntakeDTO.State.COMPLETED) {
+            assertThat(System.nanoTime()).as("queued orders placed in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+
+        OrderIntakeDTO completed = intake.getIntake(last.getId());
+        assertThat(completed.getResult().getStatus()).isEqualTo(201);
+        assertThat(completed.getSubmittedAt()).isEqualTo(last.getSubmittedAt());
+        // A retry of a placed order still answers with its ticket
+        assertThat(intake.submit(order(3), "placed-3").getId()).isEqualTo(last.getId());
+    }
+
+    private static OrderDTO order(int n) {
+        OrderDTO order = new OrderDTO();
+        order.setUserId(1L);
+        order.setNotes("order " + n);
+        return order;
+    }
+}
@@ -0,0 +1,124 @@
+package com.stockmanage.automobile.telemetry;
+
+import com.stockmanage.automobile.telemetry.MileageBuffer.Reading;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MileageBufferTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void keepsOnlyTheLatestReadingPerVehicle() {
+        MileageBuffer buffer = new MileageBuffer(4, 100);
+
+        buffer.offer(reading(1, 100, 10));
+        buffer.offer(reading(1, 150, 20));
+        // Arrives late: older than the buffered reading despite the higher odometer
+        buffer.offer(reading(1, 400, 5));
+        // Same time, higher odometer wins
+        buffer.offer(reading(1, 160, 20));
+        buffer.offer(reading(2, 70, 1));
+
+        assertThat(buffer.drain()).containsExactlyInAnyOrder(reading(1, 160, 20), reading(2, 70, 1));
+        assertThat(buffer.drain()).isEmpty();
+    }
+
+    @Test
+    void refusesNewVehiclesWhenFullButTakesBufferedOnes() {
+        MileageBuffer buffer = new MileageBuffer(1, 3);
+
+        assertThat(buffer.offer(reading(1, 10, 1))).isTrue();
+        assertThat(buffer.offer(reading(2, 10, 1))).isTrue();
+        assertThat(buffer.offer(reading(3, 10, 1))).isTrue();
+        assertThat(buffer.offer(reading(4, 10, 1))).isFalse();
+        assertThat(buffer.offer(reading(2, 20, 2))).isTrue();
+
+        assertThat(buffer.drain()).hasSize(3).contains(reading(2, 20, 2));
+        assertThat(buffer.offer(reading(4, 10, 1))).isTrue();
+    }
+
+    @Test
+    void restoreKeepsReadingsThatArrivedLater() {
+        MileageBuffer buffer = new MileageBuffer(4, 100);
+        buffer.offer(reading(1, 100, 10));
+        buffer.offer(reading(2, 200, 10));
+        List<Reading> failed = buffer.drain();
+
+        // While the failed write was in flight
+        buffer.offer(reading(1, 120, 11));
+        buffer.offer(reading(2, 190, 9));
+        buffer.restore(failed);
+
+        assertThat(buffer.drain()).containsExactlyInAnyOrder(reading(1, 120, 11), reading(2, 200, 10));
+    }
+
+    @Test
+    void currentMileageIsTheHigherOfStoredAndBuffered() {
+        MileageBuffer buffer = new MileageBuffer(4, 100);
+        buffer.offer(reading(1, 5000, 1));
+
+        assertThat(buffer.currentMileage(1L, 4000)).isEqualTo(5000);
+        assertThat(buffer.currentMileage(1L, 6000)).isEqualTo(6000);
+        assertThat(buffer.currentMileage(1L, null)).isEqualTo(5000);
+        assertThat(buffer.currentMileage(2L, 4000)).isEqualTo(4000);
+    }
+
+    @Test
+    void concurrentOffersAndDrainsEndWithEachVehiclesLastReading() throws Exception {
+        MileageBuffer buffer = new MileageBuffer(16, 100_000);
+        int threads = 8;
+        int vehiclesPerThread = 250;
+        int readingsPerVehicle = 40;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Map<Long, Reading> written = new HashMap<>();
+        try {
+            Future<?> drainer = executor.submit(() -> {
+                while (writing.get()) {
+                    buffer.drain().forEach(reading -> written.put(reading.vehicleId(), reading));
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long firstVehicle = (long) t * vehiclesPerThread;
+                writers.add(executor.submit(() -> {
+                    for (int r = 1; r <= readingsPerVehicle; r++) {
+                        for (long v = firstVehicle; v < firstVehicle + vehiclesPerThread; v++) {
+                            assertThat(buffer.offer(reading(v, r * 100, r))).isTrue();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            drainer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        buffer.drain().forEach(reading -> written.put(reading.vehicleId(), reading));
+
+        assertThat(written).hasSize(threads * vehiclesPerThread);
+        assertThat(written.values()).allSatisfy(reading ->
+                assertThat(reading.odometer()).isEqualTo(readingsPerVehicle * 100));
+    }
+
+    private static Reading reading(long vehicleId, int odometer, int minutes) {
+        return new Reading(vehicleId, odometer, T0.plusSeconds(60L * minutes));
+    }
+}
@@ -0,0 +1,21 @@
+-- Objects from schema.sql that no entity maps, for the H2 test profile
+CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE IF NOT EXISTS order_rollups (
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    make VARCHAR(50) NOT NULL,
+    stripe SMALLINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start, status, make, stripe)
+);
+
+CREATE TABLE IF NOT EXISTS maintenance_summaries (
+    vehicle_id BIGINT PRIMARY KEY,
+    service_count BIGINT NOT NULL DEFAULT 0,
+    total_cost DECIMAL(14,2) NOT NULL DEFAULT 0,
+    last_service_date DATE
+);